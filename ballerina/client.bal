@@ -14,7 +14,6 @@
 // specific language governing permissions and limitations
 // under the License.
 
-import ballerina/constraint;
 import ballerina/jballerina.java;
 
 # AWS Marketplace metering client.
@@ -52,24 +51,185 @@ public isolated client class Client {
         'class: "io.ballerina.lib.aws.mpm.NativeClientAdaptor"
     } external;
 
+    # Registers the usage of a paid container product and verifies that the customer is entitled to use it. The 
+    # registration is cached per product code and public key version until it expires, unless a nonce is provided.
+    # ```ballerina
+    # mpm:RegisterUsageResponse response = check mpm->registerUsage("<product-code>");
+    # ```
+    # 
+    # + productCode - The unique identifier for the Marketplace product
+    # + publicKeyVersion - The version of the public key with which the signature is signed
+    # + nonce - The nonce to be bound to the signature, which bypasses the cache
+    # + return - A Ballerina `mpm:Error` if there was an error while executing the operation or else `mpm:RegisterUsageResponse`
+    remote function registerUsage(string productCode, int publicKeyVersion = 1, string? nonce = ())
+            returns RegisterUsageResponse|Error =
+    @java:Method {
+        'class: "io.ballerina.lib.aws.mpm.NativeClientAdaptor"
+    } external;
+
     # Retrieves the post-metering records for a set of customers.
     # ```ballerina
     # mpm:BatchMeterUsageResponse response = check mpm->batchMeterUsage(productCode = "<aws-product-code>");
     # ```
     # 
     # + request - The request parameters for the `BatchMeterUsage` operation
+    # + resultMode - The form in which the usage record results are returned, which overrides the `resultMode` of the 
+    # client configurations
     # + return - A Ballerina `mpm:Error` if there was an error while executing the operation or else `mpm:BatchMeterUsageResponse`
-    remote function batchMeterUsage(*BatchMeterUsageRequest request) returns BatchMeterUsageResponse|Error {
-        BatchMeterUsageRequest|constraint:Error validated = constraint:validate(request);
-        if validated is constraint:Error {
-            return error Error(string `Request validation failed: ${validated.message()}`);
-        }
-        return self.externBatchMeterUsage(validated);
+    remote function batchMeterUsage(*BatchMeterUsageRequest request, ResultMode? resultMode = ())
+            returns BatchMeterUsageResponse|Error =
+    @java:Method {
+        'class: "io.ballerina.lib.aws.mpm.NativeClientAdaptor"
+    } external;
+
+    # Meters the usage records of several products in a single operation. The usage records are partitioned by product 
+    # and by the region of the product configured in `fanOut`, and the partitions are metered concurrently, each with 
+    # its own concurrency limit. The outcomes of all the partitions are merged into a single response.
+    # ```ballerina
+    # mpm:ProductUsageResponse response = check mpm->meterProductUsage([
+    #   {productCode: "<aws-product-code>", customerIdentifier: "<customer-id>", dimension: "<dimension>", 
+    #       timestamp: time:utcNow(), quantity: 1}
+    # ]);
+    # ```
+    # 
+    # + usageRecords - The usage records of several products to be metered
+    # + resultMode - The form in which the usage record results are returned, which overrides the `resultMode` of the 
+    # client configurations. In the `COMPACT` result mode, the record index is the index of the usage record in 
+    # `usageRecords`
+    # + return - A Ballerina `mpm:Error` if the request is invalid or else `mpm:ProductUsageResponse`, which reports the 
+    # failed calls of individual partitions
+    remote function meterProductUsage(ProductUsageRecord[] usageRecords, ResultMode? resultMode = ())
+            returns ProductUsageResponse|Error =
+    @java:Method {
+        'class: "io.ballerina.lib.aws.mpm.NativeClientAdaptor"
+    } external;
+
+    # Meters the usage of a single dimension, typically from the hourly loop of a container product.
+    # ```ballerina
+    # mpm:MeterUsageResponse response = check mpm->meterUsage(productCode = "<aws-product-code>", 
+    #       timestamp = time:utcNow(), usageDimension = "<dimension>", usageQuantity = 1);
+    # ```
+    # 
+    # + request - The request parameters for the `MeterUsage` operation
+    # + return - A Ballerina `mpm:Error` if there was an error while executing the operation or else `mpm:MeterUsageResponse`
+    remote function meterUsage(*MeterUsageRequest request) returns MeterUsageResponse|Error =
+    @java:Method {
+        'class: "io.ballerina.lib.aws.mpm.NativeClientAdaptor"
+    } external;
+
+    # Submits a single usage record, which is coalesced with other usage records of the same product into a 
+    # `BatchMeterUsage` call.
+    # ```ballerina
+    # mpm:UsageRecordResult result = check mpm->submitUsage("<aws-product-code>", {
+    #   customerIdentifier: "<customer-id>",
+    #   dimension: "<dimension>",
+    #   timestamp: time:utcNow(),
+    #   quantity: 1
+    # });
+    # ```
+    # 
+    # + productCode - The unique identifier for the Marketplace product
+    # + usageRecord - The usage record to be metered
+    # + return - A Ballerina `mpm:Error` if there was an error while processing the usage record or else `mpm:UsageRecordResult`
+    remote function submitUsage(string productCode, UsageRecord usageRecord) returns UsageRecordResult|Error =
+    @java:Method {
+        'class: "io.ballerina.lib.aws.mpm.NativeClientAdaptor"
+    } external;
+
+    # Meters a stream of usage records of a product, typically from a backfill or an end-of-period reconciliation job.
+    # The usage records are pulled lazily and metered in `BatchMeterUsage` calls, while a bounded number of batches
+    # are kept in flight. The results are returned in the order of the usage records, hence the memory usage does not
+    # depend on the number of usage records.
+    # ```ballerina
+    # stream<mpm:UsageRecordResult, mpm:Error?> results = check mpm->meterUsageStream("<aws-product-code>", 
+    #       usageRecords, maxInFlightBatches = 8);
+    # ```
+    # 
+    # + productCode - The unique identifier for the Marketplace product
+    # + usageRecords - The usage records to be metered
+    # + config - The configurations of the usage record stream
+    # + return - A Ballerina `mpm:Error` if the usage record stream could not be prepared or else the stream of 
+    # `mpm:UsageRecordResult`, which ends with an `mpm:Error` if a usage record could not be metered
+    remote function meterUsageStream(string productCode, stream<UsageRecord, error?> usageRecords,
+            *UsageStreamConfig config) returns stream<UsageRecordResult, Error?>|Error {
+        UsageRecordResultStream resultStream = check new (self, productCode, usageRecords, config);
+        return new (resultStream);
     }
 
-    isolated function externBatchMeterUsage(BatchMeterUsageRequest request) returns BatchMeterUsageResponse|Error = 
+    # Meters the usage records of a product from an NDJSON or a CSV file, typically an hourly usage file of a billing 
+    # pipeline. The file is memory-mapped and parsed in parallel, and the usage records are metered in `BatchMeterUsage` 
+    # calls without materializing them as Ballerina values. The outcome of every line is appended to the results file 
+    # as `{"line": 1, "status": "Success", "meteringRecordId": "..."}`, where the status is a `mpm:UsageRecordStatus`, 
+    # `Unprocessed`, `Failed` or `Invalid`. An interrupted ingestion of the same file resumes from its last checkpoint, 
+    # and an ingestion which completed does not meter the file again. A checkpoint is not resumed once its file was 
+    # replaced or modified, in which case the checkpoint has to be removed to ingest the file from the start.
+    # ```ballerina
+    # mpm:UsageFileSummary summary = check mpm->meterUsageFromFile("<aws-product-code>", "/data/usage-2024061300.csv");
+    # ```
+    # 
+    # + productCode - The unique identifier for the Marketplace product
+    # + path - The path of the usage file
+    # + config - The configurations of the usage file ingestion
+    # + return - A Ballerina `mpm:Error` if the usage file could not be read or the results could not be written, or 
+    # else `mpm:UsageFileSummary`
+    remote function meterUsageFromFile(string productCode, string path, *UsageFileConfig config)
+            returns UsageFileSummary|Error =
+    @java:Method {
+        'class: "io.ballerina.lib.aws.mpm.NativeClientAdaptor"
+    } external;
+
+    # Adds a usage record to the aggregation window of its product, customer, dimension and hour. The usage quantities 
+    # of a window are summed per usage-allocation tag set, and metered as a single usage record once the hour has ended.
+    # ```ballerina
+    # check mpm->aggregateUsage("<aws-product-code>", {
+    #   customerIdentifier: "<customer-id>",
+    #   dimension: "<dimension>",
+    #   timestamp: time:utcNow(),
+    #   quantity: 1
+    # });
+    # ```
+    # 
+    # + productCode - The unique identifier for the Marketplace product
+    # + usageRecord - The usage record to be aggregated
+    # + return - A Ballerina `mpm:Error` if the usage record could not be aggregated or else nil
+    remote function aggregateUsage(string productCode, UsageRecord usageRecord) returns Error? =
+    @java:Method {
+        'class: "io.ballerina.lib.aws.mpm.NativeClientAdaptor"
+    } external;
+
+    # Meters every aggregation window whose hour has ended, without waiting for the close delay.
+    # ```ballerina
+    # mpm:UsageRecordResult[] results = check mpm->flushAggregatedUsage();
+    # ```
+    # 
+    # + return - A Ballerina `mpm:Error` if there was an error while metering the aggregated usage or else the 
+    # `mpm:UsageRecordResult` of each metered usage record
+    remote function flushAggregatedUsage() returns UsageRecordResult[]|Error =
+    @java:Method {
+        'class: "io.ballerina.lib.aws.mpm.NativeClientAdaptor"
+    } external;
+
+    # Retrieves and removes the aggregated usage which expired before it could be metered, so that it can be 
+    # reconciled by other means. Up to the 10000 most recently expired usage records are retained.
+    # ```ballerina
+    # mpm:ExpiredUsageRecord[] expiredUsage = mpm.takeExpiredUsage();
+    # ```
+    # 
+    # + return - The `mpm:ExpiredUsageRecord`s, in the order of expiry
+    public isolated function takeExpiredUsage() returns ExpiredUsageRecord[] =
+    @java:Method {
+        'class: "io.ballerina.lib.aws.mpm.NativeClientAdaptor"
+    } external;
+
+    # Retrieves a snapshot of the runtime metrics of the client. When metrics are enabled for the Ballerina program,
+    # the same metrics are also published through the Ballerina observability metrics with the `aws_mpm_` prefix.
+    # ```ballerina
+    # mpm:Metrics metrics = mpm.getMetrics();
+    # ```
+    # 
+    # + return - The `mpm:Metrics` snapshot
+    public isolated function getMetrics() returns Metrics =
     @java:Method {
-        name: "batchMeterUsage",
         'class: "io.ballerina.lib.aws.mpm.NativeClientAdaptor"
     } external;
 
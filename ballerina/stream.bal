@@ -0,0 +1,109 @@
+// Copyright (c) 2024 WSO2 LLC. (http://www.wso2.com).
+//
+// WSO2 LLC. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/jballerina.java;
+
+# Pulls usage records lazily from an input stream and yields their results in the order of the usage records, while
+# the native pipeline keeps a bounded number of `BatchMeterUsage` calls in flight.
+class UsageRecordResultStream {
+    private final stream<UsageRecord, error?> usageRecords;
+    private boolean inputExhausted = false;
+
+    isolated function init(Client 'client, string productCode, stream<UsageRecord, error?> usageRecords,
+            UsageStreamConfig config) returns Error? {
+        self.usageRecords = usageRecords;
+        check self.externInit('client, productCode, config);
+    }
+
+    public function next() returns record {|UsageRecordResult value;|}|Error? {
+        while true {
+            UsageRecordResult? result = check self.externPoll();
+            if result is UsageRecordResult {
+                return {value: result};
+            }
+            if !self.inputExhausted && self.externHasCapacity() {
+                record {|UsageRecord value;|}|error? next = self.usageRecords.next();
+                if next is error {
+                    return error Error(string `Error occurred while reading the usage record stream: ${next.message()}`,
+                        next);
+                }
+                if next is () {
+                    self.inputExhausted = true;
+                    self.externFlush();
+                } else {
+                    check self.externAdd(next.value);
+                }
+                continue;
+            }
+            // the in-flight window is full or the input is exhausted, hence wait for the oldest batch
+            boolean awaited = self.externAwait();
+            if !awaited {
+                return;
+            }
+        }
+    }
+
+    public function close() returns Error? {
+        self.externClose();
+        error? result = self.usageRecords.close();
+        if result is error {
+            return error Error(string `Error occurred while closing the usage record stream: ${result.message()}`,
+                result);
+        }
+    }
+
+    isolated function externInit(Client 'client, string productCode, UsageStreamConfig config) returns Error? =
+    @java:Method {
+        name: "initUsageStream",
+        'class: "io.ballerina.lib.aws.mpm.NativeClientAdaptor"
+    } external;
+
+    isolated function externHasCapacity() returns boolean =
+    @java:Method {
+        name: "hasUsageStreamCapacity",
+        'class: "io.ballerina.lib.aws.mpm.NativeClientAdaptor"
+    } external;
+
+    isolated function externAdd(UsageRecord usageRecord) returns Error? =
+    @java:Method {
+        name: "addToUsageStream",
+        'class: "io.ballerina.lib.aws.mpm.NativeClientAdaptor"
+    } external;
+
+    isolated function externFlush() =
+    @java:Method {
+        name: "flushUsageStream",
+        'class: "io.ballerina.lib.aws.mpm.NativeClientAdaptor"
+    } external;
+
+    isolated function externPoll() returns UsageRecordResult|Error? =
+    @java:Method {
+        name: "pollUsageStream",
+        'class: "io.ballerina.lib.aws.mpm.NativeClientAdaptor"
+    } external;
+
+    isolated function externAwait() returns boolean =
+    @java:Method {
+        name: "awaitUsageStream",
+        'class: "io.ballerina.lib.aws.mpm.NativeClientAdaptor"
+    } external;
+
+    isolated function externClose() =
+    @java:Method {
+        name: "closeUsageStream",
+        'class: "io.ballerina.lib.aws.mpm.NativeClientAdaptor"
+    } external;
+}
@@ -21,8 +21,256 @@ import ballerina/time;
 public type ConnectionConfig record {|
     # The AWS region with which the connector should communicate
     Region region;
-    # The authentication configurations for the AWS Marketplace Metering service
-    AuthConfig auth;
+    # The authentication configurations for the AWS Marketplace Metering service, either static credentials or a
+    # refreshing credentials provider
+    AuthConfig|CredentialsProviderConfig auth = {};
+    # The execution model used by the client for network calls
+    ClientMode clientMode = BLOCKING;
+    # The configurations of the executor on which network calls are performed in the `BLOCKING` client mode
+    ExecutorConfig executor = {};
+    # The configurations of the HTTP transport used for network calls
+    HttpConfig http = {};
+    # The form in which usage record results are returned, which can be overridden per `batchMeterUsage` call
+    ResultMode resultMode = FULL;
+    # The configurations used to coalesce usage records submitted via `submitUsage` into `BatchMeterUsage` calls
+    UsageBatchingConfig usageBatching = {};
+    # The configurations of the resilient mode, which re-submits unprocessed records and retries throttled calls. 
+    # The resilient mode is disabled when this is not provided
+    RetryConfig retryConfig?;
+    # The configurations of the durable usage spool, in which usage records are stored until the service reports a 
+    # final status for them. Spooling is disabled when this is not provided
+    SpoolConfig spool?;
+    # The configurations of the client-side deduplication index, which short-circuits usage records already accepted 
+    # by the service. Client-side deduplication is disabled when this is not provided
+    DeduplicationConfig deduplication?;
+    # The configurations used to pre-aggregate usage recorded via `aggregateUsage`
+    AggregationConfig aggregation = {};
+    # The configurations of the `ResolveCustomer` cache, which serves repeated resolutions of a registration token 
+    # without calling the service. Caching is disabled when this is not provided
+    ResolveCustomerCacheConfig resolveCustomerCache?;
+    # The configurations used to fan out the usage records of several products via `meterProductUsage`
+    FanOutConfig fanOut = {};
+    # The configurations of the per-operation circuit breakers, which fail calls fast while the service keeps failing. 
+    # Circuit breaking is disabled when this is not provided
+    CircuitBreakerConfig circuitBreaker?;
+    # The configurations of hedged `ResolveCustomer` calls, which send a second request when the first one is slower 
+    # than the recently observed latency. Hedging is disabled when this is not provided
+    HedgingConfig resolveCustomerHedging?;
+    # Whether the client is warmed up during initialization, which resolves the credentials and the endpoint, 
+    # establishes a connection with a `ResolveCustomer` call for a placeholder registration token, and initializes 
+    # the conversions, so that the first metering call does not pay these one-off costs
+    boolean warmUp = false;
+    # The configurations of the usage registrations of paid container products via `registerUsage`
+    UsageRegistrationConfig usageRegistration = {};
+|};
+
+# Represents the configurations used to coalesce individually submitted usage records into `BatchMeterUsage` calls.
+public type UsageBatchingConfig record {|
+    # The maximum number of usage records dispatched in a single `BatchMeterUsage` call
+    @constraint:Int {
+        minValue: 1,
+        maxValue: 25
+    }
+    int maxBatchSize = 25;
+    # The maximum time (in seconds) a usage record waits for its batch to fill up before being dispatched
+    decimal lingerTime = 1;
+|};
+
+# The execution model used by the client for network calls.
+public enum ClientMode {
+    # Each in-flight call occupies a connector thread until the response arrives
+    BLOCKING,
+    # Calls are dispatched on a non-blocking HTTP client and hold no thread while in-flight
+    NON_BLOCKING
+}
+
+# Represents the configurations of the bounded executor on which network calls are performed in the `BLOCKING` client 
+# mode. The executor is owned by the client and is shut down when the client is closed.
+public type ExecutorConfig record {|
+    # The maximum number of network calls performed concurrently
+    @constraint:Int {
+        minValue: 1
+    }
+    int maxConcurrency = 64;
+    # The maximum number of network calls waiting for a thread, once all threads are busy
+    @constraint:Int {
+        minValue: 0
+    }
+    int queueDepth = 1024;
+    # The behaviour when all threads are busy and the queue is full
+    SaturationPolicy saturationPolicy = BLOCK;
+    # Whether network calls are performed on virtual threads, which requires Java 21 or later
+    boolean virtualThreads = false;
+|};
+
+# Represents the configurations of the HTTP transport. Settings which are not supported by the selected HTTP client are 
+# ignored, e.g. the `URL_CONNECTION` client does not pool connections.
+public type HttpConfig record {|
+    # The HTTP client implementation. Defaults to `APACHE` in the `BLOCKING` client mode and to `NETTY` in the 
+    # `NON_BLOCKING` client mode
+    HttpClientType clientType?;
+    # The maximum number of connections in the connection pool
+    @constraint:Int {
+        minValue: 1
+    }
+    int maxConnections = 50;
+    # The maximum time (in seconds) to wait for a connection from the connection pool
+    decimal connectionAcquisitionTimeout = 10;
+    # The maximum time (in seconds) to wait for a connection to be established
+    decimal connectionTimeout = 2;
+    # The maximum time (in seconds) to wait for data to be transferred over an open connection
+    decimal socketTimeout = 30;
+    # The maximum time (in seconds) for an API call to complete, including all retries
+    decimal apiCallTimeout?;
+    # The maximum time (in seconds) for a single attempt of an API call to complete
+    decimal apiCallAttemptTimeout?;
+    # The maximum time (in seconds) a connection may remain idle in the connection pool
+    decimal connectionMaxIdleTime = 60;
+    # The maximum time (in seconds) a pooled connection is reused. Connections are reused indefinitely when this is 
+    # not provided
+    decimal connectionTimeToLive?;
+    # Whether idle connections are proactively closed in the background
+    boolean useIdleConnectionReaper = true;
+    # Whether TCP keep-alive probes are sent on idle connections
+    boolean tcpKeepAlive = false;
+    # The endpoint overriding the regional service endpoint, e.g. a local stand-in of the service
+    string endpoint?;
+|};
+
+# The HTTP client implementation used for network calls.
+public enum HttpClientType {
+    # The Apache HTTP client, supported in the `BLOCKING` client mode
+    APACHE,
+    # The JDK `URLConnection` based HTTP client, supported in the `BLOCKING` client mode
+    URL_CONNECTION,
+    # The Netty based HTTP client, supported in the `NON_BLOCKING` client mode
+    NETTY,
+    # The AWS Common Runtime based HTTP client, supported in both client modes. The client is not bundled with the 
+    # connector, and requires the `software.amazon.awssdk:aws-crt-client` library as a platform dependency of the 
+    # application
+    CRT
+}
+
+# The form in which usage record results are returned.
+public enum ResultMode {
+    # Each result carries the usage record echoed by the service
+    FULL,
+    # Each result carries the index of its usage record in the request instead of the usage record, which avoids 
+    # materializing the usage records the caller already has
+    COMPACT
+}
+
+# The behaviour of the executor when all its threads are busy and its queue is full.
+public enum SaturationPolicy {
+    # The call fails immediately with an `mpm:Error`
+    REJECT,
+    # The caller waits until the queue has space for the call, which holds the thread of the calling strand. Calls made 
+    # by the client in the background, e.g. aggregated flushes and retries, fail instead of waiting
+    BLOCK
+}
+
+# Represents the configurations of the resilient mode, in which the client re-submits unprocessed usage records and 
+# retries throttled or failed (5xx) calls, while adapting its concurrency to the rate sustained by the service.
+public type RetryConfig record {|
+    # The maximum number of retries or re-submissions for a single request
+    int maxRetries = 5;
+    # The backoff ceiling (in seconds) used for the first retry, which doubles on each subsequent retry
+    decimal initialBackoff = 0.1;
+    # The upper bound of the backoff ceiling (in seconds)
+    decimal maxBackoff = 20;
+    # The initial number of concurrent requests allowed towards the service
+    int initialConcurrency = 8;
+    # The lower bound of the concurrent requests allowed towards the service
+    int minConcurrency = 1;
+    # The upper bound of the concurrent requests allowed towards the service
+    int maxConcurrency = 64;
+|};
+
+# Represents the configurations of the durable usage spool. Usage records are appended to a local write-ahead log 
+# before they are dispatched, and are checkpointed once the service reports a final status for them, i.e. `SUCCESS`, 
+# `DUPLICATE_RECORD` or `CUSTOMER_NOT_SUBSCRIBED`. Records which were not checkpointed are re-dispatched when a client 
+# is initialized with the same directory. A record whose call fails is reported to the caller and is not re-dispatched 
+# by the running client. Records fanned out to another region are spooled in a subdirectory named after the region.
+public type SpoolConfig record {|
+    # The directory in which the spool segments are stored
+    string directory;
+    # The size (in bytes) of a single spool segment
+    int segmentSize = 67108864;
+    # The maximum time (in seconds) appended records wait for the group commit, which makes them durable
+    decimal syncInterval = 0.01;
+|};
+
+# Represents the configurations of the client-side deduplication index. Usage records are keyed on the product, 
+# customer, dimension and the hour in which the usage occurred, and a record matching an entry of the index is 
+# reported as `DUPLICATE_RECORD` without being sent to the service. When the durable spool is configured, the index is 
+# seeded with the acknowledged records still present in the spool.
+public type DeduplicationConfig record {|
+    # The maximum number of entries retained in the index
+    int maxEntries = 100000;
+    # The time (in seconds) for which an accepted usage record is retained in the index
+    decimal retentionPeriod = 21600;
+|};
+
+# Represents the configurations used to pre-aggregate usage quantities per product, customer, dimension and hour. 
+# The windows of an hour are closed and metered automatically once the hour has ended and the close delay has elapsed.
+public type AggregationConfig record {|
+    # The time (in seconds) to wait after the end of an hour for late usage, before its windows are closed
+    decimal closeDelay = 60;
+    # The time (in seconds) between the scheduled flushes of the aggregated usage, which are aligned to the multiples 
+    # of this interval and delayed by the `closeDelay`
+    decimal flushInterval = 3600;
+    # The upper bound (in seconds) of a random offset drawn once per client instance and added to every scheduled 
+    # flush, which spreads the flushes of many instances. This must be less than the `flushInterval`
+    decimal jitter = 300;
+    # The time (in seconds) after the usage timestamp within which the service accepts a usage record. Aggregated 
+    # usage which could not be metered within this time is reported via `takeExpiredUsage`
+    decimal acceptanceWindow = 21600;
+    # The time (in seconds) before the acceptance deadline of aggregated usage waiting to be re-emitted, at which a 
+    # flush is scheduled regardless of the `flushInterval`
+    decimal deadlineMargin = 900;
+|};
+
+# Represents the configurations of the `ResolveCustomer` cache. Resolved customers are cached per registration token, 
+# invalid registration tokens are cached for a shorter period, and concurrent resolutions of the same token share a 
+# single call to the service.
+public type ResolveCustomerCacheConfig record {|
+    # The maximum number of registration tokens retained in the cache
+    @constraint:Int {
+        minValue: 1
+    }
+    int maxEntries = 10000;
+    # The time (in seconds) for which a resolved customer is cached
+    decimal ttl = 300;
+    # The time (in seconds) for which an invalid registration token is cached
+    decimal negativeTtl = 30;
+|};
+
+# Represents the configurations of the usage registrations of paid container products. A registration is cached per 
+# product code and public key version, so that repeated entitlement checks do not call the service, and concurrent 
+# registrations of the same product share a single call. Registrations which provide a nonce are not cached.
+public type UsageRegistrationConfig record {|
+    # The time (in seconds) for which a registration is cached, unless the public key is rotated earlier
+    decimal ttl = 3600;
+    # The upper bound (in seconds) of a random offset, drawn once per client, by which the `ttl` is shortened so that 
+    # the instances of a fleet do not register again at the same time
+    decimal refreshJitter = 300;
+    # The PEM encoded RSA public key of the product, against which the returned signatures are verified. The 
+    # signatures are not verified when this is not provided
+    string publicKey?;
+|};
+
+# Represents the configurations used to fan out the usage records of several products to the regions of the products.
+public type FanOutConfig record {|
+    # The region of each product, keyed by product code. Products which are not listed are metered in the region of 
+    # the client
+    map<Region> productRegions = {};
+    # The maximum number of concurrent `BatchMeterUsage` calls of a single product and region. The limit of a product 
+    # is reduced while the product is throttled, without affecting the other products. When `retryConfig` is 
+    # configured, the throttled calls are backed off by the resilient mode instead, and this only bounds the concurrency
+    @constraint:Int {
+        minValue: 1
+    }
+    int maxConcurrency = 4;
 |};
 
 # An Amazon Web Services region that hosts a set of Amazon services.
@@ -71,6 +319,46 @@ public enum Region {
     US_WEST_2 = "us-west-2"
 }
 
+# Represents the configurations of a circuit breaker, which is kept per operation. A breaker opens when the share of 
+# failed calls within the window reaches the threshold, rejects calls with a `CircuitBreakerOpen` error while open, and 
+# closes again once the trial calls permitted after the open duration succeed. Only throttling, server errors and 
+# network failures count as failures.
+public type CircuitBreakerConfig record {|
+    # The number of most recent calls from which the failure rate is computed
+    @constraint:Int {
+        minValue: 1
+    }
+    int windowSize = 20;
+    # The minimum number of calls in the window before the breaker can open
+    @constraint:Int {
+        minValue: 1
+    }
+    int minimumCalls = 10;
+    # The share of failed calls, between 0 and 1, at which the breaker opens
+    float failureRateThreshold = 0.5;
+    # The time (in seconds) for which the breaker rejects calls before permitting trial calls
+    decimal openDuration = 30;
+    # The number of trial calls permitted while the breaker is half-open
+    @constraint:Int {
+        minValue: 1
+    }
+    int halfOpenCalls = 1;
+|};
+
+# Represents the configurations of hedged `ResolveCustomer` calls. `ResolveCustomer` is idempotent, hence a second 
+# request is sent when the first one has not completed within the delay, the first response is used and the other 
+# request is cancelled.
+public type HedgingConfig record {|
+    # The latency percentile of the recent calls used as the hedge delay
+    float delayPercentile = 95.0;
+    # The minimum hedge delay in seconds
+    decimal minDelay = 0.05;
+    # The maximum hedge delay in seconds, which is also used until enough calls have been observed
+    decimal maxDelay = 2;
+    # The maximum share of the calls of the last ten seconds, between 0 and 1, for which a hedged request is sent
+    float maxHedgeRatio = 0.1;
+|};
+
 # Represents the Authentication configurations for AWS Marketplace Metering service.
 public type AuthConfig record {|
     # The AWS access key, used to identify the user interacting with AWS
@@ -82,6 +370,55 @@ public type AuthConfig record {|
     string sessionToken?;
 |};
 
+# Represents the configurations of a refreshing credentials provider. Credentials are cached and refreshed in the
+# background before they expire, so that metering calls never wait on a credentials refresh.
+public type CredentialsProviderConfig record {|
+    # The source from which the credentials are resolved
+    CredentialsProvider provider = DEFAULT_CHAIN;
+    # The name of the profile used by the `PROFILE` provider, and as the source credentials of the `ASSUME_ROLE`
+    # provider if specified
+    string profileName?;
+    # The path of the profile file, which overrides the default AWS shared credentials and config files
+    string profileFile?;
+    # The ARN of the role assumed by the `WEB_IDENTITY` and `ASSUME_ROLE` providers
+    string roleArn?;
+    # The name of the role session created by the `WEB_IDENTITY` and `ASSUME_ROLE` providers
+    string roleSessionName = "ballerina-aws-mpm";
+    # The path of the web identity token file used by the `WEB_IDENTITY` provider
+    string webIdentityTokenFile?;
+    # The external ID passed when the `ASSUME_ROLE` provider assumes the role
+    string externalId?;
+    # The duration (in seconds) of the role session created by the `ASSUME_ROLE` provider
+    @constraint:Int {
+        minValue: 900,
+        maxValue: 43200
+    }
+    int sessionDuration = 3600;
+    # The endpoint of the AWS Security Token Service, which overrides the regional endpoint
+    string stsEndpoint?;
+    # The endpoint of the instance metadata service used by the `INSTANCE_PROFILE` provider
+    string metadataEndpoint?;
+    # The time (in seconds) before the expiry of the credentials at which a background refresh is started
+    decimal prefetchTime = 300;
+    # The time (in seconds) before the expiry of the credentials at which callers wait for the refresh
+    decimal staleTime = 60;
+|};
+
+# The source from which a refreshing credentials provider resolves the credentials.
+public enum CredentialsProvider {
+    # The AWS default credentials provider chain, which checks the environment, system properties, web identity, the
+    # shared profile files and the container and instance metadata services in order
+    DEFAULT_CHAIN,
+    # A named profile of the AWS shared credentials and config files
+    PROFILE,
+    # A role assumed with a web identity token file, as used by Kubernetes service accounts
+    WEB_IDENTITY,
+    # A role assumed through the AWS Security Token Service with the default chain or a profile as the source
+    ASSUME_ROLE,
+    # The instance metadata service of an Amazon EC2 instance
+    INSTANCE_PROFILE
+}
+
 # Represents the result retrieved from `ResolveCustomer` operation.
 public type ResolveCustomerResponse record {|
     # The AWS account ID associated with the Customer identifier for the individual customer
@@ -92,6 +429,20 @@ public type ResolveCustomerResponse record {|
     string productCode;
 |};
 
+# Represents the result retrieved from `RegisterUsage` operation.
+public type RegisterUsageResponse record {|
+    # The JSON web token signed by AWS Marketplace, which proves that the customer is entitled to use the product
+    string signature;
+    # The time at which the public key used to sign the signature is rotated
+    time:Utc publicKeyRotationTimestamp?;
+    # The time at which the signature was issued, available when the signature is verified
+    time:Utc issuedAt?;
+    # The time until which the registration is served from the cache
+    time:Utc expiresAt;
+    # Whether the signature was verified against the configured `publicKey`
+    boolean verified;
+|};
+
 # Represents the parameters used for `BatchMeterUsage` operation.
 public type BatchMeterUsageRequest record {|
     # The unique identifier for the Marketplace product
@@ -106,6 +457,43 @@ public type BatchMeterUsageRequest record {|
     UsageRecord[] usageRecords = [];
 |};
 
+# Represents the parameters used for `MeterUsage` operation.
+public type MeterUsageRequest record {|
+    # The unique identifier for the Marketplace product
+    @constraint:String {
+        pattern: re `^[-a-zA-Z0-9/=:_.@]{1,255}$`
+    }
+    string productCode;
+    # The timestamp when the usage occurred (in UTC)
+    time:Utc timestamp;
+    # The dimension for which the usage is being reported
+    @constraint:String {
+        pattern: re `[\s\S]{1,255}$`
+    }
+    string usageDimension;
+    # The quantity of usage consumed
+    @constraint:Int {
+        minValue: 0,
+        maxValue: 2147483647
+    }
+    int usageQuantity = 0;
+    # Checks whether the caller is entitled to meter the usage without metering it. A successful dry run returns a 
+    # response without a `meteringRecordId`
+    boolean dryRun = false;
+    # The list of usage allocations
+    @constraint:Array {
+        minLength: 1,
+        maxLength: 2500
+    }
+    UsageAllocation[] usageAllocations?;
+|};
+
+# Represents the result retrieved from `MeterUsage` operation.
+public type MeterUsageResponse record {|
+    # The unique identifier for this metering event, which is not available for dry runs
+    string meteringRecordId?;
+|};
+
 # Represents the details of the quantity of usage for a given product.
 public type UsageRecord record {|
     # The unique identifier used to identify an individual customer
@@ -172,14 +560,140 @@ public type BatchMeterUsageResponse record {|
     UsageRecord[] unprocessedRecords;
 |};
 
+# Represents a usage record together with the product for which it is metered.
+public type ProductUsageRecord record {|
+    # The unique identifier for the Marketplace product
+    string productCode;
+    *UsageRecord;
+|};
+
+# Represents the result of a usage record metered via the `meterProductUsage` operation.
+public type ProductUsageRecordResult record {|
+    # The unique identifier for the Marketplace product
+    string productCode;
+    # The AWS region in which the usage record was metered
+    Region region;
+    *UsageRecordResult;
+|};
+
+# Represents a failed `BatchMeterUsage` call of the `meterProductUsage` operation.
+public type ProductUsageError record {|
+    # The unique identifier for the Marketplace product
+    string productCode;
+    # The AWS region in which the call was made
+    Region region;
+    # The indexes of the usage records carried by the call, in the `meterProductUsage` request
+    int[] recordIndexes;
+    # The error message
+    string message;
+    # The error code associated with the failure
+    string errorCode;
+|};
+
+# Represents the merged result of the `meterProductUsage` operation.
+public type ProductUsageResponse record {|
+    # The results of the processed usage records, in the order of the usage records
+    ProductUsageRecordResult[] results;
+    # The usage records which were not processed, including the usage records of the failed calls
+    ProductUsageRecord[] unprocessedRecords;
+    # The failed calls, each of which left its usage records unprocessed
+    ProductUsageError[] errors;
+|};
+
+# Represents the configurations of a usage record stream metered with the `meterUsageStream` operation.
+public type UsageStreamConfig record {|
+    # The maximum number of usage records metered in a single `BatchMeterUsage` call
+    @constraint:Int {
+        minValue: 1,
+        maxValue: 25
+    }
+    int batchSize = 25;
+    # The maximum number of `BatchMeterUsage` calls in flight, which bounds the number of buffered usage records
+    @constraint:Int {
+        minValue: 1
+    }
+    int maxInFlightBatches = 4;
+    # The form in which the usage record results are returned, which overrides the `resultMode` of the client
+    # configurations. In the `COMPACT` result mode, the record index is the index of the usage record in the stream
+    ResultMode resultMode?;
+|};
+
+# The format of a usage file metered with the `meterUsageFromFile` operation.
+public enum UsageFileFormat {
+    # Each line is a JSON object with the `customerIdentifier`, `dimension`, `timestamp` and optional `quantity` fields
+    NDJSON,
+    # Each line has the `customerIdentifier`, `dimension`, `timestamp` and optional `quantity` columns in that order, 
+    # without quoting. A first line starting with `customerIdentifier` is treated as a header
+    CSV
+}
+
+# Represents the configurations of a usage file metered with the `meterUsageFromFile` operation. A timestamp in a 
+# usage file is either a number of seconds since the epoch or an ISO-8601 instant.
+public type UsageFileConfig record {|
+    # The format of the usage file, which defaults to `CSV` for a file with the `.csv` extension and to `NDJSON` 
+    # otherwise
+    UsageFileFormat format?;
+    # The file to which the outcome of every line is appended as an NDJSON line, which defaults to the path of the 
+    # usage file with the `.results.ndjson` suffix. The checkpoint of the ingestion is kept next to it with the 
+    # `.checkpoint` suffix, and records the path, the size and the modification time of the usage file
+    string resultsPath?;
+    # The maximum number of usage records metered in a single `BatchMeterUsage` call
+    @constraint:Int {
+        minValue: 1,
+        maxValue: 25
+    }
+    int batchSize = 25;
+    # The maximum number of `BatchMeterUsage` calls in flight
+    @constraint:Int {
+        minValue: 1
+    }
+    int maxInFlightBatches = 8;
+    # The number of chunks of the usage file parsed in parallel
+    @constraint:Int {
+        minValue: 1
+    }
+    int parallelism = 4;
+    # The nominal size of a chunk of the usage file in bytes, which is extended to the end of its last line
+    @constraint:Int {
+        minValue: 1,
+        maxValue: 1073741824
+    }
+    int chunkSize = 4194304;
+    # The number of lines after which the checkpoint of the ingestion is advanced
+    @constraint:Int {
+        minValue: 1
+    }
+    int checkpointInterval = 1000;
+|};
+
+# Represents the summary of a usage file metered with the `meterUsageFromFile` operation.
+public type UsageFileSummary record {|
+    # The number of lines processed, excluding the lines before the checkpoint the ingestion resumed from
+    int lines;
+    # The number of usage records with a result from the service
+    int meteredRecords;
+    # The number of usage records left unprocessed by the service
+    int unprocessedRecords;
+    # The number of usage records of failed `BatchMeterUsage` calls
+    int failedRecords;
+    # The number of lines which could not be parsed into a valid usage record
+    int invalidLines;
+    # The number of lines before the checkpoint the ingestion resumed from
+    int resumedFromLine;
+    # The file to which the outcome of every line was appended
+    string resultsPath;
+|};
+
 # Represents the details regarding the status of a given `UsageRecord` processed by `BatchMeterUsage` operation. 
 public type UsageRecordResult record {|
     # The unique identifier for this metering event
     string meteringRecordId?;
     # The status of the individual `UsageRecord` processed by the `BatchMeterUsage` operation
     UsageRecordStatus status?;
-    # The `UsageRecord` which was part of the `BatchMeterUsage` request
+    # The `UsageRecord` which was part of the `BatchMeterUsage` request, available in the `FULL` result mode
     UsageRecord usageRecord?;
+    # The index of the `UsageRecord` in the `BatchMeterUsage` request, available in the `COMPACT` result mode
+    int recordIndex?;
 |};
 
 # Represents the possible status of a `UsageRecord` 
@@ -192,3 +706,191 @@ public enum UsageRecordStatus {
     DUPLICATE_RECORD = "DuplicateRecord"
 }
 
+# Represents a snapshot of the runtime metrics of the client.
+public type Metrics record {|
+    # The metrics of the resilient mode, available when `retryConfig` is configured
+    RetryMetrics retry?;
+    # The metrics of the client-side deduplication index, available when `deduplication` is configured
+    DeduplicationMetrics deduplication?;
+    # The metrics of the durable usage spool, available when `spool` is configured
+    SpoolMetrics spool?;
+    # The metrics of the usage aggregation
+    AggregationMetrics aggregation;
+    # The metrics of the `ResolveCustomer` cache, available when `resolveCustomerCache` is configured
+    CacheMetrics resolveCustomerCache?;
+    # The metrics of the cached usage registrations
+    CacheMetrics usageRegistration;
+    # The metrics of the circuit breakers keyed by the operation, available when `circuitBreaker` is configured
+    map<CircuitBreakerMetrics> circuitBreakers?;
+    # The metrics of the hedged `ResolveCustomer` calls, available when `resolveCustomerHedging` is configured
+    HedgingMetrics resolveCustomerHedging?;
+    # The metrics of the `BatchMeterUsage` operation, including the batches of submitted and aggregated usage records
+    OperationMetrics batchMeterUsage;
+    # The metrics of the `MeterUsage` operation
+    OperationMetrics meterUsage;
+    # The metrics of the `ResolveCustomer` operation
+    OperationMetrics resolveCustomer;
+    # The metrics of the `RegisterUsage` operation
+    OperationMetrics registerUsage;
+    # The outcomes of the usage records metered through the `BatchMeterUsage` operation
+    UsageRecordMetrics usageRecords;
+    # The total number of requests which failed as the service throttled them
+    int throttledRequests;
+    # The total number of failed requests keyed by the error code reported by the service, or else by the type of
+    # the failure
+    map<int> errors;
+    # The metrics of the network executor, available when `clientMode` is `BLOCKING`
+    ExecutorMetrics executor?;
+|};
+
+# Represents the metrics of the resilient mode.
+public type RetryMetrics record {|
+    # The total number of retries and re-submissions performed
+    int retries;
+    # The total number of throttled responses received from the service
+    int throttledResponses;
+    # The total number of unprocessed usage records re-submitted
+    int resubmittedRecords;
+    # The total number of requests which exhausted the configured retries
+    int exhaustedRequests;
+    # The current concurrency limit of the adaptive concurrency limiter
+    int concurrencyLimit;
+    # The number of requests currently in-flight
+    int inFlightRequests;
+    # The number of requests currently waiting for the concurrency limiter
+    int queuedRequests;
+|};
+
+# Represents the metrics of the client-side deduplication index.
+public type DeduplicationMetrics record {|
+    # The total number of usage records short-circuited as duplicates
+    int suppressedRecords;
+    # The number of entries currently retained in the index
+    int indexSize;
+|};
+
+# Represents the metrics of the durable usage spool.
+public type SpoolMetrics record {|
+    # The number of spooled usage records which have not received a final status from the service yet
+    int pendingRecords;
+    # The total number of recovered usage records whose replay failed, which are replayed again on the next
+    # initialization
+    int failedReplayRecords;
+|};
+
+# Represents the metrics of the usage aggregation.
+public type AggregationMetrics record {|
+    # The total number of usage records aggregated
+    int aggregatedRecords;
+    # The total number of aggregated usage records metered
+    int emittedRecords;
+    # The number of aggregation windows currently open
+    int openWindows;
+    # The number of closed aggregation windows waiting to be re-emitted after a failure
+    int pendingEmissions;
+    # The total number of aggregated usage records which expired before they could be metered
+    int expiredRecords;
+|};
+
+# Represents aggregated usage which could not be metered before the service stopped accepting its timestamp.
+public type ExpiredUsageRecord record {|
+    # The unique identifier for the Marketplace product
+    string productCode;
+    # The aggregated usage record
+    UsageRecord usageRecord;
+    # The time after which the service no longer accepts the usage record
+    time:Utc deadline;
+|};
+
+# Represents the load and the latency distribution of an operation as observed by the caller, including retries.
+# The latency percentiles are accurate within 12.5%.
+public type OperationMetrics record {|
+    # The total number of completed requests
+    int requests;
+    # The total number of requests which failed
+    int failedRequests;
+    # The number of requests currently in-flight
+    int inFlightRequests;
+    # The mean latency in seconds
+    decimal meanLatency;
+    # The median latency in seconds
+    decimal p50Latency;
+    # The 90th percentile latency in seconds
+    decimal p90Latency;
+    # The 99th percentile latency in seconds
+    decimal p99Latency;
+    # The 99.9th percentile latency in seconds
+    decimal p999Latency;
+    # The maximum latency in seconds
+    decimal maxLatency;
+|};
+
+# Represents the outcomes of the metered usage records.
+public type UsageRecordMetrics record {|
+    # The total number of usage records with the `SUCCESS` status
+    int successfulRecords;
+    # The total number of usage records with the `CUSTOMER_NOT_SUBSCRIBED` status
+    int customerNotSubscribedRecords;
+    # The total number of usage records with the `DUPLICATE_RECORD` status
+    int duplicateRecords;
+    # The total number of usage records returned as unprocessed
+    int unprocessedRecords;
+|};
+
+# Represents the metrics of the network executor.
+public type ExecutorMetrics record {|
+    # The number of threads currently performing a network call
+    int activeThreads;
+    # The number of threads in the executor
+    int poolSize;
+    # The number of network calls waiting for a thread
+    int queuedTasks;
+|};
+
+# Represents the metrics of a cache.
+public type CacheMetrics record {|
+    # The total number of lookups served from the cache
+    int hits;
+    # The total number of lookups which required a call to the service
+    int misses;
+    # The total number of entries evicted due to expiry or the size bound
+    int evictions;
+    # The number of entries currently retained in the cache
+    int size;
+|};
+
+# The state of a circuit breaker.
+public enum CircuitState {
+    # Calls are permitted and their outcomes are recorded
+    CLOSED,
+    # Calls are rejected until the open duration elapses
+    OPEN,
+    # A limited number of trial calls are permitted to probe the service
+    HALF_OPEN
+}
+
+# Represents the metrics of a circuit breaker.
+public type CircuitBreakerMetrics record {|
+    # The current state of the breaker
+    CircuitState state;
+    # The share of failed calls within the current window
+    float failureRate;
+    # The total number of calls rejected while the breaker was open
+    int rejectedCalls;
+    # The total number of times the breaker opened
+    int openings;
+|};
+
+# Represents the metrics of hedged calls.
+public type HedgingMetrics record {|
+    # The total number of calls
+    int calls;
+    # The total number of calls for which a hedged request was sent
+    int hedgedCalls;
+    # The total number of calls answered by the hedged request
+    int hedgeWins;
+    # The total number of hedged requests skipped as the hedge budget was exhausted
+    int skippedHedges;
+    # The current hedge delay in seconds
+    decimal delay;
+|};
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.ballerina.runtime.api.creators.TypeCreator;
+import io.ballerina.runtime.api.creators.ValueCreator;
+import io.ballerina.runtime.api.types.ArrayType;
+import io.ballerina.runtime.api.types.PredefinedTypes;
+import io.ballerina.runtime.api.types.TupleType;
+import io.ballerina.runtime.api.utils.StringUtils;
+import io.ballerina.runtime.api.values.BArray;
+import io.ballerina.runtime.api.values.BError;
+import io.ballerina.runtime.api.values.BMap;
+import io.ballerina.runtime.api.values.BString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput and, with the {@code gc} profiler, the allocation rate of the complete native path of the
+ * {@code BatchMeterUsage} operation, i.e. the validation and conversion of the Ballerina request, the SDK client and
+ * its HTTP transport, and the conversion of the response. The requests are served by an in-process HTTP endpoint
+ * which returns a canned successful response, configured as the endpoint override of the client.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BatchMeterUsageBenchmark {
+    private static final long TIMESTAMP = 1718236800L;
+    private static final ArrayType MAP_ARR_TYPE = TypeCreator.createArrayType(
+            TypeCreator.createMapType(PredefinedTypes.TYPE_ANYDATA));
+    private static final TupleType UTC_TYPE = TypeCreator.createTupleType(
+            List.of(PredefinedTypes.TYPE_INT, PredefinedTypes.TYPE_DECIMAL));
+
+    @Param({"BLOCKING", "NON_BLOCKING"})
+    public String clientMode;
+
+    @Param({"1", "25"})
+    public int batchSize;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private MeteringClient nativeClient;
+    private BMap<BString, Object> bRequest;
+
+    @Setup
+    public void setup() throws IOException {
+        BenchmarkModule.load();
+        byte[] responseBody = createResponseBody();
+        serverExecutor = Executors.newFixedThreadPool(16);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(serverExecutor);
+        server.createContext("/", exchange -> respond(exchange, responseBody));
+        server.start();
+
+        URI endpoint = URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+        ConnectionConfig.HttpConfig httpConfig = new ConnectionConfig.HttpConfig(null, 50, Duration.ofSeconds(10),
+                Duration.ofSeconds(2), Duration.ofSeconds(30), null, null, Duration.ofSeconds(60), null, true,
+                false, endpoint);
+        ConnectionConfig connectionConfig = new ConnectionConfig(Region.US_EAST_1, "benchmark-access-key",
+                "benchmark-secret-key", null, null, ConnectionConfig.ClientMode.valueOf(clientMode),
+                new ConnectionConfig.ExecutorConfig(64, 1024, ConnectionConfig.SaturationPolicy.BLOCK, false),
+                httpConfig, ConnectionConfig.ResultMode.FULL, null, null, null, null, null, null,
+                new ConnectionConfig.FanOutConfig(Map.of(), 4), null, null, false,
+                new ConnectionConfig.UsageRegistrationConfig(Duration.ofHours(1), Duration.ZERO, null));
+        nativeClient = NativeClientAdaptor.createNativeClient(connectionConfig,
+                StaticCredentialsProvider.create(AwsBasicCredentials.create("benchmark-access-key",
+                        "benchmark-secret-key")));
+
+        Object[] usageRecords = new Object[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            usageRecords[i] = createBUsageRecord(i);
+        }
+        bRequest = ValueCreator.createMapValue();
+        bRequest.put(Constants.MPM_BATCH_METER_USAGE_PRODUCT_CODE, StringUtils.fromString("product-code"));
+        bRequest.put(Constants.MPM_BATCH_METER_USAGE_RECORDS,
+                ValueCreator.createArrayValue(usageRecords, MAP_ARR_TYPE));
+
+        // fail fast instead of measuring the error path if the stub endpoint is not reachable
+        if (batchMeterUsage() instanceof BError bError) {
+            throw new IllegalStateException(bError.getMessage());
+        }
+    }
+
+    private byte[] createResponseBody() {
+        StringBuilder responseBody = new StringBuilder("{\"Results\":[");
+        for (int i = 0; i < batchSize; i++) {
+            if (i > 0) {
+                responseBody.append(',');
+            }
+            responseBody.append("{\"MeteringRecordId\":\"metering-record-").append(i)
+                    .append("\",\"Status\":\"Success\",\"UsageRecord\":{\"CustomerIdentifier\":\"customer-")
+                    .append(i).append("\",\"Dimension\":\"dimension\",\"Quantity\":1,\"Timestamp\":")
+                    .append(TIMESTAMP + i).append("}}");
+        }
+        return responseBody.append("],\"UnprocessedRecords\":[]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void respond(HttpExchange exchange, byte[] responseBody) throws IOException {
+        try (InputStream requestBody = exchange.getRequestBody()) {
+            requestBody.transferTo(OutputStream.nullOutputStream());
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/x-amz-json-1.1");
+        exchange.getResponseHeaders().set("x-amzn-RequestId", "benchmark-request");
+        exchange.sendResponseHeaders(200, responseBody.length);
+        try (OutputStream responseStream = exchange.getResponseBody()) {
+            responseStream.write(responseBody);
+        }
+    }
+
+    private static BMap<BString, Object> createBUsageRecord(int index) {
+        BArray timestamp = ValueCreator.createTupleValue(UTC_TYPE);
+        timestamp.add(0, TIMESTAMP + index);
+        timestamp.add(1, ValueCreator.createDecimalValue(BigDecimal.ZERO));
+        BMap<BString, Object> usageRecord = ValueCreator.createMapValue();
+        usageRecord.put(Constants.MPM_USAGE_RECORD_CUSTOMER_IDFR, StringUtils.fromString("customer-" + index));
+        usageRecord.put(Constants.MPM_USAGE_RECORD_DIMENSION, StringUtils.fromString("dimension"));
+        usageRecord.put(Constants.MPM_USAGE_RECORD_TIMESTAMP, timestamp);
+        usageRecord.put(Constants.MPM_USAGE_RECORD_QUANTITY, 1L);
+        return usageRecord;
+    }
+
+    @TearDown
+    public void tearDown() {
+        nativeClient.close();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public Object batchMeterUsage() {
+        return NativeClientAdaptor.batchMeterUsage(nativeClient, bRequest, false).join();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public Object batchMeterUsageConcurrently() {
+        return NativeClientAdaptor.batchMeterUsage(nativeClient, bRequest, false).join();
+    }
+}
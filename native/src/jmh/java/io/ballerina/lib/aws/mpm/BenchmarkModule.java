@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import io.ballerina.runtime.api.Module;
+
+import java.util.Objects;
+
+/**
+ * Loads the compiled Ballerina module of the connector, so that the benchmarks can create the records and errors of
+ * the module without a Ballerina runtime environment. The build adds the compiled module and the Ballerina
+ * distribution to the runtime classpath of the {@code jmh} source set.
+ */
+final class BenchmarkModule {
+    private static final Module MODULE = new Module("ballerinax", "aws.marketplace.mpm", "0");
+    // the static initializer of the module init class registers the types and the value creator of the module
+    private static final String MODULE_INIT_CLASS = "ballerinax.aws$0046marketplace$0046mpm.0.$_init";
+
+    private BenchmarkModule() {
+    }
+
+    /**
+     * Loads the compiled Ballerina module. This must be invoked before {@link CommonUtils} is initialized, as the
+     * record types of the conversions are bound to the module on initialization.
+     */
+    static synchronized void load() {
+        if (Objects.nonNull(ModuleUtils.getModule())) {
+            return;
+        }
+        try {
+            Class.forName(MODULE_INIT_CLASS, true, BenchmarkModule.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(
+                    "The compiled Ballerina module is not in the classpath, build the ballerina project first", e);
+        }
+        ModuleUtils.setModule(MODULE);
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import io.ballerina.runtime.api.creators.TypeCreator;
+import io.ballerina.runtime.api.creators.ValueCreator;
+import io.ballerina.runtime.api.types.ArrayType;
+import io.ballerina.runtime.api.types.PredefinedTypes;
+import io.ballerina.runtime.api.types.TupleType;
+import io.ballerina.runtime.api.utils.StringUtils;
+import io.ballerina.runtime.api.values.BArray;
+import io.ballerina.runtime.api.values.BMap;
+import io.ballerina.runtime.api.values.BString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecord;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecordResult;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecordResultStatus;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput and, with the {@code gc} profiler, the allocation rate of the conversions between the
+ * Ballerina {@code BatchMeterUsage} requests and responses and the SDK model objects, across batch, usage allocation
+ * and tag sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConversionBenchmark {
+    private static final ArrayType MAP_ARR_TYPE = TypeCreator.createArrayType(
+            TypeCreator.createMapType(PredefinedTypes.TYPE_ANYDATA));
+    private static final TupleType UTC_TYPE = TypeCreator.createTupleType(
+            List.of(PredefinedTypes.TYPE_INT, PredefinedTypes.TYPE_DECIMAL));
+
+    @Param({"1", "25"})
+    public int batchSize;
+
+    @Param({"1", "100", "2500"})
+    public int allocationsPerRecord;
+
+    @Param({"1", "5"})
+    public int tagsPerAllocation;
+
+    private BMap<BString, Object> bRequest;
+    private List<UsageRecordResult> nativeResults;
+    private BatchMeterUsageResponse nativeResponse;
+
+    @Setup
+    public void setup() {
+        BenchmarkModule.load();
+        Object[] usageRecords = new Object[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            usageRecords[i] = createBUsageRecord(i);
+        }
+        bRequest = ValueCreator.createMapValue();
+        bRequest.put(Constants.MPM_BATCH_METER_USAGE_PRODUCT_CODE, StringUtils.fromString("product-code"));
+        bRequest.put(Constants.MPM_BATCH_METER_USAGE_RECORDS,
+                ValueCreator.createArrayValue(usageRecords, MAP_ARR_TYPE));
+
+        BatchMeterUsageRequest nativeRequest = CommonUtils.getNativeBatchMeterUsageRequest(
+                bRequest, new RequestValidator());
+        nativeResults = new ArrayList<>(batchSize);
+        for (UsageRecord usageRecord : nativeRequest.usageRecords()) {
+            nativeResults.add(UsageRecordResult.builder()
+                    .meteringRecordId("metering-record-" + usageRecord.customerIdentifier())
+                    .status(UsageRecordResultStatus.SUCCESS)
+                    .usageRecord(usageRecord)
+                    .build());
+        }
+        nativeResponse = BatchMeterUsageResponse.builder().results(nativeResults).build();
+    }
+
+    private BMap<BString, Object> createBUsageRecord(int index) {
+        BArray timestamp = ValueCreator.createTupleValue(UTC_TYPE);
+        timestamp.add(0, 1718236800L + index);
+        timestamp.add(1, ValueCreator.createDecimalValue(new BigDecimal("0.5")));
+        Object[] usageAllocations = new Object[allocationsPerRecord];
+        for (int i = 0; i < allocationsPerRecord; i++) {
+            Object[] tags = new Object[tagsPerAllocation];
+            for (int j = 0; j < tagsPerAllocation; j++) {
+                BMap<BString, Object> tag = ValueCreator.createMapValue();
+                tag.put(Constants.MPM_TAG_KEY, StringUtils.fromString("key-" + j));
+                tag.put(Constants.MPM_TAG_VALUE, StringUtils.fromString("value-" + (i % 10)));
+                tags[j] = tag;
+            }
+            BMap<BString, Object> usageAllocation = ValueCreator.createMapValue();
+            usageAllocation.put(Constants.MPM_USAGE_ALLOC_USAGE_QUANTITY, 1L);
+            usageAllocation.put(Constants.MPM_USAGE_ALLOC_TAGS, ValueCreator.createArrayValue(tags, MAP_ARR_TYPE));
+            usageAllocations[i] = usageAllocation;
+        }
+        BMap<BString, Object> usageRecord = ValueCreator.createMapValue();
+        usageRecord.put(Constants.MPM_USAGE_RECORD_CUSTOMER_IDFR, StringUtils.fromString("customer-" + index));
+        usageRecord.put(Constants.MPM_USAGE_RECORD_DIMENSION, StringUtils.fromString("dimension"));
+        usageRecord.put(Constants.MPM_USAGE_RECORD_TIMESTAMP, timestamp);
+        usageRecord.put(Constants.MPM_USAGE_RECORD_QUANTITY, (long) allocationsPerRecord);
+        usageRecord.put(Constants.MPM_USAGE_RECORD_USAGE_ALLOCATION,
+                ValueCreator.createArrayValue(usageAllocations, MAP_ARR_TYPE));
+        return usageRecord;
+    }
+
+    @Benchmark
+    public BatchMeterUsageRequest toNativeRequest() {
+        return CommonUtils.getNativeBatchMeterUsageRequest(bRequest, new RequestValidator());
+    }
+
+    @Benchmark
+    public void toBallerinaResults(Blackhole blackhole) {
+        for (UsageRecordResult result : nativeResults) {
+            blackhole.consume(CommonUtils.toBUsageRecordResult(result));
+        }
+    }
+
+    @Benchmark
+    public BMap<BString, Object> toBallerinaResponse() {
+        return CommonUtils.getBBatchMeterUsageResponse(nativeResponse);
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import io.ballerina.runtime.api.values.BError;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.http.SdkHttpResponse;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput and, with the {@code gc} profiler, the allocation rate of creating Ballerina
+ * {@code mpm:Error} values from a plain exception, from a service exception carrying the AWS error details and
+ * without a cause.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ErrorBenchmark {
+    private static final String ERROR_MESSAGE = "Error occurred while executing batch-meter-usage operation";
+
+    private RuntimeException plainException;
+    private AwsServiceException serviceException;
+
+    @Setup
+    public void setup() {
+        BenchmarkModule.load();
+        plainException = new IllegalStateException("Connection reset");
+        SdkHttpResponse httpResponse = SdkHttpResponse.builder().statusCode(400).statusText("Bad Request").build();
+        serviceException = AwsServiceException.builder()
+                .message("Rate exceeded")
+                .statusCode(400)
+                .awsErrorDetails(AwsErrorDetails.builder()
+                        .errorCode("ThrottlingException")
+                        .errorMessage("Rate exceeded")
+                        .serviceName("MarketplaceMetering")
+                        .sdkHttpResponse(httpResponse)
+                        .build())
+                .build();
+    }
+
+    @Benchmark
+    public BError withoutCause() {
+        return CommonUtils.createError(ERROR_MESSAGE);
+    }
+
+    @Benchmark
+    public BError withPlainException() {
+        return CommonUtils.createError(ERROR_MESSAGE, plainException);
+    }
+
+    @Benchmark
+    public BError withServiceException() {
+        return CommonUtils.createError(ERROR_MESSAGE, serviceException);
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import io.ballerina.runtime.api.creators.TypeCreator;
+import io.ballerina.runtime.api.creators.ValueCreator;
+import io.ballerina.runtime.api.types.ArrayType;
+import io.ballerina.runtime.api.types.PredefinedTypes;
+import io.ballerina.runtime.api.types.TupleType;
+import io.ballerina.runtime.api.utils.StringUtils;
+import io.ballerina.runtime.api.values.BArray;
+import io.ballerina.runtime.api.values.BError;
+import io.ballerina.runtime.api.values.BMap;
+import io.ballerina.runtime.api.values.BString;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@code LoadGenerator} drives the native {@code BatchMeterUsage} path against an in-process {@link MeteringStandIn}
+ * at a fixed request rate for a fixed duration, and reports the latency percentiles, the achieved throughput, the
+ * failures and the thread usage of the run.
+ * <p>
+ * The load is open-loop: requests are issued on a fixed schedule regardless of the outstanding responses, and each
+ * latency is measured from the scheduled instant of its request, so that a stalled client shows up in the reported
+ * percentiles instead of silently lowering the request rate. The arguments are {@code key=value} pairs:
+ * <ul>
+ *     <li>{@code rate} - the requests per second, 200 by default</li>
+ *     <li>{@code duration} - the duration of the run in seconds, 30 by default</li>
+ *     <li>{@code batchSize} - the usage records per request, 25 by default</li>
+ *     <li>{@code clientMode} - {@code BLOCKING} or {@code NON_BLOCKING}, the latter by default</li>
+ *     <li>{@code maxConnections} - the maximum connections of the HTTP client, 50 by default</li>
+ *     <li>{@code maxOutstanding} - the maximum outstanding requests, beyond which requests are dropped, 10000 by
+ *     default</li>
+ *     <li>{@code retries} - the maximum retries of a throttled or failed request, which wraps the client in a
+ *     {@link ResilientMeteringClient} if positive, 0 by default</li>
+ * </ul>
+ * The behaviour of the stand-in is configured through its system properties.
+ */
+public final class LoadGenerator {
+    private static final PrintStream OUT = System.out;
+    private static final long TIMESTAMP = 1718236800L;
+    private static final ArrayType MAP_ARR_TYPE = TypeCreator.createArrayType(
+            TypeCreator.createMapType(PredefinedTypes.TYPE_ANYDATA));
+    private static final TupleType UTC_TYPE = TypeCreator.createTupleType(
+            List.of(PredefinedTypes.TYPE_INT, PredefinedTypes.TYPE_DECIMAL));
+
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    private LoadGenerator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> arguments = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator > 0) {
+                arguments.put(arg.substring(0, separator), arg.substring(separator + 1));
+            }
+        }
+        BenchmarkModule.load();
+        new LoadGenerator().run(
+                Integer.parseInt(arguments.getOrDefault("rate", "200")),
+                Duration.ofSeconds(Long.parseLong(arguments.getOrDefault("duration", "30"))),
+                Integer.parseInt(arguments.getOrDefault("batchSize", "25")),
+                ConnectionConfig.ClientMode.valueOf(arguments.getOrDefault("clientMode", "NON_BLOCKING")),
+                Integer.parseInt(arguments.getOrDefault("maxConnections", "50")),
+                Integer.parseInt(arguments.getOrDefault("maxOutstanding", "10000")),
+                Integer.parseInt(arguments.getOrDefault("retries", "0")));
+    }
+
+    private void run(int rate, Duration duration, int batchSize, ConnectionConfig.ClientMode clientMode,
+                     int maxConnections, int maxOutstanding, int retries) throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        int baselineThreads = threads.getThreadCount();
+        threads.resetPeakThreadCount();
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try (MeteringStandIn standIn = MeteringStandIn.start(MeteringStandIn.Config.fromSystemProperties(), 0)) {
+            ConnectionConfig.HttpConfig httpConfig = new ConnectionConfig.HttpConfig(null, maxConnections,
+                    Duration.ofSeconds(10), Duration.ofSeconds(2), Duration.ofSeconds(30), null, null,
+                    Duration.ofSeconds(60), null, true, false, standIn.getEndpoint());
+            ConnectionConfig connectionConfig = new ConnectionConfig(Region.US_EAST_1, "load-access-key",
+                    "load-secret-key", null, null, clientMode,
+                    new ConnectionConfig.ExecutorConfig(64, 1024, ConnectionConfig.SaturationPolicy.BLOCK, false),
+                    httpConfig, ConnectionConfig.ResultMode.FULL, null, null, null, null, null, null,
+                    new ConnectionConfig.FanOutConfig(Map.of(), 4), null, null, false,
+                    new ConnectionConfig.UsageRegistrationConfig(Duration.ofHours(1), Duration.ZERO, null));
+            MeteringClient nativeClient = NativeClientAdaptor.createNativeClient(connectionConfig,
+                    StaticCredentialsProvider.create(AwsBasicCredentials.create("load-access-key",
+                            "load-secret-key")));
+            if (retries > 0) {
+                nativeClient = new ResilientMeteringClient(nativeClient, scheduler, new ConnectionConfig.RetryConfig(
+                        retries, Duration.ofMillis(50), Duration.ofSeconds(2), maxConnections, 1, maxConnections));
+            }
+            BMap<BString, Object> bRequest = createBRequest(batchSize);
+            try {
+                generate(nativeClient, bRequest, rate, duration, maxOutstanding);
+            } finally {
+                nativeClient.close();
+            }
+            report(rate, duration, batchSize, standIn, threads.getPeakThreadCount() - baselineThreads);
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void generate(MeteringClient nativeClient, BMap<BString, Object> bRequest, int rate, Duration duration,
+                          int maxOutstanding) throws InterruptedException {
+        Semaphore outstanding = new Semaphore(maxOutstanding);
+        long intervalInNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long requests = duration.toSeconds() * rate;
+        long start = System.nanoTime();
+        for (long i = 0; i < requests; i++) {
+            long scheduled = start + i * intervalInNanos;
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (!outstanding.tryAcquire()) {
+                dropped.increment();
+                continue;
+            }
+            CompletableFuture<Object> response;
+            try {
+                response = NativeClientAdaptor.batchMeterUsage(nativeClient, bRequest, false);
+            } catch (RuntimeException e) {
+                response = CompletableFuture.failedFuture(e);
+            }
+            response.whenComplete((result, exception) -> {
+                latencies.record(System.nanoTime() - scheduled);
+                if (exception != null || result instanceof BError) {
+                    failed.increment();
+                } else {
+                    completed.increment();
+                }
+                outstanding.release();
+            });
+        }
+        // waits for the outstanding responses, which are still part of the measured run
+        outstanding.acquire(maxOutstanding);
+    }
+
+    private void report(int rate, Duration duration, int batchSize, MeteringStandIn standIn, int peakThreads) {
+        long succeeded = completed.sum();
+        OUT.printf("target rate            : %d requests/s for %d s, %d usage records per request%n",
+                rate, duration.toSeconds(), batchSize);
+        OUT.printf("achieved throughput    : %.1f requests/s, %.1f usage records/s%n",
+                (double) succeeded / duration.toSeconds(), (double) succeeded * batchSize / duration.toSeconds());
+        OUT.printf("latency (us)           : p50 %d, p90 %d, p99 %d, p99.9 %d, max %d%n",
+                latencies.getValueAtPercentile(50), latencies.getValueAtPercentile(90),
+                latencies.getValueAtPercentile(99), latencies.getValueAtPercentile(99.9), latencies.getMaxMicros());
+        OUT.printf("requests               : %d succeeded, %d failed, %d dropped%n",
+                succeeded, failed.sum(), dropped.sum());
+        OUT.printf("stand-in               : %d calls, %d throttled, %d server errors, %d unprocessed records%n",
+                standIn.getRequests(), standIn.getThrottledRequests(), standIn.getFailedRequests(),
+                standIn.getUnprocessedRecords());
+        OUT.printf("peak additional threads: %d%n", peakThreads);
+    }
+
+    static BMap<BString, Object> createBRequest(int batchSize) {
+        Object[] usageRecords = new Object[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            BArray timestamp = ValueCreator.createTupleValue(UTC_TYPE);
+            timestamp.add(0, TIMESTAMP + i);
+            timestamp.add(1, ValueCreator.createDecimalValue(BigDecimal.ZERO));
+            BMap<BString, Object> usageRecord = ValueCreator.createMapValue();
+            usageRecord.put(Constants.MPM_USAGE_RECORD_CUSTOMER_IDFR, StringUtils.fromString("customer-" + i));
+            usageRecord.put(Constants.MPM_USAGE_RECORD_DIMENSION, StringUtils.fromString("dimension"));
+            usageRecord.put(Constants.MPM_USAGE_RECORD_TIMESTAMP, timestamp);
+            usageRecord.put(Constants.MPM_USAGE_RECORD_QUANTITY, 1L);
+            usageRecords[i] = usageRecord;
+        }
+        BMap<BString, Object> bRequest = ValueCreator.createMapValue();
+        bRequest.put(Constants.MPM_BATCH_METER_USAGE_PRODUCT_CODE, StringUtils.fromString("product-code"));
+        bRequest.put(Constants.MPM_BATCH_METER_USAGE_RECORDS,
+                ValueCreator.createArrayValue(usageRecords, MAP_ARR_TYPE));
+        return bRequest;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import io.ballerina.runtime.api.values.BError;
+import io.ballerina.runtime.api.values.BMap;
+import io.ballerina.runtime.api.values.BString;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+
+import java.io.PrintStream;
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * {@code StartupProbe} measures the start-up of the native module and the latency of its first {@code BatchMeterUsage}
+ * calls, with or without the warm-up performed by {@link ClientWarmUp}. The first calls pay one-off costs, hence each
+ * configuration has to be measured in a fresh process, on the JVM as well as in a native image built from this class.
+ * <p>
+ * The arguments are {@code key=value} pairs:
+ * <ul>
+ *     <li>{@code warmUp} - whether the client is warmed up before the first call, {@code false} by default</li>
+ *     <li>{@code clientMode} - {@code BLOCKING} or {@code NON_BLOCKING}, the former by default</li>
+ *     <li>{@code batchSize} - the usage records per request, 25 by default</li>
+ *     <li>{@code endpoint} - the endpoint of the service, by default an in-process {@link MeteringStandIn} without any
+ *     injected latency is started. The stand-in speaks plain HTTP, hence an HTTPS endpoint has to be provided to
+ *     include the TLS handshake in the measurement</li>
+ * </ul>
+ */
+public final class StartupProbe {
+    private static final PrintStream OUT = System.out;
+
+    private StartupProbe() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Instant mainEntered = Instant.now();
+        long mainEnteredNanos = System.nanoTime();
+        Map<String, String> arguments = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator > 0) {
+                arguments.put(arg.substring(0, separator), arg.substring(separator + 1));
+            }
+        }
+        boolean warmUp = Boolean.parseBoolean(arguments.getOrDefault("warmUp", "false"));
+        ConnectionConfig.ClientMode clientMode =
+                ConnectionConfig.ClientMode.valueOf(arguments.getOrDefault("clientMode", "BLOCKING"));
+        int batchSize = Integer.parseInt(arguments.getOrDefault("batchSize", "25"));
+        String endpoint = arguments.get("endpoint");
+        Instant processStarted = ProcessHandle.current().info().startInstant().orElse(mainEntered);
+
+        long start = System.nanoTime();
+        BenchmarkModule.load();
+        long moduleLoaded = System.nanoTime();
+        MeteringStandIn standIn = Objects.isNull(endpoint) ? MeteringStandIn.start(
+                new MeteringStandIn.Config(Duration.ZERO, Duration.ZERO, 0, 0, 0, 4), 0) : null;
+        try {
+            URI endpointUri = Objects.nonNull(standIn) ? standIn.getEndpoint() : URI.create(endpoint);
+            long clientStart = System.nanoTime();
+            MeteringClient nativeClient = NativeClientAdaptor.createNativeClient(
+                    createConnectionConfig(clientMode, endpointUri, warmUp),
+                    StaticCredentialsProvider.create(AwsBasicCredentials.create("probe-access-key",
+                            "probe-secret-key")));
+            long clientCreated = System.nanoTime();
+            if (warmUp) {
+                ClientWarmUp.warmUpConversions();
+                ClientWarmUp.warmUpClient(nativeClient, Duration.ofSeconds(10));
+            }
+            long warmedUp = System.nanoTime();
+            try {
+                BMap<BString, Object> bRequest = LoadGenerator.createBRequest(batchSize);
+                long firstCall = call(nativeClient, bRequest);
+                long firstCallCompleted = System.nanoTime();
+                long secondCall = call(nativeClient, bRequest);
+                OUT.printf("mode                     : %s, %s client, warm-up %s%n", getRuntimeMode(), clientMode,
+                        warmUp ? "enabled" : "disabled");
+                OUT.printf("process start to main    : %d ms%n",
+                        Duration.between(processStarted, mainEntered).toMillis());
+                OUT.printf("module load              : %.1f ms%n", toMillis(moduleLoaded - start));
+                OUT.printf("client creation          : %.1f ms%n", toMillis(clientCreated - clientStart));
+                OUT.printf("warm-up                  : %.1f ms%n", toMillis(warmedUp - clientCreated));
+                OUT.printf("first call               : %.1f ms%n", toMillis(firstCall));
+                OUT.printf("second call              : %.1f ms%n", toMillis(secondCall));
+                OUT.printf("process start to result  : %d ms%n", Duration.between(processStarted,
+                        mainEntered.plusNanos(firstCallCompleted - mainEnteredNanos)).toMillis());
+            } finally {
+                nativeClient.close();
+            }
+        } finally {
+            if (Objects.nonNull(standIn)) {
+                standIn.close();
+            }
+        }
+    }
+
+    private static long call(MeteringClient nativeClient, BMap<BString, Object> bRequest) {
+        long start = System.nanoTime();
+        Object result = NativeClientAdaptor.batchMeterUsage(nativeClient, bRequest, false).join();
+        long latency = System.nanoTime() - start;
+        if (result instanceof BError error) {
+            OUT.printf("call failed              : %s%n", error.getMessage());
+        }
+        return latency;
+    }
+
+    private static String getRuntimeMode() {
+        return "runtime".equals(System.getProperty("org.graalvm.nativeimage.imagecode")) ? "native image" : "JVM";
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000d;
+    }
+
+    private static ConnectionConfig createConnectionConfig(ConnectionConfig.ClientMode clientMode, URI endpoint,
+                                                           boolean warmUp) {
+        ConnectionConfig.HttpConfig httpConfig = new ConnectionConfig.HttpConfig(null, 10,
+                Duration.ofSeconds(10), Duration.ofSeconds(2), Duration.ofSeconds(30), null, null,
+                Duration.ofSeconds(60), null, true, false, endpoint);
+        return new ConnectionConfig(Region.US_EAST_1, "probe-access-key", "probe-secret-key", null, null,
+                clientMode, new ConnectionConfig.ExecutorConfig(8, 64, ConnectionConfig.SaturationPolicy.BLOCK, false),
+                httpConfig, ConnectionConfig.ResultMode.FULL, null, null, null, null, null, null,
+                new ConnectionConfig.FanOutConfig(Map.of(), 4), null, null, warmUp,
+                new ConnectionConfig.UsageRegistrationConfig(Duration.ofHours(1), Duration.ZERO, null));
+    }
+}
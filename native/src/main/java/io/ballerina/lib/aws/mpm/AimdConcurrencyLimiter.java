@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@code AimdConcurrencyLimiter} bounds the number of concurrent requests using an additive-increase/
+ * multiplicative-decrease policy. Every successful request grows the limit by roughly one per round trip, while a
+ * throttled request halves it, so that the client converges on the highest request rate the service sustains.
+ * Callers waiting for a permit do not hold a thread.
+ */
+public final class AimdConcurrencyLimiter {
+    private static final double BACKOFF_RATIO = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final Queue<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+    private double limit;
+    private int inFlight;
+
+    public AimdConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    public CompletableFuture<Void> acquire() {
+        synchronized (this) {
+            if (waiters.isEmpty() && inFlight < (int) limit) {
+                inFlight++;
+                return CompletableFuture.completedFuture(null);
+            }
+            CompletableFuture<Void> waiter = new CompletableFuture<>();
+            waiters.add(waiter);
+            return waiter;
+        }
+    }
+
+    public void onSuccess() {
+        release(Math.min(maxLimit, limit + 1 / limit));
+    }
+
+    public void onThrottled() {
+        release(Math.max(minLimit, limit * BACKOFF_RATIO));
+    }
+
+    public void onIgnored() {
+        release(limit);
+    }
+
+    private void release(double newLimit) {
+        List<CompletableFuture<Void>> admitted = new ArrayList<>();
+        synchronized (this) {
+            limit = newLimit;
+            inFlight--;
+            while (!waiters.isEmpty() && inFlight < (int) limit) {
+                inFlight++;
+                admitted.add(waiters.poll());
+            }
+        }
+        admitted.forEach(waiter -> waiter.complete(null));
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getQueued() {
+        return waiters.size();
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.services.marketplacemetering.MarketplaceMeteringAsyncClient;
+import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.MeterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.MeterUsageResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.RegisterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.RegisterUsageResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.ResolveCustomerRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.ResolveCustomerResponse;
+import software.amazon.awssdk.utils.IoUtils;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link MeteringClient} backed by the {@link MarketplaceMeteringAsyncClient}, which performs the network I/O on a
+ * non-blocking HTTP client so that in-flight calls do not hold a thread.
+ */
+public final class AsyncMeteringClient implements MeteringClient {
+    private final MarketplaceMeteringAsyncClient nativeClient;
+    private final AwsCredentialsProvider credentialsProvider;
+
+    public AsyncMeteringClient(MarketplaceMeteringAsyncClient nativeClient,
+                               AwsCredentialsProvider credentialsProvider) {
+        this.nativeClient = nativeClient;
+        this.credentialsProvider = credentialsProvider;
+    }
+
+    @Override
+    public CompletableFuture<BatchMeterUsageResponse> batchMeterUsage(BatchMeterUsageRequest request) {
+        return nativeClient.batchMeterUsage(request);
+    }
+
+    @Override
+    public CompletableFuture<MeterUsageResponse> meterUsage(MeterUsageRequest request) {
+        return nativeClient.meterUsage(request);
+    }
+
+    @Override
+    public CompletableFuture<ResolveCustomerResponse> resolveCustomer(ResolveCustomerRequest request) {
+        return nativeClient.resolveCustomer(request);
+    }
+
+    @Override
+    public CompletableFuture<RegisterUsageResponse> registerUsage(RegisterUsageRequest request) {
+        return nativeClient.registerUsage(request);
+    }
+
+    @Override
+    public void close() {
+        nativeClient.close();
+        // the credentials provider is not closed by the native client, as it is not created by the native client
+        IoUtils.closeIfCloseable(credentialsProvider, null);
+    }
+}
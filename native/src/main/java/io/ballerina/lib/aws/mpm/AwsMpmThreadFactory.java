@@ -19,16 +19,42 @@
 package io.ballerina.lib.aws.mpm;
 
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * A {@link ThreadFactory} object that creates new threads on demand for AWS MPM client network actions.
+ * A {@link ThreadFactory} object that creates new threads on demand for AWS MPM client network actions. Threads are
+ * numbered per factory and are created as daemon threads, so that an unclosed client does not keep the JVM alive.
  */
 public class AwsMpmThreadFactory implements ThreadFactory {
+    private static final String CLIENT_THREAD_PREFIX = "balx-awsmpm-client-";
+    static final String NETWORK_THREAD_PREFIX = CLIENT_THREAD_PREFIX + "network-thread-";
+    static final String SCHEDULER_THREAD_PREFIX = CLIENT_THREAD_PREFIX + "scheduler-thread-";
+    static final String INGESTION_THREAD_PREFIX = CLIENT_THREAD_PREFIX + "ingestion-thread-";
+    static final String SPOOL_THREAD_PREFIX = CLIENT_THREAD_PREFIX + "spool-thread-";
+
+    private final String namePrefix;
+    private final AtomicInteger threadCount = new AtomicInteger();
+
+    public AwsMpmThreadFactory(String namePrefix) {
+        this.namePrefix = namePrefix;
+    }
 
     @Override
     public Thread newThread(Runnable runnable) {
         Thread networkThread = new Thread(runnable);
-        networkThread.setName("balx-awsmpm-client-network-thread");
+        networkThread.setName(namePrefix + threadCount.incrementAndGet());
+        networkThread.setDaemon(true);
         return networkThread;
     }
+
+    /**
+     * Checks whether the thread is one of the threads owned by the connector, i.e. a network, scheduler, ingestion or
+     * spool thread, as opposed to a thread of the caller.
+     *
+     * @param thread The thread to be checked.
+     * @return {@code true} if the thread is owned by the connector.
+     */
+    static boolean isClientThread(Thread thread) {
+        return thread.getName().startsWith(CLIENT_THREAD_PREFIX);
+    }
 }
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+
+import java.time.Clock;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A count-based circuit breaker of a single operation. The outcomes of the last calls are kept in a sliding window,
+ * and the circuit opens once the failure rate of the window reaches the threshold. An open circuit rejects the calls
+ * until the open duration has elapsed, after which a bounded number of probe calls decide whether the circuit closes
+ * again or re-opens.
+ * <p>
+ * Only failures which indicate a degraded service count towards the failure rate, i.e. throttling, server errors,
+ * timeouts and connection failures. Client errors such as an invalid registration token are answered by a healthy
+ * service and count as successful calls.
+ */
+public final class CircuitBreaker {
+    private static final Set<String> SERVICE_FAILURE_ERROR_CODES = Set.of(
+            "ThrottlingException", "InternalServiceErrorException", "ServiceUnavailable", "RequestTimeout");
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final int HTTP_SERVER_ERROR = 500;
+
+    private final String operation;
+    private final Clock clock;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openDurationInMillis;
+    private final int halfOpenCalls;
+    private final boolean[] failures;
+    private final LongAdder rejectedCalls = new LongAdder();
+    private final LongAdder openings = new LongAdder();
+    private State state = State.CLOSED;
+    // outcomes of calls permitted before the latest state transition are ignored
+    private long generation;
+    private int recordedCalls;
+    private int failedCalls;
+    private int nextOutcome;
+    private long openedAt;
+    private int remainingProbes;
+    private int successfulProbes;
+
+    public CircuitBreaker(String operation, ConnectionConfig.CircuitBreakerConfig circuitBreakerConfig, Clock clock) {
+        this.operation = operation;
+        this.clock = clock;
+        this.minimumCalls = circuitBreakerConfig.minimumCalls();
+        this.failureRateThreshold = circuitBreakerConfig.failureRateThreshold();
+        this.openDurationInMillis = circuitBreakerConfig.openDuration().toMillis();
+        this.halfOpenCalls = circuitBreakerConfig.halfOpenCalls();
+        this.failures = new boolean[circuitBreakerConfig.windowSize()];
+    }
+
+    /**
+     * Requests a permit for a call.
+     *
+     * @return The permit of the call, which must be passed to {@link #onComplete}, or {@code -1} if the call is
+     *         rejected.
+     */
+    public synchronized long tryAcquire() {
+        if (state == State.OPEN) {
+            if (clock.millis() - openedAt < openDurationInMillis) {
+                rejectedCalls.increment();
+                return -1;
+            }
+            transition(State.HALF_OPEN);
+            remainingProbes = halfOpenCalls;
+            successfulProbes = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (remainingProbes == 0) {
+                rejectedCalls.increment();
+                return -1;
+            }
+            remainingProbes--;
+        }
+        return generation;
+    }
+
+    /**
+     * Records the outcome of a permitted call.
+     *
+     * @param permit  The permit of the call.
+     * @param failure The failure of the call, or {@code null} if the call succeeded.
+     */
+    public synchronized void onComplete(long permit, Throwable failure) {
+        if (permit != generation) {
+            return;
+        }
+        boolean failed = Objects.nonNull(failure) && isServiceFailure(failure);
+        if (state == State.HALF_OPEN) {
+            if (failed) {
+                open();
+            } else if (++successfulProbes >= halfOpenCalls) {
+                transition(State.CLOSED);
+            }
+            return;
+        }
+        if (recordedCalls == failures.length) {
+            failedCalls -= failures[nextOutcome] ? 1 : 0;
+        } else {
+            recordedCalls++;
+        }
+        failures[nextOutcome] = failed;
+        failedCalls += failed ? 1 : 0;
+        nextOutcome = (nextOutcome + 1) % failures.length;
+        if (recordedCalls >= minimumCalls && failedCalls >= failureRateThreshold * recordedCalls) {
+            open();
+        }
+    }
+
+    private void open() {
+        transition(State.OPEN);
+        openedAt = clock.millis();
+        openings.increment();
+    }
+
+    private void transition(State newState) {
+        state = newState;
+        generation++;
+        recordedCalls = 0;
+        failedCalls = 0;
+        nextOutcome = 0;
+    }
+
+    /**
+     * Returns whether a failure indicates a degraded service, based on the error code and the HTTP status reported
+     * by the service, or on the failure not having reached the service at all.
+     *
+     * @param failure The failure of a call.
+     * @return {@code true} if the failure counts towards the failure rate.
+     */
+    static boolean isServiceFailure(Throwable failure) {
+        if (failure instanceof AwsServiceException awsSvcExp) {
+            return awsSvcExp.isThrottlingException() || awsSvcExp.statusCode() == HTTP_TOO_MANY_REQUESTS
+                    || awsSvcExp.statusCode() >= HTTP_SERVER_ERROR
+                    || SERVICE_FAILURE_ERROR_CODES.contains(CommonUtils.getErrorCode(awsSvcExp));
+        }
+        return failure instanceof SdkClientException;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    /**
+     * Returns the current state. An open circuit whose open duration has elapsed is reported as open until the next
+     * call is permitted.
+     *
+     * @return The current state.
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Returns the failure rate of the sliding window of the closed circuit.
+     *
+     * @return The failure rate between 0 and 1, or 0 if no call is recorded.
+     */
+    public synchronized double getFailureRate() {
+        return recordedCalls == 0 ? 0 : (double) failedCalls / recordedCalls;
+    }
+
+    public long getRejectedCalls() {
+        return rejectedCalls.sum();
+    }
+
+    public long getOpenings() {
+        return openings.sum();
+    }
+
+    /**
+     * The state of a circuit breaker.
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.MeterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.MeterUsageResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.RegisterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.RegisterUsageResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.ResolveCustomerRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.ResolveCustomerResponse;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * {@link MeteringClient} decorator which guards each operation with its own {@link CircuitBreaker}, so that the calls
+ * of an operation fail fast with a {@link CircuitBreakerOpenException} while the service is degraded for that
+ * operation. Placed above the resilient mode, a call which exhausted its retries is recorded as a single failure.
+ */
+public final class CircuitBreakingMeteringClient implements MeteringClient {
+    private final MeteringClient delegate;
+    private final CircuitBreaker batchMeterUsageBreaker;
+    private final CircuitBreaker meterUsageBreaker;
+    private final CircuitBreaker resolveCustomerBreaker;
+    private final CircuitBreaker registerUsageBreaker;
+
+    public CircuitBreakingMeteringClient(MeteringClient delegate,
+                                         ConnectionConfig.CircuitBreakerConfig circuitBreakerConfig, Clock clock) {
+        this.delegate = delegate;
+        this.batchMeterUsageBreaker = new CircuitBreaker("batchMeterUsage", circuitBreakerConfig, clock);
+        this.meterUsageBreaker = new CircuitBreaker("meterUsage", circuitBreakerConfig, clock);
+        this.resolveCustomerBreaker = new CircuitBreaker("resolveCustomer", circuitBreakerConfig, clock);
+        this.registerUsageBreaker = new CircuitBreaker("registerUsage", circuitBreakerConfig, clock);
+    }
+
+    @Override
+    public CompletableFuture<BatchMeterUsageResponse> batchMeterUsage(BatchMeterUsageRequest request) {
+        return execute(batchMeterUsageBreaker, () -> delegate.batchMeterUsage(request));
+    }
+
+    @Override
+    public CompletableFuture<MeterUsageResponse> meterUsage(MeterUsageRequest request) {
+        return execute(meterUsageBreaker, () -> delegate.meterUsage(request));
+    }
+
+    @Override
+    public CompletableFuture<ResolveCustomerResponse> resolveCustomer(ResolveCustomerRequest request) {
+        return execute(resolveCustomerBreaker, () -> delegate.resolveCustomer(request));
+    }
+
+    @Override
+    public CompletableFuture<RegisterUsageResponse> registerUsage(RegisterUsageRequest request) {
+        return execute(registerUsageBreaker, () -> delegate.registerUsage(request));
+    }
+
+    private static <T> CompletableFuture<T> execute(CircuitBreaker breaker, Supplier<CompletableFuture<T>> operation) {
+        long permit = breaker.tryAcquire();
+        if (permit < 0) {
+            return CompletableFuture.failedFuture(new CircuitBreakerOpenException(breaker.getOperation()));
+        }
+        CompletableFuture<T> response;
+        try {
+            response = operation.get();
+        } catch (Exception e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+        return response.whenComplete((result, exception) -> breaker.onComplete(
+                permit, Objects.isNull(exception) ? null : CommonUtils.unwrap(exception)));
+    }
+
+    public List<CircuitBreaker> getCircuitBreakers() {
+        return List.of(batchMeterUsageBreaker, meterUsageBreaker, resolveCustomerBreaker, registerUsageBreaker);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
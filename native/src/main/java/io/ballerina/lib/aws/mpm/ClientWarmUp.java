@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import io.ballerina.runtime.api.creators.TypeCreator;
+import io.ballerina.runtime.api.creators.ValueCreator;
+import io.ballerina.runtime.api.types.PredefinedTypes;
+import io.ballerina.runtime.api.utils.StringUtils;
+import io.ballerina.runtime.api.values.BMap;
+import io.ballerina.runtime.api.values.BString;
+import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.ResolveCustomerRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.Tag;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageAllocation;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecord;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecordResult;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecordResultStatus;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@code ClientWarmUp} moves the one-off costs of the first calls of a client into its initialization, so that
+ * short-lived workers do not see them as a latency spike on their first metered usage.
+ * <p>
+ * The conversions between the Ballerina and the native representations are exercised once per runtime, which loads
+ * and initializes the model classes, the record types and the validation patterns. The native client is warmed up
+ * with a {@code ResolveCustomer} call for a placeholder registration token, which resolves the credentials and the
+ * endpoint, signs the request, and leaves an established TLS connection in the pool. The call is expected to fail
+ * with an {@code InvalidTokenException}, and its outcome is discarded as the warm-up is best-effort.
+ */
+public final class ClientWarmUp {
+    private static final String REGISTRATION_TOKEN = "warm-up";
+    private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(10);
+    private static final AtomicBoolean CONVERSIONS_WARMED_UP = new AtomicBoolean(false);
+
+    private ClientWarmUp() {
+    }
+
+    /**
+     * Warms up the conversions, unless they have already been warmed up, and the native client.
+     *
+     * @param nativeClient     The native client, which is called without any decorator so that the warm-up is
+     *                         neither retried nor recorded in the metrics of the client.
+     * @param connectionConfig The client connection configurations.
+     */
+    public static void warmUp(MeteringClient nativeClient, ConnectionConfig connectionConfig) {
+        if (CONVERSIONS_WARMED_UP.compareAndSet(false, true)) {
+            warmUpConversions();
+        }
+        warmUpClient(nativeClient, getTimeout(connectionConfig.httpConfig()));
+    }
+
+    /**
+     * Sends a {@code ResolveCustomer} request for a placeholder registration token and waits for its outcome.
+     *
+     * @param nativeClient The native client.
+     * @param timeout      The maximum time to wait for the outcome.
+     * @return The time taken by the call.
+     */
+    public static Duration warmUpClient(MeteringClient nativeClient, Duration timeout) {
+        ResolveCustomerRequest request = ResolveCustomerRequest.builder().registrationToken(REGISTRATION_TOKEN).build();
+        long start = System.nanoTime();
+        try {
+            nativeClient.resolveCustomer(request).get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException | RuntimeException e) {
+            // the expected InvalidTokenException, or a failure which the first actual call reports
+        }
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+
+    /**
+     * Converts a synthetic {@code BatchMeterUsage} request and its response in both the full and the compact result
+     * modes.
+     */
+    public static void warmUpConversions() {
+        Instant timestamp = Instant.now();
+        UsageRecord usageRecord = UsageRecord.builder()
+                .customerIdentifier("warm-up-customer").dimension("warm-up-dimension").timestamp(timestamp).quantity(1)
+                .usageAllocations(UsageAllocation.builder().allocatedUsageQuantity(1)
+                        .tags(Tag.builder().key("key").value("value").build()).build())
+                .build();
+        UsageRecordResult usageRecordResult = UsageRecordResult.builder()
+                .meteringRecordId("warm-up-record").status(UsageRecordResultStatus.SUCCESS).usageRecord(usageRecord)
+                .build();
+        BMap<BString, Object> bUsageRecordResult = CommonUtils.toBUsageRecordResult(usageRecordResult);
+        BMap<BString, Object> bRequest = ValueCreator.createMapValue();
+        bRequest.put(Constants.MPM_BATCH_METER_USAGE_PRODUCT_CODE, StringUtils.fromString("warm-up-product"));
+        bRequest.put(Constants.MPM_BATCH_METER_USAGE_RECORDS, ValueCreator.createArrayValue(
+                new Object[]{bUsageRecordResult.get(Constants.MPM_USAGE_RECORD_RESULT_USAGE_RECORD)},
+                TypeCreator.createArrayType(TypeCreator.createMapType(PredefinedTypes.TYPE_ANYDATA))));
+        RequestValidator validator = new RequestValidator();
+        BatchMeterUsageRequest request = CommonUtils.getNativeBatchMeterUsageRequest(bRequest, validator);
+        BatchMeterUsageResponse response = BatchMeterUsageResponse.builder()
+                .results(usageRecordResult).unprocessedRecords(usageRecord).build();
+        CommonUtils.getBBatchMeterUsageResponse(response);
+        CommonUtils.getBCompactBatchMeterUsageResponse(response, request);
+    }
+
+    private static Duration getTimeout(ConnectionConfig.HttpConfig httpConfig) {
+        return Objects.nonNull(httpConfig.apiCallTimeout()) ? httpConfig.apiCallTimeout() : DEFAULT_TIMEOUT;
+    }
+}
@@ -23,9 +23,12 @@ import io.ballerina.runtime.api.creators.TypeCreator;
 import io.ballerina.runtime.api.creators.ValueCreator;
 import io.ballerina.runtime.api.flags.SymbolFlags;
 import io.ballerina.runtime.api.types.ArrayType;
+import io.ballerina.runtime.api.types.MapType;
+import io.ballerina.runtime.api.types.PredefinedTypes;
 import io.ballerina.runtime.api.types.RecordType;
 import io.ballerina.runtime.api.utils.StringUtils;
 import io.ballerina.runtime.api.values.BArray;
+import io.ballerina.runtime.api.values.BDecimal;
 import io.ballerina.runtime.api.values.BError;
 import io.ballerina.runtime.api.values.BMap;
 import io.ballerina.runtime.api.values.BString;
@@ -34,6 +37,8 @@ import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
 import software.amazon.awssdk.awscore.exception.AwsServiceException;
 import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageRequest;
 import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.MeterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.MeterUsageResponse;
 import software.amazon.awssdk.services.marketplacemetering.model.ResolveCustomerResponse;
 import software.amazon.awssdk.services.marketplacemetering.model.Tag;
 import software.amazon.awssdk.services.marketplacemetering.model.UsageAllocation;
@@ -41,9 +46,18 @@ import software.amazon.awssdk.services.marketplacemetering.model.UsageRecord;
 import software.amazon.awssdk.services.marketplacemetering.model.UsageRecordResult;
 import software.amazon.awssdk.services.marketplacemetering.model.UsageRecordResultStatus;
 
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * {@code CommonUtils} contains the common utility functions for the Ballerina AWS MPM connector.
@@ -62,6 +76,29 @@ public final class CommonUtils {
     private static final RecordType TAG_REC_TYPE = TypeCreator.createRecordType(
             Constants.MPM_TAG, ModuleUtils.getModule(), SymbolFlags.PUBLIC, true, 0);
     private static final ArrayType TAG_ARR_TYPE = TypeCreator.createArrayType(TAG_REC_TYPE);
+    private static final ArrayType PRODUCT_USAGE_RECORD_ARR_TYPE = TypeCreator.createArrayType(
+            TypeCreator.createRecordType(Constants.MPM_PRODUCT_USAGE_RECORD, ModuleUtils.getModule(),
+                    SymbolFlags.PUBLIC, true, 0));
+    private static final ArrayType PRODUCT_USAGE_RECORD_RESULT_ARR_TYPE = TypeCreator.createArrayType(
+            TypeCreator.createRecordType(Constants.MPM_PRODUCT_USAGE_RECORD_RESULT, ModuleUtils.getModule(),
+                    SymbolFlags.PUBLIC, true, 0));
+    private static final ArrayType PRODUCT_USAGE_ERROR_ARR_TYPE = TypeCreator.createArrayType(
+            TypeCreator.createRecordType(Constants.MPM_PRODUCT_USAGE_ERROR, ModuleUtils.getModule(),
+                    SymbolFlags.PUBLIC, true, 0));
+    private static final RecordType EXPIRED_USAGE_REC_TYPE = TypeCreator.createRecordType(
+            Constants.MPM_EXPIRED_USAGE, ModuleUtils.getModule(), SymbolFlags.PUBLIC, true, 0);
+    private static final MapType INT_MAP_TYPE = TypeCreator.createMapType(PredefinedTypes.TYPE_INT);
+    private static final MapType CIRCUIT_BREAKER_METRICS_MAP_TYPE = TypeCreator.createMapType(
+            TypeCreator.createRecordType(Constants.MPM_CIRCUIT_BREAKER_METRICS, ModuleUtils.getModule(),
+                    SymbolFlags.PUBLIC, true, 0));
+
+    private static final Map<UsageRecordResultStatus, BString> USAGE_RECORD_STATUSES = new EnumMap<>(Map.of(
+            UsageRecordResultStatus.SUCCESS, StringUtils.fromString(UsageRecordResultStatus.SUCCESS.toString()),
+            UsageRecordResultStatus.CUSTOMER_NOT_SUBSCRIBED,
+            StringUtils.fromString(UsageRecordResultStatus.CUSTOMER_NOT_SUBSCRIBED.toString()),
+            UsageRecordResultStatus.DUPLICATE_RECORD,
+            StringUtils.fromString(UsageRecordResultStatus.DUPLICATE_RECORD.toString())));
+    private static final String DRY_RUN_OPERATION_ERROR_CODE = "DryRunOperation";
 
     private CommonUtils() {
     }
@@ -78,85 +115,289 @@ public final class CommonUtils {
         return resolveCustomerResponse;
     }
 
+    public static BMap<BString, Object> getBRegisterUsageResponse(UsageRegistrar.Registration registration) {
+        BMap<BString, Object> registerUsageResponse = ValueCreator.createRecordValue(
+                ModuleUtils.getModule(), Constants.MPM_REGISTER_USAGE);
+        registerUsageResponse.put(Constants.MPM_REGISTER_USAGE_SIGNATURE,
+                StringUtils.fromString(registration.signature()));
+        if (Objects.nonNull(registration.publicKeyRotationTimestamp())) {
+            registerUsageResponse.put(Constants.MPM_REGISTER_USAGE_KEY_ROTATION,
+                    new Utc(registration.publicKeyRotationTimestamp()).build());
+        }
+        if (Objects.nonNull(registration.issuedAt())) {
+            registerUsageResponse.put(Constants.MPM_REGISTER_USAGE_ISSUED_AT, new Utc(registration.issuedAt()).build());
+        }
+        registerUsageResponse.put(Constants.MPM_REGISTER_USAGE_EXPIRES_AT, new Utc(registration.expiresAt()).build());
+        registerUsageResponse.put(Constants.MPM_REGISTER_USAGE_VERIFIED, registration.verified());
+        return registerUsageResponse;
+    }
+
+    /**
+     * Converts a Ballerina {@code BatchMeterUsage} request, validating it in the same pass.
+     *
+     * @param request   The Ballerina {@code BatchMeterUsage} request.
+     * @param validator The validator which accumulates the constraint failures of the request.
+     * @return The native request, which must be discarded if the validator reports failures.
+     */
     @SuppressWarnings("unchecked")
-    public static BatchMeterUsageRequest getNativeBatchMeterUsageRequest(BMap<BString, Object> request) {
+    public static BatchMeterUsageRequest getNativeBatchMeterUsageRequest(BMap<BString, Object> request,
+                                                                         RequestValidator validator) {
         String productCode = request.getStringValue(Constants.MPM_BATCH_METER_USAGE_PRODUCT_CODE).getValue();
+        if (!validator.isValidProductCode(productCode)) {
+            validator.fail("$.productCode", RequestValidator.PATTERN);
+        }
         BatchMeterUsageRequest.Builder requestBuilder = BatchMeterUsageRequest.builder().productCode(productCode);
         BArray usageRecords = request.getArrayValue(Constants.MPM_BATCH_METER_USAGE_RECORDS);
-        List<UsageRecord> nativeUsageRecords = new ArrayList<>();
-        for (int i = 0; i < usageRecords.size(); i++) {
+        int recordCount = usageRecords.size();
+        if (recordCount > RequestValidator.MAX_USAGE_RECORDS) {
+            validator.fail("$.usageRecords", RequestValidator.MAX_LENGTH);
+        }
+        List<UsageRecord> nativeUsageRecords = new ArrayList<>(recordCount);
+        for (int i = 0; i < recordCount; i++) {
             BMap<BString, Object> bUsageRecord = (BMap) usageRecords.get(i);
-            UsageRecord usageRecord = toNativeUsageRecord(bUsageRecord);
+            UsageRecord usageRecord = toNativeUsageRecord(bUsageRecord, validator, i);
             nativeUsageRecords.add(usageRecord);
         }
         return requestBuilder.usageRecords(nativeUsageRecords).build();
     }
 
-    @SuppressWarnings("unchecked")
-    private static UsageRecord toNativeUsageRecord(BMap<BString, Object> bUsageRecord) {
+    /**
+     * Converts a Ballerina usage record, validating it in the same pass.
+     *
+     * @param bUsageRecord The Ballerina usage record.
+     * @param validator    The validator which accumulates the constraint failures of the request.
+     * @param recordIndex  The index of the usage record in its request, used in the paths of the failures.
+     * @return The native usage record, which must be discarded if the validator reports failures.
+     */
+    public static UsageRecord toNativeUsageRecord(BMap<BString, Object> bUsageRecord, RequestValidator validator,
+                                                  long recordIndex) {
         String customerIdentifier = bUsageRecord.getStringValue(Constants.MPM_USAGE_RECORD_CUSTOMER_IDFR).getValue();
+        if (!validator.isValidIdentifier(customerIdentifier)) {
+            validator.fail(RequestValidator.recordPath(recordIndex) + ".customerIdentifier", RequestValidator.PATTERN);
+        }
         String dimension = bUsageRecord.getStringValue(Constants.MPM_USAGE_RECORD_DIMENSION).getValue();
+        if (!validator.isValidIdentifier(dimension)) {
+            validator.fail(RequestValidator.recordPath(recordIndex) + ".dimension", RequestValidator.PATTERN);
+        }
         BArray timestamp = bUsageRecord.getArrayValue(Constants.MPM_USAGE_RECORD_TIMESTAMP);
-        Utc utcTimestamp = new Utc(timestamp);
         UsageRecord.Builder builder = UsageRecord.builder()
                 .customerIdentifier(customerIdentifier)
                 .dimension(dimension)
-                .timestamp(utcTimestamp.generateInstant());
+                .timestamp(toInstant(timestamp));
         if (bUsageRecord.containsKey(Constants.MPM_USAGE_RECORD_QUANTITY)) {
-            builder = builder.quantity(bUsageRecord.getIntValue(Constants.MPM_USAGE_RECORD_QUANTITY).intValue());
+            long quantity = bUsageRecord.getIntValue(Constants.MPM_USAGE_RECORD_QUANTITY);
+            String failedConstraint = RequestValidator.checkQuantity(quantity);
+            if (Objects.nonNull(failedConstraint)) {
+                validator.fail(RequestValidator.recordPath(recordIndex) + ".quantity", failedConstraint);
+            }
+            builder.quantity((int) quantity);
         }
         if (bUsageRecord.containsKey(Constants.MPM_USAGE_RECORD_USAGE_ALLOCATION)) {
-            BArray usageAllocations = bUsageRecord.getArrayValue(Constants.MPM_USAGE_RECORD_USAGE_ALLOCATION);
-            List<UsageAllocation> nativeUsageAllocations = new ArrayList<>();
-            for (int i = 0; i < usageAllocations.size(); i++) {
-                BMap<BString, Object> bUsageAllocation = (BMap) usageAllocations.get(i);
-                UsageAllocation usageAllocation = toNativeUsageAllocation(bUsageAllocation);
-                nativeUsageAllocations.add(usageAllocation);
-            }
-            builder = builder.usageAllocations(nativeUsageAllocations);
+            builder.usageAllocations(toNativeUsageAllocations(
+                    bUsageRecord.getArrayValue(Constants.MPM_USAGE_RECORD_USAGE_ALLOCATION), validator, recordIndex));
         }
         return builder.build();
     }
 
+    /**
+     * Converts a Ballerina {@code MeterUsage} request, validating it in the same pass.
+     *
+     * @param request   The Ballerina {@code MeterUsage} request.
+     * @param validator The validator which accumulates the constraint failures of the request.
+     * @return The native request, which must be discarded if the validator reports failures.
+     */
+    public static MeterUsageRequest getNativeMeterUsageRequest(BMap<BString, Object> request,
+                                                               RequestValidator validator) {
+        String productCode = request.getStringValue(Constants.MPM_METER_USAGE_PRODUCT_CODE).getValue();
+        if (!validator.isValidProductCode(productCode)) {
+            validator.fail("$.productCode", RequestValidator.PATTERN);
+        }
+        String usageDimension = request.getStringValue(Constants.MPM_METER_USAGE_DIMENSION).getValue();
+        if (!validator.isValidIdentifier(usageDimension)) {
+            validator.fail("$.usageDimension", RequestValidator.PATTERN);
+        }
+        long usageQuantity = request.getIntValue(Constants.MPM_METER_USAGE_QUANTITY);
+        String failedConstraint = RequestValidator.checkQuantity(usageQuantity);
+        if (Objects.nonNull(failedConstraint)) {
+            validator.fail("$.usageQuantity", failedConstraint);
+        }
+        BArray timestamp = request.getArrayValue(Constants.MPM_METER_USAGE_TIMESTAMP);
+        MeterUsageRequest.Builder builder = MeterUsageRequest.builder()
+                .productCode(productCode)
+                .timestamp(toInstant(timestamp))
+                .usageDimension(usageDimension)
+                .usageQuantity((int) usageQuantity)
+                .dryRun(request.getBooleanValue(Constants.MPM_METER_USAGE_DRY_RUN));
+        if (request.containsKey(Constants.MPM_METER_USAGE_ALLOCATIONS)) {
+            builder.usageAllocations(toNativeUsageAllocations(
+                    request.getArrayValue(Constants.MPM_METER_USAGE_ALLOCATIONS), validator, -1));
+        }
+        return builder.build();
+    }
+
+    public static BMap<BString, Object> getBMeterUsageResponse(MeterUsageResponse nativeResponse) {
+        BMap<BString, Object> meterUsageResponse = ValueCreator.createRecordValue(
+                ModuleUtils.getModule(), Constants.MPM_METER_USAGE_RESPONSE);
+        if (Objects.nonNull(nativeResponse.meteringRecordId())) {
+            meterUsageResponse.put(Constants.MPM_METER_USAGE_RESPONSE_METERING_RECORD,
+                    StringUtils.fromString(nativeResponse.meteringRecordId()));
+        }
+        return meterUsageResponse;
+    }
+
+    /**
+     * Checks whether the provided error is the response of a {@code MeterUsage} dry run which would have succeeded.
+     *
+     * @param cause The error returned by the operation.
+     * @return {@code true} if the dry run succeeded, {@code false} otherwise.
+     */
+    public static boolean isSuccessfulDryRun(Throwable cause) {
+        return cause instanceof AwsServiceException serviceException
+                && Objects.nonNull(serviceException.awsErrorDetails())
+                && DRY_RUN_OPERATION_ERROR_CODE.equals(serviceException.awsErrorDetails().errorCode());
+    }
+
+    /**
+     * Converts a Ballerina {@code time:Utc} into an {@link Instant} without the intermediate time-native
+     * representation.
+     *
+     * @param utc The Ballerina {@code time:Utc} tuple of epoch seconds and the fraction of the last second.
+     * @return The corresponding {@link Instant}.
+     */
+    public static Instant toInstant(BArray utc) {
+        BigDecimal fraction = ((BDecimal) utc.get(1)).decimalValue();
+        long nanos = fraction.signum() == 0 ? 0 : fraction.movePointRight(9).longValue();
+        return Instant.ofEpochSecond(utc.getInt(0), nanos);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<UsageAllocation> toNativeUsageAllocations(BArray usageAllocations,
+                                                                  RequestValidator validator, long recordIndex) {
+        int allocationCount = usageAllocations.size();
+        String failedConstraint = RequestValidator.checkLength(
+                allocationCount, 1, RequestValidator.MAX_USAGE_ALLOCATIONS);
+        if (Objects.nonNull(failedConstraint)) {
+            validator.fail(RequestValidator.allocationsPath(recordIndex), failedConstraint);
+        }
+        List<UsageAllocation> nativeUsageAllocations = new ArrayList<>(allocationCount);
+        for (int i = 0; i < allocationCount; i++) {
+            nativeUsageAllocations.add(toNativeUsageAllocation(
+                    (BMap<BString, Object>) usageAllocations.get(i), validator, recordIndex, i));
+        }
+        return nativeUsageAllocations;
+    }
+
     @SuppressWarnings("unchecked")
-    private static UsageAllocation toNativeUsageAllocation(BMap<BString, Object> bUsageAllocation) {
-        int allocatedQuantity = bUsageAllocation.getIntValue(Constants.MPM_USAGE_ALLOC_USAGE_QUANTITY).intValue();
-        UsageAllocation.Builder builder = UsageAllocation.builder().allocatedUsageQuantity(allocatedQuantity);
+    private static UsageAllocation toNativeUsageAllocation(BMap<BString, Object> bUsageAllocation,
+                                                           RequestValidator validator, long recordIndex,
+                                                           int allocationIndex) {
+        long allocatedQuantity = bUsageAllocation.getIntValue(Constants.MPM_USAGE_ALLOC_USAGE_QUANTITY);
+        String failedConstraint = RequestValidator.checkQuantity(allocatedQuantity);
+        if (Objects.nonNull(failedConstraint)) {
+            validator.fail(RequestValidator.allocationPath(recordIndex, allocationIndex) + ".allocatedUsageQuantity",
+                    failedConstraint);
+        }
+        UsageAllocation.Builder builder = UsageAllocation.builder().allocatedUsageQuantity((int) allocatedQuantity);
         if (bUsageAllocation.containsKey(Constants.MPM_USAGE_ALLOC_TAGS)) {
             BArray tags = bUsageAllocation.getArrayValue(Constants.MPM_USAGE_ALLOC_TAGS);
-            List<Tag> nativeTags = new ArrayList<>();
-            for (int i = 0; i < tags.size(); i++) {
+            int tagCount = tags.size();
+            failedConstraint = RequestValidator.checkLength(tagCount, 1, RequestValidator.MAX_TAGS);
+            if (Objects.nonNull(failedConstraint)) {
+                validator.fail(RequestValidator.allocationPath(recordIndex, allocationIndex) + ".tags",
+                        failedConstraint);
+            }
+            List<Tag> nativeTags = new ArrayList<>(tagCount);
+            for (int i = 0; i < tagCount; i++) {
                 BMap<BString, Object> bTag = (BMap) tags.get(i);
                 String key = bTag.getStringValue(Constants.MPM_TAG_KEY).getValue();
                 String value = bTag.getStringValue(Constants.MPM_TAG_VALUE).getValue();
-                Tag nativeTag = Tag.builder().key(key).value(value).build();
-                nativeTags.add(nativeTag);
+                nativeTags.add(toNativeTag(key, value, validator, recordIndex, allocationIndex, i));
             }
-            builder = builder.tags(nativeTags);
+            builder.tags(nativeTags);
         }
         return builder.build();
     }
 
+    private static Tag toNativeTag(String key, String value, RequestValidator validator, long recordIndex,
+                                   int allocationIndex, int tagIndex) {
+        Tag nativeTag = validator.getValidTag(key, value);
+        if (Objects.nonNull(nativeTag)) {
+            return nativeTag;
+        }
+        boolean valid = true;
+        if (!validator.isValidTagKey(key)) {
+            validator.fail(RequestValidator.allocationPath(recordIndex, allocationIndex) + ".tags[" + tagIndex
+                    + "].key", RequestValidator.PATTERN);
+            valid = false;
+        }
+        if (!validator.isValidTagValue(value)) {
+            validator.fail(RequestValidator.allocationPath(recordIndex, allocationIndex) + ".tags[" + tagIndex
+                    + "].value", RequestValidator.PATTERN);
+            valid = false;
+        }
+        nativeTag = Tag.builder().key(key).value(value).build();
+        if (valid) {
+            validator.putValidTag(nativeTag);
+        }
+        return nativeTag;
+    }
+
     public static BMap<BString, Object> getBBatchMeterUsageResponse(BatchMeterUsageResponse nativeResponse) {
+        ConversionCache conversionCache = new ConversionCache();
         BMap<BString, Object> batchMeterUsageResponse = ValueCreator.createRecordValue(
                 ModuleUtils.getModule(), Constants.MPM_BATCH_METER_USAGE_RESPONSE);
-        BArray usageRecordResults = ValueCreator.createArrayValue(USAGE_RECORD_RESULT_ARR_TYPE);
-        nativeResponse.results().forEach(result -> {
-            BMap<BString, Object> bUsageRecordResult = toBUsageRecordResult(result);
-            usageRecordResults.append(bUsageRecordResult);
-        });
-        batchMeterUsageResponse.put(Constants.MPM_BATCH_METER_USAGE_RESPONSE_RESULTS, usageRecordResults);
-        BArray unprocessedRecords = ValueCreator.createArrayValue(USAGE_RECORD_ARR_TYPE);
-        nativeResponse.unprocessedRecords().forEach(unprocessedRecord -> {
-            BMap<BString, Object> bUsageRecord = toBUsageRecord(unprocessedRecord);
-            unprocessedRecords.append(bUsageRecord);
-        });
-        batchMeterUsageResponse.put(Constants.MPM_BATCH_METER_USAGE_RESPONSE_UNPROC_RECORDS, unprocessedRecords);
+        batchMeterUsageResponse.put(Constants.MPM_BATCH_METER_USAGE_RESPONSE_RESULTS,
+                getBUsageRecordResults(nativeResponse.results(), conversionCache));
+        List<UsageRecord> nativeUnprocessedRecords = nativeResponse.unprocessedRecords();
+        Object[] unprocessedRecords = new Object[nativeUnprocessedRecords.size()];
+        for (int i = 0; i < unprocessedRecords.length; i++) {
+            unprocessedRecords[i] = toBUsageRecord(nativeUnprocessedRecords.get(i), conversionCache);
+        }
+        batchMeterUsageResponse.put(Constants.MPM_BATCH_METER_USAGE_RESPONSE_UNPROC_RECORDS,
+                ValueCreator.createArrayValue(unprocessedRecords, USAGE_RECORD_ARR_TYPE));
         return batchMeterUsageResponse;
     }
 
-    private static BMap<BString, Object> toBUsageRecordResult(UsageRecordResult nativeUsageRecordResult) {
+    public static BMap<BString, Object> toBUsageRecordResult(UsageRecordResult nativeUsageRecordResult) {
+        return toBUsageRecordResult(nativeUsageRecordResult, new ConversionCache());
+    }
+
+    private static BMap<BString, Object> toBUsageRecordResult(UsageRecordResult nativeUsageRecordResult,
+                                                              ConversionCache conversionCache) {
+        BMap<BString, Object> bUsageRecordResult = toBCompactUsageRecordResult(nativeUsageRecordResult);
+        UsageRecord usageRecord = nativeUsageRecordResult.usageRecord();
+        if (Objects.nonNull(usageRecord)) {
+            BMap<BString, Object> bUsageRecord = toBUsageRecord(usageRecord, conversionCache);
+            bUsageRecordResult.put(Constants.MPM_USAGE_RECORD_RESULT_USAGE_RECORD, bUsageRecord);
+        }
+        return bUsageRecordResult;
+    }
+
+    /**
+     * Converts a usage record result without materializing the echoed usage record, which the caller already has.
+     *
+     * @param nativeUsageRecordResult The native usage record result.
+     * @param recordIndex             The index of the usage record in the original request, or {@code -1} if the
+     *                                usage record could not be matched.
+     * @return The Ballerina usage record result carrying the record index instead of the usage record.
+     */
+    public static BMap<BString, Object> toBCompactUsageRecordResult(UsageRecordResult nativeUsageRecordResult,
+                                                                    long recordIndex) {
+        BMap<BString, Object> bUsageRecordResult = toBCompactUsageRecordResult(nativeUsageRecordResult);
+        if (recordIndex >= 0) {
+            bUsageRecordResult.put(Constants.MPM_USAGE_RECORD_RESULT_RECORD_INDEX, recordIndex);
+        }
+        return bUsageRecordResult;
+    }
+
+    private static BMap<BString, Object> toBCompactUsageRecordResult(UsageRecordResult nativeUsageRecordResult) {
         BMap<BString, Object> bUsageRecordResult = ValueCreator.createRecordValue(USAGE_RECORD_RESULT_REC_TYPE);
+        putBUsageRecordResult(bUsageRecordResult, nativeUsageRecordResult);
+        return bUsageRecordResult;
+    }
+
+    private static void putBUsageRecordResult(BMap<BString, Object> bUsageRecordResult,
+                                              UsageRecordResult nativeUsageRecordResult) {
         String meteringRecordId = nativeUsageRecordResult.meteringRecordId();
         if (Objects.nonNull(meteringRecordId)) {
             bUsageRecordResult.put(
@@ -164,56 +405,417 @@ public final class CommonUtils {
         }
         UsageRecordResultStatus status = nativeUsageRecordResult.status();
         if (Objects.nonNull(status)) {
-            bUsageRecordResult.put(Constants.MPM_USAGE_RECORD_RESULT_STATUS, StringUtils.fromString(status.toString()));
+            bUsageRecordResult.put(Constants.MPM_USAGE_RECORD_RESULT_STATUS, getBStatus(status));
         }
-        UsageRecord usageRecord = nativeUsageRecordResult.usageRecord();
-        if (Objects.nonNull(usageRecord)) {
-            BMap<BString, Object> bUsageRecord = toBUsageRecord(usageRecord);
-            bUsageRecordResult.put(Constants.MPM_USAGE_RECORD_RESULT_USAGE_RECORD, bUsageRecord);
+    }
+
+    /**
+     * Reads the usage records of a {@code meterProductUsage} request, validating them in the same pass.
+     *
+     * @param bUsageRecords The Ballerina product usage records.
+     * @param validator     The validator which accumulates the constraint failures of the request.
+     * @return The native product usage records, which must be discarded if the validator reports failures.
+     */
+    @SuppressWarnings("unchecked")
+    public static List<FanOutDispatcher.ProductUsageRecord> toNativeProductUsageRecords(
+            BArray bUsageRecords, RequestValidator validator) {
+        int recordCount = bUsageRecords.size();
+        if (recordCount < 1) {
+            validator.fail("$.usageRecords", RequestValidator.MIN_LENGTH);
         }
-        return bUsageRecordResult;
+        List<FanOutDispatcher.ProductUsageRecord> usageRecords = new ArrayList<>(recordCount);
+        for (int i = 0; i < recordCount; i++) {
+            BMap<BString, Object> bUsageRecord = (BMap<BString, Object>) bUsageRecords.get(i);
+            String productCode = bUsageRecord.getStringValue(Constants.MPM_PRODUCT_USAGE_RECORD_PRODUCT_CODE)
+                    .getValue();
+            if (!validator.isValidProductCode(productCode)) {
+                validator.fail(RequestValidator.recordPath(i) + ".productCode", RequestValidator.PATTERN);
+            }
+            usageRecords.add(new FanOutDispatcher.ProductUsageRecord(
+                    productCode, toNativeUsageRecord(bUsageRecord, validator, i)));
+        }
+        return usageRecords;
+    }
+
+    /**
+     * Merges the outcomes of the usage records of a {@code meterProductUsage} request into a single response. The
+     * Ballerina usage records of the request are reused for the unprocessed usage records.
+     *
+     * @param bUsageRecords     The Ballerina product usage records of the request.
+     * @param dispatchedRecords The outcome of each usage record, at the position of the usage record.
+     * @param compactResults    Whether the usage record results are returned in the compact form.
+     * @return The Ballerina AWS MPM product usage response.
+     */
+    @SuppressWarnings("unchecked")
+    public static BMap<BString, Object> getBProductUsageResponse(
+            BArray bUsageRecords, List<FanOutDispatcher.DispatchedRecord> dispatchedRecords,
+            boolean compactResults) {
+        ConversionCache conversionCache = new ConversionCache();
+        List<Object> results = new ArrayList<>(dispatchedRecords.size());
+        List<Object> unprocessedRecords = new ArrayList<>();
+        Map<Throwable, List<Integer>> failedRecords = new LinkedHashMap<>();
+        for (int i = 0; i < dispatchedRecords.size(); i++) {
+            FanOutDispatcher.DispatchedRecord dispatchedRecord = dispatchedRecords.get(i);
+            BMap<BString, Object> bUsageRecord = (BMap<BString, Object>) bUsageRecords.get(i);
+            UsageRecordResult nativeResult = dispatchedRecord.result();
+            if (Objects.isNull(nativeResult)) {
+                unprocessedRecords.add(bUsageRecord);
+                if (Objects.nonNull(dispatchedRecord.failure())) {
+                    failedRecords.computeIfAbsent(dispatchedRecord.failure(), failure -> new ArrayList<>()).add(i);
+                }
+                continue;
+            }
+            BMap<BString, Object> bResult = ValueCreator.createRecordValue(
+                    ModuleUtils.getModule(), Constants.MPM_PRODUCT_USAGE_RECORD_RESULT);
+            putBUsageRecordResult(bResult, nativeResult);
+            bResult.put(Constants.MPM_PRODUCT_USAGE_RECORD_PRODUCT_CODE,
+                    bUsageRecord.getStringValue(Constants.MPM_PRODUCT_USAGE_RECORD_PRODUCT_CODE));
+            bResult.put(Constants.MPM_PRODUCT_USAGE_RECORD_RESULT_REGION,
+                    StringUtils.fromString(dispatchedRecord.region().id()));
+            if (compactResults) {
+                bResult.put(Constants.MPM_USAGE_RECORD_RESULT_RECORD_INDEX, (long) i);
+            } else if (Objects.nonNull(nativeResult.usageRecord())) {
+                bResult.put(Constants.MPM_USAGE_RECORD_RESULT_USAGE_RECORD,
+                        toBUsageRecord(nativeResult.usageRecord(), conversionCache));
+            }
+            results.add(bResult);
+        }
+        List<Object> errors = new ArrayList<>(failedRecords.size());
+        failedRecords.forEach((failure, recordIndexes) -> {
+            FanOutDispatcher.DispatchedRecord firstRecord = dispatchedRecords.get(recordIndexes.get(0));
+            BMap<BString, Object> bError = ValueCreator.createRecordValue(
+                    ModuleUtils.getModule(), Constants.MPM_PRODUCT_USAGE_ERROR);
+            bError.put(Constants.MPM_PRODUCT_USAGE_RECORD_PRODUCT_CODE,
+                    ((BMap<BString, Object>) bUsageRecords.get(recordIndexes.get(0)))
+                            .getStringValue(Constants.MPM_PRODUCT_USAGE_RECORD_PRODUCT_CODE));
+            bError.put(Constants.MPM_PRODUCT_USAGE_RECORD_RESULT_REGION,
+                    StringUtils.fromString(firstRecord.region().id()));
+            bError.put(Constants.MPM_PRODUCT_USAGE_ERROR_RECORD_INDEXES,
+                    ValueCreator.createArrayValue(recordIndexes.stream().mapToLong(Integer::longValue).toArray()));
+            bError.put(Constants.MPM_PRODUCT_USAGE_ERROR_MESSAGE, StringUtils.fromString(
+                    String.valueOf(failure.getMessage())));
+            bError.put(Constants.MPM_PRODUCT_USAGE_ERROR_CODE, StringUtils.fromString(getErrorCode(failure)));
+            errors.add(bError);
+        });
+        BMap<BString, Object> bResponse = ValueCreator.createRecordValue(
+                ModuleUtils.getModule(), Constants.MPM_PRODUCT_USAGE_RESPONSE);
+        bResponse.put(Constants.MPM_BATCH_METER_USAGE_RESPONSE_RESULTS,
+                ValueCreator.createArrayValue(results.toArray(), PRODUCT_USAGE_RECORD_RESULT_ARR_TYPE));
+        bResponse.put(Constants.MPM_BATCH_METER_USAGE_RESPONSE_UNPROC_RECORDS,
+                ValueCreator.createArrayValue(unprocessedRecords.toArray(), PRODUCT_USAGE_RECORD_ARR_TYPE));
+        bResponse.put(Constants.MPM_PRODUCT_USAGE_RESPONSE_ERRORS,
+                ValueCreator.createArrayValue(errors.toArray(), PRODUCT_USAGE_ERROR_ARR_TYPE));
+        return bResponse;
+    }
+
+    /**
+     * Converts the summary of a usage file ingestion into the Ballerina usage file summary.
+     *
+     * @param summary     The summary of the usage file ingestion.
+     * @param resultsPath The file to which the outcome of every line was appended.
+     * @return The Ballerina AWS MPM usage file summary.
+     */
+    public static BMap<BString, Object> getBUsageFileSummary(UsageFileIngester.Summary summary, Path resultsPath) {
+        BMap<BString, Object> bSummary = ValueCreator.createRecordValue(
+                ModuleUtils.getModule(), Constants.MPM_USAGE_FILE_SUMMARY);
+        bSummary.put(Constants.MPM_USAGE_FILE_SUMMARY_LINES, summary.lines());
+        bSummary.put(Constants.MPM_USAGE_FILE_SUMMARY_METERED, summary.meteredRecords());
+        bSummary.put(Constants.MPM_USAGE_FILE_SUMMARY_UNPROCESSED, summary.unprocessedRecords());
+        bSummary.put(Constants.MPM_USAGE_FILE_SUMMARY_FAILED, summary.failedRecords());
+        bSummary.put(Constants.MPM_USAGE_FILE_SUMMARY_INVALID, summary.invalidLines());
+        bSummary.put(Constants.MPM_USAGE_FILE_SUMMARY_RESUMED_FROM, summary.resumedFromLine());
+        bSummary.put(Constants.MPM_USAGE_FILE_RESULTS_PATH, StringUtils.fromString(resultsPath.toString()));
+        return bSummary;
+    }
+
+    /**
+     * Converts a {@code BatchMeterUsage} response into its compact form, in which each result carries the index of
+     * its usage record in the provided request instead of the echoed usage record.
+     *
+     * @param nativeResponse The native {@code BatchMeterUsage} response.
+     * @param nativeRequest  The native {@code BatchMeterUsage} request which produced the response.
+     * @return The compact Ballerina {@code BatchMeterUsage} response.
+     */
+    public static BMap<BString, Object> getBCompactBatchMeterUsageResponse(BatchMeterUsageResponse nativeResponse,
+                                                                           BatchMeterUsageRequest nativeRequest) {
+        ConversionCache conversionCache = new ConversionCache();
+        BMap<BString, Object> batchMeterUsageResponse = ValueCreator.createRecordValue(
+                ModuleUtils.getModule(), Constants.MPM_BATCH_METER_USAGE_RESPONSE);
+        List<UsageRecordResult> nativeResults = nativeResponse.results();
+        int[] recordIndexes = UsageRecordKey.indexesOf(nativeRequest.usageRecords(), nativeResults);
+        Object[] usageRecordResults = new Object[nativeResults.size()];
+        for (int i = 0; i < usageRecordResults.length; i++) {
+            usageRecordResults[i] = toBCompactUsageRecordResult(nativeResults.get(i), recordIndexes[i]);
+        }
+        batchMeterUsageResponse.put(Constants.MPM_BATCH_METER_USAGE_RESPONSE_RESULTS,
+                ValueCreator.createArrayValue(usageRecordResults, USAGE_RECORD_RESULT_ARR_TYPE));
+        List<UsageRecord> nativeUnprocessedRecords = nativeResponse.unprocessedRecords();
+        Object[] unprocessedRecords = new Object[nativeUnprocessedRecords.size()];
+        for (int i = 0; i < unprocessedRecords.length; i++) {
+            unprocessedRecords[i] = toBUsageRecord(nativeUnprocessedRecords.get(i), conversionCache);
+        }
+        batchMeterUsageResponse.put(Constants.MPM_BATCH_METER_USAGE_RESPONSE_UNPROC_RECORDS,
+                ValueCreator.createArrayValue(unprocessedRecords, USAGE_RECORD_ARR_TYPE));
+        return batchMeterUsageResponse;
     }
 
-    private static BMap<BString, Object> toBUsageRecord(UsageRecord nativeUsageRecord) {
+    private static BString getBStatus(UsageRecordResultStatus status) {
+        BString bStatus = USAGE_RECORD_STATUSES.get(status);
+        return Objects.nonNull(bStatus) ? bStatus : StringUtils.fromString(status.toString());
+    }
+
+    private static BMap<BString, Object> toBUsageRecord(UsageRecord nativeUsageRecord,
+                                                        ConversionCache conversionCache) {
         BMap<BString, Object> bUsageRecord = ValueCreator.createRecordValue(USAGE_RECORD_REC_TYPE);
         bUsageRecord.put(Constants.MPM_USAGE_RECORD_CUSTOMER_IDFR,
                 StringUtils.fromString(nativeUsageRecord.customerIdentifier()));
-        bUsageRecord.put(Constants.MPM_USAGE_RECORD_DIMENSION, StringUtils.fromString(nativeUsageRecord.dimension()));
-        bUsageRecord.put(Constants.MPM_USAGE_RECORD_TIMESTAMP, new Utc(nativeUsageRecord.timestamp()));
+        bUsageRecord.put(Constants.MPM_USAGE_RECORD_DIMENSION,
+                conversionCache.getBString(nativeUsageRecord.dimension()));
+        bUsageRecord.put(Constants.MPM_USAGE_RECORD_TIMESTAMP, new Utc(nativeUsageRecord.timestamp()).build());
         Integer quantity = nativeUsageRecord.quantity();
         if (Objects.nonNull(quantity)) {
-            bUsageRecord.put(Constants.MPM_USAGE_RECORD_QUANTITY, quantity);
+            bUsageRecord.put(Constants.MPM_USAGE_RECORD_QUANTITY, quantity.longValue());
         }
-        List<UsageAllocation> nativeUsageAllocation = nativeUsageRecord.usageAllocations();
-        if (Objects.nonNull(nativeUsageAllocation) && !nativeUsageAllocation.isEmpty()) {
-            BArray usageAllocations = ValueCreator.createArrayValue(USAGE_ALLOC_ARR_TYPE);
-            nativeUsageAllocation.forEach(usageAllocation -> {
-                BMap<BString, Object> bUsageAllocation = toBUsageAllocation(usageAllocation);
-                usageAllocations.append(bUsageAllocation);
-            });
-            bUsageRecord.put(Constants.MPM_USAGE_RECORD_USAGE_ALLOCATION, usageAllocations);
+        if (nativeUsageRecord.hasUsageAllocations() && !nativeUsageRecord.usageAllocations().isEmpty()) {
+            List<UsageAllocation> nativeUsageAllocations = nativeUsageRecord.usageAllocations();
+            Object[] usageAllocations = new Object[nativeUsageAllocations.size()];
+            for (int i = 0; i < usageAllocations.length; i++) {
+                usageAllocations[i] = toBUsageAllocation(nativeUsageAllocations.get(i), conversionCache);
+            }
+            bUsageRecord.put(Constants.MPM_USAGE_RECORD_USAGE_ALLOCATION,
+                    ValueCreator.createArrayValue(usageAllocations, USAGE_ALLOC_ARR_TYPE));
         }
         return bUsageRecord;
     }
 
-    private static BMap<BString, Object> toBUsageAllocation(UsageAllocation nativeUsageAllocation) {
+    private static BMap<BString, Object> toBUsageAllocation(UsageAllocation nativeUsageAllocation,
+                                                            ConversionCache conversionCache) {
         BMap<BString, Object> bUsageAllocation = ValueCreator.createRecordValue(USAGE_ALLOC_REC_TYPE);
-        bUsageAllocation.put(
-                Constants.MPM_USAGE_ALLOC_USAGE_QUANTITY, nativeUsageAllocation.allocatedUsageQuantity());
-        List<Tag> nativeTags = nativeUsageAllocation.tags();
-        if (Objects.nonNull(nativeTags) && !nativeTags.isEmpty()) {
-            BArray tags = ValueCreator.createArrayValue(TAG_ARR_TYPE);
-            nativeTags.forEach(t -> {
+        bUsageAllocation.put(Constants.MPM_USAGE_ALLOC_USAGE_QUANTITY,
+                nativeUsageAllocation.allocatedUsageQuantity().longValue());
+        if (nativeUsageAllocation.hasTags() && !nativeUsageAllocation.tags().isEmpty()) {
+            List<Tag> nativeTags = nativeUsageAllocation.tags();
+            Object[] tags = new Object[nativeTags.size()];
+            for (int i = 0; i < tags.length; i++) {
+                Tag nativeTag = nativeTags.get(i);
                 BMap<BString, Object> bTag = ValueCreator.createRecordValue(TAG_REC_TYPE);
-                bTag.put(Constants.MPM_TAG_KEY, StringUtils.fromString(t.key()));
-                bTag.put(Constants.MPM_TAG_VALUE, StringUtils.fromString(t.value()));
-                tags.append(bTag);
-            });
-            bUsageAllocation.put(Constants.MPM_USAGE_ALLOC_TAGS, tags);
+                bTag.put(Constants.MPM_TAG_KEY, conversionCache.getBString(nativeTag.key()));
+                bTag.put(Constants.MPM_TAG_VALUE, conversionCache.getBString(nativeTag.value()));
+                tags[i] = bTag;
+            }
+            bUsageAllocation.put(Constants.MPM_USAGE_ALLOC_TAGS, ValueCreator.createArrayValue(tags, TAG_ARR_TYPE));
         }
         return bUsageAllocation;
     }
 
+    public static BMap<BString, Object> getBRetryMetrics(ResilientMeteringClient resilientClient) {
+        BMap<BString, Object> retryMetrics = ValueCreator.createRecordValue(
+                ModuleUtils.getModule(), Constants.MPM_RETRY_METRICS);
+        retryMetrics.put(Constants.MPM_RETRY_METRICS_RETRIES, resilientClient.getRetries());
+        retryMetrics.put(Constants.MPM_RETRY_METRICS_THROTTLED, resilientClient.getThrottledResponses());
+        retryMetrics.put(Constants.MPM_RETRY_METRICS_RESUBMITTED, resilientClient.getResubmittedRecords());
+        retryMetrics.put(Constants.MPM_RETRY_METRICS_EXHAUSTED, resilientClient.getExhaustedRequests());
+        AimdConcurrencyLimiter limiter = resilientClient.getLimiter();
+        retryMetrics.put(Constants.MPM_RETRY_METRICS_CONCURRENCY_LIMIT, (long) limiter.getLimit());
+        retryMetrics.put(Constants.MPM_RETRY_METRICS_IN_FLIGHT, (long) limiter.getInFlight());
+        retryMetrics.put(Constants.MPM_RETRY_METRICS_QUEUED, (long) limiter.getQueued());
+        return retryMetrics;
+    }
+
+    public static BMap<BString, Object> getBDeduplicationMetrics(DeduplicatingMeteringClient deduplicatingClient) {
+        BMap<BString, Object> deduplicationMetrics = ValueCreator.createRecordValue(
+                ModuleUtils.getModule(), Constants.MPM_DEDUPLICATION_METRICS);
+        deduplicationMetrics.put(Constants.MPM_DEDUPLICATION_METRICS_SUPPRESSED,
+                deduplicatingClient.getSuppressedRecords());
+        deduplicationMetrics.put(Constants.MPM_DEDUPLICATION_METRICS_INDEX_SIZE,
+                (long) deduplicatingClient.getIndex().size());
+        return deduplicationMetrics;
+    }
+
+    public static BMap<BString, Object> getBSpoolMetrics(SpoolingMeteringClient spoolingClient) {
+        BMap<BString, Object> spoolMetrics = ValueCreator.createRecordValue(
+                ModuleUtils.getModule(), Constants.MPM_SPOOL_METRICS);
+        spoolMetrics.put(Constants.MPM_SPOOL_METRICS_PENDING, spoolingClient.getSpool().getPendingRecords());
+        spoolMetrics.put(Constants.MPM_SPOOL_METRICS_FAILED_REPLAYS, spoolingClient.getFailedReplayRecords());
+        return spoolMetrics;
+    }
+
+    public static BMap<BString, Object> getBAggregationMetrics(UsageAggregator aggregator) {
+        BMap<BString, Object> aggregationMetrics = ValueCreator.createRecordValue(
+                ModuleUtils.getModule(), Constants.MPM_AGGREGATION_METRICS);
+        aggregationMetrics.put(Constants.MPM_AGGREGATION_METRICS_AGGREGATED, aggregator.getAggregatedRecords());
+        aggregationMetrics.put(Constants.MPM_AGGREGATION_METRICS_EMITTED, aggregator.getEmittedRecords());
+        aggregationMetrics.put(Constants.MPM_AGGREGATION_METRICS_OPEN_WINDOWS, (long) aggregator.getOpenWindows());
+        aggregationMetrics.put(Constants.MPM_AGGREGATION_METRICS_PENDING, (long) aggregator.getPendingEmissions());
+        aggregationMetrics.put(Constants.MPM_AGGREGATION_METRICS_EXPIRED, aggregator.getExpiredRecords());
+        return aggregationMetrics;
+    }
+
+    public static BArray getBExpiredUsageRecords(List<UsageAggregator.ExpiredUsage> expiredUsage) {
+        ConversionCache conversionCache = new ConversionCache();
+        Object[] expiredUsageRecords = new Object[expiredUsage.size()];
+        for (int i = 0; i < expiredUsageRecords.length; i++) {
+            UsageAggregator.ExpiredUsage usage = expiredUsage.get(i);
+            BMap<BString, Object> bExpiredUsage = ValueCreator.createRecordValue(EXPIRED_USAGE_REC_TYPE);
+            bExpiredUsage.put(Constants.MPM_EXPIRED_USAGE_PRODUCT_CODE, StringUtils.fromString(usage.productCode()));
+            bExpiredUsage.put(Constants.MPM_EXPIRED_USAGE_USAGE_RECORD,
+                    toBUsageRecord(usage.usageRecord(), conversionCache));
+            bExpiredUsage.put(Constants.MPM_EXPIRED_USAGE_DEADLINE, new Utc(usage.deadline()).build());
+            expiredUsageRecords[i] = bExpiredUsage;
+        }
+        return ValueCreator.createArrayValue(expiredUsageRecords, TypeCreator.createArrayType(EXPIRED_USAGE_REC_TYPE));
+    }
+
+    public static BMap<BString, Object> getBCircuitBreakerMetrics(CircuitBreakingMeteringClient client) {
+        BMap<BString, Object> circuitBreakers = ValueCreator.createMapValue(CIRCUIT_BREAKER_METRICS_MAP_TYPE);
+        for (CircuitBreaker breaker : client.getCircuitBreakers()) {
+            BMap<BString, Object> breakerMetrics = ValueCreator.createRecordValue(
+                    ModuleUtils.getModule(), Constants.MPM_CIRCUIT_BREAKER_METRICS);
+            breakerMetrics.put(Constants.MPM_CIRCUIT_BREAKER_METRICS_STATE,
+                    StringUtils.fromString(breaker.getState().name()));
+            breakerMetrics.put(Constants.MPM_CIRCUIT_BREAKER_METRICS_FAILURE_RATE, breaker.getFailureRate());
+            breakerMetrics.put(Constants.MPM_CIRCUIT_BREAKER_METRICS_REJECTED, breaker.getRejectedCalls());
+            breakerMetrics.put(Constants.MPM_CIRCUIT_BREAKER_METRICS_OPENINGS, breaker.getOpenings());
+            circuitBreakers.put(StringUtils.fromString(breaker.getOperation()), breakerMetrics);
+        }
+        return circuitBreakers;
+    }
+
+    public static BMap<BString, Object> getBHedgingMetrics(HedgingMeteringClient client) {
+        BMap<BString, Object> hedgingMetrics = ValueCreator.createRecordValue(
+                ModuleUtils.getModule(), Constants.MPM_HEDGING_METRICS);
+        hedgingMetrics.put(Constants.MPM_HEDGING_METRICS_CALLS, client.getCalls());
+        hedgingMetrics.put(Constants.MPM_HEDGING_METRICS_HEDGED, client.getHedgedCalls());
+        hedgingMetrics.put(Constants.MPM_HEDGING_METRICS_WINS, client.getHedgeWins());
+        hedgingMetrics.put(Constants.MPM_HEDGING_METRICS_SKIPPED, client.getSkippedHedges());
+        hedgingMetrics.put(Constants.MPM_HEDGING_METRICS_DELAY,
+                ValueCreator.createDecimalValue(BigDecimal.valueOf(client.getDelayInMicros(), 6)));
+        return hedgingMetrics;
+    }
+
+    public static BMap<BString, Object> getBResolveCustomerCacheMetrics(ResolveCustomerCache cache) {
+        BMap<BString, Object> cacheMetrics = ValueCreator.createRecordValue(
+                ModuleUtils.getModule(), Constants.MPM_CACHE_METRICS);
+        cacheMetrics.put(Constants.MPM_CACHE_METRICS_HITS, cache.getHits());
+        cacheMetrics.put(Constants.MPM_CACHE_METRICS_MISSES, cache.getMisses());
+        cacheMetrics.put(Constants.MPM_CACHE_METRICS_EVICTIONS, cache.getEvictions());
+        cacheMetrics.put(Constants.MPM_CACHE_METRICS_SIZE, (long) cache.size());
+        return cacheMetrics;
+    }
+
+    public static BMap<BString, Object> getBUsageRegistrationMetrics(UsageRegistrar usageRegistrar) {
+        BMap<BString, Object> cacheMetrics = ValueCreator.createRecordValue(
+                ModuleUtils.getModule(), Constants.MPM_CACHE_METRICS);
+        cacheMetrics.put(Constants.MPM_CACHE_METRICS_HITS, usageRegistrar.getHits());
+        cacheMetrics.put(Constants.MPM_CACHE_METRICS_MISSES, usageRegistrar.getMisses());
+        cacheMetrics.put(Constants.MPM_CACHE_METRICS_EVICTIONS, usageRegistrar.getEvictions());
+        cacheMetrics.put(Constants.MPM_CACHE_METRICS_SIZE, (long) usageRegistrar.size());
+        return cacheMetrics;
+    }
+
+    public static void putBInstrumentationMetrics(BMap<BString, Object> metrics,
+                                                  InstrumentedMeteringClient instrumentedClient) {
+        metrics.put(Constants.MPM_METRICS_BATCH_METER_USAGE,
+                getBOperationMetrics(instrumentedClient.getBatchMeterUsageMetrics()));
+        metrics.put(Constants.MPM_METRICS_METER_USAGE, getBOperationMetrics(instrumentedClient.getMeterUsageMetrics()));
+        metrics.put(Constants.MPM_METRICS_RESOLVE_CUSTOMER,
+                getBOperationMetrics(instrumentedClient.getResolveCustomerMetrics()));
+        metrics.put(Constants.MPM_METRICS_REGISTER_USAGE,
+                getBOperationMetrics(instrumentedClient.getRegisterUsageMetrics()));
+        BMap<BString, Object> usageRecordMetrics = ValueCreator.createRecordValue(
+                ModuleUtils.getModule(), Constants.MPM_USAGE_RECORD_METRICS);
+        usageRecordMetrics.put(Constants.MPM_USAGE_RECORD_METRICS_SUCCESS, instrumentedClient.getSuccessfulRecords());
+        usageRecordMetrics.put(Constants.MPM_USAGE_RECORD_METRICS_NOT_SUBSCRIBED,
+                instrumentedClient.getCustomerNotSubscribedRecords());
+        usageRecordMetrics.put(Constants.MPM_USAGE_RECORD_METRICS_DUPLICATE, instrumentedClient.getDuplicateRecords());
+        usageRecordMetrics.put(Constants.MPM_USAGE_RECORD_METRICS_UNPROCESSED,
+                instrumentedClient.getUnprocessedRecords());
+        metrics.put(Constants.MPM_METRICS_USAGE_RECORDS, usageRecordMetrics);
+        metrics.put(Constants.MPM_METRICS_THROTTLED_REQUESTS, instrumentedClient.getThrottledRequests());
+        BMap<BString, Object> errors = ValueCreator.createMapValue(INT_MAP_TYPE);
+        instrumentedClient.getErrors().forEach((errorCode, errorCount) ->
+                errors.put(StringUtils.fromString(errorCode), errorCount.sum()));
+        metrics.put(Constants.MPM_METRICS_ERRORS, errors);
+    }
+
+    private static BMap<BString, Object> getBOperationMetrics(
+            InstrumentedMeteringClient.OperationMetrics operationMetrics) {
+        LatencyHistogram latencies = operationMetrics.getLatencies();
+        BMap<BString, Object> bOperationMetrics = ValueCreator.createRecordValue(
+                ModuleUtils.getModule(), Constants.MPM_OPERATION_METRICS);
+        bOperationMetrics.put(Constants.MPM_OPERATION_METRICS_REQUESTS, latencies.getCount());
+        bOperationMetrics.put(Constants.MPM_OPERATION_METRICS_FAILED, operationMetrics.getFailedRequests());
+        bOperationMetrics.put(Constants.MPM_OPERATION_METRICS_IN_FLIGHT, operationMetrics.getInFlightRequests());
+        bOperationMetrics.put(Constants.MPM_OPERATION_METRICS_MEAN_LATENCY, toBSeconds(latencies.getMeanMicros()));
+        bOperationMetrics.put(Constants.MPM_OPERATION_METRICS_P50_LATENCY,
+                toBSeconds(latencies.getValueAtPercentile(50)));
+        bOperationMetrics.put(Constants.MPM_OPERATION_METRICS_P90_LATENCY,
+                toBSeconds(latencies.getValueAtPercentile(90)));
+        bOperationMetrics.put(Constants.MPM_OPERATION_METRICS_P99_LATENCY,
+                toBSeconds(latencies.getValueAtPercentile(99)));
+        bOperationMetrics.put(Constants.MPM_OPERATION_METRICS_P999_LATENCY,
+                toBSeconds(latencies.getValueAtPercentile(99.9)));
+        bOperationMetrics.put(Constants.MPM_OPERATION_METRICS_MAX_LATENCY, toBSeconds(latencies.getMaxMicros()));
+        return bOperationMetrics;
+    }
+
+    private static BDecimal toBSeconds(long micros) {
+        return ValueCreator.createDecimalValue(BigDecimal.valueOf(micros, 6));
+    }
+
+    public static BMap<BString, Object> getBExecutorMetrics(ThreadPoolExecutor threadPool) {
+        BMap<BString, Object> executorMetrics = ValueCreator.createRecordValue(
+                ModuleUtils.getModule(), Constants.MPM_EXECUTOR_METRICS);
+        executorMetrics.put(Constants.MPM_EXECUTOR_METRICS_ACTIVE_THREADS, (long) threadPool.getActiveCount());
+        executorMetrics.put(Constants.MPM_EXECUTOR_METRICS_POOL_SIZE, (long) threadPool.getPoolSize());
+        executorMetrics.put(Constants.MPM_EXECUTOR_METRICS_QUEUED_TASKS, (long) threadPool.getQueue().size());
+        return executorMetrics;
+    }
+
+    public static BArray getBUsageRecordResults(List<UsageRecordResult> nativeResults) {
+        return getBUsageRecordResults(nativeResults, new ConversionCache());
+    }
+
+    private static BArray getBUsageRecordResults(List<UsageRecordResult> nativeResults,
+                                                 ConversionCache conversionCache) {
+        Object[] usageRecordResults = new Object[nativeResults.size()];
+        for (int i = 0; i < usageRecordResults.length; i++) {
+            usageRecordResults[i] = toBUsageRecordResult(nativeResults.get(i), conversionCache);
+        }
+        return ValueCreator.createArrayValue(usageRecordResults, USAGE_RECORD_RESULT_ARR_TYPE);
+    }
+
+    public static Throwable unwrap(Throwable exception) {
+        Throwable cause = exception;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && Objects.nonNull(cause.getCause())) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    /**
+     * Returns the error code of a failure, i.e. the error code reported by the service for service errors, which is
+     * also included in the details of the Ballerina error, or else the type of the exception.
+     *
+     * @param cause The unwrapped cause of the failure.
+     * @return The error code of the failure.
+     */
+    public static String getErrorCode(Throwable cause) {
+        if (cause instanceof AwsServiceException awsSvcExp && Objects.nonNull(awsSvcExp.awsErrorDetails())
+                && Objects.nonNull(awsSvcExp.awsErrorDetails().errorCode())) {
+            return awsSvcExp.awsErrorDetails().errorCode();
+        }
+        return cause.getClass().getSimpleName();
+    }
+
+    public static BError createError(String message) {
+        BMap<BString, Object> errorDetails = ValueCreator.createRecordValue(
+                ModuleUtils.getModule(), Constants.MPM_ERROR_DETAILS);
+        return ErrorCreator.createError(
+                ModuleUtils.getModule(), Constants.MPM_ERROR, StringUtils.fromString(message), null, errorDetails);
+    }
+
     public static BError createError(String message, Throwable exception) {
         BError cause = ErrorCreator.createError(exception);
         BMap<BString, Object> errorDetails = ValueCreator.createRecordValue(
@@ -230,6 +832,10 @@ public final class CommonUtils {
                     Constants.MPM_ERROR_DETAILS_ERR_CODE, StringUtils.fromString(awsErrorDetails.errorCode()));
             errorDetails.put(
                     Constants.MPM_ERROR_DETAILS_ERR_MSG, StringUtils.fromString(awsErrorDetails.errorMessage()));
+        } else if (exception instanceof CircuitBreakerOpenException) {
+            errorDetails.put(Constants.MPM_ERROR_DETAILS_ERR_CODE,
+                    StringUtils.fromString(CircuitBreakerOpenException.ERROR_CODE));
+            errorDetails.put(Constants.MPM_ERROR_DETAILS_ERR_MSG, StringUtils.fromString(exception.getMessage()));
         }
         return ErrorCreator.createError(
                 ModuleUtils.getModule(), Constants.MPM_ERROR, StringUtils.fromString(message), cause, errorDetails);
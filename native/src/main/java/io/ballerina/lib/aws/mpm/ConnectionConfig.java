@@ -19,11 +19,20 @@
 package io.ballerina.lib.aws.mpm;
 
 import io.ballerina.runtime.api.utils.StringUtils;
+import io.ballerina.runtime.api.values.BDecimal;
 import io.ballerina.runtime.api.values.BMap;
 import io.ballerina.runtime.api.values.BString;
 import software.amazon.awssdk.regions.Region;
 
+import java.math.BigDecimal;
+import java.net.URI;
+import java.nio.file.Path;
+import java.security.PublicKey;
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 /**
  * {@code ConnectionConfig} contains the java representation of the Ballerina AWS MPM client configurations.
@@ -33,8 +42,38 @@ import java.util.List;
  * @param secretAccessKey The AWS secret access key, used to authenticate the user interacting with AWS.
  * @param sessionToken    The AWS session token, retrieved from an AWS token service, used for authenticating that
  *                        this user has received temporary permission to access some resource.
+ * @param credentialsConfig The configurations of the refreshing credentials provider, or {@code null} if the
+ *                          static credentials are used.
+ * @param clientMode      The execution model used by the native client for network calls.
+ * @param executorConfig  The configurations of the executor on which blocking network calls are performed.
+ * @param httpConfig      The configurations of the HTTP transport used by the native client.
+ * @param resultMode      The default form in which usage record results are returned.
+ * @param batchingConfig  The configurations used to coalesce individually submitted usage records.
+ * @param retryConfig     The configurations of the resilient mode, or {@code null} if the resilient mode is disabled.
+ * @param spoolConfig     The configurations of the durable usage spool, or {@code null} if spooling is disabled.
+ * @param deduplicationConfig The configurations of the client-side deduplication index, or {@code null} if
+ *                            client-side deduplication is disabled.
+ * @param aggregationConfig   The configurations used to pre-aggregate usage quantities before metering.
+ * @param resolveCustomerCacheConfig The configurations of the {@code ResolveCustomer} cache, or {@code null} if
+ *                                   caching is disabled.
+ * @param fanOutConfig    The configurations used to fan out the usage records of several products.
+ * @param circuitBreakerConfig The configurations of the circuit breakers, or {@code null} if circuit breaking is
+ *                             disabled.
+ * @param hedgingConfig   The configurations of the hedged {@code ResolveCustomer} calls, or {@code null} if hedging
+ *                        is disabled.
+ * @param warmUp          Whether the native client, its credentials and the conversions are warmed up on
+ *                        initialization.
+ * @param usageRegistrationConfig The configurations of the usage registrations of paid container products.
  */
-public record ConnectionConfig(Region region, String accessKeyId, String secretAccessKey, String sessionToken) {
+public record ConnectionConfig(Region region, String accessKeyId, String secretAccessKey, String sessionToken,
+                               CredentialsConfig credentialsConfig, ClientMode clientMode,
+                               ExecutorConfig executorConfig, HttpConfig httpConfig, ResultMode resultMode,
+                               BatchingConfig batchingConfig, RetryConfig retryConfig,
+                               SpoolConfig spoolConfig, DeduplicationConfig deduplicationConfig,
+                               AggregationConfig aggregationConfig,
+                               ResolveCustomerCacheConfig resolveCustomerCacheConfig, FanOutConfig fanOutConfig,
+                               CircuitBreakerConfig circuitBreakerConfig, HedgingConfig hedgingConfig,
+                               boolean warmUp, UsageRegistrationConfig usageRegistrationConfig) {
     private static final List<Region> AWS_GLOBAL_REGIONS = List.of(
             Region.AWS_GLOBAL, Region.AWS_CN_GLOBAL, Region.AWS_US_GOV_GLOBAL, Region.AWS_ISO_GLOBAL,
             Region.AWS_ISO_B_GLOBAL);
@@ -43,18 +82,135 @@ public record ConnectionConfig(Region region, String accessKeyId, String secretA
     private static final BString AUTH_ACCESS_KEY_KEY = StringUtils.fromString("accessKeyId");
     private static final BString AUTH_SECRET_ACCESS_KEY = StringUtils.fromString("secretAccessKey");
     private static final BString AUTH_SESSION_TOKEN = StringUtils.fromString("sessionToken");
+    private static final BString AUTH_PROVIDER = StringUtils.fromString("provider");
+    private static final BString AUTH_PROFILE_NAME = StringUtils.fromString("profileName");
+    private static final BString AUTH_PROFILE_FILE = StringUtils.fromString("profileFile");
+    private static final BString AUTH_ROLE_ARN = StringUtils.fromString("roleArn");
+    private static final BString AUTH_ROLE_SESSION_NAME = StringUtils.fromString("roleSessionName");
+    private static final BString AUTH_WEB_IDENTITY_TOKEN_FILE = StringUtils.fromString("webIdentityTokenFile");
+    private static final BString AUTH_EXTERNAL_ID = StringUtils.fromString("externalId");
+    private static final BString AUTH_SESSION_DURATION = StringUtils.fromString("sessionDuration");
+    private static final BString AUTH_STS_ENDPOINT = StringUtils.fromString("stsEndpoint");
+    private static final BString AUTH_METADATA_ENDPOINT = StringUtils.fromString("metadataEndpoint");
+    private static final BString AUTH_PREFETCH_TIME = StringUtils.fromString("prefetchTime");
+    private static final BString AUTH_STALE_TIME = StringUtils.fromString("staleTime");
+    private static final BString CLIENT_MODE = StringUtils.fromString("clientMode");
+    private static final BString EXECUTOR = StringUtils.fromString("executor");
+    private static final BString EXECUTOR_MAX_CONCURRENCY = StringUtils.fromString("maxConcurrency");
+    private static final BString EXECUTOR_QUEUE_DEPTH = StringUtils.fromString("queueDepth");
+    private static final BString EXECUTOR_SATURATION_POLICY = StringUtils.fromString("saturationPolicy");
+    private static final BString EXECUTOR_VIRTUAL_THREADS = StringUtils.fromString("virtualThreads");
+    private static final BString HTTP = StringUtils.fromString("http");
+    private static final BString HTTP_CLIENT_TYPE = StringUtils.fromString("clientType");
+    private static final BString HTTP_MAX_CONNECTIONS = StringUtils.fromString("maxConnections");
+    private static final BString HTTP_CONNECTION_ACQUISITION_TIMEOUT =
+            StringUtils.fromString("connectionAcquisitionTimeout");
+    private static final BString HTTP_CONNECTION_TIMEOUT = StringUtils.fromString("connectionTimeout");
+    private static final BString HTTP_SOCKET_TIMEOUT = StringUtils.fromString("socketTimeout");
+    private static final BString HTTP_API_CALL_TIMEOUT = StringUtils.fromString("apiCallTimeout");
+    private static final BString HTTP_API_CALL_ATTEMPT_TIMEOUT = StringUtils.fromString("apiCallAttemptTimeout");
+    private static final BString HTTP_CONNECTION_MAX_IDLE_TIME = StringUtils.fromString("connectionMaxIdleTime");
+    private static final BString HTTP_CONNECTION_TIME_TO_LIVE = StringUtils.fromString("connectionTimeToLive");
+    private static final BString HTTP_USE_IDLE_CONNECTION_REAPER = StringUtils.fromString("useIdleConnectionReaper");
+    private static final BString HTTP_TCP_KEEP_ALIVE = StringUtils.fromString("tcpKeepAlive");
+    private static final BString HTTP_ENDPOINT = StringUtils.fromString("endpoint");
+    private static final BString RESULT_MODE = StringUtils.fromString("resultMode");
+    private static final BString USAGE_BATCHING = StringUtils.fromString("usageBatching");
+    private static final BString USAGE_BATCHING_MAX_BATCH_SIZE = StringUtils.fromString("maxBatchSize");
+    private static final BString USAGE_BATCHING_LINGER_TIME = StringUtils.fromString("lingerTime");
+    private static final BString RETRY_CONFIG = StringUtils.fromString("retryConfig");
+    private static final BString RETRY_MAX_RETRIES = StringUtils.fromString("maxRetries");
+    private static final BString RETRY_INITIAL_BACKOFF = StringUtils.fromString("initialBackoff");
+    private static final BString RETRY_MAX_BACKOFF = StringUtils.fromString("maxBackoff");
+    private static final BString RETRY_INITIAL_CONCURRENCY = StringUtils.fromString("initialConcurrency");
+    private static final BString RETRY_MIN_CONCURRENCY = StringUtils.fromString("minConcurrency");
+    private static final BString RETRY_MAX_CONCURRENCY = StringUtils.fromString("maxConcurrency");
+    private static final BString SPOOL = StringUtils.fromString("spool");
+    private static final BString SPOOL_DIRECTORY = StringUtils.fromString("directory");
+    private static final BString SPOOL_SEGMENT_SIZE = StringUtils.fromString("segmentSize");
+    private static final BString SPOOL_SYNC_INTERVAL = StringUtils.fromString("syncInterval");
+    private static final BString DEDUPLICATION = StringUtils.fromString("deduplication");
+    private static final BString DEDUPLICATION_MAX_ENTRIES = StringUtils.fromString("maxEntries");
+    private static final BString DEDUPLICATION_RETENTION_PERIOD = StringUtils.fromString("retentionPeriod");
+    private static final BString AGGREGATION = StringUtils.fromString("aggregation");
+    private static final BString AGGREGATION_CLOSE_DELAY = StringUtils.fromString("closeDelay");
+    private static final BString AGGREGATION_FLUSH_INTERVAL = StringUtils.fromString("flushInterval");
+    private static final BString AGGREGATION_JITTER = StringUtils.fromString("jitter");
+    private static final BString AGGREGATION_ACCEPTANCE_WINDOW = StringUtils.fromString("acceptanceWindow");
+    private static final BString AGGREGATION_DEADLINE_MARGIN = StringUtils.fromString("deadlineMargin");
+    private static final BString RESOLVE_CUSTOMER_CACHE = StringUtils.fromString("resolveCustomerCache");
+    private static final BString CACHE_MAX_ENTRIES = StringUtils.fromString("maxEntries");
+    private static final BString CACHE_TTL = StringUtils.fromString("ttl");
+    private static final BString CACHE_NEGATIVE_TTL = StringUtils.fromString("negativeTtl");
+    private static final BString FAN_OUT = StringUtils.fromString("fanOut");
+    private static final BString FAN_OUT_PRODUCT_REGIONS = StringUtils.fromString("productRegions");
+    private static final BString FAN_OUT_MAX_CONCURRENCY = StringUtils.fromString("maxConcurrency");
+    private static final BString CIRCUIT_BREAKER = StringUtils.fromString("circuitBreaker");
+    private static final BString CIRCUIT_BREAKER_WINDOW_SIZE = StringUtils.fromString("windowSize");
+    private static final BString CIRCUIT_BREAKER_MINIMUM_CALLS = StringUtils.fromString("minimumCalls");
+    private static final BString CIRCUIT_BREAKER_FAILURE_RATE_THRESHOLD =
+            StringUtils.fromString("failureRateThreshold");
+    private static final BString CIRCUIT_BREAKER_OPEN_DURATION = StringUtils.fromString("openDuration");
+    private static final BString CIRCUIT_BREAKER_HALF_OPEN_CALLS = StringUtils.fromString("halfOpenCalls");
+    private static final BString HEDGING = StringUtils.fromString("resolveCustomerHedging");
+    private static final BString HEDGING_DELAY_PERCENTILE = StringUtils.fromString("delayPercentile");
+    private static final BString HEDGING_MIN_DELAY = StringUtils.fromString("minDelay");
+    private static final BString HEDGING_MAX_DELAY = StringUtils.fromString("maxDelay");
+    private static final BString HEDGING_MAX_HEDGE_RATIO = StringUtils.fromString("maxHedgeRatio");
+    private static final BString WARM_UP = StringUtils.fromString("warmUp");
+    private static final BString USAGE_REGISTRATION = StringUtils.fromString("usageRegistration");
+    private static final BString USAGE_REGISTRATION_TTL = StringUtils.fromString("ttl");
+    private static final BString USAGE_REGISTRATION_REFRESH_JITTER = StringUtils.fromString("refreshJitter");
+    private static final BString USAGE_REGISTRATION_PUBLIC_KEY = StringUtils.fromString("publicKey");
 
     public ConnectionConfig(BMap<BString, Object> configurations) {
         this(
                 getRegion(configurations),
                 getAuthConfig(configurations, AUTH_ACCESS_KEY_KEY),
                 getAuthConfig(configurations, AUTH_SECRET_ACCESS_KEY),
-                getAuthConfig(configurations, AUTH_SESSION_TOKEN)
+                getAuthConfig(configurations, AUTH_SESSION_TOKEN),
+                getCredentialsConfig(configurations),
+                ClientMode.valueOf(configurations.getStringValue(CLIENT_MODE).getValue()),
+                getExecutorConfig(configurations),
+                getHttpConfig(configurations),
+                ResultMode.valueOf(configurations.getStringValue(RESULT_MODE).getValue()),
+                getBatchingConfig(configurations),
+                getRetryConfig(configurations),
+                getSpoolConfig(configurations),
+                getDeduplicationConfig(configurations),
+                getAggregationConfig(configurations),
+                getResolveCustomerCacheConfig(configurations),
+                getFanOutConfig(configurations),
+                getCircuitBreakerConfig(configurations),
+                getHedgingConfig(configurations),
+                configurations.getBooleanValue(WARM_UP),
+                getUsageRegistrationConfig(configurations)
         );
     }
 
+    /**
+     * Derives the configurations of a client which communicates with another region, with the same credentials and
+     * transport. The derived client spools into a subdirectory named after the region, as a spool directory is owned
+     * by a single client.
+     *
+     * @param otherRegion The AWS region of the derived client.
+     * @return The configurations of the derived client.
+     */
+    public ConnectionConfig withRegion(Region otherRegion) {
+        SpoolConfig regionSpoolConfig = Objects.isNull(spoolConfig) ? null : new SpoolConfig(
+                spoolConfig.directory().resolve(otherRegion.id()), spoolConfig.segmentSize(),
+                spoolConfig.syncInterval());
+        return new ConnectionConfig(otherRegion, accessKeyId, secretAccessKey, sessionToken, credentialsConfig,
+                clientMode, executorConfig, httpConfig, resultMode, batchingConfig, retryConfig, regionSpoolConfig,
+                deduplicationConfig, aggregationConfig, resolveCustomerCacheConfig, fanOutConfig, circuitBreakerConfig,
+                hedgingConfig, warmUp, usageRegistrationConfig);
+    }
+
     private static Region getRegion(BMap<BString, Object> configurations) {
-        String region = configurations.getStringValue(REGION).getValue();
+        return toRegion(configurations.getStringValue(REGION).getValue());
+    }
+
+    private static Region toRegion(String region) {
         return AWS_GLOBAL_REGIONS.stream().filter(gr -> gr.id().equals(region)).findFirst().orElse(Region.of(region));
     }
 
@@ -66,4 +222,509 @@ public record ConnectionConfig(Region region, String accessKeyId, String secretA
         }
         return null;
     }
+
+    @SuppressWarnings("unchecked")
+    private static CredentialsConfig getCredentialsConfig(BMap<BString, Object> configurations) {
+        BMap<BString, Object> authConfig = (BMap<BString, Object>) configurations.getMapValue(AUTH);
+        if (authConfig.containsKey(AUTH_ACCESS_KEY_KEY)) {
+            return null;
+        }
+        CredentialsProviderType provider = CredentialsProviderType.valueOf(
+                authConfig.getStringValue(AUTH_PROVIDER).getValue());
+        String roleArn = getOptionalString(authConfig, AUTH_ROLE_ARN);
+        if (CredentialsProviderType.ASSUME_ROLE.equals(provider) && Objects.isNull(roleArn)) {
+            throw new IllegalArgumentException("the role ARN is required for the ASSUME_ROLE credentials provider");
+        }
+        long sessionDuration = authConfig.getIntValue(AUTH_SESSION_DURATION);
+        if (sessionDuration < CredentialsConfig.MIN_SESSION_DURATION_SECONDS
+                || sessionDuration > CredentialsConfig.MAX_SESSION_DURATION_SECONDS) {
+            throw new IllegalArgumentException(String.format(
+                    "session duration should be between %d and %d seconds, found %d",
+                    CredentialsConfig.MIN_SESSION_DURATION_SECONDS, CredentialsConfig.MAX_SESSION_DURATION_SECONDS,
+                    sessionDuration));
+        }
+        Duration prefetchTime = getDuration(authConfig, AUTH_PREFETCH_TIME);
+        Duration staleTime = getDuration(authConfig, AUTH_STALE_TIME);
+        if (staleTime.compareTo(prefetchTime) >= 0) {
+            throw new IllegalArgumentException(String.format(
+                    "credentials stale time should be less than the prefetch time, found %s and %s", staleTime,
+                    prefetchTime));
+        }
+        String profileFile = getOptionalString(authConfig, AUTH_PROFILE_FILE);
+        String webIdentityTokenFile = getOptionalString(authConfig, AUTH_WEB_IDENTITY_TOKEN_FILE);
+        String stsEndpoint = getOptionalString(authConfig, AUTH_STS_ENDPOINT);
+        String metadataEndpoint = getOptionalString(authConfig, AUTH_METADATA_ENDPOINT);
+        return new CredentialsConfig(
+                provider,
+                getOptionalString(authConfig, AUTH_PROFILE_NAME),
+                Objects.nonNull(profileFile) ? Path.of(profileFile) : null,
+                roleArn,
+                authConfig.getStringValue(AUTH_ROLE_SESSION_NAME).getValue(),
+                Objects.nonNull(webIdentityTokenFile) ? Path.of(webIdentityTokenFile) : null,
+                getOptionalString(authConfig, AUTH_EXTERNAL_ID),
+                Duration.ofSeconds(sessionDuration),
+                Objects.nonNull(stsEndpoint) ? URI.create(stsEndpoint) : null,
+                Objects.nonNull(metadataEndpoint) ? URI.create(metadataEndpoint) : null,
+                prefetchTime,
+                staleTime
+        );
+    }
+
+    private static String getOptionalString(BMap<BString, Object> config, BString key) {
+        return config.containsKey(key) ? config.getStringValue(key).getValue() : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ExecutorConfig getExecutorConfig(BMap<BString, Object> configurations) {
+        BMap<BString, Object> executorConfig = (BMap<BString, Object>) configurations.getMapValue(EXECUTOR);
+        int maxConcurrency = executorConfig.getIntValue(EXECUTOR_MAX_CONCURRENCY).intValue();
+        int queueDepth = executorConfig.getIntValue(EXECUTOR_QUEUE_DEPTH).intValue();
+        if (maxConcurrency < 1 || queueDepth < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "invalid executor bounds, max concurrency: %d, queue depth: %d", maxConcurrency, queueDepth));
+        }
+        return new ExecutorConfig(
+                maxConcurrency,
+                queueDepth,
+                SaturationPolicy.valueOf(executorConfig.getStringValue(EXECUTOR_SATURATION_POLICY).getValue()),
+                executorConfig.getBooleanValue(EXECUTOR_VIRTUAL_THREADS)
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    private static HttpConfig getHttpConfig(BMap<BString, Object> configurations) {
+        BMap<BString, Object> httpConfig = (BMap<BString, Object>) configurations.getMapValue(HTTP);
+        int maxConnections = httpConfig.getIntValue(HTTP_MAX_CONNECTIONS).intValue();
+        if (maxConnections < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "maximum HTTP connections should be at least 1, found %d", maxConnections));
+        }
+        return new HttpConfig(
+                httpConfig.containsKey(HTTP_CLIENT_TYPE)
+                        ? HttpClientType.valueOf(httpConfig.getStringValue(HTTP_CLIENT_TYPE).getValue()) : null,
+                maxConnections,
+                getDuration(httpConfig, HTTP_CONNECTION_ACQUISITION_TIMEOUT),
+                getDuration(httpConfig, HTTP_CONNECTION_TIMEOUT),
+                getDuration(httpConfig, HTTP_SOCKET_TIMEOUT),
+                getOptionalDuration(httpConfig, HTTP_API_CALL_TIMEOUT),
+                getOptionalDuration(httpConfig, HTTP_API_CALL_ATTEMPT_TIMEOUT),
+                getDuration(httpConfig, HTTP_CONNECTION_MAX_IDLE_TIME),
+                getOptionalDuration(httpConfig, HTTP_CONNECTION_TIME_TO_LIVE),
+                httpConfig.getBooleanValue(HTTP_USE_IDLE_CONNECTION_REAPER),
+                httpConfig.getBooleanValue(HTTP_TCP_KEEP_ALIVE),
+                httpConfig.containsKey(HTTP_ENDPOINT)
+                        ? URI.create(httpConfig.getStringValue(HTTP_ENDPOINT).getValue()) : null
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BatchingConfig getBatchingConfig(BMap<BString, Object> configurations) {
+        BMap<BString, Object> batchingConfig = (BMap<BString, Object>) configurations.getMapValue(USAGE_BATCHING);
+        int maxBatchSize = batchingConfig.getIntValue(USAGE_BATCHING_MAX_BATCH_SIZE).intValue();
+        if (maxBatchSize < 1 || maxBatchSize > BatchingConfig.MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException(String.format(
+                    "usage batch size should be between 1 and %d, found %d", BatchingConfig.MAX_BATCH_SIZE,
+                    maxBatchSize));
+        }
+        return new BatchingConfig(maxBatchSize, getDuration(batchingConfig, USAGE_BATCHING_LINGER_TIME));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static RetryConfig getRetryConfig(BMap<BString, Object> configurations) {
+        if (!configurations.containsKey(RETRY_CONFIG)) {
+            return null;
+        }
+        BMap<BString, Object> retryConfig = (BMap<BString, Object>) configurations.getMapValue(RETRY_CONFIG);
+        int minConcurrency = retryConfig.getIntValue(RETRY_MIN_CONCURRENCY).intValue();
+        int maxConcurrency = retryConfig.getIntValue(RETRY_MAX_CONCURRENCY).intValue();
+        if (minConcurrency < 1 || maxConcurrency < minConcurrency) {
+            throw new IllegalArgumentException(String.format(
+                    "invalid concurrency bounds for the resilient mode, min: %d, max: %d", minConcurrency,
+                    maxConcurrency));
+        }
+        return new RetryConfig(
+                retryConfig.getIntValue(RETRY_MAX_RETRIES).intValue(),
+                getDuration(retryConfig, RETRY_INITIAL_BACKOFF),
+                getDuration(retryConfig, RETRY_MAX_BACKOFF),
+                retryConfig.getIntValue(RETRY_INITIAL_CONCURRENCY).intValue(),
+                minConcurrency,
+                maxConcurrency
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    private static SpoolConfig getSpoolConfig(BMap<BString, Object> configurations) {
+        if (!configurations.containsKey(SPOOL)) {
+            return null;
+        }
+        BMap<BString, Object> spoolConfig = (BMap<BString, Object>) configurations.getMapValue(SPOOL);
+        long segmentSize = spoolConfig.getIntValue(SPOOL_SEGMENT_SIZE);
+        if (segmentSize < SpoolConfig.MIN_SEGMENT_SIZE || segmentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format(
+                    "spool segment size should be between %d and %d bytes, found %d", SpoolConfig.MIN_SEGMENT_SIZE,
+                    Integer.MAX_VALUE, segmentSize));
+        }
+        return new SpoolConfig(
+                Path.of(spoolConfig.getStringValue(SPOOL_DIRECTORY).getValue()),
+                (int) segmentSize,
+                getDuration(spoolConfig, SPOOL_SYNC_INTERVAL)
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    private static DeduplicationConfig getDeduplicationConfig(BMap<BString, Object> configurations) {
+        if (!configurations.containsKey(DEDUPLICATION)) {
+            return null;
+        }
+        BMap<BString, Object> deduplicationConfig =
+                (BMap<BString, Object>) configurations.getMapValue(DEDUPLICATION);
+        return new DeduplicationConfig(
+                deduplicationConfig.getIntValue(DEDUPLICATION_MAX_ENTRIES).intValue(),
+                getDuration(deduplicationConfig, DEDUPLICATION_RETENTION_PERIOD)
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    private static AggregationConfig getAggregationConfig(BMap<BString, Object> configurations) {
+        BMap<BString, Object> aggregationConfig = (BMap<BString, Object>) configurations.getMapValue(AGGREGATION);
+        Duration flushInterval = getDuration(aggregationConfig, AGGREGATION_FLUSH_INTERVAL);
+        Duration jitter = getDuration(aggregationConfig, AGGREGATION_JITTER);
+        Duration acceptanceWindow = getDuration(aggregationConfig, AGGREGATION_ACCEPTANCE_WINDOW);
+        Duration deadlineMargin = getDuration(aggregationConfig, AGGREGATION_DEADLINE_MARGIN);
+        if (flushInterval.isZero() || flushInterval.isNegative() || jitter.isNegative()
+                || jitter.compareTo(flushInterval) >= 0) {
+            throw new IllegalArgumentException(String.format(
+                    "flush jitter should be less than the flush interval, found %s and %s", jitter, flushInterval));
+        }
+        if (deadlineMargin.isNegative() || deadlineMargin.compareTo(acceptanceWindow) >= 0) {
+            throw new IllegalArgumentException(String.format(
+                    "deadline margin should be less than the acceptance window, found %s and %s", deadlineMargin,
+                    acceptanceWindow));
+        }
+        return new AggregationConfig(getDuration(aggregationConfig, AGGREGATION_CLOSE_DELAY), flushInterval, jitter,
+                acceptanceWindow, deadlineMargin);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ResolveCustomerCacheConfig getResolveCustomerCacheConfig(BMap<BString, Object> configurations) {
+        if (!configurations.containsKey(RESOLVE_CUSTOMER_CACHE)) {
+            return null;
+        }
+        BMap<BString, Object> cacheConfig = (BMap<BString, Object>) configurations.getMapValue(RESOLVE_CUSTOMER_CACHE);
+        return new ResolveCustomerCacheConfig(
+                cacheConfig.getIntValue(CACHE_MAX_ENTRIES).intValue(),
+                getDuration(cacheConfig, CACHE_TTL),
+                getDuration(cacheConfig, CACHE_NEGATIVE_TTL)
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    private static FanOutConfig getFanOutConfig(BMap<BString, Object> configurations) {
+        BMap<BString, Object> fanOutConfig = (BMap<BString, Object>) configurations.getMapValue(FAN_OUT);
+        BMap<BString, Object> bProductRegions = (BMap<BString, Object>) fanOutConfig.getMapValue(
+                FAN_OUT_PRODUCT_REGIONS);
+        Map<String, Region> productRegions = new HashMap<>(bProductRegions.size() * 2);
+        bProductRegions.entrySet().forEach(entry -> productRegions.put(
+                entry.getKey().getValue(), toRegion(((BString) entry.getValue()).getValue())));
+        int maxConcurrency = fanOutConfig.getIntValue(FAN_OUT_MAX_CONCURRENCY).intValue();
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "fan-out max concurrency should be positive, found %d", maxConcurrency));
+        }
+        return new FanOutConfig(Map.copyOf(productRegions), maxConcurrency);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CircuitBreakerConfig getCircuitBreakerConfig(BMap<BString, Object> configurations) {
+        if (!configurations.containsKey(CIRCUIT_BREAKER)) {
+            return null;
+        }
+        BMap<BString, Object> breakerConfig = (BMap<BString, Object>) configurations.getMapValue(CIRCUIT_BREAKER);
+        int windowSize = breakerConfig.getIntValue(CIRCUIT_BREAKER_WINDOW_SIZE).intValue();
+        int minimumCalls = breakerConfig.getIntValue(CIRCUIT_BREAKER_MINIMUM_CALLS).intValue();
+        double failureRateThreshold = breakerConfig.getFloatValue(CIRCUIT_BREAKER_FAILURE_RATE_THRESHOLD);
+        int halfOpenCalls = breakerConfig.getIntValue(CIRCUIT_BREAKER_HALF_OPEN_CALLS).intValue();
+        if (windowSize < 1 || minimumCalls < 1 || minimumCalls > windowSize) {
+            throw new IllegalArgumentException(String.format(
+                    "circuit breaker minimum calls should be between 1 and the window size, found %d and %d",
+                    minimumCalls, windowSize));
+        }
+        if (failureRateThreshold <= 0 || failureRateThreshold > 1 || halfOpenCalls < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "invalid circuit breaker failure rate threshold %s or half-open calls %d", failureRateThreshold,
+                    halfOpenCalls));
+        }
+        return new CircuitBreakerConfig(windowSize, minimumCalls, failureRateThreshold,
+                getDuration(breakerConfig, CIRCUIT_BREAKER_OPEN_DURATION), halfOpenCalls);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static HedgingConfig getHedgingConfig(BMap<BString, Object> configurations) {
+        if (!configurations.containsKey(HEDGING)) {
+            return null;
+        }
+        BMap<BString, Object> hedgingConfig = (BMap<BString, Object>) configurations.getMapValue(HEDGING);
+        double delayPercentile = hedgingConfig.getFloatValue(HEDGING_DELAY_PERCENTILE);
+        Duration minDelay = getDuration(hedgingConfig, HEDGING_MIN_DELAY);
+        Duration maxDelay = getDuration(hedgingConfig, HEDGING_MAX_DELAY);
+        double maxHedgeRatio = hedgingConfig.getFloatValue(HEDGING_MAX_HEDGE_RATIO);
+        if (delayPercentile <= 0 || delayPercentile > 100 || maxHedgeRatio < 0 || maxHedgeRatio > 1) {
+            throw new IllegalArgumentException(String.format(
+                    "invalid hedging delay percentile %s or max hedge ratio %s", delayPercentile, maxHedgeRatio));
+        }
+        if (minDelay.isNegative() || maxDelay.compareTo(minDelay) < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "hedging max delay should not be less than the min delay, found %s and %s", maxDelay, minDelay));
+        }
+        return new HedgingConfig(delayPercentile, minDelay, maxDelay, maxHedgeRatio);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static UsageRegistrationConfig getUsageRegistrationConfig(BMap<BString, Object> configurations) {
+        BMap<BString, Object> registrationConfig =
+                (BMap<BString, Object>) configurations.getMapValue(USAGE_REGISTRATION);
+        Duration ttl = getDuration(registrationConfig, USAGE_REGISTRATION_TTL);
+        Duration refreshJitter = getDuration(registrationConfig, USAGE_REGISTRATION_REFRESH_JITTER);
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException(String.format(
+                    "usage registration TTL should be positive, found %s", ttl));
+        }
+        if (refreshJitter.isNegative() || refreshJitter.compareTo(ttl) > 0) {
+            throw new IllegalArgumentException(String.format(
+                    "usage registration refresh jitter should be between 0 and the TTL, found %s and %s",
+                    refreshJitter, ttl));
+        }
+        PublicKey publicKey = registrationConfig.containsKey(USAGE_REGISTRATION_PUBLIC_KEY)
+                ? RegistrationSignatureVerifier.parsePublicKey(
+                        registrationConfig.getStringValue(USAGE_REGISTRATION_PUBLIC_KEY).getValue())
+                : null;
+        return new UsageRegistrationConfig(ttl, refreshJitter, publicKey);
+    }
+
+    private static Duration getDuration(BMap<BString, Object> config, BString key) {
+        BigDecimal seconds = ((BDecimal) config.get(key)).decimalValue();
+        return Duration.ofNanos(seconds.movePointRight(9).longValue());
+    }
+
+    private static Duration getOptionalDuration(BMap<BString, Object> config, BString key) {
+        return config.containsKey(key) ? getDuration(config, key) : null;
+    }
+
+    /**
+     * {@code CredentialsConfig} contains the configurations of a credentials provider which resolves and refreshes
+     * the credentials of the native client, in place of static credentials.
+     *
+     * @param provider             The source of the credentials.
+     * @param profileName          The name of the profile in the shared credentials file, or {@code null} to use the
+     *                             default profile.
+     * @param profileFile          The path of the shared credentials file, or {@code null} to use the default file.
+     * @param roleArn              The ARN of the role to assume, or {@code null}.
+     * @param roleSessionName      The name of the assumed role session.
+     * @param webIdentityTokenFile The path of the web identity token file, or {@code null} to use the file of the
+     *                             {@code AWS_WEB_IDENTITY_TOKEN_FILE} environment variable.
+     * @param externalId           The external ID used when assuming the role, or {@code null}.
+     * @param sessionDuration      The duration of the assumed role session.
+     * @param stsEndpoint          The endpoint overriding the regional AWS STS endpoint, or {@code null}.
+     * @param metadataEndpoint     The endpoint overriding the instance metadata service endpoint, or {@code null}.
+     * @param prefetchTime         The time before the expiry of the credentials at which they are refreshed in the
+     *                             background.
+     * @param staleTime            The time before the expiry of the credentials at which callers block on a refresh.
+     */
+    public record CredentialsConfig(CredentialsProviderType provider, String profileName, Path profileFile,
+                                    String roleArn, String roleSessionName, Path webIdentityTokenFile,
+                                    String externalId, Duration sessionDuration, URI stsEndpoint,
+                                    URI metadataEndpoint, Duration prefetchTime, Duration staleTime) {
+        static final long MIN_SESSION_DURATION_SECONDS = 900;
+        static final long MAX_SESSION_DURATION_SECONDS = 43200;
+    }
+
+    /**
+     * The source of the credentials resolved by a credentials provider.
+     */
+    public enum CredentialsProviderType {
+        DEFAULT_CHAIN, PROFILE, WEB_IDENTITY, ASSUME_ROLE, INSTANCE_PROFILE
+    }
+
+    /**
+     * The execution model used by the native client for network calls.
+     */
+    public enum ClientMode {
+        BLOCKING, NON_BLOCKING
+    }
+
+    /**
+     * The form in which usage record results are returned.
+     */
+    public enum ResultMode {
+        FULL, COMPACT
+    }
+
+    /**
+     * {@code ExecutorConfig} contains the configurations of the executor on which blocking network calls are
+     * performed.
+     *
+     * @param maxConcurrency   The maximum number of network calls performed concurrently.
+     * @param queueDepth       The maximum number of network calls waiting for a thread.
+     * @param saturationPolicy The behaviour when both the threads and the queue are exhausted.
+     * @param virtualThreads   Whether network calls are performed on virtual threads.
+     */
+    public record ExecutorConfig(int maxConcurrency, int queueDepth, SaturationPolicy saturationPolicy,
+                                 boolean virtualThreads) {
+    }
+
+    /**
+     * The behaviour of the executor when both its threads and its queue are exhausted.
+     */
+    public enum SaturationPolicy {
+        REJECT, BLOCK
+    }
+
+    /**
+     * {@code HttpConfig} contains the configurations of the HTTP transport used by the native client.
+     *
+     * @param clientType                   The HTTP client implementation, or {@code null} to use the default client
+     *                                     of the client mode.
+     * @param maxConnections               The maximum number of connections in the connection pool.
+     * @param connectionAcquisitionTimeout The maximum time to wait for a connection from the connection pool.
+     * @param connectionTimeout            The maximum time to wait for a connection to be established.
+     * @param socketTimeout                The maximum time to wait for data to be transferred over an open connection.
+     * @param apiCallTimeout               The maximum time for an API call including retries, or {@code null}.
+     * @param apiCallAttemptTimeout        The maximum time for a single attempt of an API call, or {@code null}.
+     * @param connectionMaxIdleTime        The maximum time a connection may remain idle in the connection pool.
+     * @param connectionTimeToLive         The maximum time a pooled connection is reused, or {@code null}.
+     * @param useIdleConnectionReaper      Whether idle connections are proactively closed in the background.
+     * @param tcpKeepAlive                 Whether TCP keep-alive probes are sent on idle connections.
+     * @param endpoint                     The endpoint overriding the regional service endpoint, or {@code null}.
+     */
+    public record HttpConfig(HttpClientType clientType, int maxConnections, Duration connectionAcquisitionTimeout,
+                             Duration connectionTimeout, Duration socketTimeout, Duration apiCallTimeout,
+                             Duration apiCallAttemptTimeout, Duration connectionMaxIdleTime,
+                             Duration connectionTimeToLive, boolean useIdleConnectionReaper, boolean tcpKeepAlive,
+                             URI endpoint) {
+    }
+
+    /**
+     * The HTTP client implementation used by the native client.
+     */
+    public enum HttpClientType {
+        APACHE, URL_CONNECTION, NETTY, CRT
+    }
+
+    /**
+     * {@code BatchingConfig} contains the configurations used to coalesce individually submitted usage records into
+     * {@code BatchMeterUsage} calls.
+     *
+     * @param maxBatchSize The maximum number of usage records dispatched in a single batch.
+     * @param lingerTime   The maximum time a usage record waits for its batch to fill up before being dispatched.
+     */
+    public record BatchingConfig(int maxBatchSize, Duration lingerTime) {
+        static final int MAX_BATCH_SIZE = 25;
+    }
+
+    /**
+     * {@code RetryConfig} contains the configurations of the resilient mode, which re-submits unprocessed records
+     * and retries throttled calls.
+     *
+     * @param maxRetries         The maximum number of retries or re-submissions for a single request.
+     * @param initialBackoff     The backoff ceiling used for the first retry.
+     * @param maxBackoff         The upper bound of the backoff ceiling.
+     * @param initialConcurrency The initial number of concurrent requests allowed by the concurrency limiter.
+     * @param minConcurrency     The lower bound of the concurrency limit.
+     * @param maxConcurrency     The upper bound of the concurrency limit.
+     */
+    public record RetryConfig(int maxRetries, Duration initialBackoff, Duration maxBackoff, int initialConcurrency,
+                              int minConcurrency, int maxConcurrency) {
+    }
+
+    /**
+     * {@code SpoolConfig} contains the configurations of the durable usage spool.
+     *
+     * @param directory    The directory in which the spool segments are stored.
+     * @param segmentSize  The size of a single memory-mapped spool segment in bytes.
+     * @param syncInterval The maximum time appended records wait for the group commit.
+     */
+    public record SpoolConfig(Path directory, int segmentSize, Duration syncInterval) {
+        static final int MIN_SEGMENT_SIZE = 64 * 1024;
+    }
+
+    /**
+     * {@code DeduplicationConfig} contains the configurations of the client-side deduplication index.
+     *
+     * @param maxEntries      The maximum number of entries retained in the index.
+     * @param retentionPeriod The time for which an accepted usage record is retained in the index.
+     */
+    public record DeduplicationConfig(int maxEntries, Duration retentionPeriod) {
+    }
+
+    /**
+     * {@code AggregationConfig} contains the configurations used to pre-aggregate usage quantities per hour.
+     *
+     * @param closeDelay       The time to wait after the end of an hour before its windows are closed automatically.
+     * @param flushInterval    The interval between the scheduled flushes.
+     * @param jitter           The upper bound of the random offset of the scheduled flushes of a client instance.
+     * @param acceptanceWindow The time after the usage timestamp within which the service accepts a usage record.
+     * @param deadlineMargin   The time before the acceptance deadline of a retained usage record at which a flush is
+     *                         scheduled regardless of the flush interval.
+     */
+    public record AggregationConfig(Duration closeDelay, Duration flushInterval, Duration jitter,
+                                    Duration acceptanceWindow, Duration deadlineMargin) {
+    }
+
+    /**
+     * {@code UsageRegistrationConfig} contains the configurations of the usage registrations of paid container
+     * products.
+     *
+     * @param ttl           The time for which a registration is cached.
+     * @param refreshJitter The upper bound of the random offset by which the TTL of an instance is shortened.
+     * @param publicKey     The public key against which the signatures are verified, or {@code null} if the
+     *                      signatures are not verified.
+     */
+    public record UsageRegistrationConfig(Duration ttl, Duration refreshJitter, PublicKey publicKey) {
+    }
+
+    /**
+     * {@code ResolveCustomerCacheConfig} contains the configurations of the {@code ResolveCustomer} cache.
+     *
+     * @param maxEntries  The maximum number of registration tokens retained in the cache.
+     * @param ttl         The time for which a resolved customer is cached.
+     * @param negativeTtl The time for which an invalid-token error is cached.
+     */
+    public record ResolveCustomerCacheConfig(int maxEntries, Duration ttl, Duration negativeTtl) {
+    }
+
+    /**
+     * {@code FanOutConfig} contains the configurations used to fan out the usage records of several products to the
+     * regions of the products.
+     *
+     * @param productRegions The region of each product, keyed by product code. Products which are not listed are
+     *                       metered in the region of the client.
+     * @param maxConcurrency The maximum number of concurrent calls of a single product and region.
+     */
+    public record FanOutConfig(Map<String, Region> productRegions, int maxConcurrency) {
+    }
+
+    /**
+     * {@code CircuitBreakerConfig} contains the configurations of the circuit breaker of each operation.
+     *
+     * @param windowSize           The number of latest calls whose outcomes form the failure rate.
+     * @param minimumCalls         The number of calls recorded before the failure rate can open the circuit.
+     * @param failureRateThreshold The failure rate, between 0 and 1, at which the circuit opens.
+     * @param openDuration         The time for which an open circuit rejects the calls.
+     * @param halfOpenCalls        The number of probe calls which must succeed to close the circuit again.
+     */
+    public record CircuitBreakerConfig(int windowSize, int minimumCalls, double failureRateThreshold,
+                                       Duration openDuration, int halfOpenCalls) {
+    }
+
+    /**
+     * {@code HedgingConfig} contains the configurations of the hedged {@code ResolveCustomer} calls.
+     *
+     * @param delayPercentile The percentile of the recent latencies after which a call is hedged.
+     * @param minDelay        The lower bound of the hedging delay.
+     * @param maxDelay        The upper bound of the hedging delay, which is also used until enough latencies are
+     *                        recorded.
+     * @param maxHedgeRatio   The maximum ratio of hedged calls to calls within the sliding window of recent calls.
+     */
+    public record HedgingConfig(double delayPercentile, Duration minDelay, Duration maxDelay, double maxHedgeRatio) {
+    }
 }
@@ -31,10 +31,30 @@ public interface Constants {
     BString MPM_RESOLVE_CUSTOMER_IDNFR = StringUtils.fromString("customerIdentifier");
     BString MPM_RESOLVE_CUSTOMER_PRODUCT_CODE = StringUtils.fromString("productCode");
 
+    // Constants related to MPM `RegisterUsageResponse`
+    String MPM_REGISTER_USAGE = "RegisterUsageResponse";
+    BString MPM_REGISTER_USAGE_SIGNATURE = StringUtils.fromString("signature");
+    BString MPM_REGISTER_USAGE_KEY_ROTATION = StringUtils.fromString("publicKeyRotationTimestamp");
+    BString MPM_REGISTER_USAGE_ISSUED_AT = StringUtils.fromString("issuedAt");
+    BString MPM_REGISTER_USAGE_EXPIRES_AT = StringUtils.fromString("expiresAt");
+    BString MPM_REGISTER_USAGE_VERIFIED = StringUtils.fromString("verified");
+
     // Constants related to MPM `BatchMeterUsageRequest`
     BString MPM_BATCH_METER_USAGE_PRODUCT_CODE = StringUtils.fromString("productCode");
     BString MPM_BATCH_METER_USAGE_RECORDS = StringUtils.fromString("usageRecords");
 
+    // Constants related to MPM `MeterUsageRequest`
+    BString MPM_METER_USAGE_PRODUCT_CODE = StringUtils.fromString("productCode");
+    BString MPM_METER_USAGE_TIMESTAMP = StringUtils.fromString("timestamp");
+    BString MPM_METER_USAGE_DIMENSION = StringUtils.fromString("usageDimension");
+    BString MPM_METER_USAGE_QUANTITY = StringUtils.fromString("usageQuantity");
+    BString MPM_METER_USAGE_DRY_RUN = StringUtils.fromString("dryRun");
+    BString MPM_METER_USAGE_ALLOCATIONS = StringUtils.fromString("usageAllocations");
+
+    // Constants related to MPM `MeterUsageResponse`
+    String MPM_METER_USAGE_RESPONSE = "MeterUsageResponse";
+    BString MPM_METER_USAGE_RESPONSE_METERING_RECORD = StringUtils.fromString("meteringRecordId");
+
     // Constants related to MPM `UsageRecord`
     String MPM_USAGE_RECORD = "UsageRecord";
     BString MPM_USAGE_RECORD_CUSTOMER_IDFR = StringUtils.fromString("customerIdentifier");
@@ -63,6 +83,38 @@ public interface Constants {
     BString MPM_USAGE_RECORD_RESULT_METERING_RECORD = StringUtils.fromString("meteringRecordId");
     BString MPM_USAGE_RECORD_RESULT_STATUS = StringUtils.fromString("status");
     BString MPM_USAGE_RECORD_RESULT_USAGE_RECORD = StringUtils.fromString("usageRecord");
+    BString MPM_USAGE_RECORD_RESULT_RECORD_INDEX = StringUtils.fromString("recordIndex");
+
+    // Constants related to MPM `ProductUsageRecord`, `ProductUsageRecordResult` and `ProductUsageResponse`
+    String MPM_PRODUCT_USAGE_RECORD = "ProductUsageRecord";
+    BString MPM_PRODUCT_USAGE_RECORD_PRODUCT_CODE = StringUtils.fromString("productCode");
+    String MPM_PRODUCT_USAGE_RECORD_RESULT = "ProductUsageRecordResult";
+    BString MPM_PRODUCT_USAGE_RECORD_RESULT_REGION = StringUtils.fromString("region");
+    String MPM_PRODUCT_USAGE_ERROR = "ProductUsageError";
+    BString MPM_PRODUCT_USAGE_ERROR_RECORD_INDEXES = StringUtils.fromString("recordIndexes");
+    BString MPM_PRODUCT_USAGE_ERROR_MESSAGE = StringUtils.fromString("message");
+    BString MPM_PRODUCT_USAGE_ERROR_CODE = StringUtils.fromString("errorCode");
+    String MPM_PRODUCT_USAGE_RESPONSE = "ProductUsageResponse";
+    BString MPM_PRODUCT_USAGE_RESPONSE_ERRORS = StringUtils.fromString("errors");
+
+    // Constants related to MPM `UsageStreamConfig`
+    BString MPM_USAGE_STREAM_BATCH_SIZE = StringUtils.fromString("batchSize");
+    BString MPM_USAGE_STREAM_MAX_IN_FLIGHT_BATCHES = StringUtils.fromString("maxInFlightBatches");
+    BString MPM_USAGE_STREAM_RESULT_MODE = StringUtils.fromString("resultMode");
+
+    // Constants related to MPM `UsageFileConfig` and `UsageFileSummary`
+    BString MPM_USAGE_FILE_FORMAT = StringUtils.fromString("format");
+    BString MPM_USAGE_FILE_RESULTS_PATH = StringUtils.fromString("resultsPath");
+    BString MPM_USAGE_FILE_PARALLELISM = StringUtils.fromString("parallelism");
+    BString MPM_USAGE_FILE_CHUNK_SIZE = StringUtils.fromString("chunkSize");
+    BString MPM_USAGE_FILE_CHECKPOINT_INTERVAL = StringUtils.fromString("checkpointInterval");
+    String MPM_USAGE_FILE_SUMMARY = "UsageFileSummary";
+    BString MPM_USAGE_FILE_SUMMARY_LINES = StringUtils.fromString("lines");
+    BString MPM_USAGE_FILE_SUMMARY_METERED = StringUtils.fromString("meteredRecords");
+    BString MPM_USAGE_FILE_SUMMARY_UNPROCESSED = StringUtils.fromString("unprocessedRecords");
+    BString MPM_USAGE_FILE_SUMMARY_FAILED = StringUtils.fromString("failedRecords");
+    BString MPM_USAGE_FILE_SUMMARY_INVALID = StringUtils.fromString("invalidLines");
+    BString MPM_USAGE_FILE_SUMMARY_RESUMED_FROM = StringUtils.fromString("resumedFromLine");
 
     // Constants related to MPM Error
     String MPM_ERROR = "Error";
@@ -71,4 +123,104 @@ public interface Constants {
     BString MPM_ERROR_DETAILS_HTTP_STATUS_TXT = StringUtils.fromString("httpStatusText");
     BString MPM_ERROR_DETAILS_ERR_CODE = StringUtils.fromString("errorCode");
     BString MPM_ERROR_DETAILS_ERR_MSG = StringUtils.fromString("errorMessage");
+
+    // Constants related to MPM `Metrics`
+    String MPM_METRICS = "Metrics";
+    BString MPM_METRICS_RETRY = StringUtils.fromString("retry");
+    BString MPM_METRICS_DEDUPLICATION = StringUtils.fromString("deduplication");
+    BString MPM_METRICS_SPOOL = StringUtils.fromString("spool");
+    BString MPM_METRICS_AGGREGATION = StringUtils.fromString("aggregation");
+    BString MPM_METRICS_RESOLVE_CUSTOMER_CACHE = StringUtils.fromString("resolveCustomerCache");
+    BString MPM_METRICS_USAGE_REGISTRATION = StringUtils.fromString("usageRegistration");
+    BString MPM_METRICS_BATCH_METER_USAGE = StringUtils.fromString("batchMeterUsage");
+    BString MPM_METRICS_METER_USAGE = StringUtils.fromString("meterUsage");
+    BString MPM_METRICS_RESOLVE_CUSTOMER = StringUtils.fromString("resolveCustomer");
+    BString MPM_METRICS_REGISTER_USAGE = StringUtils.fromString("registerUsage");
+    BString MPM_METRICS_USAGE_RECORDS = StringUtils.fromString("usageRecords");
+    BString MPM_METRICS_THROTTLED_REQUESTS = StringUtils.fromString("throttledRequests");
+    BString MPM_METRICS_ERRORS = StringUtils.fromString("errors");
+    BString MPM_METRICS_EXECUTOR = StringUtils.fromString("executor");
+    BString MPM_METRICS_CIRCUIT_BREAKERS = StringUtils.fromString("circuitBreakers");
+    BString MPM_METRICS_RESOLVE_CUSTOMER_HEDGING = StringUtils.fromString("resolveCustomerHedging");
+
+    // Constants related to MPM `CircuitBreakerMetrics`
+    String MPM_CIRCUIT_BREAKER_METRICS = "CircuitBreakerMetrics";
+    BString MPM_CIRCUIT_BREAKER_METRICS_STATE = StringUtils.fromString("state");
+    BString MPM_CIRCUIT_BREAKER_METRICS_FAILURE_RATE = StringUtils.fromString("failureRate");
+    BString MPM_CIRCUIT_BREAKER_METRICS_REJECTED = StringUtils.fromString("rejectedCalls");
+    BString MPM_CIRCUIT_BREAKER_METRICS_OPENINGS = StringUtils.fromString("openings");
+
+    // Constants related to MPM `HedgingMetrics`
+    String MPM_HEDGING_METRICS = "HedgingMetrics";
+    BString MPM_HEDGING_METRICS_CALLS = StringUtils.fromString("calls");
+    BString MPM_HEDGING_METRICS_HEDGED = StringUtils.fromString("hedgedCalls");
+    BString MPM_HEDGING_METRICS_WINS = StringUtils.fromString("hedgeWins");
+    BString MPM_HEDGING_METRICS_SKIPPED = StringUtils.fromString("skippedHedges");
+    BString MPM_HEDGING_METRICS_DELAY = StringUtils.fromString("delay");
+
+    // Constants related to MPM `RetryMetrics`
+    String MPM_RETRY_METRICS = "RetryMetrics";
+    BString MPM_RETRY_METRICS_RETRIES = StringUtils.fromString("retries");
+    BString MPM_RETRY_METRICS_THROTTLED = StringUtils.fromString("throttledResponses");
+    BString MPM_RETRY_METRICS_RESUBMITTED = StringUtils.fromString("resubmittedRecords");
+    BString MPM_RETRY_METRICS_EXHAUSTED = StringUtils.fromString("exhaustedRequests");
+    BString MPM_RETRY_METRICS_CONCURRENCY_LIMIT = StringUtils.fromString("concurrencyLimit");
+    BString MPM_RETRY_METRICS_IN_FLIGHT = StringUtils.fromString("inFlightRequests");
+    BString MPM_RETRY_METRICS_QUEUED = StringUtils.fromString("queuedRequests");
+
+    // Constants related to MPM `DeduplicationMetrics`
+    String MPM_DEDUPLICATION_METRICS = "DeduplicationMetrics";
+    BString MPM_DEDUPLICATION_METRICS_SUPPRESSED = StringUtils.fromString("suppressedRecords");
+    BString MPM_DEDUPLICATION_METRICS_INDEX_SIZE = StringUtils.fromString("indexSize");
+
+    // Constants related to MPM `SpoolMetrics`
+    String MPM_SPOOL_METRICS = "SpoolMetrics";
+    BString MPM_SPOOL_METRICS_PENDING = StringUtils.fromString("pendingRecords");
+    BString MPM_SPOOL_METRICS_FAILED_REPLAYS = StringUtils.fromString("failedReplayRecords");
+
+    // Constants related to MPM `AggregationMetrics`
+    String MPM_AGGREGATION_METRICS = "AggregationMetrics";
+    BString MPM_AGGREGATION_METRICS_AGGREGATED = StringUtils.fromString("aggregatedRecords");
+    BString MPM_AGGREGATION_METRICS_EMITTED = StringUtils.fromString("emittedRecords");
+    BString MPM_AGGREGATION_METRICS_OPEN_WINDOWS = StringUtils.fromString("openWindows");
+    BString MPM_AGGREGATION_METRICS_PENDING = StringUtils.fromString("pendingEmissions");
+    BString MPM_AGGREGATION_METRICS_EXPIRED = StringUtils.fromString("expiredRecords");
+
+    // Constants related to MPM `ExpiredUsageRecord`
+    String MPM_EXPIRED_USAGE = "ExpiredUsageRecord";
+    BString MPM_EXPIRED_USAGE_PRODUCT_CODE = StringUtils.fromString("productCode");
+    BString MPM_EXPIRED_USAGE_USAGE_RECORD = StringUtils.fromString("usageRecord");
+    BString MPM_EXPIRED_USAGE_DEADLINE = StringUtils.fromString("deadline");
+
+    // Constants related to MPM `CacheMetrics`
+    String MPM_CACHE_METRICS = "CacheMetrics";
+    BString MPM_CACHE_METRICS_HITS = StringUtils.fromString("hits");
+    BString MPM_CACHE_METRICS_MISSES = StringUtils.fromString("misses");
+    BString MPM_CACHE_METRICS_EVICTIONS = StringUtils.fromString("evictions");
+    BString MPM_CACHE_METRICS_SIZE = StringUtils.fromString("size");
+
+    // Constants related to MPM `OperationMetrics`
+    String MPM_OPERATION_METRICS = "OperationMetrics";
+    BString MPM_OPERATION_METRICS_REQUESTS = StringUtils.fromString("requests");
+    BString MPM_OPERATION_METRICS_FAILED = StringUtils.fromString("failedRequests");
+    BString MPM_OPERATION_METRICS_IN_FLIGHT = StringUtils.fromString("inFlightRequests");
+    BString MPM_OPERATION_METRICS_MEAN_LATENCY = StringUtils.fromString("meanLatency");
+    BString MPM_OPERATION_METRICS_P50_LATENCY = StringUtils.fromString("p50Latency");
+    BString MPM_OPERATION_METRICS_P90_LATENCY = StringUtils.fromString("p90Latency");
+    BString MPM_OPERATION_METRICS_P99_LATENCY = StringUtils.fromString("p99Latency");
+    BString MPM_OPERATION_METRICS_P999_LATENCY = StringUtils.fromString("p999Latency");
+    BString MPM_OPERATION_METRICS_MAX_LATENCY = StringUtils.fromString("maxLatency");
+
+    // Constants related to MPM `UsageRecordMetrics`
+    String MPM_USAGE_RECORD_METRICS = "UsageRecordMetrics";
+    BString MPM_USAGE_RECORD_METRICS_SUCCESS = StringUtils.fromString("successfulRecords");
+    BString MPM_USAGE_RECORD_METRICS_NOT_SUBSCRIBED = StringUtils.fromString("customerNotSubscribedRecords");
+    BString MPM_USAGE_RECORD_METRICS_DUPLICATE = StringUtils.fromString("duplicateRecords");
+    BString MPM_USAGE_RECORD_METRICS_UNPROCESSED = StringUtils.fromString("unprocessedRecords");
+
+    // Constants related to MPM `ExecutorMetrics`
+    String MPM_EXECUTOR_METRICS = "ExecutorMetrics";
+    BString MPM_EXECUTOR_METRICS_ACTIVE_THREADS = StringUtils.fromString("activeThreads");
+    BString MPM_EXECUTOR_METRICS_POOL_SIZE = StringUtils.fromString("poolSize");
+    BString MPM_EXECUTOR_METRICS_QUEUED_TASKS = StringUtils.fromString("queuedTasks");
 }
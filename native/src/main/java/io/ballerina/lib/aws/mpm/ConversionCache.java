@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import io.ballerina.runtime.api.utils.StringUtils;
+import io.ballerina.runtime.api.values.BString;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Cache of the immutable values which recur across the usage records of a single response, i.e. dimensions, tag keys
+ * and tag values, so that converting an allocation-heavy batch does not create a new {@link BString} for every
+ * occurrence. A cache is scoped to one conversion, hence it retains nothing once the response is converted and it is
+ * not thread-safe.
+ */
+public final class ConversionCache {
+    private final Map<String, BString> bStrings = new HashMap<>();
+
+    /**
+     * Returns the {@link BString} of a recurring value such as a dimension, tag key or tag value.
+     *
+     * @param value The Java string.
+     * @return The cached or newly created {@link BString}.
+     */
+    public BString getBString(String value) {
+        return bStrings.computeIfAbsent(value, StringUtils::fromString);
+    }
+}
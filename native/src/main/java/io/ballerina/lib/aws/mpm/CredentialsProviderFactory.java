@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import software.amazon.awssdk.auth.credentials.AnonymousCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.AwsSessionCredentials;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.InstanceProfileCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.ProfileCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.awssdk.profiles.ProfileFile;
+import software.amazon.awssdk.profiles.ProfileFileSupplier;
+import software.amazon.awssdk.services.sts.StsClient;
+import software.amazon.awssdk.services.sts.StsClientBuilder;
+import software.amazon.awssdk.services.sts.auth.StsAssumeRoleCredentialsProvider;
+import software.amazon.awssdk.services.sts.auth.StsWebIdentityTokenFileCredentialsProvider;
+import software.amazon.awssdk.utils.IoUtils;
+import software.amazon.awssdk.utils.SdkAutoCloseable;
+
+import java.util.Objects;
+
+/**
+ * Creates the credentials provider of the native client. Apart from the static credentials, the providers cache the
+ * resolved credentials and refresh them in the background ahead of their expiry, so that rotating credentials
+ * neither block the network calls nor require the native client, and its connection pool, to be rebuilt.
+ * <p>
+ * The returned provider is owned by the native client and must be closed with it.
+ */
+public final class CredentialsProviderFactory {
+
+    private CredentialsProviderFactory() {
+    }
+
+    /**
+     * Creates the credentials provider of the provided configurations.
+     *
+     * @param connectionConfig The client connection configurations.
+     * @return The credentials provider.
+     */
+    public static AwsCredentialsProvider create(ConnectionConfig connectionConfig) {
+        ConnectionConfig.CredentialsConfig credentialsConfig = connectionConfig.credentialsConfig();
+        if (Objects.isNull(credentialsConfig)) {
+            return StaticCredentialsProvider.create(getStaticCredentials(connectionConfig));
+        }
+        return switch (credentialsConfig.provider()) {
+            case DEFAULT_CHAIN -> {
+                DefaultCredentialsProvider.Builder builder = DefaultCredentialsProvider.builder()
+                        .asyncCredentialUpdateEnabled(true);
+                if (Objects.nonNull(credentialsConfig.profileName())) {
+                    builder.profileName(credentialsConfig.profileName());
+                }
+                yield builder.build();
+            }
+            case PROFILE -> createProfileCredentialsProvider(credentialsConfig);
+            case WEB_IDENTITY -> {
+                // the web identity token is the credential of the `AssumeRoleWithWebIdentity` call
+                StsClient stsClient = createStsClient(
+                        connectionConfig, credentialsConfig, AnonymousCredentialsProvider.create());
+                StsWebIdentityTokenFileCredentialsProvider.Builder builder =
+                        StsWebIdentityTokenFileCredentialsProvider.builder()
+                                .stsClient(stsClient)
+                                .roleSessionName(credentialsConfig.roleSessionName())
+                                .asyncCredentialUpdateEnabled(true)
+                                .prefetchTime(credentialsConfig.prefetchTime())
+                                .staleTime(credentialsConfig.staleTime());
+                if (Objects.nonNull(credentialsConfig.roleArn())) {
+                    builder.roleArn(credentialsConfig.roleArn());
+                }
+                if (Objects.nonNull(credentialsConfig.webIdentityTokenFile())) {
+                    builder.webIdentityTokenFile(credentialsConfig.webIdentityTokenFile());
+                }
+                yield new StsCredentialsProvider(builder.build(), stsClient);
+            }
+            case ASSUME_ROLE -> {
+                // the role is assumed with the credentials of the profile when specified, or else of the default chain
+                AwsCredentialsProvider sourceProvider = Objects.nonNull(credentialsConfig.profileName())
+                        ? createProfileCredentialsProvider(credentialsConfig)
+                        : DefaultCredentialsProvider.builder().asyncCredentialUpdateEnabled(true).build();
+                StsClient stsClient = createStsClient(connectionConfig, credentialsConfig, sourceProvider);
+                StsAssumeRoleCredentialsProvider provider = StsAssumeRoleCredentialsProvider.builder()
+                        .stsClient(stsClient)
+                        .refreshRequest(request -> request
+                                .roleArn(credentialsConfig.roleArn())
+                                .roleSessionName(credentialsConfig.roleSessionName())
+                                .externalId(credentialsConfig.externalId())
+                                .durationSeconds((int) credentialsConfig.sessionDuration().toSeconds()))
+                        .asyncCredentialUpdateEnabled(true)
+                        .prefetchTime(credentialsConfig.prefetchTime())
+                        .staleTime(credentialsConfig.staleTime())
+                        .build();
+                yield new StsCredentialsProvider(provider, stsClient, sourceProvider);
+            }
+            case INSTANCE_PROFILE -> {
+                InstanceProfileCredentialsProvider.Builder builder = InstanceProfileCredentialsProvider.builder()
+                        .asyncCredentialUpdateEnabled(true);
+                if (Objects.nonNull(credentialsConfig.metadataEndpoint())) {
+                    builder.endpoint(credentialsConfig.metadataEndpoint().toString());
+                }
+                yield builder.build();
+            }
+        };
+    }
+
+    private static AwsCredentials getStaticCredentials(ConnectionConfig connectionConfig) {
+        if (Objects.nonNull(connectionConfig.sessionToken())) {
+            return AwsSessionCredentials.create(connectionConfig.accessKeyId(), connectionConfig.secretAccessKey(),
+                    connectionConfig.sessionToken());
+        } else {
+            return AwsBasicCredentials.create(connectionConfig.accessKeyId(), connectionConfig.secretAccessKey());
+        }
+    }
+
+    private static AwsCredentialsProvider createProfileCredentialsProvider(
+            ConnectionConfig.CredentialsConfig credentialsConfig) {
+        ProfileCredentialsProvider.Builder builder = ProfileCredentialsProvider.builder();
+        if (Objects.nonNull(credentialsConfig.profileName())) {
+            builder.profileName(credentialsConfig.profileName());
+        }
+        if (Objects.nonNull(credentialsConfig.profileFile())) {
+            // rotated credentials written to the file are picked up without recreating the provider
+            builder.profileFile(ProfileFileSupplier.reloadWhenModified(
+                    credentialsConfig.profileFile(), ProfileFile.Type.CREDENTIALS));
+        }
+        return builder.build();
+    }
+
+    private static StsClient createStsClient(ConnectionConfig connectionConfig,
+                                             ConnectionConfig.CredentialsConfig credentialsConfig,
+                                             AwsCredentialsProvider credentialsProvider) {
+        // an explicit HTTP client is required, as multiple HTTP client implementations are in the classpath
+        StsClientBuilder builder = StsClient.builder()
+                .region(connectionConfig.region())
+                .credentialsProvider(credentialsProvider)
+                .httpClientBuilder(UrlConnectionHttpClient.builder());
+        if (Objects.nonNull(credentialsConfig.stsEndpoint())) {
+            builder.endpointOverride(credentialsConfig.stsEndpoint());
+        }
+        return builder.build();
+    }
+
+    /**
+     * A credentials provider backed by AWS STS, which also owns the STS client and the source credentials provider.
+     */
+    private record StsCredentialsProvider(AwsCredentialsProvider delegate, StsClient stsClient,
+                                          AwsCredentialsProvider sourceProvider)
+            implements AwsCredentialsProvider, SdkAutoCloseable {
+
+        private StsCredentialsProvider(AwsCredentialsProvider delegate, StsClient stsClient) {
+            this(delegate, stsClient, null);
+        }
+
+        @Override
+        public AwsCredentials resolveCredentials() {
+            return delegate.resolveCredentials();
+        }
+
+        @Override
+        public void close() {
+            IoUtils.closeIfCloseable(delegate, null);
+            stsClient.close();
+            IoUtils.closeIfCloseable(sourceProvider, null);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.http.crt.AwsCrtAsyncHttpClient;
+import software.amazon.awssdk.http.crt.AwsCrtHttpClient;
+import software.amazon.awssdk.http.crt.TcpKeepAliveConfiguration;
+
+import java.time.Duration;
+
+/**
+ * Creates the AWS Common Runtime based HTTP client builders. The CRT client is not bundled with the connector, hence
+ * this class is only loaded once {@link HttpClientFactory} has verified that the client is on the classpath.
+ */
+final class CrtHttpClients {
+    private static final String CRT_HTTP_CLIENT = "software.amazon.awssdk.http.crt.AwsCrtHttpClient";
+    private static final TcpKeepAliveConfiguration CRT_TCP_KEEP_ALIVE = TcpKeepAliveConfiguration.builder()
+            .keepAliveInterval(Duration.ofSeconds(30))
+            .keepAliveTimeout(Duration.ofSeconds(10))
+            .build();
+
+    private CrtHttpClients() {
+    }
+
+    /**
+     * Checks that the CRT HTTP client is on the classpath, without loading any class which depends on it.
+     *
+     * @throws IllegalArgumentException If the CRT HTTP client is not on the classpath.
+     */
+    static void checkAvailable() {
+        try {
+            Class.forName(CRT_HTTP_CLIENT, false, CrtHttpClients.class.getClassLoader());
+        } catch (ClassNotFoundException | LinkageError e) {
+            throw new IllegalArgumentException("the CRT HTTP client requires the software.amazon.awssdk:" +
+                    "aws-crt-client library, which is not bundled with the connector, to be added as a platform " +
+                    "dependency of the application", e);
+        }
+    }
+
+    static SdkHttpClient.Builder<?> createSyncHttpClient(ConnectionConfig.HttpConfig httpConfig) {
+        AwsCrtHttpClient.Builder builder = AwsCrtHttpClient.builder()
+                .maxConcurrency(httpConfig.maxConnections())
+                .connectionTimeout(httpConfig.connectionTimeout())
+                .connectionMaxIdleTime(httpConfig.connectionMaxIdleTime());
+        if (httpConfig.tcpKeepAlive()) {
+            builder.tcpKeepAliveConfiguration(CRT_TCP_KEEP_ALIVE);
+        }
+        return builder;
+    }
+
+    static SdkAsyncHttpClient.Builder<?> createAsyncHttpClient(ConnectionConfig.HttpConfig httpConfig) {
+        AwsCrtAsyncHttpClient.Builder builder = AwsCrtAsyncHttpClient.builder()
+                .maxConcurrency(httpConfig.maxConnections())
+                .connectionTimeout(httpConfig.connectionTimeout())
+                .connectionMaxIdleTime(httpConfig.connectionMaxIdleTime());
+        if (httpConfig.tcpKeepAlive()) {
+            builder.tcpKeepAliveConfiguration(CRT_TCP_KEEP_ALIVE);
+        }
+        return builder;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.MeterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.MeterUsageResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.RegisterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.RegisterUsageResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.ResolveCustomerRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.ResolveCustomerResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecord;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecordResult;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecordResultStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link MeteringClient} decorator which short-circuits the usage records already accepted by the service, as per
+ * the {@link DeduplicationIndex}, with a locally synthesized {@code DuplicateRecord} result.
+ */
+public final class DeduplicatingMeteringClient implements MeteringClient {
+    private final MeteringClient delegate;
+    private final DeduplicationIndex index;
+    private final LongAdder suppressedRecords = new LongAdder();
+
+    public DeduplicatingMeteringClient(MeteringClient delegate, DeduplicationIndex index) {
+        this.delegate = delegate;
+        this.index = index;
+    }
+
+    @Override
+    public CompletableFuture<BatchMeterUsageResponse> batchMeterUsage(BatchMeterUsageRequest request) {
+        String productCode = request.productCode();
+        List<UsageRecord> usageRecords = request.usageRecords();
+        List<UsageRecord> unseenRecords = new ArrayList<>(usageRecords.size());
+        List<UsageRecordResult> duplicateResults = new ArrayList<>();
+        for (UsageRecord usageRecord : usageRecords) {
+            if (index.contains(productCode, usageRecord)) {
+                duplicateResults.add(UsageRecordResult.builder().usageRecord(usageRecord)
+                        .status(UsageRecordResultStatus.DUPLICATE_RECORD).build());
+            } else {
+                unseenRecords.add(usageRecord);
+            }
+        }
+        suppressedRecords.add(duplicateResults.size());
+        if (unseenRecords.isEmpty()) {
+            return CompletableFuture.completedFuture(BatchMeterUsageResponse.builder()
+                    .results(duplicateResults).unprocessedRecords(List.of()).build());
+        }
+        BatchMeterUsageRequest dispatchedRequest = duplicateResults.isEmpty() ? request :
+                request.toBuilder().usageRecords(unseenRecords).build();
+        return delegate.batchMeterUsage(dispatchedRequest).thenApply(response -> {
+            for (UsageRecordResult result : response.results()) {
+                if (Objects.nonNull(result.usageRecord()) && (UsageRecordResultStatus.SUCCESS.equals(result.status())
+                        || UsageRecordResultStatus.DUPLICATE_RECORD.equals(result.status()))) {
+                    index.add(productCode, result.usageRecord());
+                }
+            }
+            if (duplicateResults.isEmpty()) {
+                return response;
+            }
+            List<UsageRecordResult> results = new ArrayList<>(response.results().size() + duplicateResults.size());
+            results.addAll(response.results());
+            results.addAll(duplicateResults);
+            return response.toBuilder().results(results).build();
+        });
+    }
+
+    @Override
+    public CompletableFuture<MeterUsageResponse> meterUsage(MeterUsageRequest request) {
+        return delegate.meterUsage(request);
+    }
+
+    @Override
+    public CompletableFuture<ResolveCustomerResponse> resolveCustomer(ResolveCustomerRequest request) {
+        return delegate.resolveCustomer(request);
+    }
+
+    @Override
+    public CompletableFuture<RegisterUsageResponse> registerUsage(RegisterUsageRequest request) {
+        return delegate.registerUsage(request);
+    }
+
+    public long getSuppressedRecords() {
+        return suppressedRecords.sum();
+    }
+
+    public DeduplicationIndex getIndex() {
+        return index;
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecord;
+
+import java.time.Clock;
+import java.time.temporal.ChronoUnit;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * {@code DeduplicationIndex} is a bounded, in-memory index of the usage records already accepted by the service,
+ * keyed on the product, customer, dimension and the hour in which the usage occurred. Entries are evicted once the
+ * retention period elapses, or in insertion order when the index is full.
+ */
+public final class DeduplicationIndex {
+    private final int maxEntries;
+    private final long retentionInMillis;
+    private final Clock clock;
+    private final LinkedHashMap<Key, Long> entries = new LinkedHashMap<>();
+
+    public DeduplicationIndex(ConnectionConfig.DeduplicationConfig deduplicationConfig, Clock clock) {
+        this.maxEntries = deduplicationConfig.maxEntries();
+        this.retentionInMillis = deduplicationConfig.retentionPeriod().toMillis();
+        this.clock = clock;
+    }
+
+    public synchronized boolean contains(String productCode, UsageRecord usageRecord) {
+        long now = clock.millis();
+        evictExpired(now);
+        Long expiry = entries.get(Key.of(productCode, usageRecord));
+        return Objects.nonNull(expiry) && expiry > now;
+    }
+
+    public synchronized void add(String productCode, UsageRecord usageRecord) {
+        long now = clock.millis();
+        Key key = Key.of(productCode, usageRecord);
+        entries.remove(key);
+        entries.put(key, now + retentionInMillis);
+        evictExpired(now);
+        Iterator<Long> iterator = entries.values().iterator();
+        while (entries.size() > maxEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private void evictExpired(long now) {
+        Iterator<Map.Entry<Key, Long>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext() && iterator.next().getValue() <= now) {
+            iterator.remove();
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private record Key(String productCode, String customerIdentifier, String dimension, long hour) {
+
+        private static Key of(String productCode, UsageRecord usageRecord) {
+            return new Key(productCode, usageRecord.customerIdentifier(), usageRecord.dimension(),
+                    usageRecord.timestamp().truncatedTo(ChronoUnit.HOURS).getEpochSecond());
+        }
+    }
+}
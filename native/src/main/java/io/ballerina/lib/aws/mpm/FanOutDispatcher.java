@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecord;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecordResult;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Function;
+
+/**
+ * {@code FanOutDispatcher} meters the usage records of several products in a single operation. The usage records are
+ * partitioned by product code and by the region of the product, and the partitions are metered concurrently in
+ * {@code BatchMeterUsage} calls on a native client per region.
+ * <p>
+ * Each partition is bounded by its own {@link AimdConcurrencyLimiter}, hence a throttled product only reduces its
+ * own concurrency, and does not hold back the calls of the other products. When the resilient mode is enabled, the
+ * throttled calls are already backed off by the limiter of the {@link ResilientMeteringClient}, hence the limiter of a
+ * partition only bounds its concurrency, so that a throttled call does not reduce the concurrency twice.
+ * <p>
+ * The native clients of the other regions are decorated in the same way as the native client of the region of the
+ * client, and spool into a subdirectory named after the region.
+ */
+public final class FanOutDispatcher {
+    private static final int MAX_BATCH_SIZE = 25;
+
+    private final ConnectionConfig connectionConfig;
+    private final MeteringClient homeClient;
+    private final ScheduledExecutorService scheduler;
+    private final Function<ConnectionConfig, MeteringClient> sharedClientFactory;
+    private final boolean adaptive;
+    private final Map<Region, CompletableFuture<MeteringClient>> regionClients = new ConcurrentHashMap<>();
+    private final Map<Partition, AimdConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    public FanOutDispatcher(ConnectionConfig connectionConfig, MeteringClient homeClient,
+                            ScheduledExecutorService scheduler) {
+        this(connectionConfig, homeClient, scheduler, regionConfig -> SharedClientRegistry.acquire(regionConfig,
+                () -> NativeClientAdaptor.createNativeClient(
+                        regionConfig, CredentialsProviderFactory.create(regionConfig))));
+    }
+
+    FanOutDispatcher(ConnectionConfig connectionConfig, MeteringClient homeClient, ScheduledExecutorService scheduler,
+                     Function<ConnectionConfig, MeteringClient> sharedClientFactory) {
+        this.connectionConfig = connectionConfig;
+        this.homeClient = homeClient;
+        this.scheduler = scheduler;
+        this.sharedClientFactory = sharedClientFactory;
+        this.adaptive = Objects.isNull(connectionConfig.retryConfig());
+    }
+
+    /**
+     * Meters the provided usage records, and merges the outcomes of all the partitions.
+     *
+     * @param usageRecords The usage records of several products.
+     * @return A future which completes with the outcome of each usage record, at the position of the usage record.
+     */
+    public CompletableFuture<List<DispatchedRecord>> dispatch(List<ProductUsageRecord> usageRecords) {
+        Map<Partition, List<Integer>> partitions = new LinkedHashMap<>();
+        for (int i = 0; i < usageRecords.size(); i++) {
+            String productCode = usageRecords.get(i).productCode();
+            partitions.computeIfAbsent(new Partition(productCode, getRegion(productCode)),
+                    partition -> new ArrayList<>()).add(i);
+        }
+        DispatchedRecord[] dispatchedRecords = new DispatchedRecord[usageRecords.size()];
+        List<CompletableFuture<Void>> batches = new ArrayList<>();
+        partitions.forEach((partition, indexes) -> {
+            for (int from = 0; from < indexes.size(); from += MAX_BATCH_SIZE) {
+                List<Integer> batchIndexes = indexes.subList(from, Math.min(indexes.size(), from + MAX_BATCH_SIZE));
+                batches.add(dispatch(partition, batchIndexes, usageRecords, dispatchedRecords));
+            }
+        });
+        return CompletableFuture.allOf(batches.toArray(new CompletableFuture<?>[0]))
+                .thenApply(ignored -> Arrays.asList(dispatchedRecords));
+    }
+
+    private CompletableFuture<Void> dispatch(Partition partition, List<Integer> batchIndexes,
+                                             List<ProductUsageRecord> usageRecords,
+                                             DispatchedRecord[] dispatchedRecords) {
+        List<UsageRecord> batchRecords = new ArrayList<>(batchIndexes.size());
+        batchIndexes.forEach(index -> batchRecords.add(usageRecords.get(index).usageRecord()));
+        BatchMeterUsageRequest request = BatchMeterUsageRequest.builder()
+                .productCode(partition.productCode()).usageRecords(batchRecords).build();
+        AimdConcurrencyLimiter limiter = limiters.computeIfAbsent(partition, ignored -> new AimdConcurrencyLimiter(
+                connectionConfig.fanOutConfig().maxConcurrency(), 1, connectionConfig.fanOutConfig().maxConcurrency()));
+        return limiter.acquire().thenCompose(ignored -> invoke(partition.region(), request))
+                .handle((nativeResponse, exception) -> {
+                    if (Objects.isNull(exception)) {
+                        limiter.onSuccess();
+                        UsageRecordResult[] results = UsageRecordKey.align(batchRecords, nativeResponse.results());
+                        for (int i = 0; i < results.length; i++) {
+                            dispatchedRecords[batchIndexes.get(i)] = new DispatchedRecord(
+                                    partition.region(), results[i], null);
+                        }
+                        return null;
+                    }
+                    Throwable cause = CommonUtils.unwrap(exception);
+                    if (adaptive && cause instanceof AwsServiceException awsSvcExp
+                            && awsSvcExp.isThrottlingException()) {
+                        limiter.onThrottled();
+                    } else {
+                        limiter.onIgnored();
+                    }
+                    batchIndexes.forEach(index -> dispatchedRecords[index] = new DispatchedRecord(
+                            partition.region(), null, cause));
+                    return null;
+                });
+    }
+
+    private CompletableFuture<BatchMeterUsageResponse> invoke(Region region, BatchMeterUsageRequest request) {
+        if (connectionConfig.region().equals(region)) {
+            return invoke(homeClient, request);
+        }
+        return getRegionClient(region).thenCompose(regionClient -> invoke(regionClient, request));
+    }
+
+    private static CompletableFuture<BatchMeterUsageResponse> invoke(MeteringClient client,
+                                                                    BatchMeterUsageRequest request) {
+        try {
+            return client.batchMeterUsage(request);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private Region getRegion(String productCode) {
+        return connectionConfig.fanOutConfig().productRegions().getOrDefault(productCode, connectionConfig.region());
+    }
+
+    // the client is created outside the map, as creating a native client would otherwise block the other regions
+    // on the lock of the map, and concurrent callers of the same region wait on the future of the first caller
+    private CompletableFuture<MeteringClient> getRegionClient(Region region) {
+        CompletableFuture<MeteringClient> regionClient = regionClients.get(region);
+        if (Objects.nonNull(regionClient)) {
+            return regionClient;
+        }
+        if (closed) {
+            return CompletableFuture.failedFuture(new MeteringException("the fan-out dispatcher is closed"));
+        }
+        CompletableFuture<MeteringClient> createdClient = new CompletableFuture<>();
+        regionClient = regionClients.putIfAbsent(region, createdClient);
+        if (Objects.nonNull(regionClient)) {
+            return regionClient;
+        }
+        try {
+            MeteringClient client = createRegionClient(region);
+            createdClient.complete(client);
+            // a client created while the dispatcher is closed is released by whichever of the two removes it
+            if (closed && regionClients.remove(region, createdClient)) {
+                client.close();
+            }
+        } catch (Exception e) {
+            // a failed client is not retained, so that the next call of the region creates the client again
+            regionClients.remove(region, createdClient);
+            createdClient.completeExceptionally(e);
+        }
+        return createdClient;
+    }
+
+    // clients of other regions are shared through the registry, and are decorated in the same way as the home client,
+    // so that an unavailable region does not open the breakers of the other regions
+    private MeteringClient createRegionClient(Region region) throws IOException {
+        ConnectionConfig regionConfig = connectionConfig.withRegion(region);
+        MeteringClient sharedClient = sharedClientFactory.apply(regionConfig);
+        try {
+            MeteringClientChain chain = MeteringClientChain.build(sharedClient, regionConfig, scheduler);
+            chain.replay();
+            return chain.instrumentedClient();
+        } catch (IOException | RuntimeException e) {
+            sharedClient.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Releases the native clients of the regions other than the region of the client.
+     */
+    public void close() {
+        closed = true;
+        regionClients.keySet().forEach(region -> {
+            CompletableFuture<MeteringClient> regionClient = regionClients.remove(region);
+            if (Objects.nonNull(regionClient)) {
+                regionClient.thenAccept(MeteringClient::close);
+            }
+        });
+    }
+
+    /**
+     * A usage record together with the product for which it is metered.
+     *
+     * @param productCode The unique identifier for the Marketplace product.
+     * @param usageRecord The usage record to be metered.
+     */
+    public record ProductUsageRecord(String productCode, UsageRecord usageRecord) {
+    }
+
+    /**
+     * The outcome of a usage record dispatched by the {@code FanOutDispatcher}.
+     *
+     * @param region  The region in which the usage record was metered.
+     * @param result  The result of the usage record, or {@code null} if it was not processed.
+     * @param failure The failure of the call which carried the usage record, or {@code null} if the call succeeded.
+     */
+    public record DispatchedRecord(Region region, UsageRecordResult result, Throwable failure) {
+    }
+
+    private record Partition(String productCode, Region region) {
+    }
+}
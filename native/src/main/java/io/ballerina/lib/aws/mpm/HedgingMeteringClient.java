@@ -0,0 +1,279 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.MeterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.MeterUsageResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.RegisterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.RegisterUsageResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.ResolveCustomerRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.ResolveCustomerResponse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link MeteringClient} decorator which hedges {@code ResolveCustomer} calls. When a call has not answered within
+ * the configured percentile of the recent latencies, a second, identical call is sent, and whichever call succeeds
+ * first answers the caller while the other call is cancelled. The idempotent {@code ResolveCustomer} operation is the
+ * only operation hedged.
+ * <p>
+ * The latency percentile is computed over the latest window of first calls, and is clamped to the configured bounds.
+ * A first call cancelled as its hedge answered first is recorded with the time it was pending, so that the slow calls
+ * are not left out of the percentile. Hedges are limited to a ratio of the calls of the last ten seconds, so that a
+ * degraded service does not receive twice the load, regardless of how many calls were answered before it degraded.
+ */
+public final class HedgingMeteringClient implements MeteringClient {
+    private static final int LATENCY_WINDOW_SIZE = 1000;
+    private static final int MIN_LATENCY_SAMPLES = 20;
+    private static final int RATIO_WINDOW_BUCKETS = 10;
+    private static final long RATIO_BUCKET_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final MeteringClient delegate;
+    private final ScheduledExecutorService scheduler;
+    private final double delayPercentile;
+    private final long minDelayInMicros;
+    private final long maxDelayInMicros;
+    private final double maxHedgeRatio;
+    private final LongSupplier nanoClock;
+    private final Object ratioLock = new Object();
+    // the calls and the hedges of the sliding window, in buckets of a second indexed by the second they count
+    private final long[] bucketSeconds = new long[RATIO_WINDOW_BUCKETS];
+    private final long[] bucketCalls = new long[RATIO_WINDOW_BUCKETS];
+    private final long[] bucketHedges = new long[RATIO_WINDOW_BUCKETS];
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder hedgedCalls = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    private final LongAdder skippedHedges = new LongAdder();
+    private volatile LatencyHistogram latencies = new LatencyHistogram();
+    private volatile LatencyHistogram previousLatencies;
+
+    public HedgingMeteringClient(MeteringClient delegate, ScheduledExecutorService scheduler,
+                                 ConnectionConfig.HedgingConfig hedgingConfig) {
+        this(delegate, scheduler, hedgingConfig, System::nanoTime);
+    }
+
+    HedgingMeteringClient(MeteringClient delegate, ScheduledExecutorService scheduler,
+                          ConnectionConfig.HedgingConfig hedgingConfig, LongSupplier nanoClock) {
+        this.delegate = delegate;
+        this.scheduler = scheduler;
+        this.delayPercentile = hedgingConfig.delayPercentile();
+        this.minDelayInMicros = TimeUnit.NANOSECONDS.toMicros(hedgingConfig.minDelay().toNanos());
+        this.maxDelayInMicros = TimeUnit.NANOSECONDS.toMicros(hedgingConfig.maxDelay().toNanos());
+        this.maxHedgeRatio = hedgingConfig.maxHedgeRatio();
+        this.nanoClock = nanoClock;
+        Arrays.fill(bucketSeconds, Long.MIN_VALUE);
+    }
+
+    @Override
+    public CompletableFuture<ResolveCustomerResponse> resolveCustomer(ResolveCustomerRequest request) {
+        calls.increment();
+        synchronized (ratioLock) {
+            bucketCalls[getBucket(nanoClock.getAsLong())]++;
+        }
+        HedgedCall hedgedCall = new HedgedCall(request);
+        hedgedCall.start(getDelayInMicros());
+        return hedgedCall.result;
+    }
+
+    @Override
+    public CompletableFuture<RegisterUsageResponse> registerUsage(RegisterUsageRequest request) {
+        return delegate.registerUsage(request);
+    }
+
+    /**
+     * Returns the delay after which a call is hedged. Until the latencies of enough calls are recorded, the maximum
+     * delay is used.
+     *
+     * @return The hedging delay in microseconds.
+     */
+    public long getDelayInMicros() {
+        LatencyHistogram window = Objects.nonNull(previousLatencies) ? previousLatencies : latencies;
+        if (window.getCount() < MIN_LATENCY_SAMPLES) {
+            return maxDelayInMicros;
+        }
+        long percentile = window.getValueAtPercentile(delayPercentile);
+        return Math.min(Math.max(percentile, minDelayInMicros), maxDelayInMicros);
+    }
+
+    // the window is replaced once it is full, hence the percentile follows shifts of the latency distribution
+    private void recordLatency(long nanos) {
+        LatencyHistogram window = latencies;
+        window.record(nanos);
+        if (window.getCount() >= LATENCY_WINDOW_SIZE) {
+            synchronized (this) {
+                if (latencies == window) {
+                    previousLatencies = window;
+                    latencies = new LatencyHistogram();
+                }
+            }
+        }
+    }
+
+    private boolean tryHedge() {
+        synchronized (ratioLock) {
+            long now = nanoClock.getAsLong();
+            int bucket = getBucket(now);
+            long windowCalls = 0;
+            long windowHedges = 0;
+            for (int i = 0; i < RATIO_WINDOW_BUCKETS; i++) {
+                if (bucketSeconds[i] > bucketSeconds[bucket] - RATIO_WINDOW_BUCKETS) {
+                    windowCalls += bucketCalls[i];
+                    windowHedges += bucketHedges[i];
+                }
+            }
+            if (windowHedges >= maxHedgeRatio * windowCalls) {
+                return false;
+            }
+            bucketHedges[bucket]++;
+            return true;
+        }
+    }
+
+    // the bucket of a second is reused once the window has moved past it
+    private int getBucket(long nanos) {
+        long second = Math.floorDiv(nanos, RATIO_BUCKET_NANOS);
+        int bucket = (int) Math.floorMod(second, (long) RATIO_WINDOW_BUCKETS);
+        if (bucketSeconds[bucket] != second) {
+            bucketSeconds[bucket] = second;
+            bucketCalls[bucket] = 0;
+            bucketHedges[bucket] = 0;
+        }
+        return bucket;
+    }
+
+    private CompletableFuture<ResolveCustomerResponse> invoke(ResolveCustomerRequest request) {
+        try {
+            return delegate.resolveCustomer(request);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<BatchMeterUsageResponse> batchMeterUsage(BatchMeterUsageRequest request) {
+        return delegate.batchMeterUsage(request);
+    }
+
+    @Override
+    public CompletableFuture<MeterUsageResponse> meterUsage(MeterUsageRequest request) {
+        return delegate.meterUsage(request);
+    }
+
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    public long getHedgedCalls() {
+        return hedgedCalls.sum();
+    }
+
+    public long getHedgeWins() {
+        return hedgeWins.sum();
+    }
+
+    public long getSkippedHedges() {
+        return skippedHedges.sum();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    private final class HedgedCall {
+        private final ResolveCustomerRequest request;
+        private final CompletableFuture<ResolveCustomerResponse> result = new CompletableFuture<>();
+        private final List<CompletableFuture<ResolveCustomerResponse>> attempts = new ArrayList<>(2);
+        private ScheduledFuture<?> hedgeTimer;
+        private int pendingAttempts;
+
+        private HedgedCall(ResolveCustomerRequest request) {
+            this.request = request;
+        }
+
+        private synchronized void start(long delayInMicros) {
+            long startTime = nanoClock.getAsLong();
+            // a failed first call does not tell how long an answer takes, whereas a cancelled one took at least as
+            // long as it was pending
+            attempt(false).whenComplete((response, exception) -> {
+                if (Objects.isNull(exception) || CommonUtils.unwrap(exception) instanceof CancellationException) {
+                    recordLatency(nanoClock.getAsLong() - startTime);
+                }
+            });
+            if (!result.isDone()) {
+                hedgeTimer = scheduler.schedule(this::hedge, delayInMicros, TimeUnit.MICROSECONDS);
+            }
+        }
+
+        private synchronized void hedge() {
+            if (result.isDone()) {
+                return;
+            }
+            if (!tryHedge()) {
+                skippedHedges.increment();
+                return;
+            }
+            hedgedCalls.increment();
+            attempt(true);
+        }
+
+        private CompletableFuture<ResolveCustomerResponse> attempt(boolean hedge) {
+            pendingAttempts++;
+            CompletableFuture<ResolveCustomerResponse> attempt = invoke(request);
+            attempts.add(attempt);
+            attempt.whenComplete((response, exception) -> onAttemptComplete(hedge, response, exception));
+            return attempt;
+        }
+
+        // the first successful attempt answers the call, and a failure answers it only once no attempt is pending
+        private synchronized void onAttemptComplete(boolean hedge, ResolveCustomerResponse response,
+                                                    Throwable exception) {
+            pendingAttempts--;
+            if (result.isDone()) {
+                return;
+            }
+            if (Objects.isNull(exception)) {
+                if (hedge) {
+                    hedgeWins.increment();
+                }
+                result.complete(response);
+            } else if (pendingAttempts == 0) {
+                result.completeExceptionally(CommonUtils.unwrap(exception));
+            } else {
+                return;
+            }
+            if (Objects.nonNull(hedgeTimer)) {
+                hedgeTimer.cancel(false);
+            }
+            attempts.forEach(attempt -> attempt.cancel(true));
+        }
+    }
+}
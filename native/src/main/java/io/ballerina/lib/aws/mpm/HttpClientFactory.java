@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+
+import java.util.Objects;
+
+/**
+ * Creates the HTTP client builders used by the native clients, tuned with the transport configurations. Settings
+ * which are not supported by the selected HTTP client are ignored. The CRT client is optional and is only loaded when
+ * it is selected.
+ */
+public final class HttpClientFactory {
+    private HttpClientFactory() {
+    }
+
+    /**
+     * Creates the builder of the HTTP client used by the blocking native client.
+     *
+     * @param httpConfig The HTTP transport configurations.
+     * @return The HTTP client builder.
+     */
+    public static SdkHttpClient.Builder<?> createSyncHttpClient(ConnectionConfig.HttpConfig httpConfig) {
+        ConnectionConfig.HttpClientType clientType = Objects.requireNonNullElse(
+                httpConfig.clientType(), ConnectionConfig.HttpClientType.APACHE);
+        return switch (clientType) {
+            case APACHE -> {
+                ApacheHttpClient.Builder builder = ApacheHttpClient.builder()
+                        .maxConnections(httpConfig.maxConnections())
+                        .connectionAcquisitionTimeout(httpConfig.connectionAcquisitionTimeout())
+                        .connectionTimeout(httpConfig.connectionTimeout())
+                        .socketTimeout(httpConfig.socketTimeout())
+                        .connectionMaxIdleTime(httpConfig.connectionMaxIdleTime())
+                        .useIdleConnectionReaper(httpConfig.useIdleConnectionReaper())
+                        .tcpKeepAlive(httpConfig.tcpKeepAlive());
+                if (Objects.nonNull(httpConfig.connectionTimeToLive())) {
+                    builder.connectionTimeToLive(httpConfig.connectionTimeToLive());
+                }
+                yield builder;
+            }
+            case URL_CONNECTION -> UrlConnectionHttpClient.builder()
+                    .connectionTimeout(httpConfig.connectionTimeout())
+                    .socketTimeout(httpConfig.socketTimeout());
+            case CRT -> {
+                CrtHttpClients.checkAvailable();
+                yield CrtHttpClients.createSyncHttpClient(httpConfig);
+            }
+            case NETTY -> throw new IllegalArgumentException(
+                    "the NETTY HTTP client is only supported in the NON_BLOCKING client mode");
+        };
+    }
+
+    /**
+     * Creates the builder of the HTTP client used by the non-blocking native client.
+     *
+     * @param httpConfig The HTTP transport configurations.
+     * @return The HTTP client builder.
+     */
+    public static SdkAsyncHttpClient.Builder<?> createAsyncHttpClient(ConnectionConfig.HttpConfig httpConfig) {
+        ConnectionConfig.HttpClientType clientType = Objects.requireNonNullElse(
+                httpConfig.clientType(), ConnectionConfig.HttpClientType.NETTY);
+        return switch (clientType) {
+            case NETTY -> {
+                NettyNioAsyncHttpClient.Builder builder = NettyNioAsyncHttpClient.builder()
+                        .maxConcurrency(httpConfig.maxConnections())
+                        .connectionAcquisitionTimeout(httpConfig.connectionAcquisitionTimeout())
+                        .connectionTimeout(httpConfig.connectionTimeout())
+                        .readTimeout(httpConfig.socketTimeout())
+                        .writeTimeout(httpConfig.socketTimeout())
+                        .connectionMaxIdleTime(httpConfig.connectionMaxIdleTime())
+                        .useIdleConnectionReaper(httpConfig.useIdleConnectionReaper())
+                        .tcpKeepAlive(httpConfig.tcpKeepAlive());
+                if (Objects.nonNull(httpConfig.connectionTimeToLive())) {
+                    builder.connectionTimeToLive(httpConfig.connectionTimeToLive());
+                }
+                yield builder;
+            }
+            case CRT -> {
+                CrtHttpClients.checkAvailable();
+                yield CrtHttpClients.createAsyncHttpClient(httpConfig);
+            }
+            case APACHE, URL_CONNECTION -> throw new IllegalArgumentException(String.format(
+                    "the %s HTTP client is only supported in the BLOCKING client mode", clientType));
+        };
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.MeterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.MeterUsageResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.RegisterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.RegisterUsageResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.ResolveCustomerRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.ResolveCustomerResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecordResult;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * {@link MeteringClient} decorator which records the latency distribution, the in-flight requests and the failures
+ * of each operation, and the outcomes of the metered usage records. As the outermost decorator, it observes the
+ * operations as seen by the caller, including the retries of the resilient mode and the short-circuited duplicates.
+ * <p>
+ * Recording only updates pre-allocated counters, apart from the first occurrence of an error code.
+ */
+public final class InstrumentedMeteringClient implements MeteringClient {
+    private final MeteringClient delegate;
+    private final OperationMetrics batchMeterUsageMetrics = new OperationMetrics();
+    private final OperationMetrics meterUsageMetrics = new OperationMetrics();
+    private final OperationMetrics resolveCustomerMetrics = new OperationMetrics();
+    private final OperationMetrics registerUsageMetrics = new OperationMetrics();
+    private final LongAdder successfulRecords = new LongAdder();
+    private final LongAdder customerNotSubscribedRecords = new LongAdder();
+    private final LongAdder duplicateRecords = new LongAdder();
+    private final LongAdder unprocessedRecords = new LongAdder();
+    private final LongAdder throttledRequests = new LongAdder();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private volatile BiConsumer<String, LongAdder> errorCodeListener;
+
+    public InstrumentedMeteringClient(MeteringClient delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public CompletableFuture<BatchMeterUsageResponse> batchMeterUsage(BatchMeterUsageRequest request) {
+        long startTime = batchMeterUsageMetrics.start();
+        return delegate.batchMeterUsage(request).whenComplete((response, exception) -> {
+            batchMeterUsageMetrics.complete(startTime, exception);
+            if (Objects.nonNull(exception)) {
+                recordError(exception);
+                return;
+            }
+            recordOutcomes(response);
+        });
+    }
+
+    @Override
+    public CompletableFuture<MeterUsageResponse> meterUsage(MeterUsageRequest request) {
+        long startTime = meterUsageMetrics.start();
+        return delegate.meterUsage(request).whenComplete((response, exception) -> {
+            meterUsageMetrics.complete(startTime, exception);
+            if (Objects.nonNull(exception)) {
+                recordError(exception);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<ResolveCustomerResponse> resolveCustomer(ResolveCustomerRequest request) {
+        long startTime = resolveCustomerMetrics.start();
+        return delegate.resolveCustomer(request).whenComplete((response, exception) -> {
+            resolveCustomerMetrics.complete(startTime, exception);
+            if (Objects.nonNull(exception)) {
+                recordError(exception);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<RegisterUsageResponse> registerUsage(RegisterUsageRequest request) {
+        long startTime = registerUsageMetrics.start();
+        return delegate.registerUsage(request).whenComplete((response, exception) -> {
+            registerUsageMetrics.complete(startTime, exception);
+            if (Objects.nonNull(exception)) {
+                recordError(exception);
+            }
+        });
+    }
+
+    private void recordOutcomes(BatchMeterUsageResponse response) {
+        for (UsageRecordResult result : response.results()) {
+            if (Objects.isNull(result.status())) {
+                continue;
+            }
+            switch (result.status()) {
+                case SUCCESS -> successfulRecords.increment();
+                case CUSTOMER_NOT_SUBSCRIBED -> customerNotSubscribedRecords.increment();
+                case DUPLICATE_RECORD -> duplicateRecords.increment();
+                default -> {
+                }
+            }
+        }
+        if (response.hasUnprocessedRecords()) {
+            unprocessedRecords.add(response.unprocessedRecords().size());
+        }
+    }
+
+    private void recordError(Throwable exception) {
+        Throwable cause = CommonUtils.unwrap(exception);
+        if (cause instanceof AwsServiceException awsSvcExp && awsSvcExp.isThrottlingException()) {
+            throttledRequests.increment();
+        }
+        String errorCode = CommonUtils.getErrorCode(cause);
+        LongAdder errorCount = errors.get(errorCode);
+        if (Objects.isNull(errorCount)) {
+            errorCount = errors.computeIfAbsent(errorCode, code -> {
+                LongAdder newErrorCount = new LongAdder();
+                BiConsumer<String, LongAdder> listener = errorCodeListener;
+                if (Objects.nonNull(listener)) {
+                    listener.accept(code, newErrorCount);
+                }
+                return newErrorCount;
+            });
+        }
+        errorCount.increment();
+    }
+
+    /**
+     * Sets the listener notified with the counter of each error code on its first occurrence, and notifies it with
+     * the error codes which already occurred.
+     *
+     * @param listener The listener of the error codes.
+     */
+    void setErrorCodeListener(BiConsumer<String, LongAdder> listener) {
+        this.errorCodeListener = listener;
+        errors.forEach(listener);
+    }
+
+    public OperationMetrics getBatchMeterUsageMetrics() {
+        return batchMeterUsageMetrics;
+    }
+
+    public OperationMetrics getMeterUsageMetrics() {
+        return meterUsageMetrics;
+    }
+
+    public OperationMetrics getResolveCustomerMetrics() {
+        return resolveCustomerMetrics;
+    }
+
+    public OperationMetrics getRegisterUsageMetrics() {
+        return registerUsageMetrics;
+    }
+
+    public long getSuccessfulRecords() {
+        return successfulRecords.sum();
+    }
+
+    public long getCustomerNotSubscribedRecords() {
+        return customerNotSubscribedRecords.sum();
+    }
+
+    public long getDuplicateRecords() {
+        return duplicateRecords.sum();
+    }
+
+    public long getUnprocessedRecords() {
+        return unprocessedRecords.sum();
+    }
+
+    public long getThrottledRequests() {
+        return throttledRequests.sum();
+    }
+
+    public Map<String, LongAdder> getErrors() {
+        return errors;
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    /**
+     * The latency distribution, the in-flight requests and the failures of a single operation.
+     */
+    public static final class OperationMetrics {
+        private final LatencyHistogram latencies = new LatencyHistogram();
+        private final LongAdder inFlightRequests = new LongAdder();
+        private final LongAdder failedRequests = new LongAdder();
+
+        private long start() {
+            inFlightRequests.increment();
+            return System.nanoTime();
+        }
+
+        private void complete(long startTime, Throwable exception) {
+            latencies.record(System.nanoTime() - startTime);
+            inFlightRequests.decrement();
+            if (Objects.nonNull(exception)) {
+                failedRequests.increment();
+            }
+        }
+
+        public LatencyHistogram getLatencies() {
+            return latencies;
+        }
+
+        public long getInFlightRequests() {
+            return inFlightRequests.sum();
+        }
+
+        public long getFailedRequests() {
+            return failedRequests.sum();
+        }
+    }
+}
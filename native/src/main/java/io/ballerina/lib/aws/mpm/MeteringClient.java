@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.MeterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.MeterUsageResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.RegisterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.RegisterUsageResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.ResolveCustomerRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.ResolveCustomerResponse;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@code MeteringClient} is the non-blocking contract through which the connector talks to the AWS Marketplace
+ * Metering service, regardless of whether the underlying SDK client is blocking or non-blocking.
+ */
+public interface MeteringClient {
+
+    CompletableFuture<BatchMeterUsageResponse> batchMeterUsage(BatchMeterUsageRequest request);
+
+    CompletableFuture<MeterUsageResponse> meterUsage(MeterUsageRequest request);
+
+    CompletableFuture<ResolveCustomerResponse> resolveCustomer(ResolveCustomerRequest request);
+
+    CompletableFuture<RegisterUsageResponse> registerUsage(RegisterUsageRequest request);
+
+    void close();
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.util.Objects;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * {@code MeteringClientChain} holds the decorators wrapped around a shared native client, from the innermost to the
+ * outermost. The decorators which are not configured are {@code null}, and the calls are made through the instrumented
+ * client.
+ *
+ * @param hedgingClient         The client which hedges slow calls.
+ * @param resilientClient       The client which retries throttled and failed calls.
+ * @param circuitBreakingClient The client which guards the calls with circuit breakers.
+ * @param spoolingClient        The client which spools the usage records until they are accepted.
+ * @param deduplicatingClient   The client which suppresses the usage records which were already accepted.
+ * @param resolveCustomerCache  The client which caches the resolved customers.
+ * @param instrumentedClient    The client which records the metrics of the calls.
+ */
+record MeteringClientChain(HedgingMeteringClient hedgingClient, ResilientMeteringClient resilientClient,
+                           CircuitBreakingMeteringClient circuitBreakingClient,
+                           SpoolingMeteringClient spoolingClient, DeduplicatingMeteringClient deduplicatingClient,
+                           ResolveCustomerCache resolveCustomerCache, InstrumentedMeteringClient instrumentedClient) {
+
+    /**
+     * Wraps the configured decorators around the shared native client. The recovered records of the spool are not
+     * replayed, hence the caller replays them once the chain is in use.
+     *
+     * @param sharedClient     The shared native client.
+     * @param connectionConfig The client connection configurations.
+     * @param scheduler        The scheduler of the retries and the hedges.
+     * @return The decorators around the shared native client.
+     * @throws IOException If the spool could not be opened. The spool is closed if a later decorator fails.
+     */
+    static MeteringClientChain build(MeteringClient sharedClient, ConnectionConfig connectionConfig,
+                                     ScheduledExecutorService scheduler) throws IOException {
+        MeteringClient client = sharedClient;
+        HedgingMeteringClient hedgingClient = null;
+        if (Objects.nonNull(connectionConfig.hedgingConfig())) {
+            hedgingClient = new HedgingMeteringClient(client, scheduler, connectionConfig.hedgingConfig());
+            client = hedgingClient;
+        }
+        ResilientMeteringClient resilientClient = null;
+        if (Objects.nonNull(connectionConfig.retryConfig())) {
+            resilientClient = new ResilientMeteringClient(client, scheduler, connectionConfig.retryConfig());
+            client = resilientClient;
+        }
+        CircuitBreakingMeteringClient circuitBreakingClient = null;
+        if (Objects.nonNull(connectionConfig.circuitBreakerConfig())) {
+            circuitBreakingClient = new CircuitBreakingMeteringClient(
+                    client, connectionConfig.circuitBreakerConfig(), Clock.systemUTC());
+            client = circuitBreakingClient;
+        }
+        SpoolingMeteringClient spoolingClient = null;
+        if (Objects.nonNull(connectionConfig.spoolConfig())) {
+            spoolingClient = new SpoolingMeteringClient(
+                    client, UsageSpool.open(connectionConfig.spoolConfig()));
+            client = spoolingClient;
+        }
+        try {
+            DeduplicatingMeteringClient deduplicatingClient = null;
+            if (Objects.nonNull(connectionConfig.deduplicationConfig())) {
+                DeduplicationIndex index = new DeduplicationIndex(
+                        connectionConfig.deduplicationConfig(), Clock.systemUTC());
+                if (Objects.nonNull(spoolingClient)) {
+                    spoolingClient.getSpool().takeAcknowledgedRecords().forEach(spooledRecord ->
+                            index.add(spooledRecord.productCode(), spooledRecord.usageRecord()));
+                }
+                deduplicatingClient = new DeduplicatingMeteringClient(client, index);
+                client = deduplicatingClient;
+            }
+            ResolveCustomerCache resolveCustomerCache = null;
+            if (Objects.nonNull(connectionConfig.resolveCustomerCacheConfig())) {
+                resolveCustomerCache = new ResolveCustomerCache(
+                        client, connectionConfig.resolveCustomerCacheConfig(), Clock.systemUTC());
+                client = resolveCustomerCache;
+            }
+            return new MeteringClientChain(hedgingClient, resilientClient, circuitBreakingClient,
+                    spoolingClient, deduplicatingClient, resolveCustomerCache, new InstrumentedMeteringClient(client));
+        } catch (RuntimeException e) {
+            // the spool is opened by this chain, whereas the shared native client is owned by the caller
+            if (Objects.nonNull(spoolingClient)) {
+                spoolingClient.getSpool().close();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Replays the usage records recovered from the spool, if the spool is configured.
+     */
+    void replay() {
+        if (Objects.nonNull(spoolingClient)) {
+            spoolingClient.replay();
+        }
+    }
+}
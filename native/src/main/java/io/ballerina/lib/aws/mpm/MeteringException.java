@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+/**
+ * {@code MeteringException} represents a connector-side failure in processing a usage record, which did not
+ * originate from the AWS Marketplace Metering service.
+ */
+public class MeteringException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public MeteringException(String message) {
+        super(message);
+    }
+}
@@ -35,6 +35,11 @@ public final class ModuleUtils {
         module = environment.getCurrentModule();
     }
 
+    // used by the benchmarks, which load the compiled Ballerina module without a Ballerina runtime environment
+    static void setModule(Module currentModule) {
+        module = currentModule;
+    }
+
     public static Module getModule() {
         return module;
     }
@@ -20,32 +20,68 @@ package io.ballerina.lib.aws.mpm;
 
 import io.ballerina.runtime.api.Environment;
 import io.ballerina.runtime.api.Future;
+import io.ballerina.runtime.api.creators.ValueCreator;
+import io.ballerina.runtime.api.values.BArray;
 import io.ballerina.runtime.api.values.BError;
 import io.ballerina.runtime.api.values.BMap;
 import io.ballerina.runtime.api.values.BObject;
 import io.ballerina.runtime.api.values.BString;
-import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
-import software.amazon.awssdk.auth.credentials.AwsCredentials;
+import io.ballerina.runtime.observability.ObserveUtils;
 import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
-import software.amazon.awssdk.auth.credentials.AwsSessionCredentials;
-import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.awscore.retry.AwsRetryStrategy;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.services.marketplacemetering.MarketplaceMeteringAsyncClient;
+import software.amazon.awssdk.services.marketplacemetering.MarketplaceMeteringAsyncClientBuilder;
 import software.amazon.awssdk.services.marketplacemetering.MarketplaceMeteringClient;
+import software.amazon.awssdk.services.marketplacemetering.MarketplaceMeteringClientBuilder;
 import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageRequest;
-import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.MeterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.MeterUsageResponse;
 import software.amazon.awssdk.services.marketplacemetering.model.ResolveCustomerRequest;
-import software.amazon.awssdk.services.marketplacemetering.model.ResolveCustomerResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecord;
 
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
- * Representation of {@link software.amazon.awssdk.services.marketplacemetering.MarketplaceMeteringClient} with
- * utility methods to invoke as inter-op functions.
+ * Representation of {@link software.amazon.awssdk.services.marketplacemetering.MarketplaceMeteringClient} and
+ * {@link software.amazon.awssdk.services.marketplacemetering.MarketplaceMeteringAsyncClient} with utility methods to
+ * invoke as inter-op functions.
  */
 public final class NativeClientAdaptor {
     private static final String NATIVE_CLIENT = "nativeClient";
-    private static final ExecutorService EXECUTOR_SERVICE = Executors.newCachedThreadPool(new AwsMpmThreadFactory());
+    private static final String SCHEDULER = "scheduler";
+    private static final String USAGE_BATCHER = "usageBatcher";
+    private static final String RESILIENT_CLIENT = "resilientClient";
+    private static final String DEDUPLICATING_CLIENT = "deduplicatingClient";
+    private static final String SPOOLING_CLIENT = "spoolingClient";
+    private static final String USAGE_AGGREGATOR = "usageAggregator";
+    private static final String RESOLVE_CUSTOMER_CACHE = "resolveCustomerCache";
+    private static final String USAGE_REGISTRAR = "usageRegistrar";
+    private static final int MAX_NONCE_LENGTH = 255;
+    private static final String RESULT_MODE = "resultMode";
+    private static final String INSTRUMENTED_CLIENT = "instrumentedClient";
+    private static final String OBSERVABILITY_METRICS = "observabilityMetrics";
+    private static final String NETWORK_EXECUTOR = "networkExecutor";
+    private static final String USAGE_RECORD_PIPELINE = "usageRecordPipeline";
+    private static final String COMPACT_RESULTS = "compactResults";
+    private static final String FAN_OUT_DISPATCHER = "fanOutDispatcher";
+    private static final String FLUSH_SCHEDULER = "flushScheduler";
+    private static final String CIRCUIT_BREAKING_CLIENT = "circuitBreakingClient";
+    private static final String HEDGING_CLIENT = "hedgingClient";
+    private static final long SCHEDULER_KEEP_ALIVE_SECONDS = 60;
 
     private NativeClientAdaptor() {
     }
@@ -58,15 +94,78 @@ public final class NativeClientAdaptor {
      * @return A Ballerina `mpm:Error` if failed to initialize the native client with the provided configurations.
      */
     public static Object init(BObject bAwsMpmClient, BMap<BString, Object> configurations) {
+        MeteringClient sharedClient = null;
+        ScheduledExecutorService scheduler = null;
+        UsageSpool spool = null;
+        ObservabilityMetrics observabilityMetrics = null;
         try {
             ConnectionConfig connectionConfig = new ConnectionConfig(configurations);
-            AwsCredentials credentials = getCredentials(connectionConfig);
-            AwsCredentialsProvider credentialsProvider = StaticCredentialsProvider.create(credentials);
-            MarketplaceMeteringClient nativeClient = MarketplaceMeteringClient.builder()
-                    .credentialsProvider(credentialsProvider)
-                    .region(connectionConfig.region()).build();
+            scheduler = createScheduler();
+            bAwsMpmClient.addNativeData(SCHEDULER, scheduler);
+            sharedClient = SharedClientRegistry.acquire(
+                    connectionConfig, () -> createNativeClient(
+                            connectionConfig, CredentialsProviderFactory.create(connectionConfig)));
+            if (connectionConfig.warmUp()) {
+                ClientWarmUp.warmUp(sharedClient, connectionConfig);
+            }
+            MeteringClientChain chain = MeteringClientChain.build(sharedClient, connectionConfig, scheduler);
+            if (Objects.nonNull(chain.spoolingClient())) {
+                spool = chain.spoolingClient().getSpool();
+            }
+            addNativeData(bAwsMpmClient, HEDGING_CLIENT, chain.hedgingClient());
+            addNativeData(bAwsMpmClient, RESILIENT_CLIENT, chain.resilientClient());
+            addNativeData(bAwsMpmClient, CIRCUIT_BREAKING_CLIENT, chain.circuitBreakingClient());
+            addNativeData(bAwsMpmClient, SPOOLING_CLIENT, chain.spoolingClient());
+            addNativeData(bAwsMpmClient, DEDUPLICATING_CLIENT, chain.deduplicatingClient());
+            addNativeData(bAwsMpmClient, RESOLVE_CUSTOMER_CACHE, chain.resolveCustomerCache());
+            InstrumentedMeteringClient instrumentedClient = chain.instrumentedClient();
+            bAwsMpmClient.addNativeData(INSTRUMENTED_CLIENT, instrumentedClient);
+            MeteringClient nativeClient = instrumentedClient;
+            ExecutorService networkExecutor = SharedClientRegistry.getExecutorService(sharedClient);
+            bAwsMpmClient.addNativeData(NETWORK_EXECUTOR, networkExecutor);
+            if (ObserveUtils.isMetricsEnabled()) {
+                observabilityMetrics = ObservabilityMetrics.register(
+                        instrumentedClient, networkExecutor);
+                if (bAwsMpmClient.getNativeData(CIRCUIT_BREAKING_CLIENT) instanceof
+                        CircuitBreakingMeteringClient circuitBreakingClient) {
+                    observabilityMetrics.registerCircuitBreakers(circuitBreakingClient);
+                }
+                if (bAwsMpmClient.getNativeData(HEDGING_CLIENT) instanceof HedgingMeteringClient hedgingClient) {
+                    observabilityMetrics.registerHedging(hedgingClient);
+                }
+                bAwsMpmClient.addNativeData(OBSERVABILITY_METRICS, observabilityMetrics);
+            }
+            chain.replay();
             bAwsMpmClient.addNativeData(NATIVE_CLIENT, nativeClient);
+            bAwsMpmClient.addNativeData(USAGE_REGISTRAR, new UsageRegistrar(nativeClient,
+                    connectionConfig.usageRegistrationConfig(), Clock.systemUTC(), ThreadLocalRandom.current()));
+            bAwsMpmClient.addNativeData(RESULT_MODE, connectionConfig.resultMode());
+            UsageRecordBatcher usageBatcher = new UsageRecordBatcher(
+                    nativeClient, scheduler, connectionConfig.batchingConfig());
+            bAwsMpmClient.addNativeData(USAGE_BATCHER, usageBatcher);
+            UsageAggregator aggregator = new UsageAggregator(
+                    usageBatcher, connectionConfig.aggregationConfig(), Clock.systemUTC());
+            bAwsMpmClient.addNativeData(USAGE_AGGREGATOR, aggregator);
+            UsageFlushScheduler flushScheduler = new UsageFlushScheduler(aggregator, scheduler,
+                    connectionConfig.aggregationConfig(), Clock.systemUTC(), ThreadLocalRandom.current());
+            flushScheduler.start();
+            bAwsMpmClient.addNativeData(FLUSH_SCHEDULER, flushScheduler);
+            bAwsMpmClient.addNativeData(FAN_OUT_DISPATCHER,
+                    new FanOutDispatcher(connectionConfig, nativeClient, scheduler));
         } catch (Exception e) {
+            // the scheduler thread, the spool and the gauges outlive a failed initialization unless released here
+            if (Objects.nonNull(observabilityMetrics)) {
+                observabilityMetrics.unregister();
+            }
+            if (Objects.nonNull(scheduler)) {
+                scheduler.shutdownNow();
+            }
+            if (Objects.nonNull(spool)) {
+                spool.close();
+            }
+            if (Objects.nonNull(sharedClient)) {
+                sharedClient.close();
+            }
             String errorMsg = String.format("Error occurred while initializing the marketplace metering client: %s",
                     e.getMessage());
             return CommonUtils.createError(errorMsg, e);
@@ -74,13 +173,62 @@ public final class NativeClientAdaptor {
         return null;
     }
 
-    private static AwsCredentials getCredentials(ConnectionConfig connectionConfig) {
-        if (Objects.nonNull(connectionConfig.sessionToken())) {
-            return AwsSessionCredentials.create(connectionConfig.accessKeyId(), connectionConfig.secretAccessKey(),
-                    connectionConfig.sessionToken());
-        } else {
-            return AwsBasicCredentials.create(connectionConfig.accessKeyId(), connectionConfig.secretAccessKey());
+    private static void addNativeData(BObject bAwsMpmClient, String key, Object data) {
+        if (Objects.nonNull(data)) {
+            bAwsMpmClient.addNativeData(key, data);
+        }
+    }
+
+    static MeteringClient createNativeClient(ConnectionConfig connectionConfig,
+                                             AwsCredentialsProvider credentialsProvider) {
+        ClientOverrideConfiguration overrideConfiguration = getOverrideConfiguration(connectionConfig);
+        ConnectionConfig.HttpConfig httpConfig = connectionConfig.httpConfig();
+        if (ConnectionConfig.ClientMode.NON_BLOCKING.equals(connectionConfig.clientMode())) {
+            MarketplaceMeteringAsyncClientBuilder asyncClientBuilder = MarketplaceMeteringAsyncClient.builder()
+                    .httpClientBuilder(HttpClientFactory.createAsyncHttpClient(httpConfig))
+                    .credentialsProvider(credentialsProvider)
+                    .overrideConfiguration(overrideConfiguration)
+                    .region(connectionConfig.region());
+            if (Objects.nonNull(httpConfig.endpoint())) {
+                asyncClientBuilder.endpointOverride(httpConfig.endpoint());
+            }
+            return new AsyncMeteringClient(asyncClientBuilder.build(), credentialsProvider);
+        }
+        MarketplaceMeteringClientBuilder syncClientBuilder = MarketplaceMeteringClient.builder()
+                .httpClientBuilder(HttpClientFactory.createSyncHttpClient(httpConfig))
+                .credentialsProvider(credentialsProvider)
+                .overrideConfiguration(overrideConfiguration)
+                .region(connectionConfig.region());
+        if (Objects.nonNull(httpConfig.endpoint())) {
+            syncClientBuilder.endpointOverride(httpConfig.endpoint());
+        }
+        return new SyncMeteringClient(syncClientBuilder.build(),
+                NetworkExecutors.create(connectionConfig.executorConfig()), credentialsProvider);
+    }
+
+    private static ClientOverrideConfiguration getOverrideConfiguration(ConnectionConfig connectionConfig) {
+        ClientOverrideConfiguration.Builder builder = ClientOverrideConfiguration.builder();
+        if (Objects.nonNull(connectionConfig.retryConfig())) {
+            // the resilient mode owns the retries, hence SDK level retries would only amplify throttling
+            builder.retryStrategy(AwsRetryStrategy.doNotRetry());
+        }
+        ConnectionConfig.HttpConfig httpConfig = connectionConfig.httpConfig();
+        if (Objects.nonNull(httpConfig.apiCallTimeout())) {
+            builder.apiCallTimeout(httpConfig.apiCallTimeout());
+        }
+        if (Objects.nonNull(httpConfig.apiCallAttemptTimeout())) {
+            builder.apiCallAttemptTimeout(httpConfig.apiCallAttemptTimeout());
         }
+        return builder.build();
+    }
+
+    private static ScheduledExecutorService createScheduler() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(
+                1, new AwsMpmThreadFactory(AwsMpmThreadFactory.SCHEDULER_THREAD_PREFIX));
+        scheduler.setKeepAliveTime(SCHEDULER_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+        scheduler.allowCoreThreadTimeOut(true);
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
     }
 
     /**
@@ -93,22 +241,88 @@ public final class NativeClientAdaptor {
      *         resolve-customer response.
      */
     public static Object resolveCustomer(Environment env, BObject bAwsMpmClient, BString registrationToken) {
-        MarketplaceMeteringClient nativeClient = (MarketplaceMeteringClient) bAwsMpmClient.getNativeData(NATIVE_CLIENT);
+        MeteringClient nativeClient = (MeteringClient) bAwsMpmClient.getNativeData(NATIVE_CLIENT);
         Future future = env.markAsync();
-        EXECUTOR_SERVICE.execute(() -> {
+        ResolveCustomerRequest resolveCustomerReq = ResolveCustomerRequest.builder()
+                .registrationToken(registrationToken.getValue()).build();
+        completeFuture(future, "resolve customer", () -> nativeClient.resolveCustomer(resolveCustomerReq),
+                CommonUtils::getBResolveCustomerResponse);
+        return null;
+    }
+
+    /**
+     * Completes the Ballerina future with the converted outcome of a native call. A call which throws instead of
+     * returning a failed future, or a conversion which throws, completes the Ballerina future with an error as well,
+     * since the strand would otherwise never resume.
+     *
+     * @param future    The Ballerina future of the strand.
+     * @param operation The name of the operation, which is included in the error message.
+     * @param call      The native call.
+     * @param toBResult The conversion of the native result to the Ballerina result.
+     */
+    private static <T> void completeFuture(Future future, String operation, Supplier<CompletableFuture<T>> call,
+                                           Function<? super T, Object> toBResult) {
+        CompletableFuture<T> nativeResult;
+        try {
+            nativeResult = call.get();
+        } catch (RuntimeException e) {
+            nativeResult = CompletableFuture.failedFuture(e);
+        }
+        nativeResult.whenComplete((result, exception) -> {
+            Object bResult;
             try {
-                ResolveCustomerRequest resolveCustomerReq = ResolveCustomerRequest.builder()
-                        .registrationToken(registrationToken.getValue()).build();
-                ResolveCustomerResponse nativeResponse = nativeClient.resolveCustomer(resolveCustomerReq);
-                BMap<BString, Object> bResponse = CommonUtils.getBResolveCustomerResponse(nativeResponse);
-                future.complete(bResponse);
-            } catch (Exception e) {
-                String errorMsg = String.format("Error occurred while executing resolve customer operation: %s",
-                        e.getMessage());
-                BError bError = CommonUtils.createError(errorMsg, e);
-                future.complete(bError);
+                bResult = Objects.isNull(exception) ? toBResult.apply(result) : createError(operation, exception);
+            } catch (RuntimeException e) {
+                bResult = createError(operation, e);
             }
+            future.complete(bResult);
         });
+    }
+
+    private static BError createError(String operation, Throwable exception) {
+        Throwable cause = CommonUtils.unwrap(exception);
+        String errorMsg = String.format("Error occurred while executing %s operation: %s", operation,
+                cause.getMessage());
+        return CommonUtils.createError(errorMsg, cause);
+    }
+
+    /**
+     * Registers the usage of a paid container product, and verifies that the customer is entitled to use it. The
+     * registration is cached per product code and public key version until it expires, unless a nonce is provided.
+     *
+     * @param env The Ballerina runtime environment.
+     * @param bAwsMpmClient The Ballerina AWS MPM client object.
+     * @param productCode The unique identifier for the Marketplace product.
+     * @param publicKeyVersion The version of the public key with which the signature is signed.
+     * @param nonce The nonce to be bound to the signature, or `()`.
+     * @return A Ballerina `mpm:Error` if there was an error while executing the operation or else the AWS MPM
+     *         register-usage response.
+     */
+    public static Object registerUsage(Environment env, BObject bAwsMpmClient, BString productCode,
+                                       long publicKeyVersion, Object nonce) {
+        UsageRegistrar usageRegistrar = (UsageRegistrar) bAwsMpmClient.getNativeData(USAGE_REGISTRAR);
+        RequestValidator validator = new RequestValidator();
+        if (!validator.isValidProductCode(productCode.getValue())) {
+            validator.fail("$.productCode", RequestValidator.PATTERN);
+        }
+        if (publicKeyVersion < 1 || publicKeyVersion > Integer.MAX_VALUE) {
+            validator.fail("$.publicKeyVersion", publicKeyVersion < 1
+                    ? RequestValidator.MIN_VALUE : RequestValidator.MAX_VALUE);
+        }
+        String nativeNonce = nonce instanceof BString bNonce ? bNonce.getValue() : null;
+        if (Objects.nonNull(nativeNonce)) {
+            String constraint = RequestValidator.checkLength(nativeNonce.length(), 1, MAX_NONCE_LENGTH);
+            if (Objects.nonNull(constraint)) {
+                validator.fail("$.nonce", constraint);
+            }
+        }
+        if (validator.hasFailures()) {
+            return createValidationError(validator);
+        }
+        Future future = env.markAsync();
+        completeFuture(future, "register-usage",
+                () -> usageRegistrar.register(productCode.getValue(), (int) publicKeyVersion, nativeNonce),
+                CommonUtils::getBRegisterUsageResponse);
         return null;
     }
 
@@ -118,28 +332,445 @@ public final class NativeClientAdaptor {
      * @param env The Ballerina runtime environment.
      * @param bAwsMpmClient The Ballerina AWS MPM client object.
      * @param request The Ballerina AWS MPM `BatchMeterUsage` request.
+     * @param resultMode The form in which the usage record results are returned, or `()` to use the form configured
+     *                   for the client.
      * @return A Ballerina `mpm:Error` if there was an error while processing the request or else the AWS MPM
      *         batch-meter-usage response.
      */
-    public static Object batchMeterUsage(Environment env, BObject bAwsMpmClient, BMap<BString, Object> request) {
-        MarketplaceMeteringClient nativeClient = (MarketplaceMeteringClient) bAwsMpmClient.getNativeData(NATIVE_CLIENT);
-        BatchMeterUsageRequest nativeRequest = CommonUtils.getNativeBatchMeterUsageRequest(request);
+    public static Object batchMeterUsage(Environment env, BObject bAwsMpmClient, BMap<BString, Object> request,
+                                         Object resultMode) {
+        MeteringClient nativeClient = (MeteringClient) bAwsMpmClient.getNativeData(NATIVE_CLIENT);
+        boolean compactResults = isCompactResultMode(bAwsMpmClient, resultMode);
         Future future = env.markAsync();
-        EXECUTOR_SERVICE.execute(() -> {
-            try {
-                BatchMeterUsageResponse nativeResponse = nativeClient.batchMeterUsage(nativeRequest);
-                BMap<BString, Object> bResponse = CommonUtils.getBBatchMeterUsageResponse(nativeResponse);
-                future.complete(bResponse);
-            } catch (Exception e) {
-                String errorMsg = String.format("Error occurred while executing batch-meter-usage operation: %s",
-                        e.getMessage());
-                BError bError = CommonUtils.createError(errorMsg, e);
-                future.complete(bError);
+        completeFuture(future, "batch-meter-usage", () -> batchMeterUsage(nativeClient, request, compactResults),
+                Function.identity());
+        return null;
+    }
+
+    /**
+     * Validates, converts and dispatches a {@code BatchMeterUsage} request without a Ballerina runtime environment,
+     * so that the complete native path of the operation can also be driven by the benchmarks.
+     *
+     * @param nativeClient   The native client which dispatches the request.
+     * @param request        The Ballerina AWS MPM `BatchMeterUsage` request.
+     * @param compactResults Whether the usage record results are returned in the compact form.
+     * @return A future which completes with a Ballerina `mpm:Error` or the AWS MPM batch-meter-usage response.
+     */
+    static CompletableFuture<Object> batchMeterUsage(MeteringClient nativeClient, BMap<BString, Object> request,
+                                                     boolean compactResults) {
+        RequestValidator validator = new RequestValidator();
+        BatchMeterUsageRequest nativeRequest = CommonUtils.getNativeBatchMeterUsageRequest(request, validator);
+        if (validator.hasFailures()) {
+            return CompletableFuture.completedFuture(createValidationError(validator));
+        }
+        return nativeClient.batchMeterUsage(nativeRequest).handle((nativeResponse, exception) -> {
+            if (Objects.nonNull(exception)) {
+                return createError("batch-meter-usage", exception);
             }
+            return compactResults
+                    ? CommonUtils.getBCompactBatchMeterUsageResponse(nativeResponse, nativeRequest)
+                    : CommonUtils.getBBatchMeterUsageResponse(nativeResponse);
         });
+    }
+
+    private static BError createValidationError(RequestValidator validator) {
+        return CommonUtils.createError(String.format("Request validation failed: %s", validator.getMessage()));
+    }
+
+    private static boolean isCompactResultMode(BObject bAwsMpmClient, Object resultMode) {
+        if (resultMode instanceof BString mode) {
+            return ConnectionConfig.ResultMode.COMPACT.name().equals(mode.getValue());
+        }
+        return ConnectionConfig.ResultMode.COMPACT.equals(bAwsMpmClient.getNativeData(RESULT_MODE));
+    }
+
+    /**
+     * Meters the usage of a single dimension for the current hour, typically from a container product.
+     *
+     * @param env The Ballerina runtime environment.
+     * @param bAwsMpmClient The Ballerina AWS MPM client object.
+     * @param request The Ballerina AWS MPM `MeterUsage` request.
+     * @return A Ballerina `mpm:Error` if there was an error while processing the request or else the AWS MPM
+     *         meter-usage response.
+     */
+    public static Object meterUsage(Environment env, BObject bAwsMpmClient, BMap<BString, Object> request) {
+        MeteringClient nativeClient = (MeteringClient) bAwsMpmClient.getNativeData(NATIVE_CLIENT);
+        RequestValidator validator = new RequestValidator();
+        MeterUsageRequest nativeRequest = CommonUtils.getNativeMeterUsageRequest(request, validator);
+        if (validator.hasFailures()) {
+            return createValidationError(validator);
+        }
+        Future future = env.markAsync();
+        completeFuture(future, "meter-usage", () -> meterUsage(nativeClient, nativeRequest),
+                CommonUtils::getBMeterUsageResponse);
+        return null;
+    }
+
+    private static CompletableFuture<MeterUsageResponse> meterUsage(MeteringClient nativeClient,
+                                                                    MeterUsageRequest nativeRequest) {
+        CompletableFuture<MeterUsageResponse> nativeResponse = nativeClient.meterUsage(nativeRequest);
+        if (!Boolean.TRUE.equals(nativeRequest.dryRun())) {
+            return nativeResponse;
+        }
+        // a dry run which would have succeeded is reported by the service as a `DryRunOperation` error
+        return nativeResponse.exceptionallyCompose(exception ->
+                CommonUtils.isSuccessfulDryRun(CommonUtils.unwrap(exception))
+                        ? CompletableFuture.completedFuture(MeterUsageResponse.builder().build())
+                        : CompletableFuture.failedFuture(exception));
+    }
+
+    /**
+     * Meters the usage records of several products, partitioned by product and by the region of the product, and
+     * merges the outcomes of the partitions into a single response.
+     *
+     * @param env The Ballerina runtime environment.
+     * @param bAwsMpmClient The Ballerina AWS MPM client object.
+     * @param usageRecords The Ballerina AWS MPM `ProductUsageRecord`s to be metered.
+     * @param resultMode The form in which the usage record results are returned, or `()` to use the form configured
+     *                   for the client.
+     * @return A Ballerina `mpm:Error` if the request is invalid or else the AWS MPM product-usage response.
+     */
+    public static Object meterProductUsage(Environment env, BObject bAwsMpmClient, BArray usageRecords,
+                                           Object resultMode) {
+        FanOutDispatcher fanOutDispatcher = (FanOutDispatcher) bAwsMpmClient.getNativeData(FAN_OUT_DISPATCHER);
+        boolean compactResults = isCompactResultMode(bAwsMpmClient, resultMode);
+        RequestValidator validator = new RequestValidator();
+        List<FanOutDispatcher.ProductUsageRecord> nativeUsageRecords =
+                CommonUtils.toNativeProductUsageRecords(usageRecords, validator);
+        if (validator.hasFailures()) {
+            return createValidationError(validator);
+        }
+        Future future = env.markAsync();
+        completeFuture(future, "meter-product-usage", () -> fanOutDispatcher.dispatch(nativeUsageRecords),
+                dispatchedRecords -> CommonUtils.getBProductUsageResponse(
+                        usageRecords, dispatchedRecords, compactResults));
+        return null;
+    }
+
+    /**
+     * Submits a single usage record, which is coalesced with other usage records of the same product into a
+     * {@code BatchMeterUsage} call.
+     *
+     * @param env The Ballerina runtime environment.
+     * @param bAwsMpmClient The Ballerina AWS MPM client object.
+     * @param productCode The unique identifier for the Marketplace product.
+     * @param usageRecord The Ballerina AWS MPM `UsageRecord` to be metered.
+     * @return A Ballerina `mpm:Error` if there was an error while processing the usage record or else the AWS MPM
+     *         usage-record result.
+     */
+    public static Object submitUsage(Environment env, BObject bAwsMpmClient, BString productCode,
+                                     BMap<BString, Object> usageRecord) {
+        UsageRecordBatcher usageBatcher = (UsageRecordBatcher) bAwsMpmClient.getNativeData(USAGE_BATCHER);
+        RequestValidator validator = new RequestValidator();
+        UsageRecord nativeUsageRecord = toValidatedUsageRecord(productCode, usageRecord, validator);
+        if (validator.hasFailures()) {
+            return createValidationError(validator);
+        }
+        Future future = env.markAsync();
+        // a submitted record is the only record of its request, hence its compact result refers to index 0
+        completeFuture(future, "submit-usage", () -> usageBatcher.submit(productCode.getValue(), nativeUsageRecord),
+                nativeResult -> isCompactResultMode(bAwsMpmClient, null)
+                        ? CommonUtils.toBCompactUsageRecordResult(nativeResult, 0)
+                        : CommonUtils.toBUsageRecordResult(nativeResult));
+        return null;
+    }
+
+    // a single usage record is validated as the only record of a `BatchMeterUsage` request of its product
+    private static UsageRecord toValidatedUsageRecord(BString productCode, BMap<BString, Object> usageRecord,
+                                                      RequestValidator validator) {
+        if (!validator.isValidProductCode(productCode.getValue())) {
+            validator.fail("$.productCode", RequestValidator.PATTERN);
+        }
+        return CommonUtils.toNativeUsageRecord(usageRecord, validator, 0);
+    }
+
+    /**
+     * Adds a usage record to the aggregation window of its product, customer, dimension and hour. The aggregated
+     * usage is metered once the hour of the window has ended.
+     *
+     * @param bAwsMpmClient The Ballerina AWS MPM client object.
+     * @param productCode The unique identifier for the Marketplace product.
+     * @param usageRecord The Ballerina AWS MPM `UsageRecord` to be aggregated.
+     * @return A Ballerina `mpm:Error` if the usage record could not be aggregated.
+     */
+    public static Object aggregateUsage(BObject bAwsMpmClient, BString productCode,
+                                        BMap<BString, Object> usageRecord) {
+        UsageAggregator aggregator = (UsageAggregator) bAwsMpmClient.getNativeData(USAGE_AGGREGATOR);
+        RequestValidator validator = new RequestValidator();
+        UsageRecord nativeUsageRecord = toValidatedUsageRecord(productCode, usageRecord, validator);
+        if (validator.hasFailures()) {
+            return createValidationError(validator);
+        }
+        try {
+            aggregator.add(productCode.getValue(), nativeUsageRecord);
+        } catch (Exception e) {
+            String errorMsg = String.format("Error occurred while executing aggregate-usage operation: %s",
+                    e.getMessage());
+            return CommonUtils.createError(errorMsg, e);
+        }
+        return null;
+    }
+
+    /**
+     * Meters every aggregation window whose hour has ended.
+     *
+     * @param env The Ballerina runtime environment.
+     * @param bAwsMpmClient The Ballerina AWS MPM client object.
+     * @return A Ballerina `mpm:Error` if there was an error while metering the aggregated usage or else the AWS MPM
+     *         usage-record results of the emitted usage records.
+     */
+    public static Object flushAggregatedUsage(Environment env, BObject bAwsMpmClient) {
+        UsageAggregator aggregator = (UsageAggregator) bAwsMpmClient.getNativeData(USAGE_AGGREGATOR);
+        Future future = env.markAsync();
+        completeFuture(future, "flush-aggregated-usage", aggregator::flush, CommonUtils::getBUsageRecordResults);
+        return null;
+    }
+
+    /**
+     * Retrieves and removes the aggregated usage which expired before it could be metered.
+     *
+     * @param bAwsMpmClient The Ballerina AWS MPM client object.
+     * @return The AWS MPM expired usage records, in the order of expiry.
+     */
+    public static BArray takeExpiredUsage(BObject bAwsMpmClient) {
+        UsageAggregator aggregator = (UsageAggregator) bAwsMpmClient.getNativeData(USAGE_AGGREGATOR);
+        return CommonUtils.getBExpiredUsageRecords(aggregator.takeExpiredUsage());
+    }
+
+    /**
+     * Prepares the native pipeline of a usage record stream, which meters the usage records of a product in
+     * {@code BatchMeterUsage} calls while keeping a bounded number of batches in flight.
+     *
+     * @param bResultStream The Ballerina usage record result stream object.
+     * @param bAwsMpmClient The Ballerina AWS MPM client object.
+     * @param productCode The unique identifier for the Marketplace product.
+     * @param streamConfig The Ballerina AWS MPM usage stream configurations.
+     * @return A Ballerina `mpm:Error` if the product code or the stream configurations are invalid.
+     */
+    public static Object initUsageStream(BObject bResultStream, BObject bAwsMpmClient, BString productCode,
+                                         BMap<BString, Object> streamConfig) {
+        RequestValidator validator = new RequestValidator();
+        if (!validator.isValidProductCode(productCode.getValue())) {
+            validator.fail("$.productCode", RequestValidator.PATTERN);
+            return createValidationError(validator);
+        }
+        int batchSize = streamConfig.getIntValue(Constants.MPM_USAGE_STREAM_BATCH_SIZE).intValue();
+        int maxInFlightBatches = streamConfig.getIntValue(Constants.MPM_USAGE_STREAM_MAX_IN_FLIGHT_BATCHES).intValue();
+        if (batchSize < 1 || batchSize > RequestValidator.MAX_USAGE_RECORDS || maxInFlightBatches < 1) {
+            return CommonUtils.createError(String.format(
+                    "Invalid usage stream configurations, batch size: %d, max in-flight batches: %d", batchSize,
+                    maxInFlightBatches));
+        }
+        MeteringClient nativeClient = (MeteringClient) bAwsMpmClient.getNativeData(NATIVE_CLIENT);
+        bResultStream.addNativeData(USAGE_RECORD_PIPELINE, new UsageRecordPipeline(
+                nativeClient, productCode.getValue(), batchSize, maxInFlightBatches));
+        Object resultMode = streamConfig.get(Constants.MPM_USAGE_STREAM_RESULT_MODE);
+        bResultStream.addNativeData(COMPACT_RESULTS, isCompactResultMode(bAwsMpmClient, resultMode));
+        return null;
+    }
+
+    /**
+     * Returns whether the pipeline of a usage record stream accepts another usage record.
+     *
+     * @param bResultStream The Ballerina usage record result stream object.
+     * @return {@code true} if the in-flight window of the pipeline is not full.
+     */
+    public static boolean hasUsageStreamCapacity(BObject bResultStream) {
+        return getUsageRecordPipeline(bResultStream).hasCapacity();
+    }
+
+    /**
+     * Validates a usage record pulled from the input stream and adds it to the pipeline of the usage record stream.
+     *
+     * @param bResultStream The Ballerina usage record result stream object.
+     * @param usageRecord The Ballerina AWS MPM `UsageRecord` to be metered.
+     * @return A Ballerina `mpm:Error` if the usage record is invalid.
+     */
+    public static Object addToUsageStream(BObject bResultStream, BMap<BString, Object> usageRecord) {
+        UsageRecordPipeline pipeline = getUsageRecordPipeline(bResultStream);
+        RequestValidator validator = new RequestValidator();
+        UsageRecord nativeUsageRecord = CommonUtils.toNativeUsageRecord(
+                usageRecord, validator, pipeline.getNextRecordIndex());
+        if (validator.hasFailures()) {
+            return createValidationError(validator);
+        }
+        pipeline.add(nativeUsageRecord);
         return null;
     }
 
+    /**
+     * Dispatches the partially filled batch of a usage record stream once its input stream is exhausted.
+     *
+     * @param bResultStream The Ballerina usage record result stream object.
+     */
+    public static void flushUsageStream(BObject bResultStream) {
+        getUsageRecordPipeline(bResultStream).flush();
+    }
+
+    /**
+     * Retrieves the next usage record result of a usage record stream, without waiting for an in-flight batch.
+     *
+     * @param bResultStream The Ballerina usage record result stream object.
+     * @return A Ballerina `mpm:Error` if the batch of the next usage record failed, the AWS MPM usage-record result,
+     *         or else `()` if the next result is not available yet.
+     */
+    public static Object pollUsageStream(BObject bResultStream) {
+        UsageRecordPipeline.StreamedResult streamedResult = getUsageRecordPipeline(bResultStream).poll();
+        if (Objects.isNull(streamedResult)) {
+            return null;
+        }
+        if (Objects.nonNull(streamedResult.failure())) {
+            Throwable cause = streamedResult.failure();
+            String errorMsg = String.format("Error occurred while executing meter-usage-stream operation: usage " +
+                    "record at index %d failed: %s", streamedResult.recordIndex(), cause.getMessage());
+            return CommonUtils.createError(errorMsg, cause);
+        }
+        if (Objects.isNull(streamedResult.result())) {
+            return CommonUtils.createError(String.format("Error occurred while executing meter-usage-stream " +
+                    "operation: usage record at index %d was not processed by the BatchMeterUsage operation",
+                    streamedResult.recordIndex()));
+        }
+        return Boolean.TRUE.equals(bResultStream.getNativeData(COMPACT_RESULTS))
+                ? CommonUtils.toBCompactUsageRecordResult(streamedResult.result(), streamedResult.recordIndex())
+                : CommonUtils.toBUsageRecordResult(streamedResult.result());
+    }
+
+    /**
+     * Waits until the oldest in-flight batch of a usage record stream completes.
+     *
+     * @param env The Ballerina runtime environment.
+     * @param bResultStream The Ballerina usage record result stream object.
+     * @return {@code false} if the usage record stream had no in-flight batch to wait for, or else {@code true}.
+     */
+    public static Object awaitUsageStream(Environment env, BObject bResultStream) {
+        Future future = env.markAsync();
+        completeFuture(future, "meter-usage-stream", () -> getUsageRecordPipeline(bResultStream).awaitNext(),
+                Function.identity());
+        return null;
+    }
+
+    /**
+     * Discards the pending usage records and the undelivered results of a usage record stream.
+     *
+     * @param bResultStream The Ballerina usage record result stream object.
+     */
+    public static void closeUsageStream(BObject bResultStream) {
+        getUsageRecordPipeline(bResultStream).close();
+    }
+
+    private static UsageRecordPipeline getUsageRecordPipeline(BObject bResultStream) {
+        return (UsageRecordPipeline) bResultStream.getNativeData(USAGE_RECORD_PIPELINE);
+    }
+
+    /**
+     * Meters the usage records of an NDJSON or a CSV file, which is memory-mapped and parsed in parallel straight into
+     * native usage records. The outcome of every line is appended to the results file, and an interrupted ingestion
+     * resumes from its last checkpoint.
+     *
+     * @param env The Ballerina runtime environment.
+     * @param bAwsMpmClient The Ballerina AWS MPM client object.
+     * @param productCode The unique identifier for the Marketplace product.
+     * @param path The path of the usage file.
+     * @param fileConfig The Ballerina AWS MPM usage file configurations.
+     * @return A Ballerina `mpm:Error` if the usage file could not be ingested or else the Ballerina AWS MPM usage
+     *         file summary.
+     */
+    public static Object meterUsageFromFile(Environment env, BObject bAwsMpmClient, BString productCode, BString path,
+                                            BMap<BString, Object> fileConfig) {
+        RequestValidator validator = new RequestValidator();
+        if (!validator.isValidProductCode(productCode.getValue())) {
+            validator.fail("$.productCode", RequestValidator.PATTERN);
+            return createValidationError(validator);
+        }
+        Path source = Path.of(path.getValue());
+        UsageFileIngester.Config ingestionConfig;
+        try {
+            ingestionConfig = toUsageFileIngesterConfig(source, fileConfig);
+        } catch (Exception e) {
+            String errorMsg = String.format("Invalid usage file configurations: %s", e.getMessage());
+            return CommonUtils.createError(errorMsg, e);
+        }
+        MeteringClient nativeClient = (MeteringClient) bAwsMpmClient.getNativeData(NATIVE_CLIENT);
+        UsageFileIngester ingester = new UsageFileIngester(nativeClient, productCode.getValue(), ingestionConfig);
+        Future future = env.markAsync();
+        completeFuture(future, "meter-usage-from-file", () -> ingester.ingest(source),
+                summary -> CommonUtils.getBUsageFileSummary(summary, ingestionConfig.resultsPath()));
+        return null;
+    }
+
+    // the format defaults to the extension of the usage file, and the results file to a sibling of the usage file
+    private static UsageFileIngester.Config toUsageFileIngesterConfig(Path source, BMap<BString, Object> fileConfig) {
+        UsageFileIngester.Format format;
+        if (fileConfig.containsKey(Constants.MPM_USAGE_FILE_FORMAT)) {
+            format = UsageFileIngester.Format.valueOf(
+                    fileConfig.getStringValue(Constants.MPM_USAGE_FILE_FORMAT).getValue());
+        } else {
+            format = source.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv")
+                    ? UsageFileIngester.Format.CSV : UsageFileIngester.Format.NDJSON;
+        }
+        Path resultsPath = fileConfig.containsKey(Constants.MPM_USAGE_FILE_RESULTS_PATH)
+                ? Path.of(fileConfig.getStringValue(Constants.MPM_USAGE_FILE_RESULTS_PATH).getValue())
+                : source.resolveSibling(source.getFileName() + ".results.ndjson");
+        int batchSize = fileConfig.getIntValue(Constants.MPM_USAGE_STREAM_BATCH_SIZE).intValue();
+        int maxInFlightBatches = fileConfig.getIntValue(Constants.MPM_USAGE_STREAM_MAX_IN_FLIGHT_BATCHES).intValue();
+        int parallelism = fileConfig.getIntValue(Constants.MPM_USAGE_FILE_PARALLELISM).intValue();
+        int chunkSize = fileConfig.getIntValue(Constants.MPM_USAGE_FILE_CHUNK_SIZE).intValue();
+        int checkpointInterval = fileConfig.getIntValue(Constants.MPM_USAGE_FILE_CHECKPOINT_INTERVAL).intValue();
+        if (batchSize < 1 || batchSize > RequestValidator.MAX_USAGE_RECORDS || maxInFlightBatches < 1
+                || parallelism < 1 || chunkSize < 1 || checkpointInterval < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "batch size: %d, max in-flight batches: %d, parallelism: %d, chunk size: %d, checkpoint " +
+                            "interval: %d", batchSize, maxInFlightBatches, parallelism, chunkSize,
+                    checkpointInterval));
+        }
+        return new UsageFileIngester.Config(format, resultsPath, batchSize, maxInFlightBatches, parallelism,
+                chunkSize, checkpointInterval);
+    }
+
+    /**
+     * Retrieves a snapshot of the runtime metrics of the AWS MPM client.
+     *
+     * @param bAwsMpmClient The Ballerina AWS MPM client object.
+     * @return The Ballerina AWS MPM client metrics.
+     */
+    public static BMap<BString, Object> getMetrics(BObject bAwsMpmClient) {
+        BMap<BString, Object> metrics = ValueCreator.createRecordValue(ModuleUtils.getModule(), Constants.MPM_METRICS);
+        if (bAwsMpmClient.getNativeData(RESILIENT_CLIENT) instanceof ResilientMeteringClient resilientClient) {
+            metrics.put(Constants.MPM_METRICS_RETRY, CommonUtils.getBRetryMetrics(resilientClient));
+        }
+        if (bAwsMpmClient.getNativeData(DEDUPLICATING_CLIENT) instanceof DeduplicatingMeteringClient dedupClient) {
+            metrics.put(Constants.MPM_METRICS_DEDUPLICATION, CommonUtils.getBDeduplicationMetrics(dedupClient));
+        }
+        if (bAwsMpmClient.getNativeData(SPOOLING_CLIENT) instanceof SpoolingMeteringClient spoolingClient) {
+            metrics.put(Constants.MPM_METRICS_SPOOL, CommonUtils.getBSpoolMetrics(spoolingClient));
+        }
+        if (bAwsMpmClient.getNativeData(RESOLVE_CUSTOMER_CACHE) instanceof ResolveCustomerCache cache) {
+            metrics.put(Constants.MPM_METRICS_RESOLVE_CUSTOMER_CACHE,
+                    CommonUtils.getBResolveCustomerCacheMetrics(cache));
+        }
+        if (bAwsMpmClient.getNativeData(USAGE_REGISTRAR) instanceof UsageRegistrar usageRegistrar) {
+            metrics.put(Constants.MPM_METRICS_USAGE_REGISTRATION,
+                    CommonUtils.getBUsageRegistrationMetrics(usageRegistrar));
+        }
+        if (bAwsMpmClient.getNativeData(CIRCUIT_BREAKING_CLIENT) instanceof
+                CircuitBreakingMeteringClient circuitBreakingClient) {
+            metrics.put(Constants.MPM_METRICS_CIRCUIT_BREAKERS,
+                    CommonUtils.getBCircuitBreakerMetrics(circuitBreakingClient));
+        }
+        if (bAwsMpmClient.getNativeData(HEDGING_CLIENT) instanceof HedgingMeteringClient hedgingClient) {
+            metrics.put(Constants.MPM_METRICS_RESOLVE_CUSTOMER_HEDGING, CommonUtils.getBHedgingMetrics(hedgingClient));
+        }
+        UsageAggregator aggregator = (UsageAggregator) bAwsMpmClient.getNativeData(USAGE_AGGREGATOR);
+        metrics.put(Constants.MPM_METRICS_AGGREGATION, CommonUtils.getBAggregationMetrics(aggregator));
+        InstrumentedMeteringClient instrumentedClient =
+                (InstrumentedMeteringClient) bAwsMpmClient.getNativeData(INSTRUMENTED_CLIENT);
+        CommonUtils.putBInstrumentationMetrics(metrics, instrumentedClient);
+        if (bAwsMpmClient.getNativeData(NETWORK_EXECUTOR) instanceof ThreadPoolExecutor threadPool) {
+            metrics.put(Constants.MPM_METRICS_EXECUTOR, CommonUtils.getBExecutorMetrics(threadPool));
+        }
+        return metrics;
+    }
+
     /**
      * Closes the AWS MPM client native resources.
      *
@@ -147,9 +778,20 @@ public final class NativeClientAdaptor {
      * @return A Ballerina `mpm:Error` if failed to close the underlying resources.
      */
     public static Object close(BObject bAwsMpmClient) {
-        MarketplaceMeteringClient nativeClient = (MarketplaceMeteringClient) bAwsMpmClient.getNativeData(NATIVE_CLIENT);
+        MeteringClient nativeClient = (MeteringClient) bAwsMpmClient.getNativeData(NATIVE_CLIENT);
+        UsageRecordBatcher usageBatcher = (UsageRecordBatcher) bAwsMpmClient.getNativeData(USAGE_BATCHER);
+        ScheduledExecutorService scheduler = (ScheduledExecutorService) bAwsMpmClient.getNativeData(SCHEDULER);
+        FanOutDispatcher fanOutDispatcher = (FanOutDispatcher) bAwsMpmClient.getNativeData(FAN_OUT_DISPATCHER);
+        UsageFlushScheduler flushScheduler = (UsageFlushScheduler) bAwsMpmClient.getNativeData(FLUSH_SCHEDULER);
         try {
+            if (bAwsMpmClient.getNativeData(OBSERVABILITY_METRICS) instanceof ObservabilityMetrics metrics) {
+                metrics.unregister();
+            }
+            flushScheduler.close();
+            usageBatcher.close();
+            fanOutDispatcher.close();
             nativeClient.close();
+            scheduler.shutdownNow();
         } catch (Exception e) {
             String errorMsg = String.format("Error occurred while closing the marketplace metering client: %s",
                     e.getMessage());
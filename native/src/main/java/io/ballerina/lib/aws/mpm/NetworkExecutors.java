@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates the bounded executors on which the blocking native client performs its network calls.
+ */
+public final class NetworkExecutors {
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private NetworkExecutors() {
+    }
+
+    /**
+     * Creates a bounded executor for the provided configurations. At most {@code maxConcurrency} calls run at once,
+     * up to {@code queueDepth} calls wait for a thread, and further submissions are handled by the saturation policy.
+     * <p>
+     * The {@code BLOCK} policy holds the submitting thread, which for a remote method call is the thread running the
+     * calling strand. The connector's own threads are never held, as the single scheduler
+     * thread drives the flushes, linger timers and retries of every client: a submission from one of them is rejected
+     * instead, which fails the call.
+     *
+     * @param executorConfig The configurations of the executor.
+     * @return The bounded executor.
+     */
+    public static ThreadPoolExecutor create(ConnectionConfig.ExecutorConfig executorConfig) {
+        BlockingQueue<Runnable> queue = executorConfig.queueDepth() == 0
+                ? new SynchronousQueue<>() : new ArrayBlockingQueue<>(executorConfig.queueDepth());
+        ThreadFactory threadFactory = executorConfig.virtualThreads()
+                ? getVirtualThreadFactory() : new AwsMpmThreadFactory(AwsMpmThreadFactory.NETWORK_THREAD_PREFIX);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                executorConfig.maxConcurrency(), executorConfig.maxConcurrency(), KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS, queue, threadFactory, getRejectedExecutionHandler(executorConfig));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static RejectedExecutionHandler getRejectedExecutionHandler(ConnectionConfig.ExecutorConfig config) {
+        return switch (config.saturationPolicy()) {
+            case BLOCK -> unlessClientThread(NetworkExecutors::block);
+            case REJECT -> NetworkExecutors::reject;
+        };
+    }
+
+    private static RejectedExecutionHandler unlessClientThread(RejectedExecutionHandler handler) {
+        return (runnable, executor) -> {
+            if (AwsMpmThreadFactory.isClientThread(Thread.currentThread())) {
+                reject(runnable, executor);
+            }
+            handler.rejectedExecution(runnable, executor);
+        };
+    }
+
+    private static void reject(Runnable runnable, ThreadPoolExecutor executor) {
+        throw new RejectedExecutionException(String.format(
+                "network executor is saturated with %d in-flight and %d queued calls",
+                executor.getActiveCount(), executor.getQueue().size()));
+    }
+
+    private static void block(Runnable runnable, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("network executor is shut down");
+        }
+        try {
+            executor.getQueue().put(runnable);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("interrupted while waiting for the network executor", e);
+        }
+        // the executor could have been shut down while the caller was blocked, in which case the task would never run
+        if (executor.isShutdown() && executor.remove(runnable)) {
+            throw new RejectedExecutionException("network executor is shut down");
+        }
+    }
+
+    /**
+     * Virtual threads are only available from Java 21 onwards, hence the builder is resolved reflectively so that the
+     * connector still runs on older runtimes when virtual threads are not requested.
+     */
+    private static ThreadFactory getVirtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class)
+                    .invoke(builder, AwsMpmThreadFactory.NETWORK_THREAD_PREFIX, 1L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException(String.format(
+                    "virtual threads require Java 21 or later, found %s", Runtime.version()), e);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import io.ballerina.runtime.observability.metrics.DefaultMetricRegistry;
+import io.ballerina.runtime.observability.metrics.PolledGauge;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publishes the metrics of a client to the Ballerina observability metric registry as polled gauges, which read the
+ * counters of the {@link InstrumentedMeteringClient} only when the metrics are exported. The gauges of a client are
+ * distinguished by a {@code client} tag and are unregistered when the client is closed.
+ */
+public final class ObservabilityMetrics {
+    private static final String METRIC_PREFIX = "aws_mpm_";
+    private static final String CLIENT_TAG = "client";
+    private static final String OPERATION_TAG = "operation";
+    private static final double MICROS_PER_SECOND = 1_000_000d;
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final AtomicInteger CLIENT_COUNT = new AtomicInteger();
+
+    private final String clientId;
+    private final List<PolledGauge> gauges = new CopyOnWriteArrayList<>();
+
+    private ObservabilityMetrics(String clientId) {
+        this.clientId = clientId;
+    }
+
+    /**
+     * Registers the metrics of a client.
+     *
+     * @param client   The instrumented client.
+     * @param executor The network executor of the blocking client mode, or {@code null}.
+     * @return The registered metrics, which must be unregistered when the client is closed.
+     */
+    public static ObservabilityMetrics register(InstrumentedMeteringClient client, ExecutorService executor) {
+        ObservabilityMetrics metrics = new ObservabilityMetrics(String.valueOf(CLIENT_COUNT.incrementAndGet()));
+        metrics.registerOperation("batchMeterUsage", client.getBatchMeterUsageMetrics());
+        metrics.registerOperation("meterUsage", client.getMeterUsageMetrics());
+        metrics.registerOperation("resolveCustomer", client.getResolveCustomerMetrics());
+        metrics.registerOperation("registerUsage", client.getRegisterUsageMetrics());
+        metrics.registerUsageRecords("Success", client, InstrumentedMeteringClient::getSuccessfulRecords);
+        metrics.registerUsageRecords("CustomerNotSubscribed", client,
+                InstrumentedMeteringClient::getCustomerNotSubscribedRecords);
+        metrics.registerUsageRecords("DuplicateRecord", client, InstrumentedMeteringClient::getDuplicateRecords);
+        metrics.registerUsageRecords("Unprocessed", client, InstrumentedMeteringClient::getUnprocessedRecords);
+        metrics.gauges.add(PolledGauge.builder(METRIC_PREFIX + "throttled_requests_total", client,
+                        InstrumentedMeteringClient::getThrottledRequests)
+                .description("Number of requests throttled by the service")
+                .tag(CLIENT_TAG, metrics.clientId)
+                .register());
+        if (executor instanceof ThreadPoolExecutor threadPool) {
+            metrics.registerExecutor("active_threads", "Number of network threads performing a call", threadPool,
+                    ThreadPoolExecutor::getActiveCount);
+            metrics.registerExecutor("pool_size", "Number of network threads", threadPool,
+                    ThreadPoolExecutor::getPoolSize);
+            metrics.registerExecutor("queued_tasks", "Number of network calls waiting for a thread", threadPool,
+                    pool -> pool.getQueue().size());
+        }
+        client.setErrorCodeListener(metrics::registerErrorCode);
+        return metrics;
+    }
+
+    /**
+     * Registers the state, rejected calls and openings of the circuit breakers of a client.
+     *
+     * @param client The circuit breaking client.
+     */
+    public void registerCircuitBreakers(CircuitBreakingMeteringClient client) {
+        for (CircuitBreaker breaker : client.getCircuitBreakers()) {
+            gauges.add(PolledGauge.builder(METRIC_PREFIX + "circuit_breaker_state", breaker,
+                            circuitBreaker -> circuitBreaker.getState().ordinal())
+                    .description("State of the circuit breaker, where 0 is closed, 1 is open and 2 is half-open")
+                    .tag(CLIENT_TAG, clientId).tag(OPERATION_TAG, breaker.getOperation())
+                    .register());
+            gauges.add(PolledGauge.builder(METRIC_PREFIX + "circuit_breaker_rejected_calls_total", breaker,
+                            CircuitBreaker::getRejectedCalls)
+                    .description("Number of calls rejected by the open circuit breaker")
+                    .tag(CLIENT_TAG, clientId).tag(OPERATION_TAG, breaker.getOperation())
+                    .register());
+            gauges.add(PolledGauge.builder(METRIC_PREFIX + "circuit_breaker_openings_total", breaker,
+                            CircuitBreaker::getOpenings)
+                    .description("Number of times the circuit breaker opened")
+                    .tag(CLIENT_TAG, clientId).tag(OPERATION_TAG, breaker.getOperation())
+                    .register());
+        }
+    }
+
+    /**
+     * Registers the hedged calls and the hedge delay of the {@code resolveCustomer} operation of a client.
+     *
+     * @param client The hedging client.
+     */
+    public void registerHedging(HedgingMeteringClient client) {
+        gauges.add(PolledGauge.builder(METRIC_PREFIX + "hedged_requests_total", client,
+                        HedgingMeteringClient::getHedgedCalls)
+                .description("Number of resolveCustomer calls for which a hedged request was sent")
+                .tag(CLIENT_TAG, clientId)
+                .register());
+        gauges.add(PolledGauge.builder(METRIC_PREFIX + "hedge_wins_total", client,
+                        HedgingMeteringClient::getHedgeWins)
+                .description("Number of resolveCustomer calls answered by the hedged request")
+                .tag(CLIENT_TAG, clientId)
+                .register());
+        gauges.add(PolledGauge.builder(METRIC_PREFIX + "hedge_delay_seconds", client,
+                        hedgingClient -> hedgingClient.getDelayInMicros() / MICROS_PER_SECOND)
+                .description("Delay after which a hedged resolveCustomer request is sent")
+                .tag(CLIENT_TAG, clientId)
+                .register());
+    }
+
+    private void registerOperation(String operation, InstrumentedMeteringClient.OperationMetrics operationMetrics) {
+        LatencyHistogram latencies = operationMetrics.getLatencies();
+        gauges.add(PolledGauge.builder(METRIC_PREFIX + "requests_total", latencies, LatencyHistogram::getCount)
+                .description("Number of completed requests")
+                .tag(CLIENT_TAG, clientId).tag(OPERATION_TAG, operation)
+                .register());
+        gauges.add(PolledGauge.builder(METRIC_PREFIX + "failed_requests_total", operationMetrics,
+                        InstrumentedMeteringClient.OperationMetrics::getFailedRequests)
+                .description("Number of failed requests")
+                .tag(CLIENT_TAG, clientId).tag(OPERATION_TAG, operation)
+                .register());
+        gauges.add(PolledGauge.builder(METRIC_PREFIX + "in_flight_requests", operationMetrics,
+                        InstrumentedMeteringClient.OperationMetrics::getInFlightRequests)
+                .description("Number of requests currently in-flight")
+                .tag(CLIENT_TAG, clientId).tag(OPERATION_TAG, operation)
+                .register());
+        for (double percentile : PERCENTILES) {
+            registerLatency(operation, String.valueOf(percentile), latencies,
+                    histogram -> histogram.getValueAtPercentile(percentile));
+        }
+        registerLatency(operation, "max", latencies, LatencyHistogram::getMaxMicros);
+        registerLatency(operation, "mean", latencies, LatencyHistogram::getMeanMicros);
+    }
+
+    private void registerLatency(String operation, String statistic, LatencyHistogram latencies,
+                                 ToDoubleFunction<LatencyHistogram> microsFunction) {
+        gauges.add(PolledGauge.builder(METRIC_PREFIX + "response_time_seconds", latencies,
+                        histogram -> microsFunction.applyAsDouble(histogram) / MICROS_PER_SECOND)
+                .description("Response time of the requests in seconds")
+                .tag(CLIENT_TAG, clientId).tag(OPERATION_TAG, operation).tag("statistic", statistic)
+                .register());
+    }
+
+    private void registerUsageRecords(String status, InstrumentedMeteringClient client,
+                                      ToDoubleFunction<InstrumentedMeteringClient> countFunction) {
+        gauges.add(PolledGauge.builder(METRIC_PREFIX + "usage_records_total", client, countFunction)
+                .description("Number of metered usage records by their outcome")
+                .tag(CLIENT_TAG, clientId).tag("status", status)
+                .register());
+    }
+
+    private void registerExecutor(String name, String description, ThreadPoolExecutor threadPool,
+                                  ToDoubleFunction<ThreadPoolExecutor> valueFunction) {
+        gauges.add(PolledGauge.builder(METRIC_PREFIX + "executor_" + name, threadPool, valueFunction)
+                .description(description)
+                .tag(CLIENT_TAG, clientId)
+                .register());
+    }
+
+    private void registerErrorCode(String errorCode, LongAdder errorCount) {
+        gauges.add(PolledGauge.builder(METRIC_PREFIX + "errors_total", errorCount, LongAdder::sum)
+                .description("Number of failed requests by the error code")
+                .tag(CLIENT_TAG, clientId).tag("errorCode", errorCode)
+                .register());
+    }
+
+    /**
+     * Unregisters the metrics of the client.
+     */
+    public void unregister() {
+        for (PolledGauge gauge : gauges) {
+            DefaultMetricRegistry.getInstance().unregister(gauge);
+        }
+        gauges.clear();
+    }
+}
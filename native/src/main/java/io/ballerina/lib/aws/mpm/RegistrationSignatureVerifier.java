@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import software.amazon.awssdk.protocols.jsoncore.JsonNode;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.MGF1ParameterSpec;
+import java.security.spec.PSSParameterSpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * {@code RegistrationSignatureVerifier} verifies the signature returned by {@code RegisterUsage}, which is a JSON web
+ * token signed by AWS Marketplace, against the public key of the product. Besides the signature, the
+ * {@code productCode}, {@code publicKeyVersion} and {@code nonce} claims of the token are checked against the request,
+ * so that a verified token can be trusted by downstream entitlement checks without calling the service again.
+ */
+public final class RegistrationSignatureVerifier {
+    private static final String PS256 = "PS256";
+    private static final String RS256 = "RS256";
+    private static final int SHA256_LENGTH = 32;
+
+    private final PublicKey publicKey;
+
+    public RegistrationSignatureVerifier(PublicKey publicKey) {
+        this.publicKey = publicKey;
+    }
+
+    /**
+     * Parses a PEM encoded RSA public key.
+     *
+     * @param pem The public key in the PEM format, with or without the {@code BEGIN} and {@code END} lines.
+     * @return The public key.
+     */
+    public static PublicKey parsePublicKey(String pem) {
+        String base64 = pem.replaceAll("-----(BEGIN|END) PUBLIC KEY-----", "").replaceAll("\\s", "");
+        try {
+            return KeyFactory.getInstance("RSA").generatePublic(
+                    new X509EncodedKeySpec(Base64.getDecoder().decode(base64)));
+        } catch (IllegalArgumentException | GeneralSecurityException e) {
+            throw new IllegalArgumentException(
+                    "the usage registration public key is not a PEM encoded RSA public key", e);
+        }
+    }
+
+    /**
+     * Verifies the signature of a {@code RegisterUsage} response.
+     *
+     * @param token            The signature of the response.
+     * @param productCode      The product code of the request.
+     * @param publicKeyVersion The public key version of the request.
+     * @param nonce            The nonce of the request, or {@code null}.
+     * @return The instant at which the token was issued, or {@code null} if the token has no {@code iat} claim.
+     * @throws MeteringException If the token is malformed, its signature is invalid, or its claims do not match the
+     *                           request.
+     */
+    public Instant verify(String token, String productCode, int publicKeyVersion, String nonce) {
+        String[] parts = Objects.nonNull(token) ? token.split("\\.", -1) : new String[0];
+        if (parts.length != 3) {
+            throw new MeteringException("the RegisterUsage signature is not a JSON web token");
+        }
+        JsonNode header;
+        JsonNode claims;
+        boolean verified;
+        try {
+            header = parse(parts[0]);
+            claims = parse(parts[1]);
+            Signature signature = getSignature(header.field("alg").map(JsonNode::text).orElse(""));
+            signature.initVerify(publicKey);
+            signature.update((parts[0] + "." + parts[1]).getBytes(StandardCharsets.US_ASCII));
+            verified = signature.verify(Base64.getUrlDecoder().decode(parts[2]));
+        } catch (GeneralSecurityException | RuntimeException e) {
+            throw new MeteringException(String.format("the RegisterUsage signature could not be verified: %s",
+                    e.getMessage()));
+        }
+        if (!verified) {
+            throw new MeteringException("the RegisterUsage signature does not match the public key");
+        }
+        // a token which does not name the product and the key version could have been issued for another request
+        checkClaim(claims, "productCode", productCode);
+        checkClaim(claims, "publicKeyVersion", String.valueOf(publicKeyVersion));
+        // the nonce protects against a replayed token, hence it has to be signed whenever it is requested
+        checkClaim(claims, "nonce", nonce);
+        return claims.field("iat").filter(JsonNode::isNumber)
+                .map(issuedAt -> Instant.ofEpochSecond(new BigDecimal(issuedAt.asNumber()).longValue()))
+                .orElse(null);
+    }
+
+    private static JsonNode parse(String part) {
+        return JsonNode.parser().parse(Base64.getUrlDecoder().decode(part));
+    }
+
+    private static Signature getSignature(String algorithm) throws GeneralSecurityException {
+        if (PS256.equals(algorithm)) {
+            Signature signature = Signature.getInstance("RSASSA-PSS");
+            signature.setParameter(new PSSParameterSpec(
+                    "SHA-256", "MGF1", MGF1ParameterSpec.SHA256, SHA256_LENGTH, PSSParameterSpec.TRAILER_FIELD_BC));
+            return signature;
+        }
+        if (RS256.equals(algorithm)) {
+            return Signature.getInstance("SHA256withRSA");
+        }
+        throw new GeneralSecurityException(String.format("unsupported signing algorithm '%s'", algorithm));
+    }
+
+    private static void checkClaim(JsonNode claims, String name, String expected) {
+        if (Objects.isNull(expected)) {
+            return;
+        }
+        Optional<String> actual = claims.field(name).filter(claim -> !claim.isNull()).map(JsonNode::text);
+        if (actual.isEmpty() || !expected.equals(actual.get())) {
+            throw new MeteringException(String.format(
+                    "the %s claim of the RegisterUsage signature does not match the request", name));
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import software.amazon.awssdk.services.marketplacemetering.model.Tag;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Validates metering requests against the constraints declared on the Ballerina request records while they are being
+ * converted, so that the request graph is traversed only once. The patterns are compiled once, each validator reuses
+ * a single {@link Matcher} per pattern, and the path of a field is only built when the field violates a constraint.
+ * The failures are reported in the same form as the Ballerina {@code constraint} module. The tags which passed the
+ * validation are kept until the end of the request, so that a tag which recurs across usage allocations is validated
+ * and built only once.
+ * <p>
+ * A validator accumulates the failures of a single request and is not thread-safe.
+ */
+public final class RequestValidator {
+    static final String PATTERN = "pattern";
+    static final String MIN_VALUE = "minValue";
+    static final String MAX_VALUE = "maxValue";
+    static final String MIN_LENGTH = "minLength";
+    static final String MAX_LENGTH = "maxLength";
+
+    static final int MAX_USAGE_RECORDS = 25;
+    static final int MAX_USAGE_ALLOCATIONS = 2500;
+    static final int MAX_TAGS = 5;
+    static final long MAX_QUANTITY = Integer.MAX_VALUE;
+
+    private static final Pattern PRODUCT_CODE = Pattern.compile("^[-a-zA-Z0-9/=:_.@]{1,255}$");
+    private static final Pattern IDENTIFIER = Pattern.compile("[\\s\\S]{1,255}$");
+    private static final Pattern TAG_KEY = Pattern.compile("^[a-zA-Z0-9+ -=._:\\\\/@]{1,100}$");
+    private static final Pattern TAG_VALUE = Pattern.compile("^[a-zA-Z0-9+ -=._:\\\\/@]{1,256}$");
+
+    private final Matcher productCodeMatcher = PRODUCT_CODE.matcher("");
+    private final Matcher identifierMatcher = IDENTIFIER.matcher("");
+    private final Matcher tagKeyMatcher = TAG_KEY.matcher("");
+    private final Matcher tagValueMatcher = TAG_VALUE.matcher("");
+    private final Map<String, Map<String, Tag>> validTags = new HashMap<>();
+    private List<String> failures;
+
+    boolean isValidProductCode(String productCode) {
+        return productCodeMatcher.reset(productCode).matches();
+    }
+
+    boolean isValidIdentifier(String identifier) {
+        return identifierMatcher.reset(identifier).matches();
+    }
+
+    boolean isValidTagKey(String key) {
+        return tagKeyMatcher.reset(key).matches();
+    }
+
+    boolean isValidTagValue(String value) {
+        return tagValueMatcher.reset(value).matches();
+    }
+
+    /**
+     * Returns a tag of the request which already passed the validation. The lookup is performed in two levels so that
+     * a hit does not allocate a composite key.
+     *
+     * @param key   The tag key.
+     * @param value The tag value.
+     * @return The validated {@link Tag}, or {@code null} if no such tag was validated.
+     */
+    Tag getValidTag(String key, String value) {
+        Map<String, Tag> tagsOfKey = validTags.get(key);
+        return Objects.nonNull(tagsOfKey) ? tagsOfKey.get(value) : null;
+    }
+
+    void putValidTag(Tag tag) {
+        validTags.computeIfAbsent(tag.key(), key -> new HashMap<>()).put(tag.value(), tag);
+    }
+
+    /**
+     * Returns the failed constraint of a quantity, which must be between 0 and the maximum 32-bit integer.
+     *
+     * @param quantity The quantity.
+     * @return The failed constraint, or {@code null} if the quantity is valid.
+     */
+    static String checkQuantity(long quantity) {
+        if (quantity < 0) {
+            return MIN_VALUE;
+        }
+        return quantity > MAX_QUANTITY ? MAX_VALUE : null;
+    }
+
+    /**
+     * Returns the failed constraint of an array length.
+     *
+     * @param length    The length of the array.
+     * @param minLength The minimum length of the array.
+     * @param maxLength The maximum length of the array.
+     * @return The failed constraint, or {@code null} if the length is valid.
+     */
+    static String checkLength(int length, int minLength, int maxLength) {
+        if (length < minLength) {
+            return MIN_LENGTH;
+        }
+        return length > maxLength ? MAX_LENGTH : null;
+    }
+
+    void fail(String path, String constraint) {
+        if (Objects.isNull(failures)) {
+            failures = new ArrayList<>();
+        }
+        failures.add(path + ":" + constraint);
+    }
+
+    boolean hasFailures() {
+        return Objects.nonNull(failures);
+    }
+
+    /**
+     * Returns the validation failure message in the form reported by the Ballerina {@code constraint} module, e.g.
+     * {@code Validation failed for '$.productCode:pattern' constraint(s).}
+     *
+     * @return The validation failure message.
+     */
+    String getMessage() {
+        return "Validation failed for '" + String.join("','", failures) + "' constraint(s).";
+    }
+
+    static String recordPath(long recordIndex) {
+        return "$.usageRecords[" + recordIndex + "]";
+    }
+
+    static String allocationsPath(long recordIndex) {
+        return recordIndex < 0 ? "$.usageAllocations" : recordPath(recordIndex) + ".usageAllocations";
+    }
+
+    static String allocationPath(long recordIndex, int allocationIndex) {
+        return allocationsPath(recordIndex) + "[" + allocationIndex + "]";
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.MeterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.MeterUsageResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.RegisterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.RegisterUsageResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.ResolveCustomerRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.ResolveCustomerResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecord;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecordResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * {@link MeteringClient} decorator which re-submits the records returned as unprocessed by the service and retries
+ * throttled or failed (5xx) calls with exponentially growing, fully jittered backoff. Concurrency towards the service
+ * is governed by an {@link AimdConcurrencyLimiter}.
+ */
+public final class ResilientMeteringClient implements MeteringClient {
+    private static final int HTTP_SERVER_ERROR = 500;
+
+    private final MeteringClient delegate;
+    private final ScheduledExecutorService scheduler;
+    private final ConnectionConfig.RetryConfig retryConfig;
+    private final AimdConcurrencyLimiter limiter;
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder throttledResponses = new LongAdder();
+    private final LongAdder resubmittedRecords = new LongAdder();
+    private final LongAdder exhaustedRequests = new LongAdder();
+
+    public ResilientMeteringClient(MeteringClient delegate, ScheduledExecutorService scheduler,
+                                   ConnectionConfig.RetryConfig retryConfig) {
+        this.delegate = delegate;
+        this.scheduler = scheduler;
+        this.retryConfig = retryConfig;
+        this.limiter = new AimdConcurrencyLimiter(retryConfig.initialConcurrency(), retryConfig.minConcurrency(),
+                retryConfig.maxConcurrency());
+    }
+
+    @Override
+    public CompletableFuture<BatchMeterUsageResponse> batchMeterUsage(BatchMeterUsageRequest request) {
+        return batchMeterUsage(request, 0, new ArrayList<>());
+    }
+
+    private CompletableFuture<BatchMeterUsageResponse> batchMeterUsage(BatchMeterUsageRequest request, int attempt,
+                                                                       List<UsageRecordResult> results) {
+        return execute(() -> delegate.batchMeterUsage(request), attempt).thenCompose(response -> {
+            results.addAll(response.results());
+            List<UsageRecord> unprocessedRecords = response.unprocessedRecords();
+            if (unprocessedRecords.isEmpty()) {
+                return CompletableFuture.completedFuture(response.toBuilder().results(results).build());
+            }
+            if (attempt >= retryConfig.maxRetries()) {
+                exhaustedRequests.increment();
+                return CompletableFuture.completedFuture(response.toBuilder().results(results).build());
+            }
+            retries.increment();
+            resubmittedRecords.add(unprocessedRecords.size());
+            BatchMeterUsageRequest resubmission = request.toBuilder().usageRecords(unprocessedRecords).build();
+            return delay(attempt).thenCompose(ignored -> batchMeterUsage(resubmission, attempt + 1, results));
+        });
+    }
+
+    @Override
+    public CompletableFuture<MeterUsageResponse> meterUsage(MeterUsageRequest request) {
+        return execute(() -> delegate.meterUsage(request), 0);
+    }
+
+    @Override
+    public CompletableFuture<ResolveCustomerResponse> resolveCustomer(ResolveCustomerRequest request) {
+        return execute(() -> delegate.resolveCustomer(request), 0);
+    }
+
+    @Override
+    public CompletableFuture<RegisterUsageResponse> registerUsage(RegisterUsageRequest request) {
+        return execute(() -> delegate.registerUsage(request), 0);
+    }
+
+    private <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> operation, int attempt) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        limiter.acquire().thenCompose(ignored -> invoke(operation)).whenComplete((response, exception) -> {
+            if (Objects.isNull(exception)) {
+                limiter.onSuccess();
+                result.complete(response);
+                return;
+            }
+            Throwable cause = CommonUtils.unwrap(exception);
+            boolean throttled = isThrottled(cause);
+            if (throttled) {
+                throttledResponses.increment();
+                limiter.onThrottled();
+            } else {
+                limiter.onIgnored();
+            }
+            if (!(throttled || isServerError(cause))) {
+                result.completeExceptionally(cause);
+                return;
+            }
+            if (attempt >= retryConfig.maxRetries()) {
+                exhaustedRequests.increment();
+                result.completeExceptionally(cause);
+                return;
+            }
+            retries.increment();
+            delay(attempt).thenCompose(ignored -> execute(operation, attempt + 1)).whenComplete((retried, error) -> {
+                if (Objects.isNull(error)) {
+                    result.complete(retried);
+                } else {
+                    result.completeExceptionally(CommonUtils.unwrap(error));
+                }
+            });
+        });
+        return result;
+    }
+
+    private static <T> CompletableFuture<T> invoke(Supplier<CompletableFuture<T>> operation) {
+        try {
+            return operation.get();
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private CompletableFuture<Void> delay(int attempt) {
+        double exponentialBackoff = retryConfig.initialBackoff().toNanos() * Math.pow(2, attempt);
+        long ceiling = (long) Math.min(retryConfig.maxBackoff().toNanos(), exponentialBackoff);
+        long backoff = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        CompletableFuture<Void> delay = new CompletableFuture<>();
+        try {
+            scheduler.schedule(() -> delay.complete(null), backoff, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            // the scheduler is shut down once the client is closed, which would otherwise leave the caller waiting
+            delay.completeExceptionally(new MeteringException("the retry was abandoned as the client is closed"));
+        }
+        return delay;
+    }
+
+    private static boolean isThrottled(Throwable cause) {
+        return cause instanceof AwsServiceException awsSvcExp && awsSvcExp.isThrottlingException();
+    }
+
+    private static boolean isServerError(Throwable cause) {
+        return cause instanceof AwsServiceException awsSvcExp && awsSvcExp.statusCode() >= HTTP_SERVER_ERROR;
+    }
+
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    public long getThrottledResponses() {
+        return throttledResponses.sum();
+    }
+
+    public long getResubmittedRecords() {
+        return resubmittedRecords.sum();
+    }
+
+    public long getExhaustedRequests() {
+        return exhaustedRequests.sum();
+    }
+
+    public AimdConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.InvalidTokenException;
+import software.amazon.awssdk.services.marketplacemetering.model.MeterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.MeterUsageResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.RegisterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.RegisterUsageResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.ResolveCustomerRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.ResolveCustomerResponse;
+
+import java.time.Clock;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link MeteringClient} decorator which caches {@code ResolveCustomer} results per registration token. Successful
+ * results are cached for the configured TTL and invalid-token errors for the negative TTL, while concurrent callers
+ * resolving the same token share a single in-flight request. The cache is bounded and evicts the least recently used
+ * entries once it is full.
+ */
+public final class ResolveCustomerCache implements MeteringClient {
+    private static final long IN_FLIGHT = Long.MAX_VALUE;
+
+    private final MeteringClient delegate;
+    private final Clock clock;
+    private final int maxEntries;
+    private final long ttlInMillis;
+    private final long negativeTtlInMillis;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ResolveCustomerCache(MeteringClient delegate, ConnectionConfig.ResolveCustomerCacheConfig cacheConfig,
+                                Clock clock) {
+        this.delegate = delegate;
+        this.clock = clock;
+        this.maxEntries = cacheConfig.maxEntries();
+        this.ttlInMillis = cacheConfig.ttl().toMillis();
+        this.negativeTtlInMillis = cacheConfig.negativeTtl().toMillis();
+    }
+
+    @Override
+    public CompletableFuture<ResolveCustomerResponse> resolveCustomer(ResolveCustomerRequest request) {
+        String registrationToken = request.registrationToken();
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(registrationToken);
+            if (Objects.nonNull(entry) && entry.expiresAt > clock.millis()) {
+                hits.increment();
+                return entry.response;
+            }
+            if (Objects.nonNull(entry)) {
+                entries.remove(registrationToken);
+                evictions.increment();
+            }
+            misses.increment();
+            entry = new Entry(new CompletableFuture<>());
+            entries.put(registrationToken, entry);
+            evictEldest();
+        }
+        Entry loadingEntry = entry;
+        CompletableFuture<ResolveCustomerResponse> response;
+        try {
+            response = delegate.resolveCustomer(request);
+        } catch (Exception e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+        response.whenComplete((nativeResponse, exception) -> {
+            synchronized (entries) {
+                if (entries.get(registrationToken) == loadingEntry) {
+                    if (Objects.isNull(exception)) {
+                        loadingEntry.expiresAt = clock.millis() + ttlInMillis;
+                    } else if (CommonUtils.unwrap(exception) instanceof InvalidTokenException) {
+                        loadingEntry.expiresAt = clock.millis() + negativeTtlInMillis;
+                    } else {
+                        entries.remove(registrationToken);
+                    }
+                }
+            }
+            if (Objects.isNull(exception)) {
+                loadingEntry.response.complete(nativeResponse);
+            } else {
+                loadingEntry.response.completeExceptionally(CommonUtils.unwrap(exception));
+            }
+        });
+        return loadingEntry.response;
+    }
+
+    private void evictEldest() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (entries.size() > maxEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+
+    @Override
+    public CompletableFuture<BatchMeterUsageResponse> batchMeterUsage(BatchMeterUsageRequest request) {
+        return delegate.batchMeterUsage(request);
+    }
+
+    @Override
+    public CompletableFuture<MeterUsageResponse> meterUsage(MeterUsageRequest request) {
+        return delegate.meterUsage(request);
+    }
+
+    @Override
+    public CompletableFuture<RegisterUsageResponse> registerUsage(RegisterUsageRequest request) {
+        return delegate.registerUsage(request);
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    private static final class Entry {
+        private final CompletableFuture<ResolveCustomerResponse> response;
+        private long expiresAt = IN_FLIGHT;
+
+        private Entry(CompletableFuture<ResolveCustomerResponse> response) {
+            this.response = response;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.MeterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.MeterUsageResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.RegisterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.RegisterUsageResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.ResolveCustomerRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.ResolveCustomerResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Reference-counted registry of native clients, through which Ballerina clients with the same region, credentials
+ * and transport configurations share a single native client together with its connection pool. The native client is
+ * closed once the last Ballerina client sharing it is closed.
+ */
+public final class SharedClientRegistry {
+    private static final Map<ClientKey, SharedClient> CLIENTS = new HashMap<>();
+
+    private SharedClientRegistry() {
+    }
+
+    /**
+     * Acquires a reference to the native client of the provided configurations, creating the native client if no
+     * other Ballerina client holds a reference to it. The native client is created outside the registry lock, while
+     * concurrent callers with the same configurations wait for it instead of creating another one.
+     *
+     * @param connectionConfig The client connection configurations.
+     * @param clientFactory    Creates the native client when it is not shared yet.
+     * @return A {@link MeteringClient} which releases the reference when closed.
+     */
+    public static MeteringClient acquire(ConnectionConfig connectionConfig, Supplier<MeteringClient> clientFactory) {
+        ClientKey key = ClientKey.of(connectionConfig);
+        SharedClient sharedClient;
+        boolean created = false;
+        synchronized (CLIENTS) {
+            sharedClient = CLIENTS.get(key);
+            if (Objects.isNull(sharedClient)) {
+                sharedClient = new SharedClient(key);
+                CLIENTS.put(key, sharedClient);
+                created = true;
+            }
+            sharedClient.references++;
+        }
+        if (created) {
+            try {
+                sharedClient.nativeClient.complete(clientFactory.get());
+            } catch (RuntimeException e) {
+                synchronized (CLIENTS) {
+                    CLIENTS.remove(key, sharedClient);
+                }
+                sharedClient.nativeClient.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return new ClientReference(sharedClient, sharedClient.nativeClient.join());
+        } catch (CompletionException e) {
+            // the failed client was removed from the registry by its creator, hence the reference is not released
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the network executor of the native client referenced by the provided client.
+     *
+     * @param client A client acquired from this registry.
+     * @return The network executor of the blocking client mode, or {@code null} for the non-blocking client mode.
+     */
+    public static ExecutorService getExecutorService(MeteringClient client) {
+        if (client instanceof ClientReference reference
+                && reference.nativeClient instanceof SyncMeteringClient syncClient) {
+            return syncClient.getExecutorService();
+        }
+        return null;
+    }
+
+    private static void release(SharedClient sharedClient) {
+        synchronized (CLIENTS) {
+            sharedClient.references--;
+            if (sharedClient.references > 0) {
+                return;
+            }
+            CLIENTS.remove(sharedClient.key);
+        }
+        sharedClient.nativeClient.join().close();
+    }
+
+    /**
+     * Identifies the configurations which influence the behaviour of a native client. The secret parts of the
+     * credentials are only retained as a digest.
+     */
+    private record ClientKey(Region region, String accessKeyId, String credentialsDigest,
+                             ConnectionConfig.CredentialsConfig credentialsConfig,
+                             ConnectionConfig.ClientMode clientMode, ConnectionConfig.ExecutorConfig executorConfig,
+                             ConnectionConfig.HttpConfig httpConfig, boolean sdkRetriesDisabled) {
+
+        static ClientKey of(ConnectionConfig connectionConfig) {
+            ConnectionConfig.ExecutorConfig executorConfig =
+                    ConnectionConfig.ClientMode.BLOCKING.equals(connectionConfig.clientMode())
+                            ? connectionConfig.executorConfig() : null;
+            return new ClientKey(connectionConfig.region(), connectionConfig.accessKeyId(),
+                    digest(connectionConfig.secretAccessKey(), connectionConfig.sessionToken()),
+                    connectionConfig.credentialsConfig(), connectionConfig.clientMode(), executorConfig,
+                    connectionConfig.httpConfig(),
+                    Objects.nonNull(connectionConfig.retryConfig()));
+        }
+
+        private static String digest(String secretAccessKey, String sessionToken) {
+            try {
+                MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+                messageDigest.update(String.valueOf(secretAccessKey).getBytes(StandardCharsets.UTF_8));
+                messageDigest.update((byte) 0);
+                messageDigest.update(String.valueOf(sessionToken).getBytes(StandardCharsets.UTF_8));
+                return HexFormat.of().formatHex(messageDigest.digest());
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 message digest is not available", e);
+            }
+        }
+    }
+
+    private static final class SharedClient {
+        private final ClientKey key;
+        private final CompletableFuture<MeteringClient> nativeClient = new CompletableFuture<>();
+        private int references;
+
+        private SharedClient(ClientKey key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * A reference to a shared native client held by a single Ballerina client.
+     */
+    private static final class ClientReference implements MeteringClient {
+        private final SharedClient sharedClient;
+        private final MeteringClient nativeClient;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        private ClientReference(SharedClient sharedClient, MeteringClient nativeClient) {
+            this.sharedClient = sharedClient;
+            this.nativeClient = nativeClient;
+        }
+
+        @Override
+        public CompletableFuture<BatchMeterUsageResponse> batchMeterUsage(BatchMeterUsageRequest request) {
+            return nativeClient.batchMeterUsage(request);
+        }
+
+        @Override
+        public CompletableFuture<MeterUsageResponse> meterUsage(MeterUsageRequest request) {
+            return nativeClient.meterUsage(request);
+        }
+
+        @Override
+        public CompletableFuture<ResolveCustomerResponse> resolveCustomer(ResolveCustomerRequest request) {
+            return nativeClient.resolveCustomer(request);
+        }
+
+        @Override
+        public CompletableFuture<RegisterUsageResponse> registerUsage(RegisterUsageRequest request) {
+            return nativeClient.registerUsage(request);
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                release(sharedClient);
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.MeterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.MeterUsageResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.RegisterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.RegisterUsageResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.ResolveCustomerRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.ResolveCustomerResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecord;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecordResult;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecordResultStatus;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link MeteringClient} decorator which appends every usage record to the {@link UsageSpool} before dispatching it,
+ * and acknowledges the record once the service reports a final status for it, i.e. accepted, a duplicate, or a
+ * customer who is not subscribed.
+ * <p>
+ * A record which is not acknowledged, because the call failed or the service returned it as unprocessed, is reported
+ * to the caller and stays in the spool. It is not re-dispatched while the client is running, as the caller may retry
+ * it, and is replayed the next time a client is initialized with the same spool directory.
+ */
+public final class SpoolingMeteringClient implements MeteringClient {
+    private static final int MAX_BATCH_SIZE = 25;
+
+    private final MeteringClient delegate;
+    private final UsageSpool spool;
+    private final LongAdder failedReplayRecords = new LongAdder();
+    private volatile CompletableFuture<Void> replay = CompletableFuture.completedFuture(null);
+
+    public SpoolingMeteringClient(MeteringClient delegate, UsageSpool spool) {
+        this.delegate = delegate;
+        this.spool = spool;
+    }
+
+    @Override
+    public CompletableFuture<BatchMeterUsageResponse> batchMeterUsage(BatchMeterUsageRequest request) {
+        List<UsageRecord> usageRecords = request.usageRecords();
+        return spool.append(request.productCode(), usageRecords).thenCompose(sequences ->
+                delegate.batchMeterUsage(request).thenApply(response -> {
+                    acknowledge(usageRecords, sequences, response);
+                    return response;
+                }));
+    }
+
+    /**
+     * Re-dispatches the records recovered from the spool, which were not acknowledged before the previous shutdown.
+     * Records which are still not acknowledged remain in the spool for the next recovery, and the records of a batch
+     * which could not be dispatched are counted as failed replays. The client waits for the replay to complete on
+     * close.
+     *
+     * @return A future which is completed once all the recovered records are dispatched.
+     */
+    public CompletableFuture<Void> replay() {
+        Map<String, List<UsageSpool.SpooledRecord>> recoveredRecords = new LinkedHashMap<>();
+        spool.takeRecoveredRecords().forEach(spooledRecord -> recoveredRecords.computeIfAbsent(
+                spooledRecord.productCode(), productCode -> new ArrayList<>()).add(spooledRecord));
+        List<CompletableFuture<?>> replays = new ArrayList<>();
+        recoveredRecords.forEach((productCode, spooledRecords) -> {
+            for (int from = 0; from < spooledRecords.size(); from += MAX_BATCH_SIZE) {
+                List<UsageSpool.SpooledRecord> batch = spooledRecords.subList(
+                        from, Math.min(from + MAX_BATCH_SIZE, spooledRecords.size()));
+                List<UsageRecord> usageRecords = new ArrayList<>(batch.size());
+                long[] sequences = new long[batch.size()];
+                for (int i = 0; i < batch.size(); i++) {
+                    usageRecords.add(batch.get(i).usageRecord());
+                    sequences[i] = batch.get(i).sequence();
+                }
+                BatchMeterUsageRequest request = BatchMeterUsageRequest.builder()
+                        .productCode(productCode).usageRecords(usageRecords).build();
+                replays.add(dispatch(request)
+                        .thenAccept(response -> acknowledge(usageRecords, sequences, response))
+                        .exceptionally(exception -> {
+                            failedReplayRecords.add(usageRecords.size());
+                            return null;
+                        }));
+            }
+        });
+        replay = CompletableFuture.allOf(replays.toArray(new CompletableFuture<?>[0]));
+        return replay;
+    }
+
+    private CompletableFuture<BatchMeterUsageResponse> dispatch(BatchMeterUsageRequest request) {
+        try {
+            return delegate.batchMeterUsage(request);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void acknowledge(List<UsageRecord> usageRecords, long[] sequences, BatchMeterUsageResponse response) {
+        Map<UsageRecordKey, Queue<Long>> spooledSequences = new HashMap<>();
+        for (int i = 0; i < usageRecords.size(); i++) {
+            spooledSequences.computeIfAbsent(UsageRecordKey.of(usageRecords.get(i)), key -> new ArrayDeque<>())
+                    .add(sequences[i]);
+        }
+        long[] resolved = new long[sequences.length];
+        int resolvedCount = 0;
+        for (UsageRecordResult result : response.results()) {
+            if (!isResolved(result)) {
+                continue;
+            }
+            Queue<Long> matches = spooledSequences.get(UsageRecordKey.of(result.usageRecord()));
+            if (Objects.nonNull(matches) && !matches.isEmpty()) {
+                resolved[resolvedCount++] = matches.poll();
+            }
+        }
+        long[] acknowledged = new long[resolvedCount];
+        System.arraycopy(resolved, 0, acknowledged, 0, resolvedCount);
+        spool.acknowledge(acknowledged);
+    }
+
+    // a record of an unsubscribed customer is never accepted on a later attempt, hence it is not kept for a replay
+    private static boolean isResolved(UsageRecordResult result) {
+        return Objects.nonNull(result.usageRecord()) && (UsageRecordResultStatus.SUCCESS.equals(result.status())
+                || UsageRecordResultStatus.DUPLICATE_RECORD.equals(result.status())
+                || UsageRecordResultStatus.CUSTOMER_NOT_SUBSCRIBED.equals(result.status()));
+    }
+
+    @Override
+    public CompletableFuture<MeterUsageResponse> meterUsage(MeterUsageRequest request) {
+        return delegate.meterUsage(request);
+    }
+
+    @Override
+    public CompletableFuture<ResolveCustomerResponse> resolveCustomer(ResolveCustomerRequest request) {
+        return delegate.resolveCustomer(request);
+    }
+
+    @Override
+    public CompletableFuture<RegisterUsageResponse> registerUsage(RegisterUsageRequest request) {
+        return delegate.registerUsage(request);
+    }
+
+    public UsageSpool getSpool() {
+        return spool;
+    }
+
+    public long getFailedReplayRecords() {
+        return failedReplayRecords.sum();
+    }
+
+    @Override
+    public void close() {
+        try {
+            // the replayed records are acknowledged in the spool, hence the replay has to complete before it is closed
+            replay.join();
+            delegate.close();
+        } finally {
+            spool.close();
+        }
+    }
+}
@@ -0,0 +1,348 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import software.amazon.awssdk.services.marketplacemetering.model.Tag;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageAllocation;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecord;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecordResult;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * {@code UsageAggregator} sums usage quantities per product, customer, dimension and hour before they are metered.
+ * Quantities are accumulated in striped counters, split by the tag set of their usage allocation. Once the hour of
+ * a window has ended, the window is closed and emitted as a single usage record, whose allocations carry the
+ * per-tag-set totals. A usage record which would take the quantity of its window beyond the maximum accepted by the
+ * service is rejected as a whole, hence an emitted quantity always equals the sum of its allocations.
+ * <p>
+ * Closed windows are emitted in the order of their acceptance deadlines, and a window which failed to be emitted is
+ * retained until its deadline has passed, after which it is reported as expired instead of being emitted.
+ */
+public final class UsageAggregator {
+    private static final long MAX_QUANTITY = Integer.MAX_VALUE;
+    private static final int MAX_ALLOCATIONS = 2500;
+    private static final long HOUR_IN_MILLIS = Duration.ofHours(1).toMillis();
+    private static final int MAX_RETAINED_EXPIRED_RECORDS = 10000;
+    private static final Comparator<ClosedWindow> BY_TIMESTAMP = Comparator.comparing(
+            closedWindow -> closedWindow.usageRecord().timestamp());
+
+    private final UsageRecordBatcher batcher;
+    private final Clock clock;
+    private final Duration acceptanceWindow;
+    private final Map<WindowKey, Window> windows = new ConcurrentHashMap<>();
+    private final PriorityBlockingQueue<ClosedWindow> pendingEmissions = new PriorityBlockingQueue<>(
+            16, BY_TIMESTAMP);
+    private final ConcurrentLinkedQueue<ExpiredUsage> expiredUsage = new ConcurrentLinkedQueue<>();
+    private final ReadWriteLock windowLock = new ReentrantReadWriteLock();
+    private final LongAdder aggregatedRecords = new LongAdder();
+    private final LongAdder emittedRecords = new LongAdder();
+    private final LongAdder expiredRecords = new LongAdder();
+    private long closedBefore;
+
+    public UsageAggregator(UsageRecordBatcher batcher, ConnectionConfig.AggregationConfig aggregationConfig,
+                           Clock clock) {
+        this.batcher = batcher;
+        this.clock = clock;
+        this.acceptanceWindow = aggregationConfig.acceptanceWindow();
+    }
+
+    /**
+     * Adds the usage record to the window of its hour.
+     *
+     * @param productCode The unique identifier for the Marketplace product.
+     * @param usageRecord The usage record to be aggregated.
+     */
+    public void add(String productCode, UsageRecord usageRecord) {
+        long hour = usageRecord.timestamp().truncatedTo(ChronoUnit.HOURS).toEpochMilli();
+        windowLock.readLock().lock();
+        try {
+            if (hour < closedBefore) {
+                throw new MeteringException(String.format("usage window of %s is already closed",
+                        Instant.ofEpochMilli(hour)));
+            }
+            Window window = windows.computeIfAbsent(new WindowKey(productCode, usageRecord.customerIdentifier(),
+                    usageRecord.dimension(), hour), key -> new Window());
+            window.add(usageRecord);
+        } finally {
+            windowLock.readLock().unlock();
+        }
+        aggregatedRecords.increment();
+    }
+
+    /**
+     * Closes and emits every window whose hour has ended, along with the windows which previously failed to be
+     * emitted.
+     *
+     * @return A future which is completed with the results of the emitted usage records.
+     */
+    public CompletableFuture<List<UsageRecordResult>> flush() {
+        return flush(clock.instant());
+    }
+
+    /**
+     * Closes and emits every window whose hour ended before the provided instant, along with the windows which
+     * previously failed to be emitted.
+     *
+     * @param closeBefore The instant before which the hours of the closed windows have ended.
+     * @return A future which is completed with the results of the emitted usage records.
+     */
+    public CompletableFuture<List<UsageRecordResult>> flush(Instant closeBefore) {
+        return emit(close(closeBefore.toEpochMilli()));
+    }
+
+    private List<ClosedWindow> close(long closeBefore) {
+        long boundary = closeBefore / HOUR_IN_MILLIS * HOUR_IN_MILLIS;
+        List<ClosedWindow> closedWindows = new ArrayList<>();
+        pendingEmissions.drainTo(closedWindows);
+        windowLock.writeLock().lock();
+        try {
+            closedBefore = Math.max(closedBefore, boundary);
+            Iterator<Map.Entry<WindowKey, Window>> iterator = windows.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<WindowKey, Window> entry = iterator.next();
+                if (entry.getKey().hour() < closedBefore) {
+                    iterator.remove();
+                    closedWindows.add(new ClosedWindow(entry.getKey().productCode(), entry.getValue().toUsageRecord(
+                            entry.getKey())));
+                }
+            }
+        } finally {
+            windowLock.writeLock().unlock();
+        }
+        // the windows nearest their acceptance deadlines are emitted first, and expired windows are not emitted
+        closedWindows.sort(BY_TIMESTAMP);
+        Instant now = clock.instant();
+        Iterator<ClosedWindow> iterator = closedWindows.iterator();
+        while (iterator.hasNext()) {
+            ClosedWindow closedWindow = iterator.next();
+            Instant deadline = getDeadline(closedWindow);
+            if (deadline.isAfter(now)) {
+                break;
+            }
+            iterator.remove();
+            expire(closedWindow, deadline);
+        }
+        return closedWindows;
+    }
+
+    private Instant getDeadline(ClosedWindow closedWindow) {
+        return closedWindow.usageRecord().timestamp().plus(acceptanceWindow);
+    }
+
+    private void expire(ClosedWindow closedWindow, Instant deadline) {
+        expiredRecords.increment();
+        expiredUsage.add(new ExpiredUsage(closedWindow.productCode(), closedWindow.usageRecord(), deadline));
+        // only the most recently expired usage is retained for retrieval, while the count covers all of it
+        while (expiredUsage.size() > MAX_RETAINED_EXPIRED_RECORDS) {
+            expiredUsage.poll();
+        }
+    }
+
+    private CompletableFuture<List<UsageRecordResult>> emit(List<ClosedWindow> closedWindows) {
+        List<CompletableFuture<UsageRecordResult>> emissions = new ArrayList<>(closedWindows.size());
+        for (ClosedWindow closedWindow : closedWindows) {
+            emissions.add(batcher.submit(closedWindow.productCode(), closedWindow.usageRecord())
+                    .handle((result, exception) -> {
+                        if (Objects.nonNull(exception)) {
+                            // the aggregated usage is retained and re-emitted with the next closed windows
+                            pendingEmissions.add(closedWindow);
+                            return null;
+                        }
+                        emittedRecords.increment();
+                        return result;
+                    }));
+        }
+        return CompletableFuture.allOf(emissions.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            List<UsageRecordResult> results = new ArrayList<>(emissions.size());
+            emissions.forEach(emission -> {
+                UsageRecordResult result = emission.join();
+                if (Objects.nonNull(result)) {
+                    results.add(result);
+                }
+            });
+            return results;
+        });
+    }
+
+    public long getAggregatedRecords() {
+        return aggregatedRecords.sum();
+    }
+
+    public long getEmittedRecords() {
+        return emittedRecords.sum();
+    }
+
+    public int getOpenWindows() {
+        return windows.size();
+    }
+
+    public int getPendingEmissions() {
+        return pendingEmissions.size();
+    }
+
+    public long getExpiredRecords() {
+        return expiredRecords.sum();
+    }
+
+    /**
+     * Returns the earliest acceptance deadline of the windows retained after a failed emission.
+     *
+     * @return The earliest deadline, or {@code null} if no window is retained.
+     */
+    public Instant getEarliestDeadline() {
+        ClosedWindow closedWindow = pendingEmissions.peek();
+        return Objects.nonNull(closedWindow) ? getDeadline(closedWindow) : null;
+    }
+
+    /**
+     * Retrieves and removes the aggregated usage which expired before it could be metered.
+     *
+     * @return The expired usage, in the order of expiry.
+     */
+    public List<ExpiredUsage> takeExpiredUsage() {
+        List<ExpiredUsage> expired = new ArrayList<>();
+        ExpiredUsage usage;
+        while (Objects.nonNull(usage = expiredUsage.poll())) {
+            expired.add(usage);
+        }
+        return expired;
+    }
+
+    /**
+     * Aggregated usage which was not metered before the service stopped accepting its timestamp.
+     *
+     * @param productCode The unique identifier for the Marketplace product.
+     * @param usageRecord The aggregated usage record.
+     * @param deadline    The instant after which the service no longer accepts the usage record.
+     */
+    public record ExpiredUsage(String productCode, UsageRecord usageRecord, Instant deadline) {
+    }
+
+    private record WindowKey(String productCode, String customerIdentifier, String dimension, long hour) {
+    }
+
+    private record ClosedWindow(String productCode, UsageRecord usageRecord) {
+    }
+
+    private static final class Window {
+        private static final Comparator<Tag> TAG_ORDER = Comparator.comparing(Tag::key)
+                .thenComparing(Tag::value);
+
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicInteger allocationCount = new AtomicInteger();
+        private final Map<List<Tag>, LongAdder> allocations = new ConcurrentHashMap<>();
+
+        private void add(UsageRecord usageRecord) {
+            List<LongAdder> allocated = new ArrayList<>();
+            List<Long> quantities = new ArrayList<>();
+            if (usageRecord.hasUsageAllocations()) {
+                for (UsageAllocation usageAllocation : usageRecord.usageAllocations()) {
+                    List<Tag> tags = usageAllocation.hasTags() ? usageAllocation.tags() : List.of();
+                    allocated.add(getAllocation(tags));
+                    quantities.add((long) usageAllocation.allocatedUsageQuantity());
+                }
+            } else {
+                allocated.add(getAllocation(List.of()));
+                quantities.add((long) Objects.requireNonNullElse(usageRecord.quantity(), 0));
+            }
+            reserve(quantities.stream().mapToLong(Long::longValue).sum());
+            for (int i = 0; i < allocated.size(); i++) {
+                allocated.get(i).add(quantities.get(i));
+            }
+        }
+
+        // the whole quantity of a usage record is reserved at once, hence the emitted quantity never exceeds the
+        // maximum and always equals the sum of its allocations
+        private void reserve(long quantity) {
+            long current;
+            do {
+                current = total.get();
+                if (current + quantity > MAX_QUANTITY) {
+                    throw new MeteringException(String.format(
+                            "aggregated usage quantity would exceed the maximum of %d", MAX_QUANTITY));
+                }
+            } while (!total.compareAndSet(current, current + quantity));
+        }
+
+        // allocations are keyed by their tags in a canonical order, as the order of the tags is not significant
+        private LongAdder getAllocation(List<Tag> tags) {
+            List<Tag> key = tags.size() > 1 ? tags.stream().sorted(TAG_ORDER).toList() : List.copyOf(tags);
+            LongAdder allocation = allocations.get(key);
+            if (Objects.nonNull(allocation)) {
+                return allocation;
+            }
+            return allocations.computeIfAbsent(key, ignored -> {
+                if (allocationCount.getAndUpdate(count -> Math.min(count + 1, MAX_ALLOCATIONS))
+                        >= MAX_ALLOCATIONS) {
+                    throw new MeteringException(String.format(
+                            "aggregated usage would exceed the maximum of %d distinct usage allocations",
+                            MAX_ALLOCATIONS));
+                }
+                return new LongAdder();
+            });
+        }
+
+        private UsageRecord toUsageRecord(WindowKey key) {
+            UsageRecord.Builder builder = UsageRecord.builder()
+                    .customerIdentifier(key.customerIdentifier())
+                    .dimension(key.dimension())
+                    .timestamp(Instant.ofEpochMilli(key.hour()))
+                    .quantity((int) total.get());
+            // an allocation is left empty when the usage record which introduced it was rejected
+            List<UsageAllocation> usageAllocations = new ArrayList<>(allocations.size());
+            boolean tagged = false;
+            for (Map.Entry<List<Tag>, LongAdder> allocation : allocations.entrySet()) {
+                long allocatedQuantity = allocation.getValue().sum();
+                if (allocatedQuantity == 0) {
+                    continue;
+                }
+                UsageAllocation.Builder allocationBuilder = UsageAllocation.builder()
+                        .allocatedUsageQuantity((int) allocatedQuantity);
+                if (!allocation.getKey().isEmpty()) {
+                    allocationBuilder.tags(allocation.getKey());
+                    tagged = true;
+                }
+                usageAllocations.add(allocationBuilder.build());
+            }
+            if (tagged) {
+                builder.usageAllocations(usageAllocations);
+            }
+            return builder.build();
+        }
+    }
+}
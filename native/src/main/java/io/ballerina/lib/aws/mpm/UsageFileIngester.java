@@ -0,0 +1,491 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import software.amazon.awssdk.protocols.jsoncore.JsonNode;
+import software.amazon.awssdk.protocols.jsoncore.JsonNodeParser;
+import software.amazon.awssdk.protocols.jsoncore.JsonWriter;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecord;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+
+/**
+ * {@code UsageFileIngester} meters the usage records of a product read from an NDJSON or a CSV file. The file is
+ * memory-mapped in chunks split on line boundaries, the chunks are parsed in parallel straight into native usage
+ * records, and the usage records are metered in the order of the lines through a {@link UsageRecordPipeline}.
+ * <p>
+ * The outcome of every line is appended to a results file as an NDJSON line, and the byte offset up to which every
+ * line has an outcome is periodically recorded in a checkpoint file next to the results file. An interrupted
+ * ingestion of the same file resumes from the checkpoint, discarding the outcomes appended after it; the usage
+ * records between the checkpoint and the interruption are metered again, which the service reports as duplicate
+ * records. The checkpoint records the path, the size and the modification time of the file, and an ingestion is not
+ * resumed from the checkpoint of a file which was replaced or modified since.
+ * <p>
+ * An ingester is used for a single ingestion.
+ */
+public final class UsageFileIngester {
+    static final String STATUS_UNPROCESSED = "Unprocessed";
+    static final String STATUS_FAILED = "Failed";
+    static final String STATUS_INVALID = "Invalid";
+
+    private static final String CHECKPOINT_SUFFIX = ".checkpoint";
+    private static final String CHECKPOINT_OFFSET = "offset";
+    private static final String CHECKPOINT_LINE = "line";
+    private static final String CHECKPOINT_RESULTS_SIZE = "resultsSize";
+    private static final String CHECKPOINT_SOURCE = "source";
+    private static final String CHECKPOINT_SOURCE_SIZE = "sourceSize";
+    private static final String CHECKPOINT_SOURCE_MODIFIED = "sourceModified";
+    private static final String CSV_HEADER = "customerIdentifier";
+    private static final Pattern EPOCH_SECONDS = Pattern.compile("^\\d+(\\.\\d+)?$");
+    private static final int SCAN_BUFFER_SIZE = 8 * 1024;
+    private static final int RESULTS_BUFFER_SIZE = 64 * 1024;
+
+    private final MeteringClient meteringClient;
+    private final String productCode;
+    private final Config config;
+    private final Path checkpointPath;
+    private final Queue<PendingLine> pendingLines = new ArrayDeque<>();
+    private UsageRecordPipeline pipeline;
+    private FileChannel resultsChannel;
+    private OutputStream results;
+    private SourceFile sourceFile;
+    private long completedOffset;
+    private long completedLine;
+    private long linesSinceCheckpoint;
+    private long lines;
+    private long meteredRecords;
+    private long unprocessedRecords;
+    private long failedRecords;
+    private long invalidLines;
+
+    public UsageFileIngester(MeteringClient meteringClient, String productCode, Config config) {
+        this.meteringClient = meteringClient;
+        this.productCode = productCode;
+        this.config = config;
+        this.checkpointPath = config.resultsPath().resolveSibling(
+                config.resultsPath().getFileName() + CHECKPOINT_SUFFIX);
+    }
+
+    /**
+     * Meters the usage records of the provided file on a dedicated set of threads.
+     *
+     * @param source The NDJSON or CSV file.
+     * @return A future which completes with the summary of the ingestion once every line has an outcome.
+     */
+    public CompletableFuture<Summary> ingest(Path source) {
+        ExecutorService executor = Executors.newFixedThreadPool(config.parallelism() + 1,
+                new AwsMpmThreadFactory(AwsMpmThreadFactory.INGESTION_THREAD_PREFIX));
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return ingest(source, executor);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor).whenComplete((summary, exception) -> executor.shutdown());
+    }
+
+    private Summary ingest(Path source, ExecutorService executor) throws IOException {
+        Checkpoint checkpoint = readCheckpoint();
+        completedOffset = checkpoint.offset();
+        completedLine = checkpoint.line();
+        pipeline = new UsageRecordPipeline(meteringClient, productCode, config.batchSize(),
+                config.maxInFlightBatches());
+        try (FileChannel sourceChannel = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel resultsChannel = FileChannel.open(config.resultsPath(), StandardOpenOption.CREATE,
+                     StandardOpenOption.WRITE)) {
+            long size = sourceChannel.size();
+            sourceFile = new SourceFile(source.toAbsolutePath().normalize().toString(), size,
+                    Files.getLastModifiedTime(source).toInstant());
+            // the offsets of a checkpoint are only meaningful for the very file it was recorded for
+            if (Objects.nonNull(checkpoint.source()) && !checkpoint.source().equals(sourceFile)) {
+                throw new MeteringException(String.format(
+                        "checkpoint %s was recorded for %s of %d bytes modified at %s, whereas %s is %d bytes " +
+                                "modified at %s; remove the checkpoint to ingest the file from the start",
+                        checkpointPath, checkpoint.source().path(), checkpoint.source().size(),
+                        checkpoint.source().modified(), sourceFile.path(), size, sourceFile.modified()));
+            }
+            // the outcomes appended after the checkpoint are produced again from the checkpoint offset
+            resultsChannel.truncate(checkpoint.resultsSize());
+            resultsChannel.position(checkpoint.resultsSize());
+            this.resultsChannel = resultsChannel;
+            this.results = new BufferedOutputStream(Channels.newOutputStream(resultsChannel), RESULTS_BUFFER_SIZE);
+
+            Queue<Future<List<ParsedLine>>> chunks = new ArrayDeque<>();
+            long nextOffset = checkpoint.offset();
+            long lineNumber = checkpoint.line();
+            while (nextOffset < size || !chunks.isEmpty()) {
+                while (nextOffset < size && chunks.size() <= config.parallelism()) {
+                    long start = nextOffset;
+                    long end = findChunkEnd(sourceChannel, start, size);
+                    chunks.add(executor.submit(() -> parse(sourceChannel, start, end)));
+                    nextOffset = end;
+                }
+                for (ParsedLine parsedLine : awaitChunk(chunks.poll())) {
+                    lineNumber++;
+                    boolean metered = Objects.nonNull(parsedLine.usageRecord());
+                    if (metered) {
+                        while (!pipeline.hasCapacity()) {
+                            pipeline.awaitNext().join();
+                            drain(false);
+                        }
+                        pipeline.add(parsedLine.usageRecord());
+                    }
+                    pendingLines.add(new PendingLine(lineNumber, parsedLine.endOffset(), metered,
+                            parsedLine.failure()));
+                }
+                drain(false);
+            }
+            pipeline.flush();
+            drain(true);
+            writeCheckpoint();
+        } finally {
+            pipeline.close();
+        }
+        return new Summary(lines, meteredRecords, unprocessedRecords, failedRecords, invalidLines,
+                checkpoint.line());
+    }
+
+    private static List<ParsedLine> awaitChunk(Future<List<ParsedLine>> chunk) throws IOException {
+        try {
+            return chunk.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MeteringException("usage file ingestion was interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // a chunk ends after the first line break at or after the nominal chunk size
+    private long findChunkEnd(FileChannel channel, long start, long size) throws IOException {
+        long position = Math.min(start + config.chunkSize(), size);
+        if (position == size) {
+            return size;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        position--;
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += Math.max(read, 0);
+        }
+        return size;
+    }
+
+    private List<ParsedLine> parse(FileChannel channel, long start, long end) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        JsonNodeParser jsonParser = config.format() == Format.NDJSON ? JsonNode.parser() : null;
+        List<ParsedLine> parsedLines = new ArrayList<>();
+        int limit = buffer.limit();
+        int lineStart = 0;
+        while (lineStart < limit) {
+            int lineEnd = lineStart;
+            while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int next = Math.min(lineEnd + 1, limit);
+            if (lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r') {
+                lineEnd--;
+            }
+            byte[] line = new byte[lineEnd - lineStart];
+            buffer.get(lineStart, line);
+            boolean firstLine = start == 0 && lineStart == 0;
+            parsedLines.add(parseLine(line, start + next, jsonParser, firstLine));
+            lineStart = next;
+        }
+        return parsedLines;
+    }
+
+    private ParsedLine parseLine(byte[] line, long endOffset, JsonNodeParser jsonParser, boolean firstLine) {
+        String text = new String(line, StandardCharsets.UTF_8);
+        if (text.isBlank() || (firstLine && config.format() == Format.CSV && text.startsWith(CSV_HEADER))) {
+            return new ParsedLine(endOffset, null, null);
+        }
+        RequestValidator validator = new RequestValidator();
+        UsageRecord usageRecord;
+        try {
+            usageRecord = config.format() == Format.NDJSON
+                    ? parseJsonLine(jsonParser.parse(line), validator)
+                    : parseCsvLine(text.split(",", -1), validator);
+        } catch (RuntimeException e) {
+            return new ParsedLine(endOffset, null, String.format("Invalid %s line: %s", config.format(),
+                    e.getMessage()));
+        }
+        if (validator.hasFailures()) {
+            return new ParsedLine(endOffset, null, validator.getMessage());
+        }
+        return new ParsedLine(endOffset, usageRecord, null);
+    }
+
+    private static UsageRecord parseJsonLine(JsonNode node, RequestValidator validator) {
+        if (!node.isObject()) {
+            throw new MeteringException("a usage record must be a JSON object");
+        }
+        Map<String, JsonNode> fields = node.asObject();
+        JsonNode quantity = fields.get("quantity");
+        return toUsageRecord(getText(fields, "customerIdentifier"), getText(fields, "dimension"),
+                getText(fields, "timestamp"),
+                Objects.isNull(quantity) || quantity.isNull() ? null : quantity.asNumber(), validator);
+    }
+
+    private static String getText(Map<String, JsonNode> fields, String field) {
+        JsonNode value = fields.get(field);
+        if (Objects.isNull(value) || value.isNull()) {
+            throw new MeteringException(String.format("missing field '%s'", field));
+        }
+        return value.isNumber() ? value.asNumber() : value.asString();
+    }
+
+    private static UsageRecord parseCsvLine(String[] columns, RequestValidator validator) {
+        if (columns.length < 3 || columns.length > 4) {
+            throw new MeteringException(String.format(
+                    "expected the columns customerIdentifier,dimension,timestamp[,quantity], found %d columns",
+                    columns.length));
+        }
+        String quantity = columns.length == 4 && !columns[3].isBlank() ? columns[3].trim() : null;
+        return toUsageRecord(columns[0].trim(), columns[1].trim(), columns[2].trim(), quantity, validator);
+    }
+
+    private static UsageRecord toUsageRecord(String customerIdentifier, String dimension, String timestamp,
+                                             String quantity, RequestValidator validator) {
+        if (!validator.isValidIdentifier(customerIdentifier)) {
+            validator.fail("$.customerIdentifier", RequestValidator.PATTERN);
+        }
+        if (!validator.isValidIdentifier(dimension)) {
+            validator.fail("$.dimension", RequestValidator.PATTERN);
+        }
+        UsageRecord.Builder builder = UsageRecord.builder()
+                .customerIdentifier(customerIdentifier)
+                .dimension(dimension)
+                .timestamp(toInstant(timestamp, validator));
+        if (Objects.nonNull(quantity)) {
+            try {
+                long quantityValue = Long.parseLong(quantity);
+                String failedConstraint = RequestValidator.checkQuantity(quantityValue);
+                if (Objects.nonNull(failedConstraint)) {
+                    validator.fail("$.quantity", failedConstraint);
+                }
+                builder.quantity((int) quantityValue);
+            } catch (NumberFormatException e) {
+                validator.fail("$.quantity", RequestValidator.PATTERN);
+            }
+        }
+        return builder.build();
+    }
+
+    // a timestamp is either a number of seconds since the epoch, or an ISO-8601 instant
+    private static Instant toInstant(String timestamp, RequestValidator validator) {
+        try {
+            if (EPOCH_SECONDS.matcher(timestamp).matches()) {
+                BigDecimal seconds = new BigDecimal(timestamp);
+                return Instant.ofEpochSecond(seconds.longValue(),
+                        seconds.remainder(BigDecimal.ONE).movePointRight(9).longValue());
+            }
+            return Instant.parse(timestamp);
+        } catch (ArithmeticException | DateTimeParseException e) {
+            validator.fail("$.timestamp", RequestValidator.PATTERN);
+            return null;
+        }
+    }
+
+    // writes the outcome of every pending line at the head of the queue whose outcome is known, in the order of
+    // the lines, and waits for the in-flight batches if required
+    private void drain(boolean waitForResults) throws IOException {
+        while (!pendingLines.isEmpty()) {
+            PendingLine line = pendingLines.peek();
+            if (line.metered()) {
+                UsageRecordPipeline.StreamedResult result = pipeline.poll();
+                if (Objects.isNull(result)) {
+                    if (!waitForResults) {
+                        return;
+                    }
+                    if (!pipeline.awaitNext().join()) {
+                        throw new IllegalStateException("usage record pipeline has no result for line "
+                                + line.lineNumber());
+                    }
+                    continue;
+                }
+                if (Objects.nonNull(result.failure())) {
+                    failedRecords++;
+                    writeResult(line.lineNumber(), STATUS_FAILED, null, result.failure().getMessage());
+                } else if (Objects.isNull(result.result())) {
+                    unprocessedRecords++;
+                    writeResult(line.lineNumber(), STATUS_UNPROCESSED, null, null);
+                } else {
+                    meteredRecords++;
+                    writeResult(line.lineNumber(), result.result().statusAsString(),
+                            result.result().meteringRecordId(), null);
+                }
+            } else if (Objects.nonNull(line.failure())) {
+                invalidLines++;
+                writeResult(line.lineNumber(), STATUS_INVALID, null, line.failure());
+            }
+            pendingLines.poll();
+            lines++;
+            completedOffset = line.endOffset();
+            completedLine = line.lineNumber();
+            if (++linesSinceCheckpoint >= config.checkpointInterval()) {
+                writeCheckpoint();
+            }
+        }
+    }
+
+    private void writeResult(long lineNumber, String status, String meteringRecordId, String message)
+            throws IOException {
+        JsonWriter writer = JsonWriter.create();
+        writer.writeStartObject()
+                .writeFieldName("line").writeNumber(Long.toString(lineNumber))
+                .writeFieldName("status").writeValue(status);
+        if (Objects.nonNull(meteringRecordId)) {
+            writer.writeFieldName("meteringRecordId").writeValue(meteringRecordId);
+        }
+        if (Objects.nonNull(message)) {
+            writer.writeFieldName("message").writeValue(message);
+        }
+        writer.writeEndObject();
+        results.write(writer.getBytes());
+        results.write('\n');
+    }
+
+    private Checkpoint readCheckpoint() throws IOException {
+        if (!Files.exists(checkpointPath)) {
+            return new Checkpoint(0, 0, 0, null);
+        }
+        Properties properties = new Properties();
+        try (InputStream checkpoint = Files.newInputStream(checkpointPath)) {
+            properties.load(checkpoint);
+        }
+        SourceFile source = new SourceFile(properties.getProperty(CHECKPOINT_SOURCE),
+                Long.parseLong(properties.getProperty(CHECKPOINT_SOURCE_SIZE)),
+                Instant.parse(properties.getProperty(CHECKPOINT_SOURCE_MODIFIED)));
+        return new Checkpoint(Long.parseLong(properties.getProperty(CHECKPOINT_OFFSET)),
+                Long.parseLong(properties.getProperty(CHECKPOINT_LINE)),
+                Long.parseLong(properties.getProperty(CHECKPOINT_RESULTS_SIZE)), source);
+    }
+
+    // the checkpoint replaces the previous checkpoint atomically, and only refers to outcomes already written
+    private void writeCheckpoint() throws IOException {
+        results.flush();
+        Properties properties = new Properties();
+        properties.setProperty(CHECKPOINT_OFFSET, Long.toString(completedOffset));
+        properties.setProperty(CHECKPOINT_LINE, Long.toString(completedLine));
+        properties.setProperty(CHECKPOINT_RESULTS_SIZE, Long.toString(resultsChannel.size()));
+        properties.setProperty(CHECKPOINT_SOURCE, sourceFile.path());
+        properties.setProperty(CHECKPOINT_SOURCE_SIZE, Long.toString(sourceFile.size()));
+        properties.setProperty(CHECKPOINT_SOURCE_MODIFIED, sourceFile.modified().toString());
+        Path temporaryPath = checkpointPath.resolveSibling(checkpointPath.getFileName() + ".tmp");
+        try (OutputStream checkpoint = Files.newOutputStream(temporaryPath)) {
+            properties.store(checkpoint, null);
+        }
+        Files.move(temporaryPath, checkpointPath, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        linesSinceCheckpoint = 0;
+    }
+
+    /**
+     * The format of a usage file. An NDJSON line is an object with the {@code customerIdentifier}, {@code dimension},
+     * {@code timestamp} and optional {@code quantity} fields, and a CSV line has the same columns in that order,
+     * without quoting. A timestamp is either a number of seconds since the epoch or an ISO-8601 instant.
+     */
+    public enum Format {
+        NDJSON, CSV
+    }
+
+    /**
+     * {@code Config} contains the configurations of a usage file ingestion.
+     *
+     * @param format             The format of the usage file.
+     * @param resultsPath        The file to which the outcome of every line is appended.
+     * @param batchSize          The maximum number of usage records metered in a single call.
+     * @param maxInFlightBatches The maximum number of calls in flight.
+     * @param parallelism        The number of chunks parsed in parallel.
+     * @param chunkSize          The nominal size of a chunk in bytes.
+     * @param checkpointInterval The number of lines after which the checkpoint is advanced.
+     */
+    public record Config(Format format, Path resultsPath, int batchSize, int maxInFlightBatches, int parallelism,
+                         int chunkSize, int checkpointInterval) {
+    }
+
+    /**
+     * The summary of a usage file ingestion.
+     *
+     * @param lines              The number of lines processed by the ingestion, excluding the lines before the
+     *                           checkpoint it resumed from.
+     * @param meteredRecords     The number of usage records with a result from the service.
+     * @param unprocessedRecords The number of usage records left unprocessed by the service.
+     * @param failedRecords      The number of usage records of failed calls.
+     * @param invalidLines       The number of lines which could not be parsed into a valid usage record.
+     * @param resumedFromLine    The number of lines before the checkpoint the ingestion resumed from.
+     */
+    public record Summary(long lines, long meteredRecords, long unprocessedRecords, long failedRecords,
+                          long invalidLines, long resumedFromLine) {
+    }
+
+    private record ParsedLine(long endOffset, UsageRecord usageRecord, String failure) {
+    }
+
+    private record PendingLine(long lineNumber, long endOffset, boolean metered, String failure) {
+    }
+
+    private record Checkpoint(long offset, long line, long resultsSize, SourceFile source) {
+    }
+
+    private record SourceFile(String path, long size, Instant modified) {
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+/**
+ * {@code UsageFlushScheduler} flushes the aggregated usage of a client on a fixed cadence. The flushes are aligned to
+ * the multiples of the flush interval, delayed by the close delay, and offset by a random jitter drawn once per
+ * client instance, so that a fleet of instances spreads its {@code BatchMeterUsage} calls instead of all flushing at
+ * the top of the hour.
+ * <p>
+ * When a usage record retained after a failed emission approaches its acceptance deadline, the next flush is brought
+ * forward so that the usage record is retried before the service stops accepting it.
+ */
+public final class UsageFlushScheduler {
+    private static final long MIN_DELAY_IN_MILLIS = 10_000;
+
+    private final UsageAggregator aggregator;
+    private final ScheduledExecutorService scheduler;
+    private final Clock clock;
+    private final long flushIntervalInMillis;
+    private final long closeDelayInMillis;
+    private final long deadlineMarginInMillis;
+    private final long offsetInMillis;
+    private ScheduledFuture<?> nextFlush;
+    private boolean closed;
+
+    public UsageFlushScheduler(UsageAggregator aggregator, ScheduledExecutorService scheduler,
+                               ConnectionConfig.AggregationConfig aggregationConfig, Clock clock,
+                               RandomGenerator random) {
+        this.aggregator = aggregator;
+        this.scheduler = scheduler;
+        this.clock = clock;
+        this.flushIntervalInMillis = aggregationConfig.flushInterval().toMillis();
+        this.closeDelayInMillis = aggregationConfig.closeDelay().toMillis();
+        this.deadlineMarginInMillis = aggregationConfig.deadlineMargin().toMillis();
+        long jitterInMillis = aggregationConfig.jitter().toMillis();
+        this.offsetInMillis = jitterInMillis > 0 ? random.nextLong(jitterInMillis + 1) : 0;
+    }
+
+    /**
+     * Schedules the first flush.
+     */
+    public synchronized void start() {
+        scheduleNext();
+    }
+
+    /**
+     * Computes the instant of the next flush after the provided instant.
+     *
+     * @param now The current instant.
+     * @return The instant of the next flush.
+     */
+    public Instant getNextFlush(Instant now) {
+        long nowInMillis = now.toEpochMilli();
+        long shift = closeDelayInMillis + offsetInMillis;
+        long next = Math.floorDiv(nowInMillis - shift, flushIntervalInMillis) * flushIntervalInMillis
+                + flushIntervalInMillis + shift;
+        Instant earliestDeadline = aggregator.getEarliestDeadline();
+        if (Objects.nonNull(earliestDeadline)) {
+            long urgent = Math.max(earliestDeadline.toEpochMilli() - deadlineMarginInMillis,
+                    nowInMillis + MIN_DELAY_IN_MILLIS);
+            next = Math.min(next, urgent);
+        }
+        return Instant.ofEpochMilli(next);
+    }
+
+    private synchronized void scheduleNext() {
+        if (closed) {
+            return;
+        }
+        Instant now = clock.instant();
+        long delay = getNextFlush(now).toEpochMilli() - now.toEpochMilli();
+        nextFlush = scheduler.schedule(this::flush, delay, TimeUnit.MILLISECONDS);
+    }
+
+    // failed emissions are retained by the aggregator, hence the next flush is scheduled regardless of the outcome
+    private void flush() {
+        try {
+            aggregator.flush(clock.instant().minusMillis(closeDelayInMillis))
+                    .whenComplete((results, exception) -> scheduleNext());
+        } catch (Exception e) {
+            scheduleNext();
+        }
+    }
+
+    /**
+     * Cancels the next flush. The aggregated usage which has not been flushed is left to an explicit flush.
+     */
+    public synchronized void close() {
+        closed = true;
+        if (Objects.nonNull(nextFlush)) {
+            nextFlush.cancel(false);
+        }
+    }
+}
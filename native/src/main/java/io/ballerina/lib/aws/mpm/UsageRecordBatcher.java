@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecord;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecordResult;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code UsageRecordBatcher} coalesces individually submitted usage records into {@code BatchMeterUsage} calls.
+ * Records are grouped by product code, and a group is dispatched either when it reaches the configured batch size or
+ * when the linger time of its first record runs out.
+ */
+public final class UsageRecordBatcher {
+    private final MeteringClient meteringClient;
+    private final ScheduledExecutorService scheduler;
+    private final int maxBatchSize;
+    private final long lingerTimeInNanos;
+    private final Map<String, PendingBatch> pendingBatches = new HashMap<>();
+    private final Set<CompletableFuture<?>> inFlightBatches = ConcurrentHashMap.newKeySet();
+    private boolean closed;
+
+    public UsageRecordBatcher(MeteringClient meteringClient, ScheduledExecutorService scheduler,
+                              ConnectionConfig.BatchingConfig batchingConfig) {
+        this.meteringClient = meteringClient;
+        this.scheduler = scheduler;
+        this.maxBatchSize = batchingConfig.maxBatchSize();
+        this.lingerTimeInNanos = batchingConfig.lingerTime().toNanos();
+    }
+
+    public CompletableFuture<UsageRecordResult> submit(String productCode, UsageRecord usageRecord) {
+        PendingRecord pendingRecord = new PendingRecord(usageRecord, new CompletableFuture<>());
+        PendingBatch completedBatch = null;
+        synchronized (pendingBatches) {
+            if (closed) {
+                return CompletableFuture.failedFuture(
+                        new MeteringException("the usage record was submitted after the client was closed"));
+            }
+            PendingBatch batch = pendingBatches.get(productCode);
+            if (Objects.isNull(batch)) {
+                PendingBatch lingeringBatch = new PendingBatch(productCode, new ArrayList<>(maxBatchSize));
+                try {
+                    lingeringBatch.lingerTask = scheduler.schedule(
+                            () -> flush(lingeringBatch), lingerTimeInNanos, TimeUnit.NANOSECONDS);
+                } catch (RejectedExecutionException e) {
+                    // the scheduler is shut down once the client is closed, hence the batch is never published
+                    return CompletableFuture.failedFuture(
+                            new MeteringException("the usage record was abandoned as the client is closed"));
+                }
+                batch = lingeringBatch;
+                pendingBatches.put(productCode, batch);
+            }
+            batch.records.add(pendingRecord);
+            if (batch.records.size() >= maxBatchSize) {
+                pendingBatches.remove(productCode);
+                batch.lingerTask.cancel(false);
+                completedBatch = batch;
+            }
+        }
+        if (Objects.nonNull(completedBatch)) {
+            dispatch(completedBatch);
+        }
+        return pendingRecord.result;
+    }
+
+    private void flush(PendingBatch batch) {
+        synchronized (pendingBatches) {
+            if (!pendingBatches.remove(batch.productCode, batch)) {
+                return;
+            }
+        }
+        dispatch(batch);
+    }
+
+    private void dispatch(PendingBatch batch) {
+        List<UsageRecord> usageRecords = new ArrayList<>(batch.records.size());
+        batch.records.forEach(pendingRecord -> usageRecords.add(pendingRecord.usageRecord));
+        BatchMeterUsageRequest request = BatchMeterUsageRequest.builder()
+                .productCode(batch.productCode).usageRecords(usageRecords).build();
+        CompletableFuture<BatchMeterUsageResponse> response = dispatch(request);
+        inFlightBatches.add(response);
+        response.whenComplete((nativeResponse, exception) -> {
+            inFlightBatches.remove(response);
+            if (Objects.nonNull(exception)) {
+                batch.records.forEach(pendingRecord -> pendingRecord.result.completeExceptionally(exception));
+                return;
+            }
+            complete(batch, nativeResponse);
+        });
+    }
+
+    private CompletableFuture<BatchMeterUsageResponse> dispatch(BatchMeterUsageRequest request) {
+        try {
+            return meteringClient.batchMeterUsage(request);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static void complete(PendingBatch batch, BatchMeterUsageResponse nativeResponse) {
+        Map<UsageRecordKey, Queue<PendingRecord>> pendingRecords = new HashMap<>();
+        batch.records.forEach(pendingRecord -> pendingRecords.computeIfAbsent(
+                UsageRecordKey.of(pendingRecord.usageRecord), key -> new ArrayDeque<>()).add(pendingRecord));
+        for (UsageRecordResult result : nativeResponse.results()) {
+            if (Objects.isNull(result.usageRecord())) {
+                continue;
+            }
+            Queue<PendingRecord> matches = pendingRecords.get(UsageRecordKey.of(result.usageRecord()));
+            if (Objects.nonNull(matches) && !matches.isEmpty()) {
+                matches.poll().result.complete(result);
+            }
+        }
+        pendingRecords.values().forEach(unmatched -> unmatched.forEach(pendingRecord ->
+                pendingRecord.result.completeExceptionally(new MeteringException(
+                        "usage record was not processed by the BatchMeterUsage operation"))));
+    }
+
+    /**
+     * Dispatches all the pending batches and waits for the in-flight batches to complete. Usage records submitted
+     * afterwards are rejected.
+     */
+    public void close() {
+        List<PendingBatch> remainingBatches;
+        synchronized (pendingBatches) {
+            closed = true;
+            remainingBatches = new ArrayList<>(pendingBatches.values());
+            pendingBatches.clear();
+        }
+        remainingBatches.forEach(batch -> {
+            batch.lingerTask.cancel(false);
+            dispatch(batch);
+        });
+        CompletableFuture.allOf(inFlightBatches.toArray(new CompletableFuture<?>[0]))
+                .exceptionally(exception -> null).join();
+    }
+
+    private static final class PendingBatch {
+        private final String productCode;
+        private final List<PendingRecord> records;
+        private ScheduledFuture<?> lingerTask;
+
+        private PendingBatch(String productCode, List<PendingRecord> records) {
+            this.productCode = productCode;
+            this.records = records;
+        }
+    }
+
+    private record PendingRecord(UsageRecord usageRecord, CompletableFuture<UsageRecordResult> result) {
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecord;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecordResult;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+
+/**
+ * {@code UsageRecordKey} identifies a usage record within a single batch, independent of the precision in which the
+ * service echoes the record timestamp back.
+ *
+ * @param customerIdentifier The unique identifier used to identify an individual customer.
+ * @param dimension          The dimension for which the usage is being reported.
+ * @param epochSecond        The timestamp of the usage, truncated to seconds.
+ */
+public record UsageRecordKey(String customerIdentifier, String dimension, long epochSecond) {
+
+    public static UsageRecordKey of(UsageRecord usageRecord) {
+        return new UsageRecordKey(usageRecord.customerIdentifier(), usageRecord.dimension(),
+                usageRecord.timestamp().getEpochSecond());
+    }
+
+    /**
+     * Aligns the results of a {@code BatchMeterUsage} call with the usage records of its request, as the service
+     * does not guarantee the order of the results.
+     *
+     * @param usageRecords The usage records of the request.
+     * @param results      The results returned by the service.
+     * @return The result of each usage record at the position of the usage record, or {@code null} for a usage
+     *         record which was not processed.
+     */
+    public static UsageRecordResult[] align(List<UsageRecord> usageRecords, List<UsageRecordResult> results) {
+        Map<UsageRecordKey, Queue<Integer>> positions = new HashMap<>(usageRecords.size() * 2);
+        for (int i = 0; i < usageRecords.size(); i++) {
+            positions.computeIfAbsent(of(usageRecords.get(i)), key -> new ArrayDeque<>()).add(i);
+        }
+        UsageRecordResult[] alignedResults = new UsageRecordResult[usageRecords.size()];
+        for (UsageRecordResult result : results) {
+            if (Objects.isNull(result.usageRecord())) {
+                continue;
+            }
+            Queue<Integer> matches = positions.get(of(result.usageRecord()));
+            if (Objects.nonNull(matches) && !matches.isEmpty()) {
+                alignedResults[matches.poll()] = result;
+            }
+        }
+        return alignedResults;
+    }
+
+    /**
+     * Locates the usage record of each result of a {@code BatchMeterUsage} call within the usage records of its
+     * request. Usage records sharing a key are matched in the order of the request.
+     *
+     * @param usageRecords The usage records of the request.
+     * @param results      The results returned by the service.
+     * @return The index of the usage record of each result, at the position of the result, or {@code -1} for a result
+     *         which could not be matched.
+     */
+    public static int[] indexesOf(List<UsageRecord> usageRecords, List<UsageRecordResult> results) {
+        Map<UsageRecordKey, Queue<Integer>> positions = new HashMap<>(usageRecords.size() * 2);
+        for (int i = 0; i < usageRecords.size(); i++) {
+            positions.computeIfAbsent(of(usageRecords.get(i)), key -> new ArrayDeque<>()).add(i);
+        }
+        int[] indexes = new int[results.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            UsageRecord usageRecord = results.get(i).usageRecord();
+            Queue<Integer> matches = Objects.nonNull(usageRecord) ? positions.get(of(usageRecord)) : null;
+            indexes[i] = Objects.nonNull(matches) && !matches.isEmpty() ? matches.poll() : -1;
+        }
+        return indexes;
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecord;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecordResult;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * {@code UsageRecordPipeline} meters a sequence of usage records of a single product in {@code BatchMeterUsage}
+ * calls, keeping a bounded number of batches in flight. Results are released strictly in the order of the usage
+ * records, hence a slow batch holds back the results of the batches dispatched after it, and no further usage records
+ * are accepted while the in-flight window is full. A failed batch yields a failed result for each of its usage records,
+ * so that every usage record receives a result.
+ * <p>
+ * A pipeline is driven by a single consumer and is not thread-safe.
+ */
+public final class UsageRecordPipeline {
+    private final MeteringClient meteringClient;
+    private final String productCode;
+    private final int batchSize;
+    private final int maxInFlightBatches;
+    private final Queue<InFlightBatch> inFlightBatches;
+    private final Queue<StreamedResult> readyResults;
+    private List<UsageRecord> pendingRecords;
+    private long nextRecordIndex;
+    private boolean closed;
+
+    public UsageRecordPipeline(MeteringClient meteringClient, String productCode, int batchSize,
+                               int maxInFlightBatches) {
+        this.meteringClient = meteringClient;
+        this.productCode = productCode;
+        this.batchSize = batchSize;
+        this.maxInFlightBatches = maxInFlightBatches;
+        this.inFlightBatches = new ArrayDeque<>(maxInFlightBatches);
+        this.readyResults = new ArrayDeque<>(batchSize);
+        this.pendingRecords = new ArrayList<>(batchSize);
+    }
+
+    /**
+     * Returns the index of the next usage record within the sequence of usage records of the pipeline.
+     *
+     * @return The index of the next usage record.
+     */
+    public long getNextRecordIndex() {
+        return nextRecordIndex;
+    }
+
+    /**
+     * Returns whether the pipeline accepts a usage record without exceeding its in-flight window.
+     *
+     * @return {@code true} if a usage record can be added.
+     */
+    public boolean hasCapacity() {
+        return !closed && inFlightBatches.size() < maxInFlightBatches;
+    }
+
+    /**
+     * Adds a usage record to the pending batch, and dispatches the batch once it is full.
+     *
+     * @param usageRecord The usage record to be metered.
+     */
+    public void add(UsageRecord usageRecord) {
+        if (!hasCapacity()) {
+            throw new IllegalStateException("the usage record pipeline has no capacity for further usage records");
+        }
+        pendingRecords.add(usageRecord);
+        nextRecordIndex++;
+        if (pendingRecords.size() >= batchSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Dispatches the pending batch, if there is any, regardless of its size.
+     */
+    public void flush() {
+        if (pendingRecords.isEmpty()) {
+            return;
+        }
+        List<UsageRecord> usageRecords = pendingRecords;
+        pendingRecords = new ArrayList<>(batchSize);
+        BatchMeterUsageRequest request = BatchMeterUsageRequest.builder()
+                .productCode(productCode).usageRecords(usageRecords).build();
+        inFlightBatches.add(new InFlightBatch(
+                nextRecordIndex - usageRecords.size(), usageRecords, dispatch(request)));
+    }
+
+    private CompletableFuture<BatchMeterUsageResponse> dispatch(BatchMeterUsageRequest request) {
+        try {
+            return meteringClient.batchMeterUsage(request);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Retrieves the next result in the order of the usage records, without waiting for an in-flight batch.
+     *
+     * @return The next result, or {@code null} if the next result is not available yet.
+     */
+    public StreamedResult poll() {
+        while (readyResults.isEmpty()) {
+            InFlightBatch batch = inFlightBatches.peek();
+            if (Objects.isNull(batch) || !batch.response.isDone()) {
+                return null;
+            }
+            inFlightBatches.poll();
+            release(batch);
+        }
+        return readyResults.poll();
+    }
+
+    private void release(InFlightBatch batch) {
+        BatchMeterUsageResponse nativeResponse;
+        try {
+            nativeResponse = batch.response.join();
+        } catch (CompletionException | CancellationException e) {
+            Throwable cause = CommonUtils.unwrap(e);
+            for (int i = 0; i < batch.usageRecords.size(); i++) {
+                readyResults.add(new StreamedResult(null, batch.firstRecordIndex + i, cause));
+            }
+            return;
+        }
+        UsageRecordResult[] alignedResults = UsageRecordKey.align(batch.usageRecords, nativeResponse.results());
+        for (int i = 0; i < alignedResults.length; i++) {
+            readyResults.add(new StreamedResult(alignedResults[i], batch.firstRecordIndex + i, null));
+        }
+    }
+
+    /**
+     * Waits until the oldest in-flight batch completes, successfully or not.
+     *
+     * @return A future which completes with {@code false} if there was no in-flight batch to wait for, or else
+     *         {@code true}.
+     */
+    public CompletableFuture<Boolean> awaitNext() {
+        InFlightBatch batch = inFlightBatches.peek();
+        if (Objects.isNull(batch)) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return batch.response.handle((nativeResponse, exception) -> true);
+    }
+
+    /**
+     * Returns whether every added usage record has been dispatched and its result retrieved.
+     *
+     * @return {@code true} if the pipeline is drained.
+     */
+    public boolean isDrained() {
+        return pendingRecords.isEmpty() && inFlightBatches.isEmpty() && readyResults.isEmpty();
+    }
+
+    /**
+     * Discards the pending batch and the results which have not been retrieved. The in-flight batches are not
+     * cancelled, as their usage records may already have been metered.
+     */
+    public void close() {
+        closed = true;
+        pendingRecords.clear();
+        inFlightBatches.clear();
+        readyResults.clear();
+    }
+
+    /**
+     * The result of a usage record together with the index of the usage record within the pipeline. A usage record
+     * without a result and without a failure was returned as unprocessed by the service.
+     *
+     * @param result      The result of the usage record, or {@code null} if it was not processed by the service.
+     * @param recordIndex The index of the usage record.
+     * @param failure     The failure of the batch of the usage record, or {@code null} if the batch succeeded.
+     */
+    public record StreamedResult(UsageRecordResult result, long recordIndex, Throwable failure) {
+    }
+
+    private record InFlightBatch(long firstRecordIndex, List<UsageRecord> usageRecords,
+                                 CompletableFuture<BatchMeterUsageResponse> response) {
+    }
+}
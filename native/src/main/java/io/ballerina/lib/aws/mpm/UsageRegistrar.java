@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import software.amazon.awssdk.services.marketplacemetering.model.RegisterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.RegisterUsageResponse;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.random.RandomGenerator;
+
+/**
+ * {@code UsageRegistrar} registers the usage of paid container products through {@code RegisterUsage}, and caches the
+ * signed token per product code and public key version until it expires. Concurrent registrations of the same product
+ * share a single in-flight request, and registrations which provide a nonce are never cached or shared, as their
+ * token is bound to the nonce.
+ * <p>
+ * A token expires after the configured TTL, or at the rotation of the public key if that is earlier. The TTL is
+ * shortened by a random offset drawn once per instance, so that a fleet of instances started together spreads its
+ * re-registrations. When a public key is configured, the signature is verified before the token is cached, and a
+ * token which fails the verification is reported as an error.
+ */
+public final class UsageRegistrar {
+    private static final long IN_FLIGHT = Long.MAX_VALUE;
+
+    private final MeteringClient delegate;
+    private final Clock clock;
+    private final long ttlInMillis;
+    private final RegistrationSignatureVerifier verifier;
+    private final Map<RegistrationKey, Entry> entries = new HashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public UsageRegistrar(MeteringClient delegate, ConnectionConfig.UsageRegistrationConfig registrationConfig,
+                          Clock clock, RandomGenerator random) {
+        this.delegate = delegate;
+        this.clock = clock;
+        long jitterInMillis = registrationConfig.refreshJitter().toMillis();
+        long offsetInMillis = jitterInMillis > 0 ? random.nextLong(jitterInMillis + 1) : 0;
+        this.ttlInMillis = Math.max(registrationConfig.ttl().toMillis() - offsetInMillis, 0);
+        this.verifier = Objects.nonNull(registrationConfig.publicKey())
+                ? new RegistrationSignatureVerifier(registrationConfig.publicKey()) : null;
+    }
+
+    /**
+     * Registers the usage of a product, or returns the cached registration of the product.
+     *
+     * @param productCode      The product code.
+     * @param publicKeyVersion The version of the public key with which the token is signed.
+     * @param nonce            The nonce bound to the token, or {@code null}.
+     * @return The registration.
+     */
+    public CompletableFuture<Registration> register(String productCode, int publicKeyVersion, String nonce) {
+        if (Objects.nonNull(nonce)) {
+            misses.increment();
+            return invoke(productCode, publicKeyVersion, nonce);
+        }
+        RegistrationKey key = new RegistrationKey(productCode, publicKeyVersion);
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (Objects.nonNull(entry) && entry.expiresAt > clock.millis()) {
+                hits.increment();
+                return entry.registration;
+            }
+            if (Objects.nonNull(entry)) {
+                entries.remove(key);
+                evictions.increment();
+            }
+            misses.increment();
+            entry = new Entry(new CompletableFuture<>());
+            entries.put(key, entry);
+        }
+        Entry loadingEntry = entry;
+        invoke(productCode, publicKeyVersion, null).whenComplete((registration, exception) -> {
+            synchronized (entries) {
+                if (entries.get(key) == loadingEntry) {
+                    if (Objects.isNull(exception)) {
+                        loadingEntry.expiresAt = registration.expiresAt().toEpochMilli();
+                    } else {
+                        entries.remove(key);
+                    }
+                }
+            }
+            if (Objects.isNull(exception)) {
+                loadingEntry.registration.complete(registration);
+            } else {
+                loadingEntry.registration.completeExceptionally(CommonUtils.unwrap(exception));
+            }
+        });
+        return loadingEntry.registration;
+    }
+
+    private CompletableFuture<Registration> invoke(String productCode, int publicKeyVersion, String nonce) {
+        RegisterUsageRequest request = RegisterUsageRequest.builder()
+                .productCode(productCode).publicKeyVersion(publicKeyVersion).nonce(nonce).build();
+        CompletableFuture<RegisterUsageResponse> response;
+        try {
+            response = delegate.registerUsage(request);
+        } catch (Exception e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+        return response.thenApply(
+                nativeResponse -> toRegistration(nativeResponse, productCode, publicKeyVersion, nonce));
+    }
+
+    private Registration toRegistration(RegisterUsageResponse response, String productCode, int publicKeyVersion,
+                                        String nonce) {
+        Instant issuedAt = Objects.nonNull(verifier)
+                ? verifier.verify(response.signature(), productCode, publicKeyVersion, nonce) : null;
+        Instant now = clock.instant();
+        Instant expiresAt = now.plusMillis(ttlInMillis);
+        Instant keyRotation = response.publicKeyRotationTimestamp();
+        if (Objects.nonNull(keyRotation) && keyRotation.isAfter(now) && keyRotation.isBefore(expiresAt)) {
+            expiresAt = keyRotation;
+        }
+        return new Registration(response.signature(), keyRotation, issuedAt, expiresAt, Objects.nonNull(verifier));
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * The outcome of a usage registration.
+     *
+     * @param signature                  The signed token returned by the service.
+     * @param publicKeyRotationTimestamp The instant at which the public key is rotated, or {@code null}.
+     * @param issuedAt                   The instant at which the token was issued, or {@code null} if the signature
+     *                                   is not verified.
+     * @param expiresAt                  The instant after which the product is registered again.
+     * @param verified                   Whether the signature was verified against the configured public key.
+     */
+    public record Registration(String signature, Instant publicKeyRotationTimestamp, Instant issuedAt,
+                               Instant expiresAt, boolean verified) {
+    }
+
+    private record RegistrationKey(String productCode, int publicKeyVersion) {
+    }
+
+    private static final class Entry {
+        private final CompletableFuture<Registration> registration;
+        private long expiresAt = IN_FLIGHT;
+
+        private Entry(CompletableFuture<Registration> registration) {
+            this.registration = registration;
+        }
+    }
+}
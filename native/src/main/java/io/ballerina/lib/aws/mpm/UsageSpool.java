@@ -0,0 +1,500 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import software.amazon.awssdk.services.marketplacemetering.model.Tag;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageAllocation;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecord;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * {@code UsageSpool} is a durable, append-only write-ahead log of usage records, stored as a sequence of
+ * memory-mapped segment files in a local directory.
+ * <p>
+ * Records are appended before they are dispatched and acknowledged once the service has accepted them. Appends are
+ * made durable through group commit: a single {@code fsync} scheduled after the sync interval covers every record
+ * appended in the meantime. The {@code fsync} runs on a thread of the spool, so that a slow disk does not hold up the
+ * timers of the client. A segment is deleted once it is sealed and all of its records are acknowledged, and the
+ * records which were never acknowledged are recovered when the spool is re-opened.
+ */
+public final class UsageSpool {
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String LOG_SUFFIX = ".log";
+    private static final String ACK_SUFFIX = ".ack";
+    private static final int ENTRY_OVERHEAD = Integer.BYTES + Long.BYTES + Integer.BYTES;
+    private static final long SYNC_THREAD_KEEP_ALIVE_SECONDS = 60;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long syncIntervalInNanos;
+    private final ScheduledThreadPoolExecutor syncExecutor;
+    private final NavigableMap<Long, Segment> segments = new TreeMap<>();
+    private final List<SpooledRecord> recoveredRecords = new ArrayList<>();
+    private final List<SpooledRecord> acknowledgedRecords = new ArrayList<>();
+    private final List<CompletableFuture<Void>> pendingSyncs = new ArrayList<>();
+    private final Set<Segment> dirtySegments = new HashSet<>();
+    private final Object syncLock = new Object();
+    private Segment activeSegment;
+    private long nextSequence;
+    private boolean syncScheduled;
+    private boolean closed;
+
+    private UsageSpool(Path directory, int segmentSize, Duration syncInterval) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.syncIntervalInNanos = syncInterval.toNanos();
+        this.syncExecutor = new ScheduledThreadPoolExecutor(
+                1, new AwsMpmThreadFactory(AwsMpmThreadFactory.SPOOL_THREAD_PREFIX));
+        this.syncExecutor.setKeepAliveTime(SYNC_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+        this.syncExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    public static UsageSpool open(ConnectionConfig.SpoolConfig spoolConfig) throws IOException {
+        Files.createDirectories(spoolConfig.directory());
+        UsageSpool spool = new UsageSpool(spoolConfig.directory(), spoolConfig.segmentSize(),
+                spoolConfig.syncInterval());
+        try {
+            spool.recover();
+        } catch (IOException | RuntimeException e) {
+            spool.close();
+            throw e;
+        }
+        return spool;
+    }
+
+    private void recover() throws IOException {
+        List<Path> logFiles;
+        try (Stream<Path> files = Files.list(directory)) {
+            logFiles = files.filter(file -> {
+                String fileName = file.getFileName().toString();
+                return fileName.startsWith(SEGMENT_PREFIX) && fileName.endsWith(LOG_SUFFIX);
+            }).sorted().toList();
+        }
+        for (Path logFile : logFiles) {
+            String fileName = logFile.getFileName().toString();
+            String segmentName = fileName.substring(0, fileName.length() - LOG_SUFFIX.length());
+            long firstSequence = Long.parseLong(segmentName.substring(SEGMENT_PREFIX.length()));
+            Segment segment = new Segment(firstSequence, logFile, directory.resolve(segmentName + ACK_SUFFIX));
+            Set<Long> acknowledged = readAcknowledgements(segment.ackFile);
+            try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                while (buffer.remaining() >= ENTRY_OVERHEAD) {
+                    int length = buffer.getInt();
+                    if (length <= 0 || length > buffer.remaining() - Long.BYTES - Integer.BYTES) {
+                        break;
+                    }
+                    long sequence = buffer.getLong();
+                    byte[] payload = new byte[length];
+                    buffer.get(payload);
+                    if (buffer.getInt() != checksum(payload)) {
+                        // a torn write, everything after this point was never made durable
+                        break;
+                    }
+                    segment.entries++;
+                    nextSequence = Math.max(nextSequence, sequence + 1);
+                    if (acknowledged.contains(sequence)) {
+                        segment.acknowledged++;
+                        acknowledgedRecords.add(decode(sequence, payload));
+                    } else {
+                        recoveredRecords.add(decode(sequence, payload));
+                    }
+                }
+            }
+            if (segment.acknowledged >= segment.entries) {
+                segment.delete();
+                continue;
+            }
+            segment.ackChannel = FileChannel.open(segment.ackFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            segments.put(firstSequence, segment);
+        }
+    }
+
+    private static Set<Long> readAcknowledgements(Path ackFile) throws IOException {
+        Set<Long> acknowledged = new HashSet<>();
+        if (!Files.exists(ackFile)) {
+            return acknowledged;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(ackFile));
+        while (buffer.remaining() >= Long.BYTES) {
+            acknowledged.add(buffer.getLong());
+        }
+        return acknowledged;
+    }
+
+    /**
+     * Retrieves the records which were spooled but never acknowledged before the spool was last closed. The
+     * recovered records are handed out only once.
+     *
+     * @return The unacknowledged records recovered from the spool directory.
+     */
+    public synchronized List<SpooledRecord> takeRecoveredRecords() {
+        List<SpooledRecord> records = new ArrayList<>(recoveredRecords);
+        recoveredRecords.clear();
+        return records;
+    }
+
+    /**
+     * Retrieves the acknowledged records found in the segments which were still present when the spool was opened.
+     * The acknowledged records are handed out only once.
+     *
+     * @return The acknowledged records recovered from the spool directory.
+     */
+    public synchronized List<SpooledRecord> takeAcknowledgedRecords() {
+        List<SpooledRecord> records = new ArrayList<>(acknowledgedRecords);
+        acknowledgedRecords.clear();
+        return records;
+    }
+
+    /**
+     * Appends the usage records to the spool.
+     *
+     * @param productCode  The unique identifier for the Marketplace product.
+     * @param usageRecords The usage records to be appended.
+     * @return A future which is completed with the sequence numbers assigned to the usage records, once they are
+     *         durably stored.
+     */
+    public CompletableFuture<long[]> append(String productCode, List<UsageRecord> usageRecords) {
+        List<byte[]> payloads = new ArrayList<>(usageRecords.size());
+        try {
+            for (UsageRecord usageRecord : usageRecords) {
+                payloads.add(encode(productCode, usageRecord));
+            }
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        long[] sequences = new long[payloads.size()];
+        CompletableFuture<Void> durable = new CompletableFuture<>();
+        synchronized (this) {
+            if (closed) {
+                return CompletableFuture.failedFuture(new MeteringException("usage spool is closed"));
+            }
+            try {
+                for (int i = 0; i < payloads.size(); i++) {
+                    sequences[i] = write(payloads.get(i));
+                }
+            } catch (IOException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+            pendingSyncs.add(durable);
+            scheduleSync();
+        }
+        return durable.thenApply(ignored -> sequences);
+    }
+
+    private long write(byte[] payload) throws IOException {
+        int entrySize = ENTRY_OVERHEAD + payload.length;
+        if (entrySize > segmentSize) {
+            throw new IOException(String.format("usage record of %d bytes exceeds the spool segment size of %d bytes",
+                    entrySize, segmentSize));
+        }
+        if (Objects.isNull(activeSegment) || activeSegment.buffer.remaining() < entrySize) {
+            roll();
+        }
+        long sequence = nextSequence++;
+        activeSegment.buffer.putInt(payload.length).putLong(sequence).put(payload).putInt(checksum(payload));
+        activeSegment.entries++;
+        dirtySegments.add(activeSegment);
+        return sequence;
+    }
+
+    private void roll() throws IOException {
+        if (Objects.nonNull(activeSegment)) {
+            activeSegment.sealed = true;
+        }
+        String name = String.format("%s%020d", SEGMENT_PREFIX, nextSequence);
+        Segment segment = new Segment(nextSequence, directory.resolve(name + LOG_SUFFIX),
+                directory.resolve(name + ACK_SUFFIX));
+        segment.logChannel = FileChannel.open(segment.logFile, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment.buffer = segment.logChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        segment.ackChannel = FileChannel.open(segment.ackFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segment.sealed = false;
+        segments.put(segment.firstSequence, segment);
+        activeSegment = segment;
+    }
+
+    /**
+     * Marks the records with the given sequence numbers as delivered, so that they are not recovered again.
+     *
+     * @param sequences The sequence numbers of the delivered records.
+     */
+    public synchronized void acknowledge(long[] sequences) {
+        if (closed || sequences.length == 0) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+        for (long sequence : sequences) {
+            Map.Entry<Long, Segment> entry = segments.floorEntry(sequence);
+            if (Objects.isNull(entry)) {
+                continue;
+            }
+            Segment segment = entry.getValue();
+            try {
+                buffer.clear();
+                buffer.putLong(sequence).flip();
+                while (buffer.hasRemaining()) {
+                    segment.ackChannel.write(buffer);
+                }
+            } catch (IOException e) {
+                // the record stays unacknowledged and is re-delivered on recovery, where the service reports it as a
+                // duplicate
+                continue;
+            }
+            segment.acknowledged++;
+            dirtySegments.add(segment);
+        }
+        scheduleSync();
+    }
+
+    private void scheduleSync() {
+        if (!syncScheduled) {
+            syncScheduled = true;
+            syncExecutor.schedule(this::sync, syncIntervalInNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void sync() {
+        synchronized (syncLock) {
+            syncDirtySegments();
+        }
+    }
+
+    private void syncDirtySegments() {
+        List<CompletableFuture<Void>> syncs;
+        List<Segment> syncedSegments;
+        synchronized (this) {
+            syncScheduled = false;
+            syncs = new ArrayList<>(pendingSyncs);
+            pendingSyncs.clear();
+            syncedSegments = new ArrayList<>(dirtySegments);
+            dirtySegments.clear();
+        }
+        IOException failure = null;
+        for (Segment segment : syncedSegments) {
+            try {
+                segment.force();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        synchronized (this) {
+            for (Segment segment : syncedSegments) {
+                if (segment.sealed && segment.acknowledged >= segment.entries && !dirtySegments.contains(segment)) {
+                    segments.remove(segment.firstSequence);
+                    segment.delete();
+                }
+            }
+        }
+        for (CompletableFuture<Void> sync : syncs) {
+            if (Objects.isNull(failure)) {
+                sync.complete(null);
+            } else {
+                sync.completeExceptionally(failure);
+            }
+        }
+    }
+
+    public synchronized long getPendingRecords() {
+        long pending = 0;
+        for (Segment segment : segments.values()) {
+            pending += segment.entries - segment.acknowledged;
+        }
+        return pending;
+    }
+
+    /**
+     * Makes all the appended records and acknowledgements durable and releases the spool files.
+     */
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        sync();
+        syncExecutor.shutdownNow();
+        synchronized (this) {
+            for (Segment segment : segments.values()) {
+                segment.closeChannels();
+            }
+            segments.clear();
+        }
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static byte[] encode(String productCode, UsageRecord usageRecord) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(productCode);
+            out.writeUTF(usageRecord.customerIdentifier());
+            out.writeUTF(usageRecord.dimension());
+            out.writeLong(usageRecord.timestamp().getEpochSecond());
+            out.writeInt(usageRecord.timestamp().getNano());
+            Integer quantity = usageRecord.quantity();
+            out.writeBoolean(Objects.nonNull(quantity));
+            if (Objects.nonNull(quantity)) {
+                out.writeInt(quantity);
+            }
+            List<UsageAllocation> usageAllocations = usageRecord.hasUsageAllocations() ?
+                    usageRecord.usageAllocations() : List.of();
+            out.writeInt(usageAllocations.size());
+            for (UsageAllocation usageAllocation : usageAllocations) {
+                out.writeInt(usageAllocation.allocatedUsageQuantity());
+                List<Tag> tags = usageAllocation.hasTags() ? usageAllocation.tags() : List.of();
+                out.writeInt(tags.size());
+                for (Tag tag : tags) {
+                    out.writeUTF(tag.key());
+                    out.writeUTF(tag.value());
+                }
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static SpooledRecord decode(long sequence, byte[] payload) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            String productCode = in.readUTF();
+            UsageRecord.Builder builder = UsageRecord.builder()
+                    .customerIdentifier(in.readUTF())
+                    .dimension(in.readUTF())
+                    .timestamp(Instant.ofEpochSecond(in.readLong(), in.readInt()));
+            if (in.readBoolean()) {
+                builder.quantity(in.readInt());
+            }
+            int allocationCount = in.readInt();
+            if (allocationCount > 0) {
+                List<UsageAllocation> usageAllocations = new ArrayList<>(allocationCount);
+                for (int i = 0; i < allocationCount; i++) {
+                    UsageAllocation.Builder allocationBuilder = UsageAllocation.builder()
+                            .allocatedUsageQuantity(in.readInt());
+                    int tagCount = in.readInt();
+                    if (tagCount > 0) {
+                        List<Tag> tags = new ArrayList<>(tagCount);
+                        for (int j = 0; j < tagCount; j++) {
+                            tags.add(Tag.builder().key(in.readUTF()).value(in.readUTF()).build());
+                        }
+                        allocationBuilder.tags(tags);
+                    }
+                    usageAllocations.add(allocationBuilder.build());
+                }
+                builder.usageAllocations(usageAllocations);
+            }
+            return new SpooledRecord(sequence, productCode, builder.build());
+        }
+    }
+
+    /**
+     * A usage record recovered from the spool.
+     *
+     * @param sequence    The sequence number assigned to the record when it was spooled.
+     * @param productCode The unique identifier for the Marketplace product.
+     * @param usageRecord The spooled usage record.
+     */
+    public record SpooledRecord(long sequence, String productCode, UsageRecord usageRecord) {
+    }
+
+    private static final class Segment {
+        private final long firstSequence;
+        private final Path logFile;
+        private final Path ackFile;
+        private FileChannel logChannel;
+        private MappedByteBuffer buffer;
+        private FileChannel ackChannel;
+        private int entries;
+        private int acknowledged;
+        private boolean sealed = true;
+
+        private Segment(long firstSequence, Path logFile, Path ackFile) {
+            this.firstSequence = firstSequence;
+            this.logFile = logFile;
+            this.ackFile = ackFile;
+        }
+
+        private void force() throws IOException {
+            MappedByteBuffer logBuffer = buffer;
+            if (Objects.nonNull(logBuffer)) {
+                logBuffer.force();
+            }
+            if (Objects.nonNull(ackChannel)) {
+                ackChannel.force(false);
+            }
+        }
+
+        private void closeChannels() {
+            buffer = null;
+            closeQuietly(logChannel);
+            closeQuietly(ackChannel);
+        }
+
+        private void delete() {
+            closeChannels();
+            try {
+                Files.deleteIfExists(logFile);
+                Files.deleteIfExists(ackFile);
+            } catch (IOException e) {
+                // a stale, fully acknowledged segment is cleaned up on the next recovery
+            }
+        }
+
+        private static void closeQuietly(FileChannel channel) {
+            if (Objects.isNull(channel)) {
+                return;
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // nothing to recover from, the segment is no longer used
+            }
+        }
+    }
+}
@@ -25,6 +25,16 @@ module io.ballerina.lib.aws.mpm {
     requires software.amazon.awssdk.services.marketplacemetering;
     requires software.amazon.awssdk.awscore;
     requires software.amazon.awssdk.core;
+    requires software.amazon.awssdk.http;
+    requires software.amazon.awssdk.http.apache;
+    requires software.amazon.awssdk.http.urlconnection;
+    requires static software.amazon.awssdk.http.crt;
+    requires software.amazon.awssdk.http.nio.netty;
+    requires software.amazon.awssdk.retries.api;
+    requires software.amazon.awssdk.profiles;
+    requires software.amazon.awssdk.protocols.jsoncore;
+    requires software.amazon.awssdk.services.sts;
+    requires software.amazon.awssdk.utils;
 
     exports io.ballerina.lib.aws.mpm;
 }
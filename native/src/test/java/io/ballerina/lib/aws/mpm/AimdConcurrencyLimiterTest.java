@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Tests the additive-increase/multiplicative-decrease policy of {@link AimdConcurrencyLimiter}.
+ */
+public class AimdConcurrencyLimiterTest {
+
+    @Test
+    public void testCallersBeyondTheLimitWaitForAPermit() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(2, 1, 4);
+        Assert.assertTrue(limiter.acquire().isDone());
+        Assert.assertTrue(limiter.acquire().isDone());
+        CompletableFuture<Void> waiter = limiter.acquire();
+
+        Assert.assertFalse(waiter.isDone());
+        Assert.assertEquals(limiter.getQueued(), 1);
+        limiter.onIgnored();
+        Assert.assertTrue(waiter.isDone());
+        Assert.assertEquals(limiter.getInFlight(), 2);
+        Assert.assertEquals(limiter.getQueued(), 0);
+    }
+
+    @Test
+    public void testThrottlingHalvesTheLimitDownToTheMinimum() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(8, 3, 16);
+        limiter.acquire();
+        limiter.onThrottled();
+        Assert.assertEquals(limiter.getLimit(), 4);
+
+        limiter.acquire();
+        limiter.onThrottled();
+        Assert.assertEquals(limiter.getLimit(), 3);
+        Assert.assertEquals(limiter.getInFlight(), 0);
+    }
+
+    @Test
+    public void testSuccessesGrowTheLimitByOnePerRoundTrip() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(4, 1, 5);
+        for (int i = 0; i < 4; i++) {
+            limiter.acquire();
+            limiter.onSuccess();
+        }
+        Assert.assertEquals(limiter.getLimit(), 4);
+
+        limiter.acquire();
+        limiter.onSuccess();
+        Assert.assertEquals(limiter.getLimit(), 5);
+        for (int i = 0; i < 20; i++) {
+            limiter.acquire();
+            limiter.onSuccess();
+        }
+        Assert.assertEquals(limiter.getLimit(), 5);
+    }
+
+    @Test
+    public void testInitialLimitIsBounded() {
+        Assert.assertEquals(new AimdConcurrencyLimiter(100, 1, 10).getLimit(), 10);
+        Assert.assertEquals(new AimdConcurrencyLimiter(0, 2, 10).getLimit(), 2);
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.ResolveCustomerRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.ResolveCustomerResponse;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static io.ballerina.lib.aws.mpm.FakeMeteringClient.usageRecord;
+
+/**
+ * Tests the state transitions of {@link CircuitBreaker} and their use by {@link CircuitBreakingMeteringClient}.
+ */
+public class CircuitBreakerTest {
+    private static final Exception SERVER_ERROR = AwsServiceException.builder().statusCode(500).message("down")
+            .build();
+    private static final ConnectionConfig.CircuitBreakerConfig CONFIG = new ConnectionConfig.CircuitBreakerConfig(
+            4, 4, 0.5, Duration.ofMinutes(1), 2);
+
+    private ManualClock clock;
+    private CircuitBreaker breaker;
+
+    @BeforeMethod
+    public void setUp() {
+        clock = new ManualClock(Instant.parse("2024-05-01T10:15:30Z"));
+        breaker = new CircuitBreaker("resolveCustomer", CONFIG, clock);
+    }
+
+    @Test
+    public void testCircuitOpensOnceTheFailureRateReachesTheThreshold() {
+        complete(SERVER_ERROR);
+        complete(SERVER_ERROR);
+        complete(null);
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.CLOSED);
+
+        complete(null);
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.OPEN);
+        Assert.assertEquals(breaker.tryAcquire(), -1);
+        Assert.assertEquals(breaker.getRejectedCalls(), 1);
+        Assert.assertEquals(breaker.getOpenings(), 1);
+    }
+
+    @Test
+    public void testOnlyServiceFailuresCountTowardsTheFailureRate() {
+        Assert.assertTrue(CircuitBreaker.isServiceFailure(SERVER_ERROR));
+        Assert.assertTrue(CircuitBreaker.isServiceFailure(
+                AwsServiceException.builder().statusCode(429).message("throttled").build()));
+        Assert.assertTrue(CircuitBreaker.isServiceFailure(SdkClientException.create("connection refused")));
+        Exception clientError = AwsServiceException.builder().statusCode(400).message("invalid token").build();
+        Assert.assertFalse(CircuitBreaker.isServiceFailure(clientError));
+        Assert.assertFalse(CircuitBreaker.isServiceFailure(new MeteringException("invalid request")));
+
+        for (int i = 0; i < 4; i++) {
+            complete(clientError);
+        }
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.CLOSED);
+        Assert.assertEquals(breaker.getFailureRate(), 0.0);
+    }
+
+    @Test
+    public void testSuccessfulProbesCloseTheCircuit() {
+        open();
+        clock.advance(Duration.ofMinutes(1).minusMillis(1));
+        Assert.assertEquals(breaker.tryAcquire(), -1);
+        clock.advance(Duration.ofMillis(1));
+
+        long firstProbe = breaker.tryAcquire();
+        long secondProbe = breaker.tryAcquire();
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.HALF_OPEN);
+        Assert.assertTrue(firstProbe >= 0);
+        Assert.assertEquals(breaker.tryAcquire(), -1);
+        breaker.onComplete(firstProbe, null);
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.HALF_OPEN);
+        breaker.onComplete(secondProbe, null);
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.CLOSED);
+        Assert.assertEquals(breaker.getFailureRate(), 0.0);
+    }
+
+    @Test
+    public void testFailedProbeReopensTheCircuit() {
+        open();
+        clock.advance(Duration.ofMinutes(1));
+        long firstProbe = breaker.tryAcquire();
+        long secondProbe = breaker.tryAcquire();
+        breaker.onComplete(firstProbe, SERVER_ERROR);
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.OPEN);
+        Assert.assertEquals(breaker.getOpenings(), 2);
+
+        // the outcome of a probe permitted before the circuit re-opened is ignored
+        breaker.onComplete(secondProbe, null);
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.OPEN);
+        Assert.assertEquals(breaker.tryAcquire(), -1);
+    }
+
+    @Test
+    public void testOutcomesOfCallsPermittedBeforeTheCircuitOpenedAreIgnored() {
+        long stalePermit = breaker.tryAcquire();
+        open();
+        clock.advance(Duration.ofMinutes(1));
+        long probe = breaker.tryAcquire();
+        breaker.onComplete(stalePermit, SERVER_ERROR);
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.HALF_OPEN);
+        breaker.onComplete(probe, null);
+        breaker.onComplete(breaker.tryAcquire(), null);
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    public void testOpenCircuitRejectsOnlyTheCallsOfItsOperation() throws Exception {
+        FakeMeteringClient delegate = new FakeMeteringClient();
+        delegate.resolveCustomerHandler = request -> CompletableFuture.failedFuture(SERVER_ERROR);
+        CircuitBreakingMeteringClient client = new CircuitBreakingMeteringClient(delegate, CONFIG, clock);
+        ResolveCustomerRequest request = ResolveCustomerRequest.builder().registrationToken("token").build();
+        for (int i = 0; i < 4; i++) {
+            ExecutionException failure = Assert.expectThrows(ExecutionException.class,
+                    () -> client.resolveCustomer(request).get(5, TimeUnit.SECONDS));
+            Assert.assertSame(failure.getCause(), SERVER_ERROR);
+        }
+
+        delegate.resolveCustomerHandler = ignored -> CompletableFuture.completedFuture(
+                ResolveCustomerResponse.builder().customerIdentifier("customer").build());
+        ExecutionException rejection = Assert.expectThrows(ExecutionException.class,
+                () -> client.resolveCustomer(request).get(5, TimeUnit.SECONDS));
+        Assert.assertTrue(rejection.getCause() instanceof CircuitBreakerOpenException);
+        Assert.assertEquals(delegate.resolveCustomerRequests.size(), 4);
+        client.batchMeterUsage(BatchMeterUsageRequest.builder().productCode("product")
+                .usageRecords(usageRecord("customer", "dimension", clock.instant(), 1)).build())
+                .get(5, TimeUnit.SECONDS);
+        Assert.assertEquals(delegate.batchRequests.size(), 1);
+    }
+
+    private void open() {
+        for (int i = 0; i < 4; i++) {
+            complete(SERVER_ERROR);
+        }
+        Assert.assertEquals(breaker.getState(), CircuitBreaker.State.OPEN);
+    }
+
+    private void complete(Throwable failure) {
+        breaker.onComplete(breaker.tryAcquire(), failure);
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import software.amazon.awssdk.services.marketplacemetering.model.InvalidTokenException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Tests the best-effort warm-up call of {@link ClientWarmUp}.
+ */
+public class ClientWarmUpTest {
+    @Test
+    public void testExpectedInvalidTokenIsDiscarded() {
+        FakeMeteringClient meteringClient = new FakeMeteringClient();
+        meteringClient.resolveCustomerHandler = request -> CompletableFuture.failedFuture(
+                InvalidTokenException.builder().message("invalid token").build());
+
+        ClientWarmUp.warmUpClient(meteringClient, Duration.ofSeconds(5));
+        Assert.assertEquals(meteringClient.resolveCustomerRequests.size(), 1);
+        Assert.assertEquals(meteringClient.resolveCustomerRequests.get(0).registrationToken(), "warm-up");
+    }
+
+    @Test
+    public void testUnansweredCallIsAbandonedAfterTheTimeout() {
+        FakeMeteringClient meteringClient = new FakeMeteringClient();
+        meteringClient.resolveCustomerHandler = request -> new CompletableFuture<>();
+
+        Duration elapsed = ClientWarmUp.warmUpClient(meteringClient, Duration.ofMillis(50));
+        Assert.assertTrue(elapsed.compareTo(Duration.ofMillis(50)) >= 0);
+        Assert.assertTrue(elapsed.compareTo(Duration.ofSeconds(5)) < 0);
+    }
+
+    @Test
+    public void testFailureToSendIsDiscarded() {
+        FakeMeteringClient meteringClient = new FakeMeteringClient();
+        meteringClient.resolveCustomerHandler = request -> {
+            throw new IllegalStateException("no credentials");
+        };
+
+        ClientWarmUp.warmUpClient(meteringClient, Duration.ofSeconds(5));
+        Assert.assertEquals(meteringClient.resolveCustomerRequests.size(), 1);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import software.amazon.awssdk.auth.credentials.AwsCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.AwsSessionCredentials;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.utils.IoUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Tests the credentials providers created by {@link CredentialsProviderFactory}.
+ */
+public class CredentialsProviderFactoryTest {
+    private Path credentialsFile;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        credentialsFile = Files.createTempFile("mpm-credentials", ".ini");
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(credentialsFile);
+    }
+
+    @Test
+    public void testStaticCredentials() {
+        AwsCredentials credentials = CredentialsProviderFactory.create(
+                createConnectionConfig(null, null)).resolveCredentials();
+        Assert.assertEquals(credentials.accessKeyId(), "access-key");
+        Assert.assertEquals(credentials.secretAccessKey(), "secret-key");
+        Assert.assertFalse(credentials instanceof AwsSessionCredentials);
+
+        AwsCredentials sessionCredentials = CredentialsProviderFactory.create(
+                createConnectionConfig("session-token", null)).resolveCredentials();
+        Assert.assertEquals(((AwsSessionCredentials) sessionCredentials).sessionToken(), "session-token");
+    }
+
+    @Test
+    public void testProfileCredentialsAreReadFromTheConfiguredFile() throws IOException {
+        Files.writeString(credentialsFile, String.format("[default]%naws_access_key_id = default%n" +
+                "aws_secret_access_key = secret%n[metering]%naws_access_key_id = metering%n" +
+                "aws_secret_access_key = secret%naws_session_token = token%n"));
+        AwsCredentialsProvider provider = CredentialsProviderFactory.create(createConnectionConfig(null,
+                new ConnectionConfig.CredentialsConfig(ConnectionConfig.CredentialsProviderType.PROFILE, "metering",
+                        credentialsFile, null, null, null, null, Duration.ofHours(1), null, null,
+                        Duration.ofMinutes(5), Duration.ofMinutes(1))));
+        try {
+            AwsCredentials credentials = provider.resolveCredentials();
+            Assert.assertEquals(credentials.accessKeyId(), "metering");
+            Assert.assertEquals(((AwsSessionCredentials) credentials).sessionToken(), "token");
+        } finally {
+            IoUtils.closeIfCloseable(provider, null);
+        }
+    }
+
+    private static ConnectionConfig createConnectionConfig(String sessionToken,
+                                                           ConnectionConfig.CredentialsConfig credentialsConfig) {
+        return new ConnectionConfig(Region.US_EAST_1, "access-key", "secret-key", sessionToken, credentialsConfig,
+                ConnectionConfig.ClientMode.NON_BLOCKING, null, null, ConnectionConfig.ResultMode.FULL, null, null,
+                null, null, null, null, null, null, null, false, null);
+    }
+}
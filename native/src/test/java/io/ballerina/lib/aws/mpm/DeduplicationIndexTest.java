@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecord;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecordResultStatus;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static io.ballerina.lib.aws.mpm.FakeMeteringClient.usageRecord;
+
+/**
+ * Tests the retention and the eviction of {@link DeduplicationIndex} and its use by
+ * {@link DeduplicatingMeteringClient}.
+ */
+public class DeduplicationIndexTest {
+    private static final Instant TIMESTAMP = Instant.parse("2024-05-01T10:15:30Z");
+
+    @Test
+    public void testRecordsOfTheSameHourAreDuplicates() {
+        DeduplicationIndex index = new DeduplicationIndex(
+                new ConnectionConfig.DeduplicationConfig(10, Duration.ofHours(1)), new ManualClock(TIMESTAMP));
+        index.add("product", usageRecord("customer", "dimension", TIMESTAMP, 1));
+
+        Assert.assertTrue(index.contains("product", usageRecord("customer", "dimension",
+                TIMESTAMP.plusSeconds(60), 7)));
+        Assert.assertFalse(index.contains("product", usageRecord("customer", "dimension",
+                TIMESTAMP.plus(Duration.ofHours(1)), 1)));
+        Assert.assertFalse(index.contains("other", usageRecord("customer", "dimension", TIMESTAMP, 1)));
+        Assert.assertFalse(index.contains("product", usageRecord("customer", "other", TIMESTAMP, 1)));
+    }
+
+    @Test
+    public void testEntriesExpireAfterTheRetentionPeriod() {
+        ManualClock clock = new ManualClock(TIMESTAMP);
+        DeduplicationIndex index = new DeduplicationIndex(
+                new ConnectionConfig.DeduplicationConfig(10, Duration.ofMinutes(5)), clock);
+        UsageRecord usageRecord = usageRecord("customer", "dimension", TIMESTAMP, 1);
+        index.add("product", usageRecord);
+
+        clock.advance(Duration.ofMinutes(4));
+        Assert.assertTrue(index.contains("product", usageRecord));
+        clock.advance(Duration.ofMinutes(1));
+        Assert.assertFalse(index.contains("product", usageRecord));
+        Assert.assertEquals(index.size(), 0);
+    }
+
+    @Test
+    public void testOldestEntriesAreEvictedWhenFull() {
+        DeduplicationIndex index = new DeduplicationIndex(
+                new ConnectionConfig.DeduplicationConfig(2, Duration.ofHours(1)), new ManualClock(TIMESTAMP));
+        for (int i = 0; i < 3; i++) {
+            index.add("product", usageRecord("customer-" + i, "dimension", TIMESTAMP, 1));
+        }
+
+        Assert.assertEquals(index.size(), 2);
+        Assert.assertFalse(index.contains("product", usageRecord("customer-0", "dimension", TIMESTAMP, 1)));
+        Assert.assertTrue(index.contains("product", usageRecord("customer-2", "dimension", TIMESTAMP, 1)));
+    }
+
+    @Test
+    public void testIndexedRecordsAreNotDispatchedAgain() throws Exception {
+        FakeMeteringClient delegate = new FakeMeteringClient();
+        DeduplicatingMeteringClient client = new DeduplicatingMeteringClient(delegate, new DeduplicationIndex(
+                new ConnectionConfig.DeduplicationConfig(10, Duration.ofHours(1)), new ManualClock(TIMESTAMP)));
+        UsageRecord accepted = usageRecord("customer-1", "dimension", TIMESTAMP, 1);
+        UsageRecord unprocessed = usageRecord("customer-2", "dimension", TIMESTAMP, 1);
+        delegate.batchHandler = request -> CompletableFuture.completedFuture(
+                FakeMeteringClient.accept(List.of(accepted), List.of(unprocessed)));
+        client.batchMeterUsage(createRequest(accepted, unprocessed)).get(5, TimeUnit.SECONDS);
+
+        delegate.batchHandler = request -> CompletableFuture.completedFuture(FakeMeteringClient.acceptAll(request));
+        BatchMeterUsageResponse response = client.batchMeterUsage(createRequest(accepted, unprocessed))
+                .get(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals(delegate.batchRequests.size(), 2);
+        Assert.assertEquals(delegate.batchRequests.get(1).usageRecords(), List.of(unprocessed));
+        Assert.assertEquals(response.results().size(), 2);
+        Assert.assertEquals(response.results().get(1).usageRecord(), accepted);
+        Assert.assertEquals(response.results().get(1).status(), UsageRecordResultStatus.DUPLICATE_RECORD);
+        Assert.assertEquals(client.getSuppressedRecords(), 1);
+    }
+
+    private static BatchMeterUsageRequest createRequest(UsageRecord... usageRecords) {
+        return BatchMeterUsageRequest.builder().productCode("product").usageRecords(usageRecords).build();
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.MeterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.MeterUsageResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.RegisterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.RegisterUsageResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.ResolveCustomerRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.ResolveCustomerResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecord;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecordResult;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecordResultStatus;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+/**
+ * {@link MeteringClient} whose responses are programmed by the tests, and which records the requests it receives.
+ * Unless programmed otherwise, every usage record is accepted and every other operation fails.
+ */
+final class FakeMeteringClient implements MeteringClient {
+    final List<BatchMeterUsageRequest> batchRequests = new CopyOnWriteArrayList<>();
+    final List<MeterUsageRequest> meterUsageRequests = new CopyOnWriteArrayList<>();
+    final List<ResolveCustomerRequest> resolveCustomerRequests = new CopyOnWriteArrayList<>();
+    final List<RegisterUsageRequest> registerUsageRequests = new CopyOnWriteArrayList<>();
+    volatile Function<BatchMeterUsageRequest, CompletableFuture<BatchMeterUsageResponse>> batchHandler =
+            request -> CompletableFuture.completedFuture(acceptAll(request));
+    volatile Function<MeterUsageRequest, CompletableFuture<MeterUsageResponse>> meterUsageHandler =
+            request -> unsupported();
+    volatile Function<ResolveCustomerRequest, CompletableFuture<ResolveCustomerResponse>> resolveCustomerHandler =
+            request -> unsupported();
+    volatile Function<RegisterUsageRequest, CompletableFuture<RegisterUsageResponse>> registerUsageHandler =
+            request -> unsupported();
+    volatile boolean closed;
+
+    @Override
+    public CompletableFuture<BatchMeterUsageResponse> batchMeterUsage(BatchMeterUsageRequest request) {
+        batchRequests.add(request);
+        return batchHandler.apply(request);
+    }
+
+    @Override
+    public CompletableFuture<MeterUsageResponse> meterUsage(MeterUsageRequest request) {
+        meterUsageRequests.add(request);
+        return meterUsageHandler.apply(request);
+    }
+
+    @Override
+    public CompletableFuture<ResolveCustomerResponse> resolveCustomer(ResolveCustomerRequest request) {
+        resolveCustomerRequests.add(request);
+        return resolveCustomerHandler.apply(request);
+    }
+
+    @Override
+    public CompletableFuture<RegisterUsageResponse> registerUsage(RegisterUsageRequest request) {
+        registerUsageRequests.add(request);
+        return registerUsageHandler.apply(request);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+
+    int submittedRecords() {
+        return batchRequests.stream().mapToInt(request -> request.usageRecords().size()).sum();
+    }
+
+    static BatchMeterUsageResponse acceptAll(BatchMeterUsageRequest request) {
+        return accept(request.usageRecords(), List.of());
+    }
+
+    static BatchMeterUsageResponse accept(List<UsageRecord> accepted, List<UsageRecord> unprocessed) {
+        List<UsageRecordResult> results = new ArrayList<>(accepted.size());
+        for (UsageRecord usageRecord : accepted) {
+            results.add(UsageRecordResult.builder().usageRecord(usageRecord)
+                    .meteringRecordId("record-" + usageRecord.customerIdentifier())
+                    .status(UsageRecordResultStatus.SUCCESS).build());
+        }
+        return BatchMeterUsageResponse.builder().results(results).unprocessedRecords(unprocessed).build();
+    }
+
+    static UsageRecord usageRecord(String customerIdentifier, String dimension, Instant timestamp, int quantity) {
+        return UsageRecord.builder().customerIdentifier(customerIdentifier).dimension(dimension)
+                .timestamp(timestamp).quantity(quantity).build();
+    }
+
+    private static <T> CompletableFuture<T> unsupported() {
+        return CompletableFuture.failedFuture(new UnsupportedOperationException("not programmed by the test"));
+    }
+}
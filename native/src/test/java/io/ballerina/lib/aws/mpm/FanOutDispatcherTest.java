@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecordResultStatus;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static io.ballerina.lib.aws.mpm.FakeMeteringClient.usageRecord;
+
+/**
+ * Tests the partitioning, the region clients and the concurrency limits of {@link FanOutDispatcher}.
+ */
+public class FanOutDispatcherTest {
+    private static final Instant TIMESTAMP = Instant.parse("2024-05-01T10:15:30Z");
+
+    private ScheduledExecutorService scheduler;
+    private FakeMeteringClient homeClient;
+    private FakeMeteringClient regionClient;
+    private List<ConnectionConfig> regionConfigs;
+    private Path directory;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        homeClient = new FakeMeteringClient();
+        regionClient = new FakeMeteringClient();
+        regionConfigs = new ArrayList<>();
+        directory = Files.createTempDirectory("mpm-fan-out");
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        scheduler.shutdownNow();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    public void testRecordsAreMeteredInTheRegionOfTheirProduct() throws Exception {
+        FanOutDispatcher dispatcher = createDispatcher(createConfig(null, null, null));
+        List<FanOutDispatcher.DispatchedRecord> dispatchedRecords = dispatcher.dispatch(List.of(
+                productUsageRecord("eu-product", "customer-1"), productUsageRecord("home-product", "customer-2"),
+                productUsageRecord("eu-product", "customer-3"))).get(5, TimeUnit.SECONDS);
+        dispatcher.dispatch(List.of(productUsageRecord("eu-product", "customer-4"))).get(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals(dispatchedRecords.get(0).region(), Region.EU_WEST_1);
+        Assert.assertEquals(dispatchedRecords.get(0).result().meteringRecordId(), "record-customer-1");
+        Assert.assertEquals(dispatchedRecords.get(1).region(), Region.US_EAST_1);
+        Assert.assertEquals(dispatchedRecords.get(1).result().meteringRecordId(), "record-customer-2");
+        Assert.assertEquals(dispatchedRecords.get(2).result().meteringRecordId(), "record-customer-3");
+        Assert.assertEquals(homeClient.submittedRecords(), 1);
+        Assert.assertEquals(regionClient.submittedRecords(), 3);
+        Assert.assertEquals(regionConfigs.size(), 1);
+        Assert.assertEquals(regionConfigs.get(0).region(), Region.EU_WEST_1);
+
+        dispatcher.close();
+        Assert.assertTrue(regionClient.closed);
+    }
+
+    @Test
+    public void testRegionClientsAreDecoratedAsTheHomeClient() throws Exception {
+        FanOutDispatcher dispatcher = createDispatcher(createConfig(null,
+                new ConnectionConfig.SpoolConfig(directory, ConnectionConfig.SpoolConfig.MIN_SEGMENT_SIZE,
+                        Duration.ofMillis(1)),
+                new ConnectionConfig.DeduplicationConfig(10, Duration.ofHours(1))));
+        dispatcher.dispatch(List.of(productUsageRecord("eu-product", "customer"))).get(5, TimeUnit.SECONDS);
+        List<FanOutDispatcher.DispatchedRecord> dispatchedRecords = dispatcher.dispatch(
+                List.of(productUsageRecord("eu-product", "customer"))).get(5, TimeUnit.SECONDS);
+        dispatcher.close();
+
+        Assert.assertEquals(dispatchedRecords.get(0).result().status(), UsageRecordResultStatus.DUPLICATE_RECORD);
+        Assert.assertEquals(regionClient.batchRequests.size(), 1);
+        Assert.assertEquals(regionConfigs.get(0).spoolConfig().directory(), directory.resolve("eu-west-1"));
+        Assert.assertTrue(Files.isDirectory(directory.resolve("eu-west-1")));
+    }
+
+    @Test
+    public void testFailedRegionClientIsCreatedAgain() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        FanOutDispatcher dispatcher = new FanOutDispatcher(createConfig(null, null, null), homeClient, scheduler,
+                regionConfig -> {
+                    if (attempts.getAndIncrement() == 0) {
+                        throw new IllegalStateException("no credentials");
+                    }
+                    return regionClient;
+                });
+        FanOutDispatcher.DispatchedRecord failed = dispatcher.dispatch(
+                List.of(productUsageRecord("eu-product", "customer"))).get(5, TimeUnit.SECONDS).get(0);
+        FanOutDispatcher.DispatchedRecord metered = dispatcher.dispatch(
+                List.of(productUsageRecord("eu-product", "customer"))).get(5, TimeUnit.SECONDS).get(0);
+        dispatcher.close();
+
+        Assert.assertTrue(failed.failure() instanceof IllegalStateException);
+        Assert.assertNull(failed.result());
+        Assert.assertEquals(metered.result().meteringRecordId(), "record-customer");
+        Assert.assertEquals(attempts.get(), 2);
+    }
+
+    @Test
+    public void testThrottlingReducesTheConcurrencyOfThePartition() throws Exception {
+        Assert.assertEquals(getInFlightAfterThrottling(null), 1);
+    }
+
+    @Test
+    public void testThrottlingIsLeftToTheResilientClient() throws Exception {
+        Assert.assertEquals(getInFlightAfterThrottling(new ConnectionConfig.RetryConfig(
+                0, Duration.ofMillis(1), Duration.ofMillis(1), 2, 1, 2)), 2);
+    }
+
+    private int getInFlightAfterThrottling(ConnectionConfig.RetryConfig retryConfig) throws Exception {
+        FanOutDispatcher dispatcher = createDispatcher(createConfig(retryConfig, null, null));
+        homeClient.batchHandler = request -> CompletableFuture.failedFuture(
+                AwsServiceException.builder().statusCode(429).message("throttled").build());
+        dispatcher.dispatch(List.of(productUsageRecord("home-product", "customer"))).get(5, TimeUnit.SECONDS);
+
+        CompletableFuture<BatchMeterUsageResponse> pending = new CompletableFuture<>();
+        homeClient.batchHandler = request -> pending;
+        List<FanOutDispatcher.ProductUsageRecord> usageRecords = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            usageRecords.add(productUsageRecord("home-product", "customer-" + i));
+        }
+        CompletableFuture<List<FanOutDispatcher.DispatchedRecord>> dispatch = dispatcher.dispatch(usageRecords);
+        int inFlight = homeClient.batchRequests.size() - 1;
+        pending.complete(BatchMeterUsageResponse.builder().build());
+        dispatch.get(5, TimeUnit.SECONDS);
+        dispatcher.close();
+        return inFlight;
+    }
+
+    private FanOutDispatcher createDispatcher(ConnectionConfig connectionConfig) {
+        return new FanOutDispatcher(connectionConfig, homeClient, scheduler, regionConfig -> {
+            regionConfigs.add(regionConfig);
+            return regionClient;
+        });
+    }
+
+    private static ConnectionConfig createConfig(ConnectionConfig.RetryConfig retryConfig,
+                                                 ConnectionConfig.SpoolConfig spoolConfig,
+                                                 ConnectionConfig.DeduplicationConfig deduplicationConfig) {
+        return new ConnectionConfig(Region.US_EAST_1, "access-key-id", "secret-key", null, null,
+                ConnectionConfig.ClientMode.NON_BLOCKING, null, null, ConnectionConfig.ResultMode.FULL, null,
+                retryConfig, spoolConfig, deduplicationConfig, null, null,
+                new ConnectionConfig.FanOutConfig(Map.of("eu-product", Region.EU_WEST_1), 2), null, null, false, null);
+    }
+
+    private static FanOutDispatcher.ProductUsageRecord productUsageRecord(String productCode,
+                                                                          String customerIdentifier) {
+        return new FanOutDispatcher.ProductUsageRecord(
+                productCode, usageRecord(customerIdentifier, "dimension", TIMESTAMP, 1));
+    }
+}
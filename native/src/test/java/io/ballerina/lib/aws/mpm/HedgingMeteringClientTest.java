@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import software.amazon.awssdk.services.marketplacemetering.model.ResolveCustomerRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.ResolveCustomerResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Tests the hedged calls, the hedging delay and the hedge budget of {@link HedgingMeteringClient}.
+ */
+public class HedgingMeteringClientTest {
+    private static final ResolveCustomerResponse RESPONSE = ResolveCustomerResponse.builder()
+            .customerIdentifier("customer").build();
+
+    private ScheduledExecutorService scheduler;
+    private FakeMeteringClient delegate;
+    private AtomicLong nanoClock;
+    private List<CompletableFuture<ResolveCustomerResponse>> pendingAttempts;
+
+    @BeforeMethod
+    public void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        delegate = new FakeMeteringClient();
+        nanoClock = new AtomicLong();
+        pendingAttempts = new ArrayList<>();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testHedgeAnswersWhenTheFirstCallIsSlow() throws Exception {
+        HedgingMeteringClient client = createClient(1.0);
+        delegate.resolveCustomerHandler = request -> delegate.resolveCustomerRequests.size() == 1
+                ? pendingAttempt() : CompletableFuture.completedFuture(RESPONSE);
+
+        Assert.assertSame(resolve(client).get(5, TimeUnit.SECONDS), RESPONSE);
+        Assert.assertEquals(delegate.resolveCustomerRequests.size(), 2);
+        await(() -> pendingAttempts.get(0).isCancelled());
+        Assert.assertEquals(client.getHedgedCalls(), 1);
+        Assert.assertEquals(client.getHedgeWins(), 1);
+    }
+
+    @Test
+    public void testCancelledFirstCallsAreRecordedInTheDelay() throws Exception {
+        HedgingMeteringClient client = createClient(1.0);
+        delegate.resolveCustomerHandler = request -> {
+            if (delegate.resolveCustomerRequests.size() % 2 == 1) {
+                return pendingAttempt();
+            }
+            nanoClock.addAndGet(TimeUnit.MILLISECONDS.toNanos(2));
+            return CompletableFuture.completedFuture(RESPONSE);
+        };
+        Assert.assertEquals(client.getDelayInMicros(), 10_000);
+        for (int i = 0; i < 20; i++) {
+            resolve(client).get(5, TimeUnit.SECONDS);
+        }
+
+        // every first call lost to its hedge, and was pending for two milliseconds when it was cancelled, which
+        // happens after its hedge answered the caller
+        await(() -> client.getDelayInMicros() < 10_000);
+        long delayInMicros = client.getDelayInMicros();
+        Assert.assertTrue(delayInMicros >= 1_900 && delayInMicros <= 2_100, "delay " + delayInMicros);
+    }
+
+    @Test
+    public void testHedgesAreLimitedOverTheSlidingWindow() throws Exception {
+        HedgingMeteringClient client = createClient(0.5);
+        delegate.resolveCustomerHandler = request -> CompletableFuture.completedFuture(RESPONSE);
+        for (int i = 0; i < 10; i++) {
+            resolve(client).get(5, TimeUnit.SECONDS);
+        }
+        nanoClock.addAndGet(TimeUnit.SECONDS.toNanos(20));
+        delegate.resolveCustomerHandler = request -> pendingAttempt();
+
+        // the calls answered before the window do not raise the budget
+        resolve(client);
+        await(() -> client.getHedgedCalls() == 1);
+        resolve(client);
+        await(() -> client.getSkippedHedges() == 1);
+        Assert.assertEquals(client.getHedgedCalls(), 1);
+
+        nanoClock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        resolve(client);
+        await(() -> client.getHedgedCalls() == 2);
+        Assert.assertEquals(client.getCalls(), 13);
+    }
+
+    @Test
+    public void testFailureAnswersOnceNoAttemptIsPending() {
+        HedgingMeteringClient client = createClient(0.0);
+        IllegalStateException failure = new IllegalStateException("down");
+        delegate.resolveCustomerHandler = request -> CompletableFuture.failedFuture(failure);
+
+        CompletableFuture<ResolveCustomerResponse> result = resolve(client);
+        Assert.assertTrue(result.isCompletedExceptionally());
+        Assert.assertSame(Assert.expectThrows(Exception.class, result::join).getCause(), failure);
+        Assert.assertEquals(client.getHedgedCalls(), 0);
+    }
+
+    private HedgingMeteringClient createClient(double maxHedgeRatio) {
+        return new HedgingMeteringClient(delegate, scheduler, new ConnectionConfig.HedgingConfig(
+                95, Duration.ofMillis(1), Duration.ofMillis(10), maxHedgeRatio), nanoClock::get);
+    }
+
+    private CompletableFuture<ResolveCustomerResponse> pendingAttempt() {
+        CompletableFuture<ResolveCustomerResponse> attempt = new CompletableFuture<>();
+        synchronized (pendingAttempts) {
+            pendingAttempts.add(attempt);
+        }
+        return attempt;
+    }
+
+    private static CompletableFuture<ResolveCustomerResponse> resolve(HedgingMeteringClient client) {
+        return client.resolveCustomer(ResolveCustomerRequest.builder().registrationToken("token").build());
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        Assert.assertTrue(condition.getAsBoolean());
+    }
+}
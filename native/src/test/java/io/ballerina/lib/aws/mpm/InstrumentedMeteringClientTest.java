@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.ResolveCustomerRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.ResolveCustomerResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecord;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecordResult;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecordResultStatus;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static io.ballerina.lib.aws.mpm.FakeMeteringClient.usageRecord;
+
+/**
+ * Tests the operation, outcome and error metrics recorded by {@link InstrumentedMeteringClient}.
+ */
+public class InstrumentedMeteringClientTest {
+    private static final Instant TIMESTAMP = Instant.parse("2024-05-01T10:15:30Z");
+    private static final ResolveCustomerRequest RESOLVE_CUSTOMER_REQUEST =
+            ResolveCustomerRequest.builder().registrationToken("token").build();
+
+    @Test
+    public void testRecordOutcomesAreCounted() throws Exception {
+        UsageRecord accepted = usageRecord("customer-1", "dimension", TIMESTAMP, 1);
+        UsageRecord duplicate = usageRecord("customer-2", "dimension", TIMESTAMP, 1);
+        UsageRecord unsubscribed = usageRecord("customer-3", "dimension", TIMESTAMP, 1);
+        UsageRecord unprocessed = usageRecord("customer-4", "dimension", TIMESTAMP, 1);
+        FakeMeteringClient delegate = new FakeMeteringClient();
+        delegate.batchHandler = request -> CompletableFuture.completedFuture(BatchMeterUsageResponse.builder()
+                .results(createResult(accepted, UsageRecordResultStatus.SUCCESS),
+                        createResult(duplicate, UsageRecordResultStatus.DUPLICATE_RECORD),
+                        createResult(unsubscribed, UsageRecordResultStatus.CUSTOMER_NOT_SUBSCRIBED))
+                .unprocessedRecords(unprocessed).build());
+        InstrumentedMeteringClient client = new InstrumentedMeteringClient(delegate);
+        client.batchMeterUsage(BatchMeterUsageRequest.builder().productCode("product")
+                .usageRecords(accepted, duplicate, unsubscribed, unprocessed).build()).get(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals(client.getSuccessfulRecords(), 1);
+        Assert.assertEquals(client.getDuplicateRecords(), 1);
+        Assert.assertEquals(client.getCustomerNotSubscribedRecords(), 1);
+        Assert.assertEquals(client.getUnprocessedRecords(), 1);
+        Assert.assertEquals(client.getBatchMeterUsageMetrics().getLatencies().getCount(), 1);
+        Assert.assertEquals(client.getBatchMeterUsageMetrics().getFailedRequests(), 0);
+    }
+
+    @Test
+    public void testInFlightRequestsAreTracked() throws Exception {
+        CompletableFuture<ResolveCustomerResponse> pending = new CompletableFuture<>();
+        FakeMeteringClient delegate = new FakeMeteringClient();
+        delegate.resolveCustomerHandler = request -> pending;
+        InstrumentedMeteringClient client = new InstrumentedMeteringClient(delegate);
+        CompletableFuture<ResolveCustomerResponse> response = client.resolveCustomer(RESOLVE_CUSTOMER_REQUEST);
+        Assert.assertEquals(client.getResolveCustomerMetrics().getInFlightRequests(), 1);
+
+        pending.complete(ResolveCustomerResponse.builder().customerIdentifier("customer").build());
+        response.get(5, TimeUnit.SECONDS);
+        Assert.assertEquals(client.getResolveCustomerMetrics().getInFlightRequests(), 0);
+        Assert.assertEquals(client.getResolveCustomerMetrics().getLatencies().getCount(), 1);
+    }
+
+    @Test
+    public void testErrorsAreCountedPerCode() {
+        FakeMeteringClient delegate = new FakeMeteringClient();
+        delegate.resolveCustomerHandler = request -> CompletableFuture.failedFuture(
+                AwsServiceException.builder().statusCode(429).message("slow down").build());
+        InstrumentedMeteringClient client = new InstrumentedMeteringClient(delegate);
+        Map<String, LongAdder> notifiedErrors = new HashMap<>();
+        client.setErrorCodeListener(notifiedErrors::put);
+        for (int i = 0; i < 2; i++) {
+            Assert.expectThrows(ExecutionException.class,
+                    () -> client.resolveCustomer(RESOLVE_CUSTOMER_REQUEST).get(5, TimeUnit.SECONDS));
+        }
+        delegate.resolveCustomerHandler = request -> CompletableFuture.failedFuture(
+                new IllegalStateException("down"));
+        Assert.expectThrows(ExecutionException.class,
+                () -> client.resolveCustomer(RESOLVE_CUSTOMER_REQUEST).get(5, TimeUnit.SECONDS));
+
+        Assert.assertEquals(client.getThrottledRequests(), 2);
+        Assert.assertEquals(client.getResolveCustomerMetrics().getFailedRequests(), 3);
+        Assert.assertEquals(client.getErrors().get("AwsServiceException").sum(), 2);
+        Assert.assertEquals(client.getErrors().get("IllegalStateException").sum(), 1);
+        Assert.assertEquals(notifiedErrors.keySet(), client.getErrors().keySet());
+    }
+
+    private static UsageRecordResult createResult(UsageRecord usageRecord, UsageRecordResultStatus status) {
+        return UsageRecordResult.builder().usageRecord(usageRecord).status(status).build();
+    }
+}
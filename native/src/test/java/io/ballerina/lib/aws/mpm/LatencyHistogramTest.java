@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests the percentiles and the bounded error of {@link LatencyHistogram}.
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void testEmptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Assert.assertEquals(histogram.getCount(), 0);
+        Assert.assertEquals(histogram.getMeanMicros(), 0);
+        Assert.assertEquals(histogram.getValueAtPercentile(99), 0);
+    }
+
+    @Test
+    public void testSmallLatenciesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int micros = 1; micros <= 15; micros++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(micros));
+        }
+        Assert.assertEquals(histogram.getValueAtPercentile(0), 1);
+        Assert.assertEquals(histogram.getValueAtPercentile(50), 8);
+        Assert.assertEquals(histogram.getValueAtPercentile(100), 15);
+        Assert.assertEquals(histogram.getMeanMicros(), 8);
+    }
+
+    @Test
+    public void testPercentilesAreWithinTheRelativeError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 100_000; micros++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(micros));
+        }
+        Assert.assertEquals(histogram.getCount(), 100_000);
+        Assert.assertEquals(histogram.getMaxMicros(), 100_000);
+        for (double percentile : new double[]{50, 90, 99, 99.9}) {
+            double expected = percentile * 1000;
+            long reported = histogram.getValueAtPercentile(percentile);
+            Assert.assertTrue(reported >= expected && reported <= expected * 1.125,
+                    String.format("p%s reported as %d", percentile, reported));
+        }
+        Assert.assertEquals(histogram.getValueAtPercentile(100), 100_000);
+    }
+
+    @Test
+    public void testLatenciesAreBounded() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-1);
+        histogram.record(TimeUnit.DAYS.toNanos(2));
+        Assert.assertEquals(histogram.getCount(), 2);
+        Assert.assertEquals(histogram.getValueAtPercentile(0), 0);
+        Assert.assertEquals(histogram.getMaxMicros(), TimeUnit.DAYS.toMicros(1));
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import software.amazon.awssdk.protocols.jsoncore.JsonNode;
+import software.amazon.awssdk.protocols.jsoncore.JsonWriter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@code MeteringStandIn} is a local stand-in for the AWS Marketplace Metering service, which speaks the AWS JSON 1.1
+ * protocol of the {@code BatchMeterUsage}, {@code MeterUsage} and {@code ResolveCustomer} operations. Responses are
+ * delayed by a configurable latency without holding a server thread, and a configurable share of the calls is
+ * throttled, fails with a server error, or leaves usage records unprocessed.
+ * <p>
+ * The stand-in is started in-process by the load generator, and can also be run on its own so that a Ballerina
+ * {@code mpm:Client} can be pointed at it through the {@code http.endpoint} configuration:
+ * <pre>
+ * java -cp ... io.ballerina.lib.aws.mpm.MeteringStandIn [port]
+ * </pre>
+ * The behaviour is configured through the {@code standIn.*} system properties, see {@link Config#fromSystemProperties}.
+ */
+public final class MeteringStandIn implements AutoCloseable {
+    private static final PrintStream OUT = System.out;
+    private static final String TARGET_HEADER = "X-Amz-Target";
+    private static final String TARGET_PREFIX = "AWSMPMeteringService.";
+    private static final String CONTENT_TYPE = "application/x-amz-json-1.1";
+
+    private final Config config;
+    private final HttpServer server;
+    private final ExecutorService serverExecutor;
+    private final ScheduledExecutorService responseScheduler;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder throttledRequests = new LongAdder();
+    private final LongAdder failedRequests = new LongAdder();
+    private final LongAdder unprocessedRecords = new LongAdder();
+
+    private MeteringStandIn(Config config, HttpServer server) {
+        this.config = config;
+        this.server = server;
+        this.serverExecutor = Executors.newFixedThreadPool(config.serverThreads());
+        this.responseScheduler = Executors.newScheduledThreadPool(config.serverThreads());
+        server.setExecutor(serverExecutor);
+        server.createContext("/", this::handle);
+    }
+
+    /**
+     * Starts a stand-in on the loopback interface.
+     *
+     * @param config The behaviour of the stand-in.
+     * @param port   The port to listen on, or {@code 0} for an ephemeral port.
+     * @return The started stand-in.
+     * @throws IOException If the server socket could not be bound.
+     */
+    public static MeteringStandIn start(Config config, int port) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        MeteringStandIn standIn = new MeteringStandIn(config, server);
+        server.start();
+        return standIn;
+    }
+
+    public URI getEndpoint() {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.increment();
+        String target = Optional.ofNullable(exchange.getRequestHeaders().getFirst(TARGET_HEADER)).orElse("");
+        JsonNode request;
+        try (InputStream requestBody = exchange.getRequestBody()) {
+            request = JsonNode.parser().parse(requestBody);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Response response;
+        if (random.nextDouble() < config.throttlingRate()) {
+            throttledRequests.increment();
+            response = error(400, "ThrottlingException", "Rate exceeded");
+        } else if (random.nextDouble() < config.serverErrorRate()) {
+            failedRequests.increment();
+            response = error(500, "InternalServiceErrorException", "An internal error has occurred");
+        } else {
+            response = switch (target.startsWith(TARGET_PREFIX) ? target.substring(TARGET_PREFIX.length()) : target) {
+                case "BatchMeterUsage" -> batchMeterUsage(request);
+                case "MeterUsage" -> meterUsage();
+                case "ResolveCustomer" -> resolveCustomer(request);
+                default -> error(400, "UnknownOperationException", "Unsupported operation " + target);
+            };
+        }
+        long delayInMicros = config.latency().toNanos() / 1000;
+        if (config.latencyJitter().toNanos() > 0) {
+            delayInMicros += random.nextLong(config.latencyJitter().toNanos() / 1000 + 1);
+        }
+        responseScheduler.schedule(() -> respond(exchange, response), delayInMicros, TimeUnit.MICROSECONDS);
+    }
+
+    private Response batchMeterUsage(JsonNode request) {
+        List<JsonNode> usageRecords = request.field("UsageRecords").map(JsonNode::asArray).orElse(List.of());
+        List<JsonNode> results = new ArrayList<>(usageRecords.size());
+        List<JsonNode> unprocessed = new ArrayList<>();
+        for (JsonNode usageRecord : usageRecords) {
+            if (ThreadLocalRandom.current().nextDouble() < config.unprocessedRate()) {
+                unprocessed.add(usageRecord);
+            } else {
+                results.add(usageRecord);
+            }
+        }
+        unprocessedRecords.add(unprocessed.size());
+        JsonWriter writer = JsonWriter.create();
+        writer.writeStartObject().writeFieldName("Results").writeStartArray();
+        for (JsonNode usageRecord : results) {
+            writer.writeStartObject()
+                    .writeFieldName("MeteringRecordId").writeValue(UUID.randomUUID().toString())
+                    .writeFieldName("Status").writeValue("Success")
+                    .writeFieldName("UsageRecord");
+            writeUsageRecord(writer, usageRecord);
+            writer.writeEndObject();
+        }
+        writer.writeEndArray().writeFieldName("UnprocessedRecords").writeStartArray();
+        for (JsonNode usageRecord : unprocessed) {
+            writeUsageRecord(writer, usageRecord);
+        }
+        writer.writeEndArray().writeEndObject();
+        return new Response(200, null, writer.getBytes());
+    }
+
+    // the fields which identify a usage record are echoed, which is sufficient for the client to match its results
+    private static void writeUsageRecord(JsonWriter writer, JsonNode usageRecord) {
+        Map<String, JsonNode> fields = usageRecord.asObject();
+        writer.writeStartObject();
+        writer.writeFieldName("CustomerIdentifier").writeValue(fields.get("CustomerIdentifier").asString());
+        writer.writeFieldName("Dimension").writeValue(fields.get("Dimension").asString());
+        writer.writeFieldName("Timestamp").writeNumber(fields.get("Timestamp").asNumber());
+        if (fields.containsKey("Quantity")) {
+            writer.writeFieldName("Quantity").writeNumber(fields.get("Quantity").asNumber());
+        }
+        writer.writeEndObject();
+    }
+
+    private static Response meterUsage() {
+        JsonWriter writer = JsonWriter.create();
+        writer.writeStartObject().writeFieldName("MeteringRecordId").writeValue(UUID.randomUUID().toString())
+                .writeEndObject();
+        return new Response(200, null, writer.getBytes());
+    }
+
+    private static Response resolveCustomer(JsonNode request) {
+        String registrationToken = request.field("RegistrationToken").map(JsonNode::asString).orElse("");
+        JsonWriter writer = JsonWriter.create();
+        writer.writeStartObject()
+                .writeFieldName("CustomerIdentifier").writeValue("customer-" + registrationToken.hashCode())
+                .writeFieldName("CustomerAWSAccountId").writeValue("123456789012")
+                .writeFieldName("ProductCode").writeValue("stand-in-product")
+                .writeEndObject();
+        return new Response(200, null, writer.getBytes());
+    }
+
+    private static Response error(int statusCode, String errorType, String message) {
+        JsonWriter writer = JsonWriter.create();
+        writer.writeStartObject().writeFieldName("__type").writeValue(errorType)
+                .writeFieldName("message").writeValue(message).writeEndObject();
+        return new Response(statusCode, errorType, writer.getBytes());
+    }
+
+    private static void respond(HttpExchange exchange, Response response) {
+        try {
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.getResponseHeaders().set("x-amzn-RequestId", UUID.randomUUID().toString());
+            if (response.errorType() != null) {
+                exchange.getResponseHeaders().set("x-amzn-ErrorType", response.errorType());
+            }
+            exchange.sendResponseHeaders(response.statusCode(), response.body().length);
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(response.body());
+            }
+        } catch (IOException e) {
+            exchange.close();
+        }
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getThrottledRequests() {
+        return throttledRequests.sum();
+    }
+
+    public long getFailedRequests() {
+        return failedRequests.sum();
+    }
+
+    public long getUnprocessedRecords() {
+        return unprocessedRecords.sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        responseScheduler.shutdownNow();
+        serverExecutor.shutdownNow();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+        MeteringStandIn standIn = start(Config.fromSystemProperties(), port);
+        OUT.printf("AWS Marketplace Metering stand-in listening on %s%n", standIn.getEndpoint());
+    }
+
+    /**
+     * The behaviour of the stand-in.
+     *
+     * @param latency         The minimum delay of every response.
+     * @param latencyJitter   The upper bound of a uniformly distributed delay added to the minimum delay.
+     * @param throttlingRate  The share of the calls which fail with a {@code ThrottlingException}.
+     * @param serverErrorRate The share of the calls which fail with an {@code InternalServiceErrorException}.
+     * @param unprocessedRate The share of the usage records which are returned as unprocessed.
+     * @param serverThreads   The number of threads which parse the requests and write the responses.
+     */
+    public record Config(Duration latency, Duration latencyJitter, double throttlingRate, double serverErrorRate,
+                         double unprocessedRate, int serverThreads) {
+
+        /**
+         * Reads the behaviour from the {@code standIn.latencyMillis}, {@code standIn.latencyJitterMillis},
+         * {@code standIn.throttlingRate}, {@code standIn.serverErrorRate}, {@code standIn.unprocessedRate} and
+         * {@code standIn.serverThreads} system properties.
+         *
+         * @return The configured behaviour, which defaults to a 20 ms latency without any failures.
+         */
+        public static Config fromSystemProperties() {
+            return new Config(
+                    Duration.ofMillis(Long.getLong("standIn.latencyMillis", 20)),
+                    Duration.ofMillis(Long.getLong("standIn.latencyJitterMillis", 10)),
+                    Double.parseDouble(System.getProperty("standIn.throttlingRate", "0")),
+                    Double.parseDouble(System.getProperty("standIn.serverErrorRate", "0")),
+                    Double.parseDouble(System.getProperty("standIn.unprocessedRate", "0")),
+                    Integer.getInteger("standIn.serverThreads", 16));
+        }
+    }
+
+    private record Response(int statusCode, String errorType, byte[] body) {
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests the saturation policies of the executors created by {@link NetworkExecutors}.
+ */
+public class NetworkExecutorsTest {
+
+    @Test
+    public void testRejectPolicyFailsTheSubmission() {
+        ThreadPoolExecutor executor = createSaturatedExecutor(ConnectionConfig.SaturationPolicy.REJECT);
+        try {
+            Assert.expectThrows(RejectedExecutionException.class, () -> executor.execute(() -> { }));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testBlockPolicyHoldsTheCallerUntilTheQueueHasSpace() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ThreadPoolExecutor executor = createSaturatedExecutor(ConnectionConfig.SaturationPolicy.BLOCK, release);
+        try {
+            CompletableFuture<Void> submission = CompletableFuture.runAsync(() -> executor.execute(() -> { }));
+            Assert.expectThrows(Exception.class, () -> submission.get(100, TimeUnit.MILLISECONDS));
+            release.countDown();
+            submission.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testClientThreadsAreNeverHeld() throws Exception {
+        ThreadPoolExecutor executor = createSaturatedExecutor(ConnectionConfig.SaturationPolicy.BLOCK);
+        CompletableFuture<Throwable> failure = new CompletableFuture<>();
+        Thread schedulerThread = new AwsMpmThreadFactory(AwsMpmThreadFactory.SCHEDULER_THREAD_PREFIX)
+                .newThread(() -> {
+                    try {
+                        executor.execute(() -> { });
+                        failure.complete(null);
+                    } catch (RejectedExecutionException e) {
+                        failure.complete(e);
+                    }
+                });
+        try {
+            schedulerThread.start();
+            Assert.assertTrue(failure.get(5, TimeUnit.SECONDS) instanceof RejectedExecutionException);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static ThreadPoolExecutor createSaturatedExecutor(ConnectionConfig.SaturationPolicy policy) {
+        return createSaturatedExecutor(policy, new CountDownLatch(1));
+    }
+
+    private static ThreadPoolExecutor createSaturatedExecutor(ConnectionConfig.SaturationPolicy policy,
+                                                              CountDownLatch release) {
+        ThreadPoolExecutor executor = NetworkExecutors.create(new ConnectionConfig.ExecutorConfig(1, 1, policy, false));
+        Runnable blocked = () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        executor.execute(blocked);
+        executor.execute(blocked);
+        return executor;
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.security.spec.MGF1ParameterSpec;
+import java.security.spec.PSSParameterSpec;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Tests the signature and the claim checks of {@link RegistrationSignatureVerifier}.
+ */
+public class RegistrationSignatureVerifierTest {
+    static final KeyPair KEY_PAIR = createKeyPair();
+    private static final String CLAIMS = "{\"productCode\":\"product\",\"publicKeyVersion\":1,\"iat\":1714558530}";
+
+    private final RegistrationSignatureVerifier verifier = new RegistrationSignatureVerifier(KEY_PAIR.getPublic());
+
+    @Test
+    public void testSignaturesOfTheSupportedAlgorithmsAreVerified() {
+        Assert.assertEquals(verifier.verify(createToken("RS256", CLAIMS), "product", 1, null),
+                Instant.ofEpochSecond(1714558530));
+        Assert.assertEquals(verifier.verify(createToken("PS256", CLAIMS), "product", 1, null),
+                Instant.ofEpochSecond(1714558530));
+        Assert.assertNull(verifier.verify(createToken("RS256", "{\"productCode\":\"product\",\"publicKeyVersion\":1}"),
+                "product", 1, null));
+    }
+
+    @Test
+    public void testTamperedTokenIsRejected() {
+        String[] parts = createToken("RS256", CLAIMS).split("\\.");
+        String forgedClaims = encode(CLAIMS.replace("\"product\"", "\"other\""));
+
+        MeteringException failure = Assert.expectThrows(MeteringException.class,
+                () -> verifier.verify(parts[0] + "." + forgedClaims + "." + parts[2], "other", 1, null));
+        Assert.assertEquals(failure.getMessage(), "the RegisterUsage signature does not match the public key");
+        Assert.expectThrows(MeteringException.class,
+                () -> new RegistrationSignatureVerifier(createKeyPair().getPublic())
+                        .verify(createToken("RS256", CLAIMS), "product", 1, null));
+    }
+
+    @Test
+    public void testClaimsAreCheckedAgainstTheRequest() {
+        String token = createToken("RS256", CLAIMS);
+        MeteringException failure = Assert.expectThrows(MeteringException.class,
+                () -> verifier.verify(token, "other", 1, null));
+        Assert.assertEquals(failure.getMessage(),
+                "the productCode claim of the RegisterUsage signature does not match the request");
+        Assert.expectThrows(MeteringException.class, () -> verifier.verify(token, "product", 2, null));
+
+        // a requested nonce has to be signed, whereas an unrequested one is not checked
+        Assert.expectThrows(MeteringException.class, () -> verifier.verify(token, "product", 1, "nonce"));
+        String nonceToken = createToken(
+                "RS256", "{\"productCode\":\"product\",\"publicKeyVersion\":1,\"nonce\":\"nonce\"}");
+        verifier.verify(nonceToken, "product", 1, "nonce");
+        verifier.verify(nonceToken, "product", 1, null);
+        Assert.expectThrows(MeteringException.class, () -> verifier.verify(nonceToken, "product", 1, "other"));
+    }
+
+    @Test
+    public void testTokenWithoutTheRequestClaimsIsRejected() {
+        MeteringException failure = Assert.expectThrows(MeteringException.class, () -> verifier.verify(
+                createToken("RS256", "{\"publicKeyVersion\":1}"), "product", 1, null));
+        Assert.assertEquals(failure.getMessage(),
+                "the productCode claim of the RegisterUsage signature does not match the request");
+        failure = Assert.expectThrows(MeteringException.class, () -> verifier.verify(
+                createToken("PS256", "{\"productCode\":\"product\",\"publicKeyVersion\":null}"), "product", 1, null));
+        Assert.assertEquals(failure.getMessage(),
+                "the publicKeyVersion claim of the RegisterUsage signature does not match the request");
+    }
+
+    @Test
+    public void testMalformedTokensAreRejected() {
+        Assert.expectThrows(MeteringException.class, () -> verifier.verify(null, "product", 1, null));
+        Assert.expectThrows(MeteringException.class, () -> verifier.verify("a.b", "product", 1, null));
+        Assert.expectThrows(MeteringException.class,
+                () -> verifier.verify("!.!.!", "product", 1, null));
+        String unsigned = encode("{\"alg\":\"none\"}") + "." + encode(CLAIMS) + ".";
+        MeteringException failure = Assert.expectThrows(MeteringException.class,
+                () -> verifier.verify(unsigned, "product", 1, null));
+        Assert.assertTrue(failure.getMessage().contains("unsupported signing algorithm 'none'"));
+    }
+
+    @Test
+    public void testPemPublicKeyIsParsed() {
+        String pem = "-----BEGIN PUBLIC KEY-----\n"
+                + Base64.getMimeEncoder().encodeToString(KEY_PAIR.getPublic().getEncoded())
+                + "\n-----END PUBLIC KEY-----\n";
+        Assert.assertEquals(RegistrationSignatureVerifier.parsePublicKey(pem), KEY_PAIR.getPublic());
+        Assert.expectThrows(IllegalArgumentException.class,
+                () -> RegistrationSignatureVerifier.parsePublicKey("not a key"));
+    }
+
+    static String createToken(String algorithm, String claims) {
+        String signingInput = encode("{\"alg\":\"" + algorithm + "\",\"typ\":\"JWT\"}") + "." + encode(claims);
+        try {
+            Signature signature;
+            if ("PS256".equals(algorithm)) {
+                signature = Signature.getInstance("RSASSA-PSS");
+                signature.setParameter(new PSSParameterSpec(
+                        "SHA-256", "MGF1", MGF1ParameterSpec.SHA256, 32, PSSParameterSpec.TRAILER_FIELD_BC));
+            } else {
+                signature = Signature.getInstance("SHA256withRSA");
+            }
+            signature.initSign(KEY_PAIR.getPrivate());
+            signature.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+            return signingInput + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(signature.sign());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String encode(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static KeyPair createKeyPair() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            return generator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
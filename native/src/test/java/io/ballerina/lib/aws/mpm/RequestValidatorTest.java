@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import software.amazon.awssdk.services.marketplacemetering.model.Tag;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Tests that {@link RequestValidator} enforces the same constraints as the ones declared on the Ballerina request
+ * records.
+ */
+public class RequestValidatorTest {
+    private static final Path TYPES = Path.of("..", "ballerina", "types.bal");
+    private static final Pattern STRING_CONSTRAINT = Pattern.compile(
+            "@constraint:String \\{\\s*pattern: re `([^`]*)`\\s*}\\s*string '?(\\w+);");
+    private static final Pattern ARRAY_CONSTRAINT = Pattern.compile(
+            "@constraint:Array \\{\\s*(?:minLength: (\\d+),\\s*)?maxLength: (\\d+)\\s*}\\s*\\w+\\[] (\\w+)");
+    private static final Pattern INT_CONSTRAINT = Pattern.compile(
+            "@constraint:Int \\{\\s*minValue: (\\d+),\\s*maxValue: (\\d+)\\s*}\\s*int (\\w+)");
+    private static final List<String> SAMPLES = List.of("", "a", "x".repeat(100), "x".repeat(101),
+            "x".repeat(255), "x".repeat(256), "x".repeat(257), "prod-UCT_code/=:.@1", "with space", "tab\there",
+            "line\nbreak", "plus+minus-equals=", "back\\slash", "hash#", "star*", "less<", "greater>", "caret^",
+            "brace{", "\u00fcnicode", "customer-1234");
+
+    private final Map<String, String> patterns = new HashMap<>();
+    private final Map<String, int[]> lengths = new HashMap<>();
+    private final Map<String, long[]> ranges = new HashMap<>();
+
+    @BeforeClass
+    public void parseConstraints() throws IOException {
+        String types = Files.readString(TYPES);
+        Matcher matcher = STRING_CONSTRAINT.matcher(types);
+        while (matcher.find()) {
+            String previous = patterns.put(matcher.group(2), matcher.group(1));
+            Assert.assertTrue(previous == null || previous.equals(matcher.group(1)), matcher.group(2));
+        }
+        matcher = ARRAY_CONSTRAINT.matcher(types);
+        while (matcher.find()) {
+            int minLength = matcher.group(1) == null ? 0 : Integer.parseInt(matcher.group(1));
+            lengths.put(matcher.group(3), new int[]{minLength, Integer.parseInt(matcher.group(2))});
+        }
+        matcher = INT_CONSTRAINT.matcher(types);
+        while (matcher.find()) {
+            ranges.put(matcher.group(3), new long[]{Long.parseLong(matcher.group(1)),
+                    Long.parseLong(matcher.group(2))});
+        }
+    }
+
+    @Test
+    public void testPatternsMatchTheBallerinaConstraints() {
+        RequestValidator validator = new RequestValidator();
+        assertParity("productCode", validator::isValidProductCode);
+        assertParity("customerIdentifier", validator::isValidIdentifier);
+        assertParity("dimension", validator::isValidIdentifier);
+        assertParity("usageDimension", validator::isValidIdentifier);
+        assertParity("key", validator::isValidTagKey);
+        assertParity("value", validator::isValidTagValue);
+    }
+
+    @Test
+    public void testArrayLengthsMatchTheBallerinaConstraints() {
+        Assert.assertEquals(lengths.get("usageRecords"), new int[]{0, RequestValidator.MAX_USAGE_RECORDS});
+        Assert.assertEquals(lengths.get("usageAllocations"), new int[]{1, RequestValidator.MAX_USAGE_ALLOCATIONS});
+        Assert.assertEquals(lengths.get("tags"), new int[]{1, RequestValidator.MAX_TAGS});
+
+        Assert.assertNull(RequestValidator.checkLength(RequestValidator.MAX_TAGS, 1, RequestValidator.MAX_TAGS));
+        Assert.assertEquals(RequestValidator.checkLength(0, 1, RequestValidator.MAX_TAGS), RequestValidator.MIN_LENGTH);
+        Assert.assertEquals(RequestValidator.checkLength(RequestValidator.MAX_TAGS + 1, 1, RequestValidator.MAX_TAGS),
+                RequestValidator.MAX_LENGTH);
+    }
+
+    @Test
+    public void testQuantityRangesMatchTheBallerinaConstraints() {
+        for (String field : List.of("quantity", "usageQuantity", "allocatedUsageQuantity")) {
+            long[] range = ranges.get(field);
+            Assert.assertNotNull(range, field);
+            Assert.assertNull(RequestValidator.checkQuantity(range[0]), field);
+            Assert.assertNull(RequestValidator.checkQuantity(range[1]), field);
+            Assert.assertEquals(RequestValidator.checkQuantity(range[0] - 1), RequestValidator.MIN_VALUE, field);
+            Assert.assertEquals(RequestValidator.checkQuantity(range[1] + 1), RequestValidator.MAX_VALUE, field);
+        }
+    }
+
+    @Test
+    public void testFailuresAreReportedInTheFormOfTheConstraintModule() {
+        RequestValidator validator = new RequestValidator();
+        Assert.assertFalse(validator.hasFailures());
+        validator.fail("$.productCode", RequestValidator.PATTERN);
+        validator.fail(RequestValidator.allocationPath(2, 0) + ".tags", RequestValidator.MAX_LENGTH);
+
+        Assert.assertTrue(validator.hasFailures());
+        Assert.assertEquals(validator.getMessage(), "Validation failed for '$.productCode:pattern'," +
+                "'$.usageRecords[2].usageAllocations[0].tags:maxLength' constraint(s).");
+    }
+
+    @Test
+    public void testValidTagsAreKeptForTheRequestOnly() {
+        RequestValidator validator = new RequestValidator();
+        Tag tag = Tag.builder().key("team").value("billing").build();
+        Assert.assertNull(validator.getValidTag("team", "billing"));
+        validator.putValidTag(tag);
+
+        Assert.assertSame(validator.getValidTag("team", "billing"), tag);
+        Assert.assertNull(validator.getValidTag("team", "other"));
+        Assert.assertNull(new RequestValidator().getValidTag("team", "billing"));
+    }
+
+    private void assertParity(String field, Predicate<String> validator) {
+        String pattern = patterns.get(field);
+        Assert.assertNotNull(pattern, field);
+        Pattern constraint = Pattern.compile(pattern);
+        for (String sample : SAMPLES) {
+            Assert.assertEquals(validator.test(sample), constraint.matcher(sample).matches(),
+                    String.format("%s of '%s'", field, sample));
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.ResolveCustomerRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.ResolveCustomerResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecord;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.ballerina.lib.aws.mpm.FakeMeteringClient.usageRecord;
+
+/**
+ * Tests the re-submission of unprocessed records and the retries of {@link ResilientMeteringClient}.
+ */
+public class ResilientMeteringClientTest {
+    private static final Instant TIMESTAMP = Instant.parse("2024-05-01T10:15:30Z");
+    private static final ResolveCustomerRequest RESOLVE_CUSTOMER_REQUEST =
+            ResolveCustomerRequest.builder().registrationToken("token").build();
+
+    private ScheduledExecutorService scheduler;
+    private FakeMeteringClient delegate;
+    private ResilientMeteringClient client;
+
+    @BeforeMethod
+    public void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        delegate = new FakeMeteringClient();
+        client = new ResilientMeteringClient(delegate, scheduler, new ConnectionConfig.RetryConfig(
+                2, Duration.ofMillis(1), Duration.ofMillis(5), 4, 1, 8));
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testUnprocessedRecordsAreResubmitted() throws Exception {
+        UsageRecord first = usageRecord("customer-1", "dimension", TIMESTAMP, 1);
+        UsageRecord second = usageRecord("customer-2", "dimension", TIMESTAMP, 2);
+        UsageRecord third = usageRecord("customer-3", "dimension", TIMESTAMP, 3);
+        AtomicInteger calls = new AtomicInteger();
+        delegate.batchHandler = request -> CompletableFuture.completedFuture(calls.getAndIncrement() == 0
+                ? FakeMeteringClient.accept(List.of(first), List.of(second, third))
+                : FakeMeteringClient.acceptAll(request));
+
+        BatchMeterUsageResponse response = client.batchMeterUsage(createRequest(first, second, third))
+                .get(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals(delegate.batchRequests.size(), 2);
+        Assert.assertEquals(delegate.batchRequests.get(1).usageRecords(), List.of(second, third));
+        Assert.assertEquals(delegate.batchRequests.get(1).productCode(), "product");
+        Assert.assertEquals(response.results().size(), 3);
+        Assert.assertTrue(response.unprocessedRecords().isEmpty());
+        Assert.assertEquals(client.getResubmittedRecords(), 2);
+        Assert.assertEquals(client.getRetries(), 1);
+    }
+
+    @Test
+    public void testUnprocessedRecordsAreReturnedOnceRetriesAreExhausted() throws Exception {
+        UsageRecord accepted = usageRecord("customer-1", "dimension", TIMESTAMP, 1);
+        UsageRecord unprocessed = usageRecord("customer-2", "dimension", TIMESTAMP, 1);
+        delegate.batchHandler = request -> CompletableFuture.completedFuture(request.usageRecords().contains(accepted)
+                ? FakeMeteringClient.accept(List.of(accepted), List.of(unprocessed))
+                : FakeMeteringClient.accept(List.of(), List.of(unprocessed)));
+
+        BatchMeterUsageResponse response = client.batchMeterUsage(createRequest(accepted, unprocessed))
+                .get(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals(delegate.batchRequests.size(), 3);
+        Assert.assertEquals(response.results().size(), 1);
+        Assert.assertEquals(response.unprocessedRecords(), List.of(unprocessed));
+        Assert.assertEquals(client.getExhaustedRequests(), 1);
+    }
+
+    @Test
+    public void testThrottledCallIsRetriedAndShrinksTheLimit() throws Exception {
+        ResolveCustomerResponse resolved = ResolveCustomerResponse.builder().customerIdentifier("customer").build();
+        AtomicInteger calls = new AtomicInteger();
+        delegate.resolveCustomerHandler = request -> calls.getAndIncrement() == 0
+                ? CompletableFuture.failedFuture(createServiceException(429))
+                : CompletableFuture.completedFuture(resolved);
+
+        Assert.assertEquals(client.resolveCustomer(RESOLVE_CUSTOMER_REQUEST).get(5, TimeUnit.SECONDS), resolved);
+        Assert.assertEquals(delegate.resolveCustomerRequests.size(), 2);
+        Assert.assertEquals(client.getThrottledResponses(), 1);
+        Assert.assertEquals(client.getLimiter().getLimit(), 2);
+        Assert.assertEquals(client.getLimiter().getInFlight(), 0);
+    }
+
+    @Test
+    public void testServerErrorIsRetriedUntilExhausted() {
+        AwsServiceException serverError = createServiceException(503);
+        delegate.resolveCustomerHandler = request -> CompletableFuture.failedFuture(serverError);
+
+        ExecutionException failure = Assert.expectThrows(ExecutionException.class,
+                () -> client.resolveCustomer(RESOLVE_CUSTOMER_REQUEST).get(5, TimeUnit.SECONDS));
+        Assert.assertSame(failure.getCause(), serverError);
+        Assert.assertEquals(delegate.resolveCustomerRequests.size(), 3);
+        Assert.assertEquals(client.getExhaustedRequests(), 1);
+    }
+
+    @Test
+    public void testClientErrorIsNotRetried() {
+        delegate.resolveCustomerHandler = request -> CompletableFuture.failedFuture(createServiceException(400));
+
+        Assert.expectThrows(ExecutionException.class,
+                () -> client.resolveCustomer(RESOLVE_CUSTOMER_REQUEST).get(5, TimeUnit.SECONDS));
+        Assert.assertEquals(delegate.resolveCustomerRequests.size(), 1);
+        Assert.assertEquals(client.getRetries(), 0);
+    }
+
+    @Test
+    public void testRetryFailsOnceTheSchedulerIsShutDown() {
+        delegate.resolveCustomerHandler = request -> CompletableFuture.failedFuture(createServiceException(503));
+        scheduler.shutdownNow();
+
+        ExecutionException failure = Assert.expectThrows(ExecutionException.class,
+                () -> client.resolveCustomer(RESOLVE_CUSTOMER_REQUEST).get(5, TimeUnit.SECONDS));
+        Assert.assertTrue(failure.getCause() instanceof MeteringException);
+        Assert.assertEquals(delegate.resolveCustomerRequests.size(), 1);
+    }
+
+    private static BatchMeterUsageRequest createRequest(UsageRecord... usageRecords) {
+        return BatchMeterUsageRequest.builder().productCode("product").usageRecords(usageRecords).build();
+    }
+
+    private static AwsServiceException createServiceException(int statusCode) {
+        return AwsServiceException.builder().statusCode(statusCode).message("status " + statusCode).build();
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import software.amazon.awssdk.services.marketplacemetering.model.InvalidTokenException;
+import software.amazon.awssdk.services.marketplacemetering.model.ResolveCustomerRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.ResolveCustomerResponse;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests the positive and negative caching, and the request coalescing of {@link ResolveCustomerCache}.
+ */
+public class ResolveCustomerCacheTest {
+    private static final Instant TIMESTAMP = Instant.parse("2024-05-01T10:15:30Z");
+
+    private FakeMeteringClient delegate;
+    private ManualClock clock;
+    private ResolveCustomerCache cache;
+
+    @BeforeMethod
+    public void setUp() {
+        delegate = new FakeMeteringClient();
+        delegate.resolveCustomerHandler = request -> CompletableFuture.completedFuture(
+                ResolveCustomerResponse.builder().customerIdentifier("customer-" + request.registrationToken())
+                        .productCode("product").build());
+        clock = new ManualClock(TIMESTAMP);
+        cache = new ResolveCustomerCache(delegate, new ConnectionConfig.ResolveCustomerCacheConfig(
+                2, Duration.ofMinutes(10), Duration.ofMinutes(1)), clock);
+    }
+
+    @Test
+    public void testResolvedCustomerIsCachedForTheTtl() throws Exception {
+        Assert.assertEquals(resolve("token").customerIdentifier(), "customer-token");
+        clock.advance(Duration.ofMinutes(9));
+        Assert.assertEquals(resolve("token").customerIdentifier(), "customer-token");
+        Assert.assertEquals(delegate.resolveCustomerRequests.size(), 1);
+        Assert.assertEquals(cache.getHits(), 1);
+
+        clock.advance(Duration.ofMinutes(1));
+        resolve("token");
+        Assert.assertEquals(delegate.resolveCustomerRequests.size(), 2);
+        Assert.assertEquals(cache.getMisses(), 2);
+    }
+
+    @Test
+    public void testConcurrentCallersShareTheInFlightRequest() throws Exception {
+        CompletableFuture<ResolveCustomerResponse> pending = new CompletableFuture<>();
+        delegate.resolveCustomerHandler = request -> pending;
+        CompletableFuture<ResolveCustomerResponse> first = cache.resolveCustomer(createRequest("token"));
+        CompletableFuture<ResolveCustomerResponse> second = cache.resolveCustomer(createRequest("token"));
+        Assert.assertFalse(first.isDone());
+
+        ResolveCustomerResponse response = ResolveCustomerResponse.builder().customerIdentifier("customer").build();
+        pending.complete(response);
+        Assert.assertEquals(first.get(5, TimeUnit.SECONDS), response);
+        Assert.assertEquals(second.get(5, TimeUnit.SECONDS), response);
+        Assert.assertEquals(delegate.resolveCustomerRequests.size(), 1);
+    }
+
+    @Test
+    public void testInvalidTokenIsCachedForTheNegativeTtl() {
+        Exception invalidToken = InvalidTokenException.builder().message("invalid token").build();
+        delegate.resolveCustomerHandler = request -> CompletableFuture.failedFuture(invalidToken);
+        ExecutionException failure = Assert.expectThrows(ExecutionException.class, () -> resolve("token"));
+        Assert.assertSame(failure.getCause(), invalidToken);
+        Assert.expectThrows(ExecutionException.class, () -> resolve("token"));
+        Assert.assertEquals(delegate.resolveCustomerRequests.size(), 1);
+
+        clock.advance(Duration.ofMinutes(1));
+        Assert.expectThrows(ExecutionException.class, () -> resolve("token"));
+        Assert.assertEquals(delegate.resolveCustomerRequests.size(), 2);
+    }
+
+    @Test
+    public void testOtherFailuresAreNotCached() throws Exception {
+        delegate.resolveCustomerHandler = request -> CompletableFuture.failedFuture(new IllegalStateException("down"));
+        Assert.expectThrows(ExecutionException.class, () -> resolve("token"));
+        Assert.assertEquals(cache.size(), 0);
+
+        delegate.resolveCustomerHandler = request -> CompletableFuture.completedFuture(
+                ResolveCustomerResponse.builder().customerIdentifier("customer").build());
+        Assert.assertEquals(resolve("token").customerIdentifier(), "customer");
+        Assert.assertEquals(delegate.resolveCustomerRequests.size(), 2);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntryIsEvicted() throws Exception {
+        resolve("token-1");
+        resolve("token-2");
+        resolve("token-1");
+        resolve("token-3");
+
+        Assert.assertEquals(cache.size(), 2);
+        Assert.assertEquals(cache.getEvictions(), 1);
+        resolve("token-1");
+        Assert.assertEquals(delegate.resolveCustomerRequests.size(), 3);
+        resolve("token-2");
+        Assert.assertEquals(delegate.resolveCustomerRequests.size(), 4);
+    }
+
+    private ResolveCustomerResponse resolve(String registrationToken) throws Exception {
+        return cache.resolveCustomer(createRequest(registrationToken)).get(5, TimeUnit.SECONDS);
+    }
+
+    private static ResolveCustomerRequest createRequest(String registrationToken) {
+        return ResolveCustomerRequest.builder().registrationToken(registrationToken).build();
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import software.amazon.awssdk.regions.Region;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests the sharing and the reference counting of native clients by {@link SharedClientRegistry}.
+ */
+public class SharedClientRegistryTest {
+
+    @Test
+    public void testClientsWithTheSameConfigurationsShareTheNativeClient() {
+        ConnectionConfig connectionConfig = createConnectionConfig("shared-access-key");
+        FakeMeteringClient nativeClient = new FakeMeteringClient();
+        AtomicInteger created = new AtomicInteger();
+        MeteringClient first = SharedClientRegistry.acquire(connectionConfig, () -> {
+            created.incrementAndGet();
+            return nativeClient;
+        });
+        MeteringClient second = SharedClientRegistry.acquire(connectionConfig, () -> {
+            created.incrementAndGet();
+            return new FakeMeteringClient();
+        });
+        Assert.assertEquals(created.get(), 1);
+
+        first.close();
+        first.close();
+        Assert.assertFalse(nativeClient.closed);
+        second.close();
+        Assert.assertTrue(nativeClient.closed);
+    }
+
+    @Test
+    public void testFailedCreationIsNotShared() {
+        ConnectionConfig connectionConfig = createConnectionConfig("failing-access-key");
+        IllegalStateException failure = new IllegalStateException("no credentials");
+        Assert.assertSame(Assert.expectThrows(IllegalStateException.class,
+                () -> SharedClientRegistry.acquire(connectionConfig, () -> {
+                    throw failure;
+                })), failure);
+
+        FakeMeteringClient nativeClient = new FakeMeteringClient();
+        MeteringClient client = SharedClientRegistry.acquire(connectionConfig, () -> nativeClient);
+        client.close();
+        Assert.assertTrue(nativeClient.closed);
+    }
+
+    @Test
+    public void testCreationDoesNotHoldTheRegistry() throws Exception {
+        ConnectionConfig slowConfig = createConnectionConfig("slow-access-key");
+        CountDownLatch creating = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger created = new AtomicInteger();
+        CompletableFuture<MeteringClient> slowClient = CompletableFuture.supplyAsync(
+                () -> SharedClientRegistry.acquire(slowConfig, () -> {
+                    created.incrementAndGet();
+                    creating.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return new FakeMeteringClient();
+                }));
+        Assert.assertTrue(creating.await(5, TimeUnit.SECONDS));
+
+        // a client of other configurations is created while the slow one is still being created
+        MeteringClient otherClient = SharedClientRegistry.acquire(
+                createConnectionConfig("other-access-key"), FakeMeteringClient::new);
+        otherClient.close();
+        CompletableFuture<MeteringClient> waitingClient = CompletableFuture.supplyAsync(
+                () -> SharedClientRegistry.acquire(slowConfig, () -> {
+                    created.incrementAndGet();
+                    return new FakeMeteringClient();
+                }));
+        Assert.assertFalse(waitingClient.isDone());
+
+        release.countDown();
+        MeteringClient first = slowClient.get(5, TimeUnit.SECONDS);
+        MeteringClient second = waitingClient.get(5, TimeUnit.SECONDS);
+        first.close();
+        second.close();
+        Assert.assertEquals(created.get(), 1);
+    }
+
+    private static ConnectionConfig createConnectionConfig(String accessKeyId) {
+        return new ConnectionConfig(Region.US_EAST_1, accessKeyId, "secret-key", null, null,
+                ConnectionConfig.ClientMode.NON_BLOCKING, null, null, ConnectionConfig.ResultMode.FULL, null, null,
+                null, null, null, null, null, null, null, false, null);
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecord;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecordResult;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecordResultStatus;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static io.ballerina.lib.aws.mpm.FakeMeteringClient.usageRecord;
+
+/**
+ * Tests the acknowledgement and the replay of spooled usage records by {@link SpoolingMeteringClient}.
+ */
+public class SpoolingMeteringClientTest {
+    private static final Instant TIMESTAMP = Instant.parse("2024-05-01T10:15:30Z");
+
+    private Path directory;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("mpm-spool");
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    public void testRecordsWithAFinalStatusAreAcknowledged() throws Exception {
+        UsageRecord accepted = usageRecord("customer-1", "dimension", TIMESTAMP, 1);
+        UsageRecord unprocessed = usageRecord("customer-2", "dimension", TIMESTAMP, 1);
+        UsageRecord unsubscribed = usageRecord("customer-3", "dimension", TIMESTAMP, 1);
+        FakeMeteringClient delegate = new FakeMeteringClient();
+        delegate.batchHandler = request -> {
+            BatchMeterUsageResponse response = FakeMeteringClient.accept(List.of(accepted), List.of(unprocessed));
+            List<UsageRecordResult> results = new ArrayList<>(response.results());
+            results.add(UsageRecordResult.builder().usageRecord(unsubscribed)
+                    .status(UsageRecordResultStatus.CUSTOMER_NOT_SUBSCRIBED).build());
+            return CompletableFuture.completedFuture(BatchMeterUsageResponse.builder().results(results)
+                    .unprocessedRecords(response.unprocessedRecords()).build());
+        };
+        SpoolingMeteringClient client = new SpoolingMeteringClient(delegate, openSpool());
+        client.batchMeterUsage(createRequest(accepted, unprocessed, unsubscribed)).get(5, TimeUnit.SECONDS);
+        client.close();
+
+        List<UsageSpool.SpooledRecord> recovered = recoverRecords();
+        Assert.assertEquals(recovered.size(), 1);
+        Assert.assertEquals(recovered.get(0).usageRecord(), unprocessed);
+    }
+
+    @Test
+    public void testFailedCallLeavesRecordsForTheNextReplay() throws Exception {
+        UsageRecord usageRecord = usageRecord("customer", "dimension", TIMESTAMP, 1);
+        FakeMeteringClient failingDelegate = new FakeMeteringClient();
+        failingDelegate.batchHandler = request -> CompletableFuture.failedFuture(new IllegalStateException("down"));
+        SpoolingMeteringClient failingClient = new SpoolingMeteringClient(failingDelegate, openSpool());
+        Assert.expectThrows(ExecutionException.class,
+                () -> failingClient.batchMeterUsage(createRequest(usageRecord)).get(5, TimeUnit.SECONDS));
+        failingClient.close();
+
+        FakeMeteringClient delegate = new FakeMeteringClient();
+        SpoolingMeteringClient client = new SpoolingMeteringClient(delegate, openSpool());
+        client.replay().get(5, TimeUnit.SECONDS);
+        client.close();
+
+        Assert.assertEquals(delegate.batchRequests.size(), 1);
+        Assert.assertEquals(delegate.batchRequests.get(0).usageRecords(), List.of(usageRecord));
+        Assert.assertTrue(recoverRecords().isEmpty());
+    }
+
+    @Test
+    public void testFailedReplayKeepsRecordsSpooled() throws Exception {
+        UsageSpool spool = openSpool();
+        spool.append("product", List.of(usageRecord("customer", "dimension", TIMESTAMP, 1)))
+                .get(5, TimeUnit.SECONDS);
+        spool.close();
+
+        FakeMeteringClient delegate = new FakeMeteringClient();
+        delegate.batchHandler = request -> CompletableFuture.failedFuture(new IllegalStateException("down"));
+        SpoolingMeteringClient client = new SpoolingMeteringClient(delegate, openSpool());
+        client.replay().get(5, TimeUnit.SECONDS);
+        client.close();
+
+        Assert.assertEquals(client.getFailedReplayRecords(), 1);
+        Assert.assertEquals(recoverRecords().size(), 1);
+    }
+
+    @Test
+    public void testCloseWaitsForTheReplay() throws Exception {
+        UsageSpool spool = openSpool();
+        spool.append("product", List.of(usageRecord("customer", "dimension", TIMESTAMP, 1)))
+                .get(5, TimeUnit.SECONDS);
+        spool.close();
+
+        FakeMeteringClient delegate = new FakeMeteringClient();
+        delegate.batchHandler = request -> CompletableFuture.supplyAsync(
+                () -> FakeMeteringClient.acceptAll(request),
+                CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS));
+        SpoolingMeteringClient client = new SpoolingMeteringClient(delegate, openSpool());
+        CompletableFuture<Void> replay = client.replay();
+        client.close();
+
+        Assert.assertTrue(replay.isDone());
+        Assert.assertTrue(delegate.closed);
+        Assert.assertTrue(recoverRecords().isEmpty());
+    }
+
+    private UsageSpool openSpool() throws IOException {
+        return UsageSpool.open(new ConnectionConfig.SpoolConfig(
+                directory, ConnectionConfig.SpoolConfig.MIN_SEGMENT_SIZE, Duration.ofMillis(1)));
+    }
+
+    private List<UsageSpool.SpooledRecord> recoverRecords() throws IOException {
+        UsageSpool spool = openSpool();
+        try {
+            return spool.takeRecoveredRecords();
+        } finally {
+            spool.close();
+        }
+    }
+
+    private static BatchMeterUsageRequest createRequest(UsageRecord... usageRecords) {
+        return BatchMeterUsageRequest.builder().productCode("product").usageRecords(usageRecords).build();
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import software.amazon.awssdk.services.marketplacemetering.model.Tag;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageAllocation;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecord;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static io.ballerina.lib.aws.mpm.FakeMeteringClient.usageRecord;
+
+/**
+ * Tests the hourly aggregation and the quantity bounds of {@link UsageAggregator}.
+ */
+public class UsageAggregatorTest {
+    private static final Instant HOUR = Instant.parse("2024-05-01T10:00:00Z");
+    private static final Clock CLOCK = Clock.fixed(HOUR.plus(Duration.ofMinutes(90)), ZoneOffset.UTC);
+
+    private ScheduledExecutorService scheduler;
+    private FakeMeteringClient meteringClient;
+    private UsageAggregator aggregator;
+
+    @BeforeMethod
+    public void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        meteringClient = new FakeMeteringClient();
+        UsageRecordBatcher batcher = new UsageRecordBatcher(meteringClient, scheduler,
+                new ConnectionConfig.BatchingConfig(25, Duration.ofMillis(1)));
+        aggregator = new UsageAggregator(batcher, new ConnectionConfig.AggregationConfig(Duration.ZERO,
+                Duration.ofMinutes(1), Duration.ZERO, Duration.ofHours(6), Duration.ofMinutes(5)), CLOCK);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testRecordsOfAnHourAreSummed() throws Exception {
+        aggregator.add("product", usageRecord("customer", "dimension", HOUR.plusSeconds(10), 3));
+        aggregator.add("product", usageRecord("customer", "dimension", HOUR.plusSeconds(20), 4));
+        aggregator.add("product", usageRecord("customer", "dimension", HOUR.plus(Duration.ofHours(1)), 5));
+        aggregator.flush().get(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals(meteringClient.submittedRecords(), 1);
+        UsageRecord emitted = meteringClient.batchRequests.get(0).usageRecords().get(0);
+        Assert.assertEquals(emitted.timestamp(), HOUR);
+        Assert.assertEquals(emitted.quantity(), 7);
+        Assert.assertFalse(emitted.hasUsageAllocations());
+        Assert.assertEquals(aggregator.getOpenWindows(), 1);
+    }
+
+    @Test
+    public void testAllocationsAreKeyedRegardlessOfTagOrder() throws Exception {
+        Tag team = Tag.builder().key("team").value("billing").build();
+        Tag region = Tag.builder().key("region").value("eu").build();
+        aggregator.add("product", allocatedRecord(2, team, region));
+        aggregator.add("product", allocatedRecord(3, region, team));
+        aggregator.add("product", allocatedRecord(4, team));
+        aggregator.flush().get(5, TimeUnit.SECONDS);
+
+        UsageRecord emitted = meteringClient.batchRequests.get(0).usageRecords().get(0);
+        Assert.assertEquals(emitted.quantity(), 9);
+        Assert.assertEquals(emitted.usageAllocations().size(), 2);
+        int allocated = 0;
+        for (UsageAllocation usageAllocation : emitted.usageAllocations()) {
+            if (usageAllocation.tags().size() == 2) {
+                Assert.assertEquals(usageAllocation.allocatedUsageQuantity(), 5);
+            }
+            allocated += usageAllocation.allocatedUsageQuantity();
+        }
+        Assert.assertEquals(allocated, 9);
+    }
+
+    @Test
+    public void testQuantityBeyondTheMaximumIsRejected() throws Exception {
+        aggregator.add("product", usageRecord("customer", "dimension", HOUR, Integer.MAX_VALUE - 1));
+        Assert.expectThrows(MeteringException.class,
+                () -> aggregator.add("product", allocatedRecord(2, Tag.builder().key("k").value("v").build())));
+        aggregator.add("product", usageRecord("customer", "dimension", HOUR, 1));
+        aggregator.flush().get(5, TimeUnit.SECONDS);
+
+        UsageRecord emitted = meteringClient.batchRequests.get(0).usageRecords().get(0);
+        Assert.assertEquals(emitted.quantity(), Integer.MAX_VALUE);
+        Assert.assertFalse(emitted.hasUsageAllocations());
+    }
+
+    @Test
+    public void testConcurrentRecordsDoNotOvershootTheMaximum() throws Exception {
+        int quantity = Integer.MAX_VALUE / 10 + 1;
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> additions = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            additions.add(executor.submit(() -> {
+                start.await();
+                try {
+                    aggregator.add("product", usageRecord("customer", "dimension", HOUR, quantity));
+                    return true;
+                } catch (MeteringException e) {
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+        int accepted = 0;
+        for (Future<Boolean> addition : additions) {
+            accepted += addition.get(5, TimeUnit.SECONDS) ? 1 : 0;
+        }
+        executor.shutdownNow();
+        aggregator.flush().get(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals(accepted, 9);
+        Assert.assertEquals((long) meteringClient.batchRequests.get(0).usageRecords().get(0).quantity(),
+                (long) quantity * accepted);
+    }
+
+    @Test
+    public void testFailedEmissionIsRetainedUntilTheNextFlush() throws Exception {
+        meteringClient.batchHandler = request -> CompletableFuture.failedFuture(new IllegalStateException("down"));
+        aggregator.add("product", usageRecord("customer", "dimension", HOUR, 1));
+        Assert.assertTrue(aggregator.flush().get(5, TimeUnit.SECONDS).isEmpty());
+        Assert.assertEquals(aggregator.getPendingEmissions(), 1);
+
+        meteringClient.batchHandler = request -> CompletableFuture.completedFuture(
+                FakeMeteringClient.acceptAll(request));
+        Assert.assertEquals(aggregator.flush().get(5, TimeUnit.SECONDS).size(), 1);
+        Assert.assertEquals(aggregator.getPendingEmissions(), 0);
+        Assert.assertEquals(aggregator.getEmittedRecords(), 1);
+    }
+
+    @Test
+    public void testRecordOfAClosedWindowIsRejected() throws Exception {
+        aggregator.flush().get(5, TimeUnit.SECONDS);
+        Assert.expectThrows(MeteringException.class,
+                () -> aggregator.add("product", usageRecord("customer", "dimension", HOUR, 1)));
+    }
+
+    private static UsageRecord allocatedRecord(int quantity, Tag... tags) {
+        return UsageRecord.builder().customerIdentifier("customer").dimension("dimension").timestamp(HOUR)
+                .quantity(quantity)
+                .usageAllocations(UsageAllocation.builder().allocatedUsageQuantity(quantity).tags(tags).build())
+                .build();
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecord;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Tests the parsing, the outcomes and the checkpointing of {@link UsageFileIngester}.
+ */
+public class UsageFileIngesterTest {
+    private static final String TIMESTAMP = "2024-05-01T10:15:30Z";
+
+    private FakeMeteringClient meteringClient;
+    private Path directory;
+    private Path resultsPath;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        meteringClient = new FakeMeteringClient();
+        directory = Files.createTempDirectory("mpm-ingestion");
+        resultsPath = directory.resolve("results.ndjson");
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    public void testNdjsonLinesAreMeteredInOrder() throws Exception {
+        List<String> lines = new ArrayList<>();
+        for (int i = 1; i <= 30; i++) {
+            lines.add(String.format("{\"customerIdentifier\":\"customer-%d\",\"dimension\":\"dimension\"," +
+                    "\"timestamp\":\"%s\",\"quantity\":%d}", i, TIMESTAMP, i));
+        }
+        lines.add(5, "");
+        lines.add(10, "{\"dimension\":\"dimension\",\"timestamp\":\"" + TIMESTAMP + "\"}");
+        Path source = write("usage.ndjson", lines);
+
+        UsageFileIngester.Summary summary = ingest(UsageFileIngester.Format.NDJSON, 64, source);
+
+        Assert.assertEquals(summary.lines(), 32);
+        Assert.assertEquals(summary.meteredRecords(), 30);
+        Assert.assertEquals(summary.invalidLines(), 1);
+        Assert.assertEquals(meteringClient.submittedRecords(), 30);
+        Assert.assertEquals(meteringClient.batchRequests.get(0).usageRecords().get(0).quantity(), 1);
+        List<String> results = Files.readAllLines(resultsPath);
+        Assert.assertEquals(results.size(), 31);
+        Assert.assertTrue(results.get(0).contains("\"line\":1"));
+        Assert.assertTrue(results.get(0).contains("\"meteringRecordId\":\"record-customer-1\""));
+        Assert.assertTrue(results.get(9).contains("\"line\":11"));
+        Assert.assertTrue(results.get(9).contains("\"status\":\"" + UsageFileIngester.STATUS_INVALID + "\""));
+        Assert.assertTrue(results.get(30).contains("\"meteringRecordId\":\"record-customer-30\""));
+    }
+
+    @Test
+    public void testCsvHeaderIsSkippedAndEpochSecondsAreParsed() throws Exception {
+        Path source = write("usage.csv", List.of("customerIdentifier,dimension,timestamp,quantity",
+                "customer-1,dimension,1714558530.5,3", "customer-2,dimension," + TIMESTAMP + ",",
+                "customer-3,dimension"));
+
+        UsageFileIngester.Summary summary = ingest(UsageFileIngester.Format.CSV, 1024, source);
+
+        Assert.assertEquals(summary.meteredRecords(), 2);
+        Assert.assertEquals(summary.invalidLines(), 1);
+        List<UsageRecord> usageRecords = meteringClient.batchRequests.get(0).usageRecords();
+        Assert.assertEquals(usageRecords.get(0).timestamp(), Instant.ofEpochSecond(1714558530, 500_000_000));
+        Assert.assertEquals(usageRecords.get(0).quantity(), 3);
+        Assert.assertEquals(usageRecords.get(1).timestamp(), Instant.parse(TIMESTAMP));
+        Assert.assertNull(usageRecords.get(1).quantity());
+    }
+
+    @Test
+    public void testIngestionResumesFromTheCheckpoint() throws Exception {
+        Path source = write("usage.csv", List.of("customer-1,dimension," + TIMESTAMP,
+                "customer-2,dimension," + TIMESTAMP));
+        ingest(UsageFileIngester.Format.CSV, 1024, source);
+
+        UsageFileIngester.Summary summary = ingest(UsageFileIngester.Format.CSV, 1024, source);
+
+        Assert.assertEquals(summary.resumedFromLine(), 2);
+        Assert.assertEquals(summary.lines(), 0);
+        Assert.assertEquals(meteringClient.submittedRecords(), 2);
+        List<String> results = Files.readAllLines(resultsPath);
+        Assert.assertEquals(results.size(), 2);
+        Assert.assertTrue(results.get(1).contains("\"line\":2"));
+    }
+
+    @Test
+    public void testCheckpointOfAModifiedFileIsRejected() throws Exception {
+        Path source = write("usage.csv", List.of("customer-1,dimension," + TIMESTAMP,
+                "customer-2,dimension," + TIMESTAMP));
+        ingest(UsageFileIngester.Format.CSV, 1024, source);
+        Files.writeString(source, "customer-3,dimension," + TIMESTAMP + "\n", StandardOpenOption.APPEND);
+
+        ExecutionException failure = Assert.expectThrows(ExecutionException.class,
+                () -> ingest(UsageFileIngester.Format.CSV, 1024, source));
+        Assert.assertTrue(failure.getCause() instanceof MeteringException);
+        Assert.assertTrue(failure.getCause().getMessage().contains("remove the checkpoint"));
+
+        // a file of the same size is rejected once it was modified
+        Files.writeString(source, "customer-1,dimension," + TIMESTAMP + "\ncustomer-2,dimension," + TIMESTAMP
+                + "\n");
+        Files.setLastModifiedTime(source, FileTime.from(Instant.parse(TIMESTAMP)));
+        Assert.expectThrows(ExecutionException.class, () -> ingest(UsageFileIngester.Format.CSV, 1024, source));
+        Assert.assertEquals(meteringClient.submittedRecords(), 2);
+    }
+
+    @Test
+    public void testRecordsOfAFailedCallAreReportedAsFailed() throws Exception {
+        meteringClient.batchHandler = request -> CompletableFuture.failedFuture(new IllegalStateException("down"));
+        Path source = write("usage.csv", List.of("customer-1,dimension," + TIMESTAMP,
+                "customer-2,dimension," + TIMESTAMP));
+
+        UsageFileIngester.Summary summary = ingest(UsageFileIngester.Format.CSV, 1024, source);
+
+        Assert.assertEquals(summary.failedRecords(), 2);
+        for (String result : Files.readAllLines(resultsPath)) {
+            Assert.assertTrue(result.contains("\"status\":\"" + UsageFileIngester.STATUS_FAILED + "\""));
+            Assert.assertTrue(result.contains("\"message\":\"down\""));
+        }
+    }
+
+    private UsageFileIngester.Summary ingest(UsageFileIngester.Format format, int chunkSize, Path source)
+            throws Exception {
+        UsageFileIngester ingester = new UsageFileIngester(meteringClient, "product",
+                new UsageFileIngester.Config(format, resultsPath, 25, 2, 2, chunkSize, 1));
+        return ingester.ingest(source).get(10, TimeUnit.SECONDS);
+    }
+
+    private Path write(String fileName, List<String> lines) throws IOException {
+        return Files.write(directory.resolve(fileName), lines, StandardCharsets.UTF_8);
+    }
+}
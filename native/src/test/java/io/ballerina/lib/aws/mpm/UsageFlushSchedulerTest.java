@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+import static io.ballerina.lib.aws.mpm.FakeMeteringClient.usageRecord;
+
+/**
+ * Tests the alignment, the jitter and the deadline driven scheduling of {@link UsageFlushScheduler}.
+ */
+public class UsageFlushSchedulerTest {
+    private static final Instant HOUR = Instant.parse("2024-05-01T10:00:00Z");
+    private static final RandomGenerator HIGHEST_OFFSET = new RandomGenerator() {
+        @Override
+        public long nextLong() {
+            return 0;
+        }
+
+        @Override
+        public long nextLong(long bound) {
+            return bound - 1;
+        }
+    };
+
+    private ScheduledExecutorService scheduler;
+    private FakeMeteringClient meteringClient;
+
+    @BeforeMethod
+    public void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        meteringClient = new FakeMeteringClient();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testFlushesAreAlignedToTheIntervalAfterTheCloseDelay() {
+        UsageFlushScheduler flushScheduler = createFlushScheduler(
+                createConfig(Duration.ofHours(1), Duration.ZERO), Clock.systemUTC());
+
+        Assert.assertEquals(flushScheduler.getNextFlush(HOUR.plus(Duration.ofMinutes(15))),
+                HOUR.plus(Duration.ofMinutes(65)));
+        Assert.assertEquals(flushScheduler.getNextFlush(HOUR.plus(Duration.ofMinutes(65)).minusMillis(1)),
+                HOUR.plus(Duration.ofMinutes(65)));
+        Assert.assertEquals(flushScheduler.getNextFlush(HOUR.plus(Duration.ofMinutes(65))),
+                HOUR.plus(Duration.ofMinutes(125)));
+    }
+
+    @Test
+    public void testFlushesAreOffsetByTheJitter() {
+        UsageFlushScheduler flushScheduler = createFlushScheduler(
+                createConfig(Duration.ofHours(1), Duration.ofMinutes(1)), Clock.systemUTC());
+
+        Assert.assertEquals(flushScheduler.getNextFlush(HOUR.plus(Duration.ofMinutes(15))),
+                HOUR.plus(Duration.ofMinutes(66)));
+    }
+
+    @Test
+    public void testRetainedUsageBringsTheNextFlushForward() throws Exception {
+        Instant now = HOUR.plus(Duration.ofMinutes(90));
+        ConnectionConfig.AggregationConfig aggregationConfig = createConfig(Duration.ofDays(1), Duration.ZERO);
+        UsageAggregator aggregator = createAggregator(aggregationConfig, Clock.fixed(now, ZoneOffset.UTC));
+        UsageFlushScheduler flushScheduler = new UsageFlushScheduler(aggregator, scheduler, aggregationConfig,
+                Clock.fixed(now, ZoneOffset.UTC), HIGHEST_OFFSET);
+        Assert.assertEquals(flushScheduler.getNextFlush(now), Instant.parse("2024-05-02T00:05:00Z"));
+
+        meteringClient.batchHandler = request -> CompletableFuture.failedFuture(new IllegalStateException("down"));
+        aggregator.add("product", usageRecord("customer", "dimension", HOUR, 1));
+        aggregator.flush().get(5, TimeUnit.SECONDS);
+
+        // six hours of acceptance window less the five minutes of deadline margin
+        Assert.assertEquals(flushScheduler.getNextFlush(now), HOUR.plus(Duration.ofMinutes(355)));
+        Assert.assertEquals(flushScheduler.getNextFlush(HOUR.plus(Duration.ofMinutes(359))),
+                HOUR.plus(Duration.ofMinutes(359)).plusSeconds(10));
+    }
+
+    @Test
+    public void testScheduledFlushEmitsTheClosedWindows() throws Exception {
+        ConnectionConfig.AggregationConfig aggregationConfig = new ConnectionConfig.AggregationConfig(
+                Duration.ZERO, Duration.ofMillis(50), Duration.ZERO, Duration.ofHours(6), Duration.ofMinutes(5));
+        UsageAggregator aggregator = createAggregator(aggregationConfig, Clock.systemUTC());
+        aggregator.add("product", usageRecord("customer", "dimension", Instant.now().minus(Duration.ofHours(1)), 1));
+        UsageFlushScheduler flushScheduler = new UsageFlushScheduler(
+                aggregator, scheduler, aggregationConfig, Clock.systemUTC(), HIGHEST_OFFSET);
+        flushScheduler.start();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meteringClient.submittedRecords() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        flushScheduler.close();
+        Assert.assertEquals(meteringClient.submittedRecords(), 1);
+    }
+
+    private UsageFlushScheduler createFlushScheduler(ConnectionConfig.AggregationConfig aggregationConfig,
+                                                     Clock clock) {
+        return new UsageFlushScheduler(createAggregator(aggregationConfig, clock), scheduler, aggregationConfig,
+                clock, HIGHEST_OFFSET);
+    }
+
+    private UsageAggregator createAggregator(ConnectionConfig.AggregationConfig aggregationConfig, Clock clock) {
+        UsageRecordBatcher batcher = new UsageRecordBatcher(meteringClient, scheduler,
+                new ConnectionConfig.BatchingConfig(25, Duration.ofMillis(1)));
+        return new UsageAggregator(batcher, aggregationConfig, clock);
+    }
+
+    private static ConnectionConfig.AggregationConfig createConfig(Duration flushInterval, Duration jitter) {
+        return new ConnectionConfig.AggregationConfig(Duration.ofMinutes(5), flushInterval, jitter,
+                Duration.ofHours(6), Duration.ofMinutes(5));
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageRequest;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecord;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecordResult;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static io.ballerina.lib.aws.mpm.FakeMeteringClient.usageRecord;
+
+/**
+ * Tests the coalescing of individually submitted usage records by {@link UsageRecordBatcher}.
+ */
+public class UsageRecordBatcherTest {
+    private static final Instant TIMESTAMP = Instant.parse("2024-05-01T10:15:30Z");
+
+    private ScheduledExecutorService scheduler;
+    private FakeMeteringClient meteringClient;
+
+    @BeforeMethod
+    public void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        meteringClient = new FakeMeteringClient();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testFullBatchIsDispatchedWithoutLinger() throws Exception {
+        UsageRecordBatcher batcher = createBatcher(3, Duration.ofHours(1));
+        List<CompletableFuture<UsageRecordResult>> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            results.add(batcher.submit("product", usageRecord("customer-" + i, "dimension", TIMESTAMP, 1)));
+        }
+
+        Assert.assertEquals(meteringClient.batchRequests.size(), 1);
+        BatchMeterUsageRequest request = meteringClient.batchRequests.get(0);
+        Assert.assertEquals(request.productCode(), "product");
+        Assert.assertEquals(request.usageRecords().size(), 3);
+        for (int i = 0; i < 3; i++) {
+            UsageRecordResult result = results.get(i).get(1, TimeUnit.SECONDS);
+            Assert.assertEquals(result.usageRecord().customerIdentifier(), "customer-" + i);
+        }
+    }
+
+    @Test
+    public void testPartialBatchIsDispatchedAfterLinger() throws Exception {
+        UsageRecordBatcher batcher = createBatcher(25, Duration.ofMillis(20));
+        CompletableFuture<UsageRecordResult> result =
+                batcher.submit("product", usageRecord("customer", "dimension", TIMESTAMP, 1));
+
+        Assert.assertEquals(result.get(5, TimeUnit.SECONDS).meteringRecordId(), "record-customer");
+        Assert.assertEquals(meteringClient.batchRequests.size(), 1);
+    }
+
+    @Test
+    public void testRecordsAreBatchedPerProduct() {
+        UsageRecordBatcher batcher = createBatcher(2, Duration.ofHours(1));
+        batcher.submit("product-a", usageRecord("customer-1", "dimension", TIMESTAMP, 1));
+        batcher.submit("product-b", usageRecord("customer-2", "dimension", TIMESTAMP, 1));
+        Assert.assertTrue(meteringClient.batchRequests.isEmpty());
+
+        batcher.submit("product-a", usageRecord("customer-3", "dimension", TIMESTAMP, 1));
+        Assert.assertEquals(meteringClient.batchRequests.size(), 1);
+        Assert.assertEquals(meteringClient.batchRequests.get(0).productCode(), "product-a");
+        Assert.assertEquals(meteringClient.batchRequests.get(0).usageRecords().size(), 2);
+    }
+
+    @Test
+    public void testRecordWithoutResultFails() throws Exception {
+        meteringClient.batchHandler = request -> CompletableFuture.completedFuture(
+                FakeMeteringClient.accept(request.usageRecords().subList(0, 1), List.of()));
+        UsageRecordBatcher batcher = createBatcher(2, Duration.ofHours(1));
+        CompletableFuture<UsageRecordResult> accepted =
+                batcher.submit("product", usageRecord("customer-1", "dimension", TIMESTAMP, 1));
+        CompletableFuture<UsageRecordResult> dropped =
+                batcher.submit("product", usageRecord("customer-2", "dimension", TIMESTAMP, 1));
+
+        Assert.assertEquals(accepted.get(1, TimeUnit.SECONDS).usageRecord().customerIdentifier(), "customer-1");
+        ExecutionException failure = Assert.expectThrows(ExecutionException.class,
+                () -> dropped.get(1, TimeUnit.SECONDS));
+        Assert.assertTrue(failure.getCause() instanceof MeteringException);
+    }
+
+    @Test
+    public void testFailedCallFailsEveryRecordOfTheBatch() {
+        meteringClient.batchHandler = request -> CompletableFuture.failedFuture(new IllegalStateException("down"));
+        UsageRecordBatcher batcher = createBatcher(2, Duration.ofHours(1));
+        CompletableFuture<UsageRecordResult> first =
+                batcher.submit("product", usageRecord("customer-1", "dimension", TIMESTAMP, 1));
+        CompletableFuture<UsageRecordResult> second =
+                batcher.submit("product", usageRecord("customer-2", "dimension", TIMESTAMP, 1));
+
+        Assert.assertTrue(first.isCompletedExceptionally());
+        Assert.assertTrue(second.isCompletedExceptionally());
+    }
+
+    @Test
+    public void testCloseDispatchesPendingBatches() throws Exception {
+        UsageRecordBatcher batcher = createBatcher(25, Duration.ofHours(1));
+        UsageRecord usageRecord = usageRecord("customer", "dimension", TIMESTAMP, 1);
+        CompletableFuture<UsageRecordResult> result = batcher.submit("product", usageRecord);
+
+        batcher.close();
+        Assert.assertTrue(result.isDone());
+        Assert.assertEquals(result.get().usageRecord(), usageRecord);
+        Assert.assertEquals(meteringClient.batchRequests.size(), 1);
+    }
+
+    @Test
+    public void testRecordsSubmittedAfterCloseAreRejected() throws Exception {
+        UsageRecordBatcher batcher = createBatcher(25, Duration.ofHours(1));
+        batcher.close();
+
+        ExecutionException failure = Assert.expectThrows(ExecutionException.class, () -> batcher.submit(
+                "product", usageRecord("customer", "dimension", TIMESTAMP, 1)).get(1, TimeUnit.SECONDS));
+        Assert.assertTrue(failure.getCause() instanceof MeteringException);
+        Assert.assertTrue(meteringClient.batchRequests.isEmpty());
+    }
+
+    @Test
+    public void testRecordIsRejectedOnceTheSchedulerIsShutDown() throws Exception {
+        UsageRecordBatcher batcher = createBatcher(2, Duration.ofHours(1));
+        scheduler.shutdownNow();
+
+        for (int i = 0; i < 2; i++) {
+            CompletableFuture<UsageRecordResult> result =
+                    batcher.submit("product", usageRecord("customer-" + i, "dimension", TIMESTAMP, 1));
+            ExecutionException failure = Assert.expectThrows(ExecutionException.class,
+                    () -> result.get(1, TimeUnit.SECONDS));
+            Assert.assertTrue(failure.getCause() instanceof MeteringException);
+        }
+        batcher.close();
+        Assert.assertTrue(meteringClient.batchRequests.isEmpty());
+    }
+
+    private UsageRecordBatcher createBatcher(int maxBatchSize, Duration lingerTime) {
+        return new UsageRecordBatcher(meteringClient, scheduler,
+                new ConnectionConfig.BatchingConfig(maxBatchSize, lingerTime));
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecord;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecordResult;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecordResultStatus;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static io.ballerina.lib.aws.mpm.FakeMeteringClient.usageRecord;
+
+/**
+ * Tests the matching of {@code BatchMeterUsage} results with the usage records of their request by
+ * {@link UsageRecordKey}.
+ */
+public class UsageRecordKeyTest {
+    private static final Instant TIMESTAMP = Instant.parse("2024-05-01T10:15:30.123Z");
+
+    @Test
+    public void testResultsAreMatchedRegardlessOfOrderAndPrecision() {
+        UsageRecord first = usageRecord("customer-1", "dimension", TIMESTAMP, 1);
+        UsageRecord second = usageRecord("customer-2", "dimension", TIMESTAMP, 2);
+        UsageRecord third = usageRecord("customer-3", "dimension", TIMESTAMP, 3);
+        // the service echoes the timestamps back in seconds
+        List<UsageRecordResult> results = List.of(createResult(third), createResult(first),
+                createResult(usageRecord("customer-4", "dimension", TIMESTAMP, 4)));
+
+        Assert.assertEquals(UsageRecordKey.indexesOf(List.of(first, second, third), results), new int[]{2, 0, -1});
+        UsageRecordResult[] aligned = UsageRecordKey.align(List.of(first, second, third), results);
+        Assert.assertSame(aligned[0], results.get(1));
+        Assert.assertNull(aligned[1]);
+        Assert.assertSame(aligned[2], results.get(0));
+    }
+
+    @Test
+    public void testRecordsSharingAKeyAreMatchedInRequestOrder() {
+        UsageRecord usageRecord = usageRecord("customer", "dimension", TIMESTAMP, 1);
+        UsageRecord other = usageRecord("customer", "other", TIMESTAMP, 1);
+        List<UsageRecordResult> results = List.of(createResult(usageRecord), createResult(usageRecord),
+                createResult(usageRecord), UsageRecordResult.builder().status(UsageRecordResultStatus.SUCCESS).build());
+
+        Assert.assertEquals(UsageRecordKey.indexesOf(List.of(usageRecord, other, usageRecord), results),
+                new int[]{0, 2, -1, -1});
+    }
+
+    private static UsageRecordResult createResult(UsageRecord usageRecord) {
+        return UsageRecordResult.builder().status(UsageRecordResultStatus.SUCCESS)
+                .usageRecord(usageRecord.toBuilder()
+                        .timestamp(usageRecord.timestamp().truncatedTo(ChronoUnit.SECONDS)).build())
+                .build();
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import software.amazon.awssdk.services.marketplacemetering.model.BatchMeterUsageResponse;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecord;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static io.ballerina.lib.aws.mpm.FakeMeteringClient.usageRecord;
+
+/**
+ * Tests the ordering and the in-flight window of {@link UsageRecordPipeline}.
+ */
+public class UsageRecordPipelineTest {
+    private static final Instant TIMESTAMP = Instant.parse("2024-05-01T10:15:30Z");
+
+    private FakeMeteringClient meteringClient;
+    private List<CompletableFuture<BatchMeterUsageResponse>> responses;
+
+    @BeforeMethod
+    public void setUp() {
+        meteringClient = new FakeMeteringClient();
+        responses = new ArrayList<>();
+        meteringClient.batchHandler = request -> {
+            CompletableFuture<BatchMeterUsageResponse> response = new CompletableFuture<>();
+            responses.add(response);
+            return response;
+        };
+    }
+
+    @Test
+    public void testResultsAreReleasedInTheOrderOfTheRecords() {
+        UsageRecordPipeline pipeline = new UsageRecordPipeline(meteringClient, "product", 2, 2);
+        for (int i = 0; i < 4; i++) {
+            pipeline.add(record(i));
+        }
+        Assert.assertEquals(meteringClient.batchRequests.size(), 2);
+
+        // the second batch completes first, but its results wait for the first batch
+        responses.get(1).complete(FakeMeteringClient.acceptAll(meteringClient.batchRequests.get(1)));
+        Assert.assertNull(pipeline.poll());
+        Assert.assertFalse(pipeline.awaitNext().isDone());
+
+        responses.get(0).complete(FakeMeteringClient.acceptAll(meteringClient.batchRequests.get(0)));
+        for (int i = 0; i < 4; i++) {
+            UsageRecordPipeline.StreamedResult result = pipeline.poll();
+            Assert.assertEquals(result.recordIndex(), i);
+            Assert.assertEquals(result.result().usageRecord(), record(i));
+            Assert.assertNull(result.failure());
+        }
+        Assert.assertNull(pipeline.poll());
+        Assert.assertTrue(pipeline.isDrained());
+    }
+
+    @Test
+    public void testFullInFlightWindowRejectsRecords() {
+        UsageRecordPipeline pipeline = new UsageRecordPipeline(meteringClient, "product", 1, 2);
+        pipeline.add(record(0));
+        pipeline.add(record(1));
+
+        Assert.assertFalse(pipeline.hasCapacity());
+        Assert.expectThrows(IllegalStateException.class, () -> pipeline.add(record(2)));
+        Assert.assertEquals(meteringClient.batchRequests.size(), 2);
+
+        // the window opens once the oldest batch is completed and its result retrieved
+        responses.get(0).complete(FakeMeteringClient.acceptAll(meteringClient.batchRequests.get(0)));
+        Assert.assertTrue(pipeline.awaitNext().join());
+        Assert.assertFalse(pipeline.hasCapacity());
+        Assert.assertEquals(pipeline.poll().recordIndex(), 0);
+        Assert.assertTrue(pipeline.hasCapacity());
+        pipeline.add(record(2));
+        Assert.assertEquals(pipeline.getNextRecordIndex(), 3);
+    }
+
+    @Test
+    public void testFailedBatchReportsEveryRecord() {
+        UsageRecordPipeline pipeline = new UsageRecordPipeline(meteringClient, "product", 2, 2);
+        for (int i = 0; i < 3; i++) {
+            pipeline.add(record(i));
+        }
+        pipeline.flush();
+        IllegalStateException failure = new IllegalStateException("throttled");
+        responses.get(0).completeExceptionally(failure);
+        responses.get(1).complete(FakeMeteringClient.acceptAll(meteringClient.batchRequests.get(1)));
+
+        for (int i = 0; i < 2; i++) {
+            UsageRecordPipeline.StreamedResult result = pipeline.poll();
+            Assert.assertEquals(result.recordIndex(), i);
+            Assert.assertNull(result.result());
+            Assert.assertSame(result.failure(), failure);
+        }
+        UsageRecordPipeline.StreamedResult result = pipeline.poll();
+        Assert.assertEquals(result.recordIndex(), 2);
+        Assert.assertEquals(result.result().usageRecord(), record(2));
+        Assert.assertTrue(pipeline.isDrained());
+    }
+
+    @Test
+    public void testUnprocessedRecordHasNoResult() {
+        UsageRecordPipeline pipeline = new UsageRecordPipeline(meteringClient, "product", 2, 1);
+        pipeline.add(record(0));
+        pipeline.add(record(1));
+        responses.get(0).complete(FakeMeteringClient.accept(List.of(record(1)), List.of(record(0))));
+
+        UsageRecordPipeline.StreamedResult unprocessed = pipeline.poll();
+        Assert.assertEquals(unprocessed.recordIndex(), 0);
+        Assert.assertNull(unprocessed.result());
+        Assert.assertNull(unprocessed.failure());
+        UsageRecordPipeline.StreamedResult processed = pipeline.poll();
+        Assert.assertEquals(processed.recordIndex(), 1);
+        Assert.assertEquals(processed.result().usageRecord(), record(1));
+    }
+
+    private static UsageRecord record(int index) {
+        return usageRecord("customer-" + index, "dimension", TIMESTAMP, index + 1);
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import software.amazon.awssdk.services.marketplacemetering.model.RegisterUsageResponse;
+
+import java.security.PublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+/**
+ * Tests the caching, the expiry and the signature verification of {@link UsageRegistrar}.
+ */
+public class UsageRegistrarTest {
+    private static final Duration TTL = Duration.ofHours(1);
+    private static final RandomGenerator NO_JITTER = () -> 0L;
+
+    private ManualClock clock;
+    private FakeMeteringClient meteringClient;
+
+    @BeforeMethod
+    public void setUp() {
+        clock = new ManualClock(Instant.parse("2024-05-01T10:15:30Z"));
+        meteringClient = new FakeMeteringClient();
+        meteringClient.registerUsageHandler = request -> CompletableFuture.completedFuture(
+                RegisterUsageResponse.builder().signature("signature").build());
+    }
+
+    @Test
+    public void testRegistrationIsCachedUntilItExpires() throws Exception {
+        UsageRegistrar registrar = createRegistrar(Duration.ZERO, null, NO_JITTER);
+
+        UsageRegistrar.Registration registration = register(registrar, 1, null);
+        Assert.assertEquals(registration.expiresAt(), clock.instant().plus(TTL));
+        Assert.assertFalse(registration.verified());
+        clock.advance(TTL.minusMillis(1));
+        Assert.assertSame(register(registrar, 1, null), registration);
+        register(registrar, 2, null);
+        Assert.assertEquals(meteringClient.registerUsageRequests.size(), 2);
+        Assert.assertEquals(meteringClient.registerUsageRequests.get(0).publicKeyVersion(), 1);
+
+        clock.advance(Duration.ofMillis(1));
+        Assert.assertNotSame(register(registrar, 1, null), registration);
+        Assert.assertEquals(meteringClient.registerUsageRequests.size(), 3);
+        Assert.assertEquals(registrar.getHits(), 1);
+        Assert.assertEquals(registrar.getMisses(), 3);
+        Assert.assertEquals(registrar.getEvictions(), 1);
+        Assert.assertEquals(registrar.size(), 2);
+    }
+
+    @Test
+    public void testConcurrentRegistrationsShareTheCall() throws Exception {
+        CompletableFuture<RegisterUsageResponse> response = new CompletableFuture<>();
+        meteringClient.registerUsageHandler = request -> response;
+        UsageRegistrar registrar = createRegistrar(Duration.ZERO, null, NO_JITTER);
+
+        CompletableFuture<UsageRegistrar.Registration> first = registrar.register("product", 1, null);
+        CompletableFuture<UsageRegistrar.Registration> second = registrar.register("product", 1, null);
+        Assert.assertSame(second, first);
+        Assert.assertFalse(first.isDone());
+        response.complete(RegisterUsageResponse.builder().signature("signature").build());
+
+        Assert.assertEquals(first.get(5, TimeUnit.SECONDS).signature(), "signature");
+        Assert.assertEquals(meteringClient.registerUsageRequests.size(), 1);
+        Assert.assertEquals(registrar.getHits(), 1);
+    }
+
+    @Test
+    public void testRegistrationsWithANonceAreNotCached() throws Exception {
+        UsageRegistrar registrar = createRegistrar(Duration.ZERO, null, NO_JITTER);
+
+        register(registrar, 1, "nonce");
+        register(registrar, 1, "nonce");
+        Assert.assertEquals(meteringClient.registerUsageRequests.size(), 2);
+        Assert.assertEquals(meteringClient.registerUsageRequests.get(0).nonce(), "nonce");
+        Assert.assertEquals(registrar.getMisses(), 2);
+        Assert.assertEquals(registrar.size(), 0);
+    }
+
+    @Test
+    public void testKeyRotationAndJitterShortenTheExpiry() throws Exception {
+        Instant keyRotation = clock.instant().plus(Duration.ofMinutes(10));
+        meteringClient.registerUsageHandler = request -> CompletableFuture.completedFuture(
+                RegisterUsageResponse.builder().signature("signature").publicKeyRotationTimestamp(keyRotation)
+                        .build());
+        UsageRegistrar registrar = createRegistrar(Duration.ZERO, null, NO_JITTER);
+        UsageRegistrar.Registration registration = register(registrar, 1, null);
+        Assert.assertEquals(registration.expiresAt(), keyRotation);
+        Assert.assertEquals(registration.publicKeyRotationTimestamp(), keyRotation);
+
+        // a rotation beyond the time to live does not extend the expiry
+        meteringClient.registerUsageHandler = request -> CompletableFuture.completedFuture(
+                RegisterUsageResponse.builder().signature("signature")
+                        .publicKeyRotationTimestamp(clock.instant().plus(Duration.ofDays(1))).build());
+        RandomGenerator maxJitter = new RandomGenerator() {
+            @Override
+            public long nextLong() {
+                return 0;
+            }
+
+            @Override
+            public long nextLong(long bound) {
+                return bound - 1;
+            }
+        };
+        registrar = createRegistrar(Duration.ofMinutes(5), null, maxJitter);
+        Assert.assertEquals(register(registrar, 1, null).expiresAt(),
+                clock.instant().plus(TTL).minus(Duration.ofMinutes(5)));
+    }
+
+    @Test
+    public void testFailedRegistrationIsNotCached() throws Exception {
+        IllegalStateException failure = new IllegalStateException("down");
+        meteringClient.registerUsageHandler = request -> CompletableFuture.failedFuture(failure);
+        UsageRegistrar registrar = createRegistrar(Duration.ZERO, null, NO_JITTER);
+
+        ExecutionException exception = Assert.expectThrows(ExecutionException.class,
+                () -> register(registrar, 1, null));
+        Assert.assertSame(exception.getCause(), failure);
+        Assert.assertEquals(registrar.size(), 0);
+
+        meteringClient.registerUsageHandler = request -> CompletableFuture.completedFuture(
+                RegisterUsageResponse.builder().signature("signature").build());
+        Assert.assertEquals(register(registrar, 1, null).signature(), "signature");
+        Assert.assertEquals(meteringClient.registerUsageRequests.size(), 2);
+    }
+
+    @Test
+    public void testSignatureIsVerifiedWithTheConfiguredKey() throws Exception {
+        String token = RegistrationSignatureVerifierTest.createToken("PS256",
+                "{\"productCode\":\"product\",\"publicKeyVersion\":1,\"iat\":1714558530}");
+        meteringClient.registerUsageHandler = request -> CompletableFuture.completedFuture(
+                RegisterUsageResponse.builder().signature(request.publicKeyVersion() == 1 ? token : "forged")
+                        .build());
+        UsageRegistrar registrar = createRegistrar(Duration.ZERO,
+                RegistrationSignatureVerifierTest.KEY_PAIR.getPublic(), NO_JITTER);
+
+        UsageRegistrar.Registration registration = register(registrar, 1, null);
+        Assert.assertTrue(registration.verified());
+        Assert.assertEquals(registration.issuedAt(), Instant.ofEpochSecond(1714558530));
+
+        ExecutionException exception = Assert.expectThrows(ExecutionException.class,
+                () -> register(registrar, 2, null));
+        Assert.assertTrue(exception.getCause() instanceof MeteringException);
+        Assert.assertEquals(registrar.size(), 1);
+    }
+
+    private UsageRegistrar createRegistrar(Duration refreshJitter, PublicKey publicKey, RandomGenerator random) {
+        return new UsageRegistrar(meteringClient,
+                new ConnectionConfig.UsageRegistrationConfig(TTL, refreshJitter, publicKey), clock, random);
+    }
+
+    private static UsageRegistrar.Registration register(UsageRegistrar registrar, int publicKeyVersion,
+                                                        String nonce) throws Exception {
+        return registrar.register("product", publicKeyVersion, nonce).get(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com)
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.ballerina.lib.aws.mpm;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import software.amazon.awssdk.services.marketplacemetering.model.Tag;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageAllocation;
+import software.amazon.awssdk.services.marketplacemetering.model.UsageRecord;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static io.ballerina.lib.aws.mpm.FakeMeteringClient.usageRecord;
+
+/**
+ * Tests the durability and the crash recovery of {@link UsageSpool}.
+ */
+public class UsageSpoolTest {
+    private static final Instant TIMESTAMP = Instant.parse("2024-05-01T10:15:30.123456789Z");
+    private static final int ENTRY_HEADER_SIZE = Integer.BYTES + Long.BYTES;
+
+    private Path directory;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("mpm-spool");
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    public void testUnacknowledgedRecordsAreRecovered() throws Exception {
+        UsageRecord allocated = UsageRecord.builder().customerIdentifier("customer-1").dimension("dimension")
+                .timestamp(TIMESTAMP).quantity(5)
+                .usageAllocations(UsageAllocation.builder().allocatedUsageQuantity(5)
+                        .tags(Tag.builder().key("team").value("billing").build()).build())
+                .build();
+        UsageRecord acknowledged = usageRecord("customer-2", "dimension", TIMESTAMP, 1);
+        UsageSpool spool = openSpool();
+        long[] sequences = spool.append("product", List.of(allocated, acknowledged)).get(5, TimeUnit.SECONDS);
+        spool.acknowledge(new long[]{sequences[1]});
+        spool.close();
+
+        UsageSpool reopened = openSpool();
+        List<UsageSpool.SpooledRecord> recovered = reopened.takeRecoveredRecords();
+        Assert.assertEquals(recovered.size(), 1);
+        Assert.assertEquals(recovered.get(0).sequence(), sequences[0]);
+        Assert.assertEquals(recovered.get(0).productCode(), "product");
+        Assert.assertEquals(recovered.get(0).usageRecord(), allocated);
+        Assert.assertTrue(reopened.takeRecoveredRecords().isEmpty());
+        Assert.assertEquals(reopened.takeAcknowledgedRecords().size(), 1);
+        reopened.close();
+    }
+
+    @Test
+    public void testRecoveryStopsAtATornWrite() throws Exception {
+        UsageSpool spool = openSpool();
+        List<UsageRecord> usageRecords = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            usageRecords.add(usageRecord("customer-" + i, "dimension", TIMESTAMP, i + 1));
+        }
+        spool.append("product", usageRecords).get(5, TimeUnit.SECONDS);
+        spool.close();
+
+        // corrupt the payload of the second entry, as if the process died while the page was written back
+        Path logFile = getLogFiles().get(0);
+        ByteBuffer log = ByteBuffer.wrap(Files.readAllBytes(logFile));
+        int firstEntryLength = log.getInt(0);
+        int secondEntry = ENTRY_HEADER_SIZE + firstEntryLength + Integer.BYTES;
+        int corruptedByte = secondEntry + ENTRY_HEADER_SIZE + 2;
+        log.put(corruptedByte, (byte) (log.get(corruptedByte) ^ 0x5A));
+        Files.write(logFile, log.array());
+
+        UsageSpool reopened = openSpool();
+        List<UsageSpool.SpooledRecord> recovered = reopened.takeRecoveredRecords();
+        Assert.assertEquals(recovered.size(), 1);
+        Assert.assertEquals(recovered.get(0).usageRecord(), usageRecords.get(0));
+
+        // the sequence numbers assigned after the recovery do not collide with the recovered ones
+        long[] sequences = reopened.append("product", List.of(usageRecords.get(1))).get(5, TimeUnit.SECONDS);
+        Assert.assertTrue(sequences[0] > recovered.get(0).sequence());
+        reopened.close();
+    }
+
+    @Test
+    public void testTruncatedEntryIsIgnored() throws Exception {
+        UsageSpool spool = openSpool();
+        spool.append("product", List.of(usageRecord("customer", "dimension", TIMESTAMP, 1)))
+                .get(5, TimeUnit.SECONDS);
+        spool.close();
+
+        // an entry whose length points past the end of the segment
+        Path logFile = getLogFiles().get(0);
+        ByteBuffer log = ByteBuffer.wrap(Files.readAllBytes(logFile));
+        int secondEntry = ENTRY_HEADER_SIZE + log.getInt(0) + Integer.BYTES;
+        log.putInt(secondEntry, log.capacity());
+        Files.write(logFile, log.array());
+
+        UsageSpool reopened = openSpool();
+        Assert.assertEquals(reopened.takeRecoveredRecords().size(), 1);
+        reopened.close();
+    }
+
+    @Test
+    public void testFullyAcknowledgedSegmentsAreDeleted() throws Exception {
+        UsageSpool spool = openSpool();
+        List<Long> sequences = new ArrayList<>();
+        for (int batch = 0; batch < 60; batch++) {
+            List<UsageRecord> usageRecords = new ArrayList<>();
+            for (int i = 0; i < 25; i++) {
+                usageRecords.add(usageRecord("customer-" + batch + "-" + i, "dimension", TIMESTAMP, 1));
+            }
+            for (long sequence : spool.append("product", usageRecords).get(5, TimeUnit.SECONDS)) {
+                sequences.add(sequence);
+            }
+        }
+        Assert.assertTrue(getLogFiles().size() > 1);
+        spool.acknowledge(sequences.stream().mapToLong(Long::longValue).toArray());
+        spool.close();
+
+        UsageSpool reopened = openSpool();
+        Assert.assertTrue(reopened.takeRecoveredRecords().isEmpty());
+        Assert.assertTrue(getLogFiles().isEmpty());
+        reopened.close();
+    }
+
+    @Test
+    public void testAppendFailsOnceClosed() throws Exception {
+        UsageSpool spool = openSpool();
+        spool.close();
+
+        ExecutionException failure = Assert.expectThrows(ExecutionException.class, () -> spool.append(
+                "product", List.of(usageRecord("customer", "dimension", TIMESTAMP, 1))).get(5, TimeUnit.SECONDS));
+        Assert.assertTrue(failure.getCause() instanceof MeteringException);
+    }
+
+    @Test
+    public void testRecordLargerThanTheSegmentIsRejected() throws Exception {
+        UsageSpool spool = openSpool();
+        UsageRecord oversized = usageRecord("x".repeat(ConnectionConfig.SpoolConfig.MIN_SEGMENT_SIZE / 2),
+                "y".repeat(ConnectionConfig.SpoolConfig.MIN_SEGMENT_SIZE / 2), TIMESTAMP, 1);
+
+        ExecutionException failure = Assert.expectThrows(ExecutionException.class,
+                () -> spool.append("product", List.of(oversized)).get(5, TimeUnit.SECONDS));
+        Assert.assertTrue(failure.getCause() instanceof IOException);
+        spool.close();
+    }
+
+    @Test
+    public void testAppendsAreMadeDurableOnTheThreadOfTheSpool() throws Exception {
+        UsageSpool spool = UsageSpool.open(new ConnectionConfig.SpoolConfig(
+                directory, ConnectionConfig.SpoolConfig.MIN_SEGMENT_SIZE, Duration.ofMillis(100)));
+        CompletableFuture<String> syncThread = spool.append(
+                "product", List.of(usageRecord("customer", "dimension", TIMESTAMP, 1)))
+                .thenApply(sequences -> Thread.currentThread().getName());
+
+        Assert.assertTrue(syncThread.get(5, TimeUnit.SECONDS).startsWith(AwsMpmThreadFactory.SPOOL_THREAD_PREFIX));
+        spool.close();
+    }
+
+    private UsageSpool openSpool() throws IOException {
+        return UsageSpool.open(new ConnectionConfig.SpoolConfig(
+                directory, ConnectionConfig.SpoolConfig.MIN_SEGMENT_SIZE, Duration.ofMillis(1)));
+    }
+
+    private List<Path> getLogFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".log")).sorted().toList();
+        }
+    }
+}